@@ -0,0 +1,322 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalEncoder;
+import openlr.binary.OpenLRBinaryEncoder;
+import openlr.encoder.LocationReferenceHolder;
+import openlr.encoder.OpenLREncoder;
+import openlr.encoder.OpenLREncoderParameter;
+import openlr.encoder.OpenLREncoderSession;
+import openlr.location.Location;
+import openlr.location.LocationFactory;
+import openlr.location.data.SideOfRoad;
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+import openlr.map.InvalidMapDataException;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The Class BenchmarkData creates random locations of each location type on a
+ * map and their location references. The same seed always creates the same
+ * locations on the same map.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class BenchmarkData {
+
+	/** The minimum number of lines of a line location. */
+	private static final int MIN_PATH_LENGTH = 2;
+
+	/** The maximum number of lines of a line location. */
+	private static final int MAX_PATH_LENGTH = 20;
+
+	/** The maximum number of lines of a closed line location. */
+	private static final int MAX_CYCLE_LENGTH = 8;
+
+	/** The half size of the area locations in degree. */
+	private static final double AREA_SIZE = 0.002;
+
+	/** The radius of the circle locations in meter. */
+	private static final long RADIUS = 300;
+
+	/** The number of columns and rows of the grid locations. */
+	private static final int GRID_CELLS = 3;
+
+	/** The number of attempts to create a location before giving up. */
+	private static final int MAX_ATTEMPTS = 100;
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private BenchmarkData() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Creates random locations of a location type.
+	 * 
+	 * @param map
+	 *            the map database
+	 * @param type
+	 *            the location type
+	 * @param count
+	 *            the number of locations
+	 * @param seed
+	 *            the seed of the random generator
+	 * @return the locations
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 */
+	public static List<Location> createLocations(final MapDatabase map,
+			final LocationType type, final int count, final long seed)
+			throws InvalidMapDataException {
+		List<Line> lines = new ArrayList<Line>();
+		Iterator<Line> iter = map.getAllLines();
+		while (iter.hasNext()) {
+			lines.add(iter.next());
+		}
+		Random random = new Random(seed);
+		List<Location> locations = new ArrayList<Location>(count);
+		int attempts = 0;
+		while (locations.size() < count && attempts < count * MAX_ATTEMPTS) {
+			attempts++;
+			Line line = lines.get(random.nextInt(lines.size()));
+			Location loc = createLocation(type, "B" + locations.size(), line,
+					random);
+			if (loc != null) {
+				locations.add(loc);
+			}
+		}
+		if (locations.isEmpty()) {
+			throw new IllegalStateException("no " + type
+					+ " locations found on the map");
+		}
+		return locations;
+	}
+
+	/**
+	 * Creates a location of a location type at a line.
+	 * 
+	 * @param type
+	 *            the location type
+	 * @param id
+	 *            the location ID
+	 * @param line
+	 *            the line
+	 * @param random
+	 *            the random generator
+	 * @return the location or null, if no location can be created at the line
+	 * @throws InvalidMapDataException
+	 *             if the location is invalid
+	 */
+	private static Location createLocation(final LocationType type,
+			final String id, final Line line, final Random random)
+			throws InvalidMapDataException {
+		Node node = line.getStartNode();
+		double lon = node.getLongitudeDeg();
+		double lat = node.getLatitudeDeg();
+		switch (type) {
+		case LINE_LOCATION:
+			List<Line> path = createPath(line, random);
+			if (path.size() < MIN_PATH_LENGTH) {
+				return null;
+			}
+			int pOff = random.nextInt(Math.max(1, path.get(0).getLineLength()));
+			int nOff = random.nextInt(Math.max(1, path.get(path.size() - 1)
+					.getLineLength()));
+			return LocationFactory.createLineLocationWithOffsets(id, path,
+					pOff, nOff);
+		case POINT_ALONG_LINE:
+			return LocationFactory.createPointAlongLineLocationWithSide(id,
+					line, random.nextInt(Math.max(1, line.getLineLength())),
+					SideOfRoad.RIGHT);
+		case POI_WITH_ACCESS_POINT:
+			return LocationFactory.createPoiAccessLocationWithSide(id, line,
+					random.nextInt(Math.max(1, line.getLineLength())), lon
+							+ AREA_SIZE / 2, lat + AREA_SIZE / 2,
+					SideOfRoad.LEFT);
+		case GEO_COORDINATES:
+			return LocationFactory.createGeoCoordinateLocation(id, lon, lat);
+		case CIRCLE:
+			return LocationFactory.createCircleLocation(id, lon, lat, RADIUS);
+		case RECTANGLE:
+			return LocationFactory.createRectangleLocation(id,
+					lon - AREA_SIZE, lat - AREA_SIZE, lon + AREA_SIZE, lat
+							+ AREA_SIZE);
+		case GRID:
+			return LocationFactory.createGridLocationFromBasisCell(id, lon,
+					lat, lon + AREA_SIZE, lat + AREA_SIZE, GRID_CELLS,
+					GRID_CELLS);
+		case POLYGON:
+			List<GeoCoordinates> corners = new ArrayList<GeoCoordinates>();
+			corners.add(new GeoCoordinatesImpl(lon - AREA_SIZE, lat
+					- AREA_SIZE));
+			corners.add(new GeoCoordinatesImpl(lon + AREA_SIZE, lat
+					- AREA_SIZE));
+			corners.add(new GeoCoordinatesImpl(lon + AREA_SIZE * 2, lat));
+			corners.add(new GeoCoordinatesImpl(lon + AREA_SIZE, lat
+					+ AREA_SIZE));
+			corners.add(new GeoCoordinatesImpl(lon - AREA_SIZE, lat
+					+ AREA_SIZE));
+			return LocationFactory.createPolygonLocation(id, corners);
+		case CLOSED_LINE:
+			List<Line> cycle = new ArrayList<Line>();
+			cycle.add(line);
+			if (!findCycle(cycle, node)) {
+				return null;
+			}
+			return LocationFactory.createClosedLineLocation(id, cycle);
+		default:
+			throw new IllegalArgumentException("unsupported location type "
+					+ type);
+		}
+	}
+
+	/**
+	 * Creates a random path without u-turns and repeated lines.
+	 * 
+	 * @param start
+	 *            the first line
+	 * @param random
+	 *            the random generator
+	 * @return the path
+	 */
+	private static List<Line> createPath(final Line start, final Random random) {
+		int length = MIN_PATH_LENGTH
+				+ random.nextInt(MAX_PATH_LENGTH - MIN_PATH_LENGTH + 1);
+		List<Line> path = new ArrayList<Line>(length);
+		Set<Long> used = new HashSet<Long>();
+		Line line = start;
+		while (line != null && path.size() < length && used.add(line.getID())) {
+			path.add(line);
+			List<Line> next = new ArrayList<Line>();
+			Iterator<Line> iter = line.getNextLines();
+			while (iter.hasNext()) {
+				Line l = iter.next();
+				if (l.getEndNode().getID() != line.getStartNode().getID()) {
+					next.add(l);
+				}
+			}
+			if (next.isEmpty()) {
+				line = null;
+			} else {
+				line = next.get(random.nextInt(next.size()));
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Extends a path by a depth-first search until it ends at the target node.
+	 * 
+	 * @param path
+	 *            the path, extended in place
+	 * @param target
+	 *            the node the path shall end at
+	 * @return true, if a cycle has been found
+	 */
+	private static boolean findCycle(final List<Line> path, final Node target) {
+		Line last = path.get(path.size() - 1);
+		if (last.getEndNode().getID() == target.getID()) {
+			return path.size() > 2;
+		}
+		if (path.size() >= MAX_CYCLE_LENGTH) {
+			return false;
+		}
+		Iterator<Line> iter = last.getNextLines();
+		while (iter.hasNext()) {
+			Line next = iter.next();
+			if (next.getEndNode().getID() == last.getStartNode().getID()
+					|| path.contains(next)) {
+				continue;
+			}
+			path.add(next);
+			if (findCycle(path, target)) {
+				return true;
+			}
+			path.remove(path.size() - 1);
+		}
+		return false;
+	}
+
+	/**
+	 * Encodes locations and returns the raw location references of the valid
+	 * results.
+	 * 
+	 * @param map
+	 *            the map database
+	 * @param locations
+	 *            the locations
+	 * @return the raw location references
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 */
+	public static List<RawLocationReference> encode(final MapDatabase map,
+			final List<Location> locations) throws OpenLRProcessingException {
+		OpenLREncoderParameter parameter = new OpenLREncoderParameter.Builder()
+				.with(map)
+				.with(Arrays.<PhysicalEncoder> asList(new OpenLRBinaryEncoder()))
+				.buildParameter();
+		OpenLREncoderSession session = new OpenLREncoder()
+				.createSession(parameter);
+		List<RawLocationReference> refs = new ArrayList<RawLocationReference>(
+				locations.size());
+		for (Location loc : locations) {
+			LocationReferenceHolder holder = session.encodeLocation(loc);
+			if (holder.isValid()) {
+				refs.add(holder.getRawLocationReferenceData());
+			}
+		}
+		if (refs.isEmpty()) {
+			throw new IllegalStateException("no location could be encoded");
+		}
+		return refs;
+	}
+}
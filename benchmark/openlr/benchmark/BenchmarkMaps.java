@@ -0,0 +1,99 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import openlr.map.MapDatabase;
+import openlr.map.memory.CompactMapDatabase;
+import openlr.map.sqlite.impl.MapDatabaseImpl;
+
+/**
+ * The Class BenchmarkMaps provides the map databases used by the benchmarks.
+ * If the system property {@link #MAP_PROPERTY} is set, all benchmarks use the
+ * SQLite map it names. Otherwise a synthetic grid map of the requested size is
+ * generated directly into a {@link CompactMapDatabase}. The maps are
+ * created once per JVM and shared by all benchmarks.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class BenchmarkMaps {
+
+	/** The system property naming a SQLite map file. */
+	public static final String MAP_PROPERTY = "openlr.benchmark.map";
+
+	/** The seed of the synthetic maps. */
+	private static final long SEED = 4711L;
+
+	/** The synthetic maps by grid size. */
+	private static final Map<Integer, MapDatabase> GRID_MAPS = new HashMap<Integer, MapDatabase>();
+
+	/** The SQLite map, if configured. */
+	private static MapDatabase sqliteMap;
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private BenchmarkMaps() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets the map database for a benchmark.
+	 * 
+	 * @param gridSize
+	 *            the number of nodes per row and column of the synthetic map,
+	 *            ignored if a SQLite map is configured
+	 * @return the map database
+	 */
+	public static synchronized MapDatabase getMap(final int gridSize) {
+		String file = System.getProperty(MAP_PROPERTY);
+		if (file != null && file.length() > 0) {
+			if (sqliteMap == null) {
+				sqliteMap = new MapDatabaseImpl(file, Runtime.getRuntime()
+						.availableProcessors());
+			}
+			return sqliteMap;
+		}
+		MapDatabase map = GRID_MAPS.get(gridSize);
+		if (map == null) {
+			map = GridMapGenerator.generate(gridSize, SEED);
+			GRID_MAPS.put(gridSize, map);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import openlr.LocationReference;
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalFormatException;
+import openlr.binary.OpenLRBinaryDecoder;
+import openlr.binary.OpenLRBinaryEncoder;
+import openlr.map.InvalidMapDataException;
+import openlr.map.MapDatabase;
+import openlr.rawLocRef.RawLocationReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class BinaryCodecBenchmark measures the binary physical format, i.e.
+ * {@link OpenLRBinaryEncoder#encodeData(RawLocationReference)} and
+ * {@link OpenLRBinaryDecoder#decodeData(LocationReference)}, for each location
+ * type. Decoding into a reused line location reference is measured by
+ * {@link BinaryLineFlyweightBenchmark}.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BinaryCodecBenchmark {
+
+	/** The number of location references. */
+	private static final int NR_LOCATIONS = 256;
+
+	/** The location type. */
+	@Param({"LINE_LOCATION", "POINT_ALONG_LINE", "POI_WITH_ACCESS_POINT",
+			"GEO_COORDINATES", "CIRCLE", "RECTANGLE", "GRID", "POLYGON",
+			"CLOSED_LINE" })
+	private String locationType;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The binary encoder. */
+	private final OpenLRBinaryEncoder encoder = new OpenLRBinaryEncoder();
+
+	/** The binary decoder. */
+	private final OpenLRBinaryDecoder decoder = new OpenLRBinaryDecoder();
+
+	/** The raw location references. */
+	private List<RawLocationReference> rawRefs;
+
+	/** The binary location references. */
+	private List<LocationReference> binaryRefs;
+
+	/** The index of the next location reference. */
+	private int index;
+
+	/**
+	 * Creates the location references.
+	 * 
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 */
+	@Setup
+	public final void setup() throws OpenLRProcessingException,
+			InvalidMapDataException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		rawRefs = BenchmarkData.encode(map, BenchmarkData.createLocations(
+				map, LocationType.valueOf(locationType), NR_LOCATIONS, 1));
+		binaryRefs = new ArrayList<LocationReference>(rawRefs.size());
+		for (RawLocationReference raw : rawRefs) {
+			binaryRefs.add(encoder.encodeData(raw));
+		}
+	}
+
+	/**
+	 * Gets the index of the next location reference.
+	 * 
+	 * @return the index
+	 */
+	private int next() {
+		index++;
+		if (index >= rawRefs.size()) {
+			index = 0;
+		}
+		return index;
+	}
+
+	/**
+	 * Measures the binary encoding.
+	 * 
+	 * @return the binary location reference
+	 */
+	@Benchmark
+	public final LocationReference encode() {
+		return encoder.encodeData(rawRefs.get(next()));
+	}
+
+	/**
+	 * Measures the binary decoding.
+	 * 
+	 * @return the raw location reference
+	 * @throws PhysicalFormatException
+	 *             if the data is invalid
+	 */
+	@Benchmark
+	public final RawLocationReference decode() throws PhysicalFormatException {
+		return decoder.decodeData(binaryRefs.get(next()));
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalFormatException;
+import openlr.binary.ByteArray;
+import openlr.binary.OpenLRBinaryEncoder;
+import openlr.binary.flyweight.BinaryLineLocRef;
+import openlr.map.InvalidMapDataException;
+import openlr.map.MapDatabase;
+import openlr.rawLocRef.RawLocationReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class BinaryLineFlyweightBenchmark measures the decoding of binary line
+ * location references into a reused {@link BinaryLineLocRef}. The flyweight
+ * only supports line locations, so no other location type is measured.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BinaryLineFlyweightBenchmark {
+
+	/** The number of location references. */
+	private static final int NR_LOCATIONS = 256;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The data of the binary line location references. */
+	private List<byte[]> binaryData;
+
+	/** The reused line location reference. */
+	private final BinaryLineLocRef lineLocRef = new BinaryLineLocRef();
+
+	/** The index of the next location reference. */
+	private int index;
+
+	/**
+	 * Creates the binary line location references.
+	 * 
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 */
+	@Setup
+	public final void setup() throws OpenLRProcessingException,
+			InvalidMapDataException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		List<RawLocationReference> rawRefs = BenchmarkData.encode(map,
+				BenchmarkData.createLocations(map,
+						LocationType.LINE_LOCATION, NR_LOCATIONS, 1));
+		OpenLRBinaryEncoder encoder = new OpenLRBinaryEncoder();
+		binaryData = new ArrayList<byte[]>(rawRefs.size());
+		for (RawLocationReference raw : rawRefs) {
+			binaryData.add(((ByteArray) encoder.encodeData(raw)
+					.getLocationReferenceData()).getData());
+		}
+	}
+
+	/**
+	 * Measures the binary decoding into the reused line location reference.
+	 * 
+	 * @return the number of location reference points
+	 * @throws PhysicalFormatException
+	 *             if the data is invalid
+	 */
+	@Benchmark
+	public final int decodeLineFlyweight() throws PhysicalFormatException {
+		index++;
+		if (index >= binaryData.size()) {
+			index = 0;
+		}
+		byte[] data = binaryData.get(index);
+		lineLocRef.decode(data, 0, data.length);
+		return lineLocRef.getNumberOfPoints();
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalDecoder;
+import openlr.binary.OpenLRBinaryDecoder;
+import openlr.decoder.OpenLRDecoder;
+import openlr.decoder.OpenLRDecoderParameter;
+import openlr.decoder.OpenLRDecoderSession;
+import openlr.decoder.properties.OpenLRDecoderProperty;
+import openlr.location.Location;
+import openlr.map.InvalidMapDataException;
+import openlr.map.MapDatabase;
+import openlr.rawLocRef.RawLocationReference;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class DecoderBenchmark measures
+ * {@link OpenLRDecoder#decodeRaw(OpenLRDecoderParameter, RawLocationReference)}
+ * and the same decoding with a {@link OpenLRDecoderSession} for line, point
+ * and area location references. The affected lines of area locations are
+ * calculated, no location database is used.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DecoderBenchmark {
+
+	/** The number of location references. */
+	private static final int NR_LOCATIONS = 256;
+
+	/** The location type. */
+	@Param({"LINE_LOCATION", "POINT_ALONG_LINE", "POI_WITH_ACCESS_POINT",
+			"CIRCLE", "RECTANGLE", "GRID", "POLYGON", "CLOSED_LINE" })
+	private String locationType;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The decoder. */
+	private final OpenLRDecoder decoder = new OpenLRDecoder();
+
+	/** The decoder parameter. */
+	private OpenLRDecoderParameter parameter;
+
+	/** The decoder session. */
+	private OpenLRDecoderSession session;
+
+	/** The raw location references. */
+	private List<RawLocationReference> rawRefs;
+
+	/** The index of the next location reference. */
+	private int index;
+
+	/**
+	 * Creates the location references and the decoder parameter.
+	 * 
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 */
+	@Setup
+	public final void setup() throws OpenLRProcessingException,
+			InvalidMapDataException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		rawRefs = BenchmarkData.encode(map, BenchmarkData.createLocations(
+				map, LocationType.valueOf(locationType), NR_LOCATIONS, 2));
+		BaseConfiguration config = new BaseConfiguration();
+		config.setProperty(OpenLRDecoderProperty.CALC_AFFECTED_LINES.getKey(),
+				Boolean.TRUE);
+		parameter = new OpenLRDecoderParameter.Builder()
+				.with(map)
+				.with(config)
+				.with(Arrays.<PhysicalDecoder> asList(new OpenLRBinaryDecoder()))
+				.buildParameter();
+		session = decoder.createSession(parameter);
+	}
+
+	/**
+	 * Gets the next location reference.
+	 * 
+	 * @return the raw location reference
+	 */
+	private RawLocationReference next() {
+		index++;
+		if (index >= rawRefs.size()) {
+			index = 0;
+		}
+		return rawRefs.get(index);
+	}
+
+	/**
+	 * Measures the decoding with the decoder.
+	 * 
+	 * @return the location
+	 * @throws OpenLRProcessingException
+	 *             if the decoding fails
+	 */
+	@Benchmark
+	public final Location decodeRaw() throws OpenLRProcessingException {
+		return decoder.decodeRaw(parameter, next());
+	}
+
+	/**
+	 * Measures the decoding with a decoder session.
+	 * 
+	 * @return the location
+	 * @throws OpenLRProcessingException
+	 *             if the decoding fails
+	 */
+	@Benchmark
+	public final Location decodeRawSession() throws OpenLRProcessingException {
+		return session.decodeRaw(next());
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalEncoder;
+import openlr.binary.OpenLRBinaryEncoder;
+import openlr.encoder.LocationReferenceHolder;
+import openlr.encoder.OpenLREncoder;
+import openlr.encoder.OpenLREncoderParameter;
+import openlr.encoder.OpenLREncoderSession;
+import openlr.location.Location;
+import openlr.map.InvalidMapDataException;
+import openlr.map.MapDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class EncoderBenchmark measures
+ * {@link OpenLREncoder#encodeLocation(OpenLREncoderParameter, Location)} and
+ * the same encoding with a {@link OpenLREncoderSession} including the binary
+ * physical encoding. No location reference database is used.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EncoderBenchmark {
+
+	/** The number of locations. */
+	private static final int NR_LOCATIONS = 256;
+
+	/** The location type. */
+	@Param({"LINE_LOCATION", "POINT_ALONG_LINE", "POI_WITH_ACCESS_POINT",
+			"CLOSED_LINE" })
+	private String locationType;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The encoder. */
+	private final OpenLREncoder encoder = new OpenLREncoder();
+
+	/** The encoder parameter. */
+	private OpenLREncoderParameter parameter;
+
+	/** The encoder session. */
+	private OpenLREncoderSession session;
+
+	/** The locations. */
+	private List<Location> locations;
+
+	/** The index of the next location. */
+	private int index;
+
+	/**
+	 * Creates the locations and the encoder parameter.
+	 * 
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 * @throws OpenLRProcessingException
+	 *             if the physical encoders cannot be resolved
+	 */
+	@Setup
+	public final void setup() throws InvalidMapDataException,
+			OpenLRProcessingException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		locations = BenchmarkData.createLocations(map,
+				LocationType.valueOf(locationType), NR_LOCATIONS, 3);
+		parameter = new OpenLREncoderParameter.Builder()
+				.with(map)
+				.with(Arrays.<PhysicalEncoder> asList(new OpenLRBinaryEncoder()))
+				.buildParameter();
+		session = encoder.createSession(parameter);
+	}
+
+	/**
+	 * Gets the next location.
+	 * 
+	 * @return the location
+	 */
+	private Location next() {
+		index++;
+		if (index >= locations.size()) {
+			index = 0;
+		}
+		return locations.get(index);
+	}
+
+	/**
+	 * Measures the encoding with the encoder.
+	 * 
+	 * @return the location reference holder
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 */
+	@Benchmark
+	public final LocationReferenceHolder encodeLocation()
+			throws OpenLRProcessingException {
+		return encoder.encodeLocation(parameter, next());
+	}
+
+	/**
+	 * Measures the encoding with an encoder session.
+	 * 
+	 * @return the location reference holder
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 */
+	@Benchmark
+	public final LocationReferenceHolder encodeLocationSession()
+			throws OpenLRProcessingException {
+		return session.encodeLocation(next());
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import openlr.map.utils.GeometryUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class GeometryBenchmark measures the distance and bearing functions of
+ * {@link GeometryUtils} on random coordinate pairs up to 25 km apart.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GeometryBenchmark {
+
+	/** The number of coordinate pairs, a power of two. */
+	private static final int NR_PAIRS = 1024;
+
+	/** The maximum coordinate difference of a pair in degree. */
+	private static final double MAX_DELTA = 0.2;
+
+	/** The coordinates, four values per pair. */
+	private double[] coords;
+
+	/** The index of the next pair. */
+	private int index;
+
+	/**
+	 * Creates the coordinate pairs.
+	 */
+	@Setup
+	public final void setup() {
+		Random random = new Random(1);
+		coords = new double[NR_PAIRS * 4];
+		for (int i = 0; i < NR_PAIRS; i++) {
+			double lon = random.nextDouble() * 20 - 10;
+			double lat = random.nextDouble() * 120 - 60;
+			coords[i * 4] = lon;
+			coords[i * 4 + 1] = lat;
+			coords[i * 4 + 2] = lon + (random.nextDouble() - 0.5) * MAX_DELTA;
+			coords[i * 4 + 3] = lat + (random.nextDouble() - 0.5) * MAX_DELTA;
+		}
+	}
+
+	/**
+	 * Gets the offset of the next pair.
+	 * 
+	 * @return the offset into the coordinates
+	 */
+	private int next() {
+		index = (index + 1) & (NR_PAIRS - 1);
+		return index * 4;
+	}
+
+	/**
+	 * Measures the exact distance.
+	 * 
+	 * @return the distance
+	 */
+	@Benchmark
+	public final double distance() {
+		int i = next();
+		return GeometryUtils.distance(coords[i], coords[i + 1],
+				coords[i + 2], coords[i + 3]);
+	}
+
+	/**
+	 * Measures the approximate distance.
+	 * 
+	 * @return the distance
+	 */
+	@Benchmark
+	public final double approximateDistance() {
+		int i = next();
+		return GeometryUtils.distance(coords[i], coords[i + 1],
+				coords[i + 2], coords[i + 3], true);
+	}
+
+	/**
+	 * Measures the bearing.
+	 * 
+	 * @return the bearing
+	 */
+	@Benchmark
+	public final double bearing() {
+		int i = next();
+		return GeometryUtils.bearing(coords[i], coords[i + 1], coords[i + 2],
+				coords[i + 3]);
+	}
+}
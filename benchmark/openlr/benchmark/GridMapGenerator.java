@@ -0,0 +1,186 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+import openlr.map.memory.CompactMapDatabase;
+import openlr.map.utils.GeometryUtils;
+
+/**
+ * The Class GridMapGenerator generates a synthetic road network. The nodes
+ * form a regular grid with some random displacement, neighbouring nodes are
+ * connected by a line in each direction with one intermediate shape point.
+ * <p>
+ * The network is filled directly into a
+ * {@link CompactMapDatabase.Builder}, the resulting map is
+ * used by the benchmarks.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class GridMapGenerator {
+
+	/** The longitude of the lower left grid node. */
+	private static final double MIN_LON = 5.0;
+
+	/** The latitude of the lower left grid node. */
+	private static final double MIN_LAT = 50.0;
+
+	/** The distance between neighbouring grid nodes in degree. */
+	private static final double STEP = 0.003;
+
+	/** The maximum displacement of the shape points in degree. */
+	private static final double SHAPE_DISPLACEMENT = 0.0005;
+
+	/** The functional road class values. */
+	private static final FunctionalRoadClass[] FRC_VALUES = FunctionalRoadClass
+			.values();
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private GridMapGenerator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Generates a grid network.
+	 * 
+	 * @param size
+	 *            the number of nodes per row and column
+	 * @param seed
+	 *            the seed of the random displacements and road classes
+	 * @return the map holding the grid network
+	 */
+	static CompactMapDatabase generate(final int size, final long seed) {
+		Random random = new Random(seed);
+		CompactMapDatabase.Builder builder = new CompactMapDatabase.Builder();
+		int nrNodes = size * size;
+		double[] lon = new double[nrNodes];
+		double[] lat = new double[nrNodes];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int index = row * size + col;
+				lon[index] = MIN_LON + col * STEP + random.nextDouble() * STEP
+						* 0.2;
+				lat[index] = MIN_LAT + row * STEP + random.nextDouble() * STEP
+						* 0.2;
+				builder.addNode(index + 1, lon[index], lat[index]);
+			}
+		}
+		long lineId = 1;
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int index = row * size + col;
+				if (col + 1 < size) {
+					addLines(builder, lineId, index, index + 1, lon, lat,
+							random);
+					lineId += 2;
+				}
+				if (row + 1 < size) {
+					addLines(builder, lineId, index, index + size, lon, lat,
+							random);
+					lineId += 2;
+				}
+			}
+		}
+		builder.withName("grid map (" + nrNodes + " nodes, " + (lineId - 1)
+				+ " lines)");
+		return builder.buildMap();
+	}
+
+	/**
+	 * Adds a line in each direction between two nodes.
+	 * 
+	 * @param builder
+	 *            the map builder
+	 * @param id
+	 *            the ID of the first line, the second line gets the next ID
+	 * @param from
+	 *            the grid index of the first node
+	 * @param to
+	 *            the grid index of the second node
+	 * @param lon
+	 *            the node longitudes by grid index
+	 * @param lat
+	 *            the node latitudes by grid index
+	 * @param random
+	 *            the random generator
+	 */
+	private static void addLines(final CompactMapDatabase.Builder builder,
+			final long id, final int from, final int to, final double[] lon,
+			final double[] lat, final Random random) {
+		List<GeoCoordinates> shape = new ArrayList<GeoCoordinates>(3);
+		shape.add(GeoCoordinatesImpl.newGeoCoordinatesUnchecked(lon[from],
+				lat[from]));
+		shape.add(GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+				(lon[from] + lon[to]) / 2 + (random.nextDouble() - 0.5)
+						* SHAPE_DISPLACEMENT, (lat[from] + lat[to]) / 2
+						+ (random.nextDouble() - 0.5) * SHAPE_DISPLACEMENT));
+		shape.add(GeoCoordinatesImpl.newGeoCoordinatesUnchecked(lon[to],
+				lat[to]));
+		List<GeoCoordinates> reverse = new ArrayList<GeoCoordinates>(shape);
+		Collections.reverse(reverse);
+		FunctionalRoadClass frc = FRC_VALUES[random.nextInt(FRC_VALUES.length)];
+		int length = length(shape);
+		builder.addLine(id, from + 1, to + 1, frc,
+				FormOfWay.SINGLE_CARRIAGEWAY, length, shape);
+		builder.addLine(id + 1, to + 1, from + 1, frc,
+				FormOfWay.SINGLE_CARRIAGEWAY, length, reverse);
+	}
+
+	/**
+	 * Calculates the length of a shape.
+	 * 
+	 * @param shape
+	 *            the shape points
+	 * @return the length in meter
+	 */
+	private static int length(final List<GeoCoordinates> shape) {
+		double len = 0;
+		for (int i = 1; i < shape.size(); i++) {
+			len += GeometryUtils.distance(shape.get(i - 1), shape.get(i));
+		}
+		return (int) Math.round(len);
+	}
+}
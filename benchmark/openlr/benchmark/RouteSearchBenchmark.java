@@ -0,0 +1,147 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import openlr.LocationType;
+import openlr.decoder.routesearch.RouteSearch;
+import openlr.decoder.routesearch.RouteSearch.RouteSearchResult;
+import openlr.location.Location;
+import openlr.map.InvalidMapDataException;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class RouteSearchBenchmark measures the decoder route search between
+ * the first and the last line of random line locations. The maximum distance
+ * is twice the length of the location, similar to the distance limit of the
+ * decoder.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RouteSearchBenchmark {
+
+	/** The number of line pairs. */
+	private static final int NR_PAIRS = 256;
+
+	/** The lowest functional road class used in the search. */
+	private static final int LOWEST_FRC = 7;
+
+	/** Whether the bidirectional search is used. */
+	@Param({"false", "true" })
+	private boolean bidirectional;
+
+	/** Whether the heuristic uses the approximate distance. */
+	@Param({"false", "true" })
+	private boolean approximateDistance;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The start lines. */
+	private final List<Line> startLines = new ArrayList<Line>();
+
+	/** The destination lines. */
+	private final List<Line> destLines = new ArrayList<Line>();
+
+	/** The maximum distances. */
+	private final List<Integer> maxDistances = new ArrayList<Integer>();
+
+	/** The index of the next line pair. */
+	private int index;
+
+	/**
+	 * Creates the line pairs.
+	 * 
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 */
+	@Setup
+	public final void setup() throws InvalidMapDataException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		for (Location loc : BenchmarkData.createLocations(map,
+				LocationType.LINE_LOCATION, NR_PAIRS, 4)) {
+			List<Line> lines = loc.getLocationLines();
+			int length = 0;
+			for (Line l : lines) {
+				length += l.getLineLength();
+			}
+			startLines.add(lines.get(0));
+			destLines.add(lines.get(lines.size() - 1));
+			maxDistances.add(2 * length);
+		}
+	}
+
+	/**
+	 * Measures the route calculation.
+	 * 
+	 * @return the route search result
+	 */
+	@Benchmark
+	public final RouteSearchResult calculateRoute() {
+		index++;
+		if (index >= startLines.size()) {
+			index = 0;
+		}
+		RouteSearch search = new RouteSearch(bidirectional,
+				approximateDistance);
+		return search.calculateRoute(startLines.get(index),
+				destLines.get(index), maxDistances.get(index), LOWEST_FRC,
+				true);
+	}
+}
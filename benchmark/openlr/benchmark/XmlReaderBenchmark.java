@@ -0,0 +1,164 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+import openlr.LocationReference;
+import openlr.LocationType;
+import openlr.OpenLRProcessingException;
+import openlr.map.InvalidMapDataException;
+import openlr.map.MapDatabase;
+import openlr.rawLocRef.RawLocationReference;
+import openlr.xml.OpenLRXMLEncoder;
+import openlr.xml.OpenLRXMLException;
+import openlr.xml.OpenLRXmlReader;
+import openlr.xml.OpenLRXmlWriter;
+import openlr.xml.generated.OpenLR;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * The Class XmlReaderBenchmark measures the parsing of OpenLR XML documents
+ * with {@link OpenLRXmlReader}, with and without schema validation.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class XmlReaderBenchmark {
+
+	/** The number of documents. */
+	private static final int NR_DOCUMENTS = 128;
+
+	/** The location type. */
+	@Param({"LINE_LOCATION", "POINT_ALONG_LINE", "RECTANGLE", "POLYGON" })
+	private String locationType;
+
+	/** Whether the documents are validated against the schema. */
+	@Param({"false", "true" })
+	private boolean validate;
+
+	/** The number of nodes per row and column of the synthetic map. */
+	@Param({"100" })
+	private int gridSize;
+
+	/** The XML reader. */
+	private OpenLRXmlReader reader;
+
+	/** The XML documents. */
+	private List<byte[]> documents;
+
+	/** The index of the next document. */
+	private int index;
+
+	/**
+	 * Creates the XML documents.
+	 * 
+	 * @throws OpenLRProcessingException
+	 *             if the encoding fails
+	 * @throws InvalidMapDataException
+	 *             if a location cannot be created
+	 * @throws JAXBException
+	 *             if the document cannot be written
+	 * @throws SAXException
+	 *             if the schema cannot be read
+	 * @throws IOException
+	 *             if the schema cannot be loaded
+	 * @throws OpenLRXMLException
+	 *             if the reader cannot be created
+	 */
+	@Setup
+	public final void setup() throws OpenLRProcessingException,
+			InvalidMapDataException, JAXBException, SAXException, IOException,
+			OpenLRXMLException {
+		MapDatabase map = BenchmarkMaps.getMap(gridSize);
+		OpenLRXMLEncoder encoder = new OpenLRXMLEncoder();
+		OpenLRXmlWriter writer = new OpenLRXmlWriter();
+		documents = new ArrayList<byte[]>();
+		for (RawLocationReference raw : BenchmarkData.encode(map,
+				BenchmarkData.createLocations(map,
+						LocationType.valueOf(locationType), NR_DOCUMENTS, 5))) {
+			LocationReference ref = encoder.encodeData(raw);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writer.saveOpenLRXML((OpenLR) ref.getLocationReferenceData(), out,
+					false);
+			documents.add(out.toByteArray());
+		}
+		reader = new OpenLRXmlReader();
+	}
+
+	/**
+	 * Measures the parsing of a document.
+	 * 
+	 * @return the parsed document
+	 * @throws JAXBException
+	 *             if the document cannot be parsed
+	 * @throws SAXException
+	 *             if the document is invalid
+	 */
+	@Benchmark
+	public final OpenLR read() throws JAXBException, SAXException {
+		index++;
+		if (index >= documents.size()) {
+			index = 0;
+		}
+		return reader.readOpenLRXML(
+				new ByteArrayInputStream(documents.get(index)), validate);
+	}
+}
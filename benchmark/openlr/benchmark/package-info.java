@@ -0,0 +1,43 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+/**
+* This package contains JMH benchmarks of the decoder, the encoder, the route
+* search, the geometry functions and the binary and XML physical formats. The
+* benchmarks run on synthetic grid maps or, if the system property
+* "openlr.benchmark.map" names a SQLite map file, on that map. The class
+* BenchmarkRunner starts all benchmarks with throughput and latency
+* measurements and the GC profiler.
+* 
+* email: software@openlr.org
+* 
+* @author TomTom International B.V.
+*/
+package openlr.benchmark;
@@ -0,0 +1,357 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The class Base64Codec encodes and decodes Base64 data (RFC 4648) in bulk
+ * without intermediate objects. The encoding methods write into caller
+ * supplied buffers, the decoding methods read from strings, character
+ * sequences or byte buffers and write into caller supplied arrays.
+ * 
+ * Decoding accepts the standard and the URL-safe alphabet. In lenient mode
+ * characters outside the alphabet are skipped like in the commons-codec
+ * Base64 implementation, in strict mode only whitespace is skipped and any
+ * other invalid character fails the decoding. A padding character ends the
+ * data in both modes.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class Base64Codec {
+
+	/** The characters of the standard alphabet. */
+	private static final String STANDARD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+			+ "abcdefghijklmnopqrstuvwxyz0123456789+/";
+
+	/** The characters of the URL-safe alphabet. */
+	private static final String URL_SAFE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+			+ "abcdefghijklmnopqrstuvwxyz0123456789-_";
+
+	/** The standard alphabet. */
+	private static final byte[] STANDARD_ALPHABET = STANDARD_CHARS
+			.getBytes(Charset.forName("US-ASCII"));
+
+	/** The URL-safe alphabet. */
+	private static final byte[] URL_SAFE_ALPHABET = URL_SAFE_CHARS
+			.getBytes(Charset.forName("US-ASCII"));
+
+	/** The padding character. */
+	private static final byte PAD = '=';
+
+	/** The value marking an invalid character. */
+	private static final byte INVALID = -1;
+
+	/** The value marking a whitespace character. */
+	private static final byte WHITESPACE = -2;
+
+	/** The number of bits of a Base64 character. */
+	private static final int BASE64_BITS = 6;
+
+	/** The number of bits of a byte. */
+	private static final int BYTE_BITS = 8;
+
+	/** The number of bytes of a group. */
+	private static final int GROUP_BYTES = 3;
+
+	/** The number of characters of a group. */
+	private static final int GROUP_CHARS = 4;
+
+	/** The mask of a Base64 character value. */
+	private static final int CHAR_MASK = 0x3f;
+
+	/** The mask of an unsigned byte. */
+	private static final int BYTE_MASK = 0xff;
+
+	/** The values of the characters of both alphabets. */
+	private static final byte[] VALUES = new byte[BYTE_MASK + 1];
+
+	static {
+		Arrays.fill(VALUES, INVALID);
+		VALUES[' '] = WHITESPACE;
+		VALUES['\t'] = WHITESPACE;
+		VALUES['\r'] = WHITESPACE;
+		VALUES['\n'] = WHITESPACE;
+		for (int i = 0; i < STANDARD_ALPHABET.length; i++) {
+			VALUES[STANDARD_ALPHABET[i]] = (byte) i;
+			VALUES[URL_SAFE_ALPHABET[i]] = (byte) i;
+		}
+	}
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private Base64Codec() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Calculates the number of characters of the encoded data.
+	 * 
+	 * @param length
+	 *            the number of bytes to encode
+	 * @param urlSafe
+	 *            true for the URL-safe encoding without padding
+	 * @return the number of characters
+	 */
+	public static int encodedLength(final int length, final boolean urlSafe) {
+		if (urlSafe) {
+			return (length * GROUP_CHARS + GROUP_BYTES - 1) / GROUP_BYTES;
+		}
+		return (length + GROUP_BYTES - 1) / GROUP_BYTES * GROUP_CHARS;
+	}
+
+	/**
+	 * Calculates the maximum number of bytes decoded from a number of
+	 * characters.
+	 * 
+	 * @param nrChars
+	 *            the number of characters
+	 * @return the maximum number of decoded bytes
+	 */
+	public static int maxDecodedLength(final int nrChars) {
+		return (int) ((long) nrChars * BASE64_BITS / BYTE_BITS);
+	}
+
+	/**
+	 * Encodes bytes into Base64 characters written as ASCII bytes into the
+	 * destination array. The standard encoding is padded, the URL-safe
+	 * encoding is not padded.
+	 * 
+	 * @param src
+	 *            the data to encode
+	 * @param offset
+	 *            the index of the first byte to encode
+	 * @param length
+	 *            the number of bytes to encode
+	 * @param dst
+	 *            the destination array
+	 * @param dstOffset
+	 *            the index of the first character in the destination array
+	 * @param urlSafe
+	 *            true for the URL-safe encoding
+	 * @return the number of characters written
+	 */
+	public static int encode(final byte[] src, final int offset,
+			final int length, final byte[] dst, final int dstOffset,
+			final boolean urlSafe) {
+		byte[] alphabet = STANDARD_ALPHABET;
+		if (urlSafe) {
+			alphabet = URL_SAFE_ALPHABET;
+		}
+		int in = offset;
+		int out = dstOffset;
+		int fullGroupsEnd = offset + length / GROUP_BYTES * GROUP_BYTES;
+		while (in < fullGroupsEnd) {
+			int bits = (src[in] & BYTE_MASK) << (2 * BYTE_BITS)
+					| (src[in + 1] & BYTE_MASK) << BYTE_BITS
+					| (src[in + 2] & BYTE_MASK);
+			dst[out] = alphabet[bits >>> (3 * BASE64_BITS)];
+			dst[out + 1] = alphabet[(bits >>> (2 * BASE64_BITS)) & CHAR_MASK];
+			dst[out + 2] = alphabet[(bits >>> BASE64_BITS) & CHAR_MASK];
+			dst[out + 3] = alphabet[bits & CHAR_MASK];
+			in += GROUP_BYTES;
+			out += GROUP_CHARS;
+		}
+		int remaining = offset + length - in;
+		if (remaining > 0) {
+			int bits = (src[in] & BYTE_MASK) << (2 * BYTE_BITS);
+			if (remaining == 2) {
+				bits |= (src[in + 1] & BYTE_MASK) << BYTE_BITS;
+			}
+			dst[out++] = alphabet[bits >>> (3 * BASE64_BITS)];
+			dst[out++] = alphabet[(bits >>> (2 * BASE64_BITS)) & CHAR_MASK];
+			if (remaining == 2) {
+				dst[out++] = alphabet[(bits >>> BASE64_BITS) & CHAR_MASK];
+			} else if (!urlSafe) {
+				dst[out++] = PAD;
+			}
+			if (!urlSafe) {
+				dst[out++] = PAD;
+			}
+		}
+		return out - dstOffset;
+	}
+
+	/**
+	 * Encodes bytes into a Base64 string.
+	 * 
+	 * @param src
+	 *            the data to encode
+	 * @param offset
+	 *            the index of the first byte to encode
+	 * @param length
+	 *            the number of bytes to encode
+	 * @param urlSafe
+	 *            true for the URL-safe encoding without padding
+	 * @return the Base64 string
+	 */
+	public static String encodeToString(final byte[] src, final int offset,
+			final int length, final boolean urlSafe) {
+		byte[] chars = new byte[encodedLength(length, urlSafe)];
+		encode(src, offset, length, chars, 0, urlSafe);
+		char[] value = new char[chars.length];
+		for (int i = 0; i < chars.length; i++) {
+			value[i] = (char) chars[i];
+		}
+		return new String(value);
+	}
+
+	/**
+	 * Decodes a Base64 string leniently.
+	 * 
+	 * @param src
+	 *            the Base64 string
+	 * @return the decoded data
+	 */
+	public static byte[] decode(final CharSequence src) {
+		byte[] buffer = new byte[maxDecodedLength(src.length())];
+		int length = decode(src, 0, src.length(), buffer, 0, false);
+		if (length == buffer.length) {
+			return buffer;
+		}
+		return Arrays.copyOf(buffer, length);
+	}
+
+	/**
+	 * Decodes Base64 characters of a character sequence into the destination
+	 * array which must be able to hold {@link #maxDecodedLength(int)} bytes.
+	 * 
+	 * @param src
+	 *            the characters
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @param dst
+	 *            the destination array
+	 * @param dstOffset
+	 *            the index of the first decoded byte in the destination array
+	 * @param strict
+	 *            true to fail on invalid characters
+	 * @return the number of decoded bytes or -1 if strict decoding fails
+	 */
+	public static int decode(final CharSequence src, final int start,
+			final int end, final byte[] dst, final int dstOffset,
+			final boolean strict) {
+		int bits = 0;
+		int nrBits = 0;
+		int out = dstOffset;
+		for (int i = start; i < end; i++) {
+			char c = src.charAt(i);
+			if (c == PAD) {
+				break;
+			}
+			int value = INVALID;
+			if (c <= BYTE_MASK) {
+				value = VALUES[c];
+			}
+			if (value < 0) {
+				if (strict && value == INVALID) {
+					return -1;
+				}
+				continue;
+			}
+			bits = (bits << BASE64_BITS) | value;
+			nrBits += BASE64_BITS;
+			if (nrBits >= BYTE_BITS) {
+				nrBits -= BYTE_BITS;
+				dst[out++] = (byte) (bits >> nrBits);
+				bits &= (1 << nrBits) - 1;
+			}
+		}
+		if (strict && nrBits >= BASE64_BITS) {
+			// a single character cannot encode a complete byte
+			return -1;
+		}
+		return out - dstOffset;
+	}
+
+	/**
+	 * Decodes Base64 characters stored as ASCII bytes in a buffer into the
+	 * destination array which must be able to hold
+	 * {@link #maxDecodedLength(int)} bytes. The position of the buffer is
+	 * not changed.
+	 * 
+	 * @param src
+	 *            the buffer
+	 * @param start
+	 *            the absolute index of the first character
+	 * @param end
+	 *            the absolute index after the last character
+	 * @param dst
+	 *            the destination array
+	 * @param dstOffset
+	 *            the index of the first decoded byte in the destination array
+	 * @param strict
+	 *            true to fail on invalid characters
+	 * @return the number of decoded bytes or -1 if strict decoding fails
+	 */
+	public static int decode(final ByteBuffer src, final int start,
+			final int end, final byte[] dst, final int dstOffset,
+			final boolean strict) {
+		int bits = 0;
+		int nrBits = 0;
+		int out = dstOffset;
+		for (int i = start; i < end; i++) {
+			int c = src.get(i) & BYTE_MASK;
+			if (c == PAD) {
+				break;
+			}
+			int value = VALUES[c];
+			if (value < 0) {
+				if (strict && value == INVALID) {
+					return -1;
+				}
+				continue;
+			}
+			bits = (bits << BASE64_BITS) | value;
+			nrBits += BASE64_BITS;
+			if (nrBits >= BYTE_BITS) {
+				nrBits -= BYTE_BITS;
+				dst[out++] = (byte) (bits >> nrBits);
+				bits &= (1 << nrBits) - 1;
+			}
+		}
+		if (strict && nrBits >= BASE64_BITS) {
+			// a single character cannot encode a complete byte
+			return -1;
+		}
+		return out - dstOffset;
+	}
+}
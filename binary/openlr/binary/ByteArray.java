@@ -32,11 +32,8 @@ package openlr.binary;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
@@ -55,6 +52,9 @@ public class ByteArray {
 	/** The Constant MAX_BYTE_VALUE. */
 	private static final int MAX_BYTE_VALUE = 256;
 
+	/** The size of the read buffer of the stream constructor. */
+	private static final int READ_BUFFER_SIZE = 1024;
+
 	/** The bytes. */
 	private byte[] bytes;
 
@@ -65,15 +65,20 @@ public class ByteArray {
 	 * @throws IOException Signals that an I/O exception has occurred.
 	 */
 	public ByteArray(final InputStream stream) throws IOException {
-		List<Byte> byteList = new ArrayList<Byte>();
-		int b = stream.read();
-		while (b >= 0) {
-			byteList.add(Byte.valueOf((byte) b));
-			b = stream.read();
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		int length = 0;
+		int read = stream.read(buffer, 0, buffer.length);
+		while (read >= 0) {
+			length += read;
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+			}
+			read = stream.read(buffer, length, buffer.length - length);
 		}
-		bytes = new byte[byteList.size()];
-		for (int i = 0; i < byteList.size(); i++) {
-			bytes[i] = byteList.get(i).byteValue();
+		if (length == buffer.length) {
+			bytes = buffer;
+		} else {
+			bytes = Arrays.copyOf(buffer, length);
 		}
 	}
 
@@ -87,6 +92,20 @@ public class ByteArray {
 		bytes = b.clone();
 	}
 
+	/**
+	 * Instantiates a new byte array with a copy of a part of b.
+	 * 
+	 * @param b
+	 *            the bytes
+	 * @param offset
+	 *            the index of the first byte to copy
+	 * @param length
+	 *            the number of bytes to copy
+	 */
+	public ByteArray(final byte[] b, final int offset, final int length) {
+		bytes = Arrays.copyOfRange(b, offset, offset + length);
+	}
+
 	/**
 	 * Instantiates a new byte array from a base64-encoded string.
 	 * 
@@ -94,7 +113,7 @@ public class ByteArray {
 	 *            the b64 string
 	 */
 	public ByteArray(final String b64String) {
-		bytes = Base64.decodeBase64(b64String);
+		bytes = Base64Codec.decode(b64String);
 	}
 	
 	/**
@@ -120,14 +139,24 @@ public class ByteArray {
 	public final byte[] getData() {
 		return bytes.clone();
 	}
-	
+
+	/**
+	 * Gets the internal data without copying it. The array must not be
+	 * modified.
+	 *
+	 * @return the internal data
+	 */
+	final byte[] array() {
+		return bytes;
+	}
+
 	/**
 	 * Gets the base64 data (RFC 2045).
 	 *
 	 * @return the base64 data
 	 */
 	public final String getBase64Data() {
-		return new String(Base64.encodeBase64(bytes), Charset.forName("UTF-8"));
+		return Base64Codec.encodeToString(bytes, 0, bytes.length, false);
 	}
 	
 	/**
@@ -136,7 +165,35 @@ public class ByteArray {
 	 * @return the base64 data
 	 */
 	public final String getBase64DataUrlSafe() {
-		return new String(Base64.encodeBase64URLSafe(bytes), Charset.forName("UTF-8"));
+		return Base64Codec.encodeToString(bytes, 0, bytes.length, true);
+	}
+
+	/**
+	 * Writes the base64 data (RFC 2045) as ASCII characters into the buffer.
+	 * The buffer needs room for
+	 * {@link Base64Codec#encodedLength(int, boolean)} characters.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the index of the first character in the buffer
+	 * @return the number of characters written
+	 */
+	public final int getBase64Data(final byte[] buffer, final int offset) {
+		return Base64Codec.encode(bytes, 0, bytes.length, buffer, offset,
+				false);
+	}
+
+	/**
+	 * Writes the URL-safe base64 data as ASCII characters into the buffer.
+	 * The buffer needs room for
+	 * {@link Base64Codec#encodedLength(int, boolean)} characters.
+	 *
+	 * @param buffer the buffer
+	 * @param offset the index of the first character in the buffer
+	 * @return the number of characters written
+	 */
+	public final int getBase64DataUrlSafe(final byte[] buffer, final int offset) {
+		return Base64Codec.encode(bytes, 0, bytes.length, buffer, offset,
+				true);
 	}
 
 	/**
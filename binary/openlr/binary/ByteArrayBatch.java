@@ -0,0 +1,151 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary;
+
+import java.util.List;
+
+/**
+ * The class ByteArrayBatch holds the data of many binary location references
+ * in one backing array. It is created by decoding a batch of Base64 strings
+ * at once which avoids an array per string and the copies made by
+ * {@link ByteArray}. The references can be decoded directly from the backing
+ * array, e.g. with
+ * {@link OpenLRBinaryDecoder#decodeData(String, byte[], int, int)}, or
+ * copied into a {@link ByteArray} if needed.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class ByteArrayBatch {
+
+	/** The backing array. */
+	private final byte[] data;
+
+	/** The start offsets of the entries followed by the end offset. */
+	private final int[] offsets;
+
+	/**
+	 * Instantiates a new batch.
+	 * 
+	 * @param dataValue
+	 *            the backing array
+	 * @param offsetValues
+	 *            the start offsets of the entries followed by the end offset
+	 */
+	private ByteArrayBatch(final byte[] dataValue, final int[] offsetValues) {
+		data = dataValue;
+		offsets = offsetValues;
+	}
+
+	/**
+	 * Decodes a batch of Base64 strings (standard or URL-safe alphabet)
+	 * leniently into one backing array.
+	 * 
+	 * @param b64Strings
+	 *            the Base64 strings
+	 * @return the batch holding one entry per string
+	 */
+	public static ByteArrayBatch decodeBase64(
+			final List<? extends CharSequence> b64Strings) {
+		int nrChars = 0;
+		for (CharSequence s : b64Strings) {
+			nrChars += s.length();
+		}
+		byte[] buffer = new byte[Base64Codec.maxDecodedLength(nrChars)];
+		int[] offsets = new int[b64Strings.size() + 1];
+		int length = 0;
+		int i = 0;
+		for (CharSequence s : b64Strings) {
+			offsets[i] = length;
+			length += Base64Codec.decode(s, 0, s.length(), buffer, length,
+					false);
+			i++;
+		}
+		offsets[i] = length;
+		return new ByteArrayBatch(buffer, offsets);
+	}
+
+	/**
+	 * Gets the number of entries.
+	 * 
+	 * @return the number of entries
+	 */
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Gets the offset of an entry in the backing array.
+	 * 
+	 * @param index
+	 *            the index of the entry
+	 * @return the offset
+	 */
+	public int getOffset(final int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * Gets the number of bytes of an entry.
+	 * 
+	 * @param index
+	 *            the index of the entry
+	 * @return the number of bytes
+	 */
+	public int getLength(final int index) {
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * Gets the backing array holding all entries. The array is not copied
+	 * and must not be modified.
+	 * 
+	 * @return the backing array
+	 */
+	public byte[] getBackingArray() {
+		return data;
+	}
+
+	/**
+	 * Creates a byte array holding a copy of an entry.
+	 * 
+	 * @param index
+	 *            the index of the entry
+	 * @return the byte array
+	 */
+	public ByteArray get(final int index) {
+		return new ByteArray(data, offsets[index], getLength(index));
+	}
+}
@@ -35,7 +35,8 @@ import openlr.PhysicalDecoder;
 import openlr.PhysicalFormatException;
 import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
 import openlr.binary.bitstream.BitstreamException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamInput;
 import openlr.binary.data.Header;
 import openlr.binary.data.RawBinaryData;
 import openlr.binary.decoder.AbstractDecoder;
@@ -98,18 +99,19 @@ public final class OpenLRBinaryDecoder implements PhysicalDecoder {
 	 * 
 	 * @param id
 	 *            the id
-	 * @param data
-	 *            the binary data
+	 * @param ibs
+	 *            the bitstream positioned at the first byte of the data
+	 * @param totalBytes
+	 *            the number of bytes of the binary data
 	 * @param binData
 	 *            the bin data
 	 * @return the raw location reference
 	 * @throws PhysicalFormatException
 	 *             the physical format exception
 	 */
-	private RawLocationReference parseBinaryData(final String id,
-			final byte[] data, final RawBinaryData binData)
-			throws PhysicalFormatException {
-		int totalBytes = data.length;
+	final RawLocationReference parseBinaryData(final String id,
+			final BitstreamInput ibs, final int totalBytes,
+			final RawBinaryData binData) throws PhysicalFormatException {
 
 		// check if enough bytes available
 		// OpenLRBinaryConstants.MIN_BYTES_POLYGON added by DLR e.V. (RE)
@@ -123,10 +125,6 @@ public final class OpenLRBinaryDecoder implements PhysicalDecoder {
 			return new RawInvalidLocRef(id, BinaryReturnCode.NOT_ENOUGH_BYTES);
 		}
 
-		// read in data
-		ByteArrayBitstreamInput ibs = new ByteArrayBitstreamInput(data,
-				totalBytes);
-
 		Header header = null;
 		// read header information
 		try {
@@ -246,7 +244,32 @@ public final class OpenLRBinaryDecoder implements PhysicalDecoder {
 					PhysicalFormatError.INVALID_BINARY_DATA);
 		}
 		ByteArray dataList = (ByteArray) data;
-		return parseBinaryData(lr.getID(), dataList.getData(), null);
+		byte[] bytes = dataList.array();
+		return parseBinaryData(lr.getID(), new ByteBufferBitstreamInput(bytes),
+				bytes.length, null);
+	}
+
+	/**
+	 * Decodes a binary location reference stored in a part of a byte array,
+	 * e.g. one element of a {@link ByteArrayBatch}. The data is not copied.
+	 * 
+	 * @param id
+	 *            the id of the location reference
+	 * @param data
+	 *            the array holding the binary data
+	 * @param offset
+	 *            the index of the first byte of the location reference
+	 * @param length
+	 *            the number of bytes of the location reference
+	 * @return the raw location reference
+	 * @throws PhysicalFormatException
+	 *             the physical format exception
+	 */
+	public RawLocationReference decodeData(final String id,
+			final byte[] data, final int offset, final int length)
+			throws PhysicalFormatException {
+		return parseBinaryData(id, new ByteBufferBitstreamInput(data, offset,
+				length), length, null);
 	}
 
 	/**
@@ -279,7 +302,9 @@ public final class OpenLRBinaryDecoder implements PhysicalDecoder {
 	public RawBinaryData resolveBinaryData(final String id, final ByteArray ba)
 			throws PhysicalFormatException {
 		RawBinaryData binData = new RawBinaryData();
-		parseBinaryData(id, ba.getData(), binData);
+		byte[] bytes = ba.array();
+		parseBinaryData(id, new ByteBufferBitstreamInput(bytes), bytes.length,
+				binData);
 		return binData;
 	}
 
@@ -0,0 +1,490 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import openlr.PhysicalFormatException;
+import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamInput;
+import openlr.binary.flyweight.BinaryLineLocRef;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The class OpenLRBinaryStreamDecoder decodes a sequence of concatenated
+ * binary location references read from a {@link ByteBuffer}, a
+ * {@link ReadableByteChannel} or an {@link InputStream}. The references are
+ * either pushed to a {@link Handler} or pulled one by one with
+ * {@link #next(ByteBuffer)}. Line location references can also be pulled
+ * into a reused {@link BinaryLineLocRef} with
+ * {@link #next(ByteBuffer, BinaryLineLocRef)} which does not allocate
+ * memory per reference.
+ * 
+ * The references are decoded directly from the buffer holding the stream
+ * data, a single bitstream reader is reused for all references and no
+ * {@link ByteArray} is created. Only Base64 encoded references are decoded
+ * into one reused scratch array.
+ * 
+ * Two framings are supported: {@link Framing#LENGTH_PREFIXED} where each
+ * reference is preceded by its length as unsigned 16-bit big endian value,
+ * and {@link Framing#BASE64_LINES} where each line holds one Base64 encoded
+ * reference (standard or URL-safe alphabet, empty lines are skipped). Each
+ * reference gets the ID prefix followed by its sequence number as ID.
+ * Invalid references are returned as invalid raw location references, a
+ * malformed frame leads to an {@link OpenLRBinaryException}.
+ * 
+ * An instance is not thread-safe, but can be reused for several streams.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OpenLRBinaryStreamDecoder {
+
+	/**
+	 * The framing of the references in the stream.
+	 */
+	public enum Framing {
+
+		/** Each reference is preceded by its length (2 bytes, big endian). */
+		LENGTH_PREFIXED,
+
+		/** Each line holds one Base64 encoded reference. */
+		BASE64_LINES;
+	}
+
+	/**
+	 * The Handler receives the references decoded from a stream.
+	 */
+	public interface Handler {
+
+		/**
+		 * Handles a decoded raw location reference.
+		 * 
+		 * @param rawLocRef
+		 *            the raw location reference, might be invalid
+		 * @return true, if decoding shall continue, false to stop
+		 */
+		boolean handle(RawLocationReference rawLocRef);
+	}
+
+	/** The number of bytes of the length prefix. */
+	public static final int LENGTH_PREFIX_SIZE = 2;
+
+	/** The initial size of the read buffer for channels and streams. */
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** The initial size of the scratch array. */
+	private static final int DEFAULT_SCRATCH_SIZE = 256;
+
+	/** The number of bits of a byte. */
+	private static final int BYTE_BITS = 8;
+
+	/** The mask of an unsigned byte. */
+	private static final int BYTE_MASK = 0xff;
+
+	/** The binary decoder. */
+	private final OpenLRBinaryDecoder decoder = new OpenLRBinaryDecoder();
+
+	/** The reused bitstream reader. */
+	private final ByteBufferBitstreamInput reader = new ByteBufferBitstreamInput();
+
+	/** The framing. */
+	private final Framing framing;
+
+	/** The ID prefix. */
+	private final String idPrefix;
+
+	/** The scratch buffer for Base64 decoded references. */
+	private ByteBuffer scratch = ByteBuffer.allocate(DEFAULT_SCRATCH_SIZE);
+
+	/** The read buffer for channels and streams, created on first use. */
+	private ByteBuffer readBuffer;
+
+	/** The buffer holding the current frame. */
+	private ByteBuffer frameData;
+
+	/** The index of the first byte of the current frame. */
+	private int frameOffset;
+
+	/** The number of references decoded so far. */
+	private long nrReferences;
+
+	/**
+	 * Instantiates a new stream decoder using the sequence numbers of the
+	 * references as IDs.
+	 * 
+	 * @param f
+	 *            the framing
+	 */
+	public OpenLRBinaryStreamDecoder(final Framing f) {
+		this(f, "");
+	}
+
+	/**
+	 * Instantiates a new stream decoder.
+	 * 
+	 * @param f
+	 *            the framing
+	 * @param prefix
+	 *            the prefix of the IDs of the references
+	 */
+	public OpenLRBinaryStreamDecoder(final Framing f, final String prefix) {
+		if (f == null || prefix == null) {
+			throw new IllegalArgumentException("framing and prefix required");
+		}
+		framing = f;
+		idPrefix = prefix;
+	}
+
+	/**
+	 * Gets the number of references decoded by this decoder so far.
+	 * 
+	 * @return the number of references
+	 */
+	public long getNumberOfReferences() {
+		return nrReferences;
+	}
+
+	/**
+	 * Decodes all references from the remaining bytes of the buffer and
+	 * pushes them to the handler. The position of the buffer is moved behind
+	 * the last decoded reference.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param handler
+	 *            the handler
+	 * @return the number of references passed to the handler
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	public int decode(final ByteBuffer buffer, final Handler handler)
+			throws PhysicalFormatException {
+		int count = 0;
+		RawLocationReference rawLocRef = next(buffer, true);
+		while (rawLocRef != null) {
+			count++;
+			if (!handler.handle(rawLocRef)) {
+				break;
+			}
+			rawLocRef = next(buffer, true);
+		}
+		return count;
+	}
+
+	/**
+	 * Decodes all references read from the input stream and pushes them to
+	 * the handler. The stream is not closed.
+	 * 
+	 * @param in
+	 *            the input stream
+	 * @param handler
+	 *            the handler
+	 * @return the number of references passed to the handler
+	 * @throws IOException
+	 *             if reading the stream fails
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	public int decode(final InputStream in, final Handler handler)
+			throws IOException, PhysicalFormatException {
+		return decode(Channels.newChannel(in), handler);
+	}
+
+	/**
+	 * Decodes all references read from the channel and pushes them to the
+	 * handler. The channel is read in chunks into a reused buffer which grows
+	 * if a single reference does not fit. The channel is not closed.
+	 * 
+	 * @param channel
+	 *            the channel
+	 * @param handler
+	 *            the handler
+	 * @return the number of references passed to the handler
+	 * @throws IOException
+	 *             if reading the channel fails
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	public int decode(final ReadableByteChannel channel, final Handler handler)
+			throws IOException, PhysicalFormatException {
+		if (readBuffer == null) {
+			readBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+		}
+		ByteBuffer buffer = readBuffer;
+		buffer.clear();
+		int count = 0;
+		boolean endOfInput = false;
+		while (!endOfInput) {
+			endOfInput = channel.read(buffer) < 0;
+			buffer.flip();
+			RawLocationReference rawLocRef = next(buffer, endOfInput);
+			while (rawLocRef != null) {
+				count++;
+				if (!handler.handle(rawLocRef)) {
+					return count;
+				}
+				rawLocRef = next(buffer, endOfInput);
+			}
+			if (buffer.position() == 0
+					&& buffer.limit() == buffer.capacity()) {
+				// a single reference fills the whole buffer
+				ByteBuffer larger = ByteBuffer
+						.allocate(2 * buffer.capacity());
+				larger.put(buffer);
+				readBuffer = larger;
+				buffer = larger;
+			} else {
+				buffer.compact();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Decodes the next reference from the buffer and moves its position
+	 * behind the reference. The remaining bytes of the buffer are treated as
+	 * the complete input, so an incomplete reference at the end is an error.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @return the raw location reference or null if the buffer holds no
+	 *         further reference
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	public RawLocationReference next(final ByteBuffer buffer)
+			throws PhysicalFormatException {
+		return next(buffer, true);
+	}
+
+	/**
+	 * Decodes the next reference from the buffer into the line location
+	 * reference flyweight and moves the position of the buffer behind the
+	 * reference. The remaining bytes of the buffer are treated as the
+	 * complete input. References of other location types are decoded as
+	 * invalid line location references.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param lineLocRef
+	 *            the flyweight to fill
+	 * @return true, if a reference was decoded, false if the buffer holds no
+	 *         further reference
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	public boolean next(final ByteBuffer buffer,
+			final BinaryLineLocRef lineLocRef) throws PhysicalFormatException {
+		int length = nextFrame(buffer, true);
+		if (length < 0) {
+			return false;
+		}
+		nrReferences++;
+		lineLocRef.decode(frameData, frameOffset, length);
+		return true;
+	}
+
+	/**
+	 * Decodes the next reference from the buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param endOfInput
+	 *            true, if no more data follows the remaining bytes
+	 * @return the raw location reference or null if the buffer holds no
+	 *         further complete reference
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	private RawLocationReference next(final ByteBuffer buffer,
+			final boolean endOfInput) throws PhysicalFormatException {
+		int length = nextFrame(buffer, endOfInput);
+		if (length < 0) {
+			return null;
+		}
+		String id = idPrefix + nrReferences;
+		nrReferences++;
+		reader.reset(frameData, frameOffset, length);
+		return decoder.parseBinaryData(id, reader, length, null);
+	}
+
+	/**
+	 * Locates the next reference and moves the position of the buffer behind
+	 * it. The reference data is available at the frame offset of the frame
+	 * data.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param endOfInput
+	 *            true, if no more data follows the remaining bytes
+	 * @return the number of bytes of the reference or -1 if the buffer holds
+	 *         no further complete reference
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	private int nextFrame(final ByteBuffer buffer, final boolean endOfInput)
+			throws PhysicalFormatException {
+		if (framing == Framing.LENGTH_PREFIXED) {
+			return nextLengthPrefixed(buffer, endOfInput);
+		}
+		return nextBase64Line(buffer, endOfInput);
+	}
+
+	/**
+	 * Locates the next length prefixed reference.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param endOfInput
+	 *            true, if no more data follows the remaining bytes
+	 * @return the number of bytes of the reference or -1
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	private int nextLengthPrefixed(final ByteBuffer buffer,
+			final boolean endOfInput) throws PhysicalFormatException {
+		int remaining = buffer.remaining();
+		if (remaining == 0) {
+			return -1;
+		}
+		int pos = buffer.position();
+		int length = -1;
+		if (remaining >= LENGTH_PREFIX_SIZE) {
+			length = ((buffer.get(pos) & BYTE_MASK) << BYTE_BITS)
+					| (buffer.get(pos + 1) & BYTE_MASK);
+		}
+		if (length < 0 || remaining - LENGTH_PREFIX_SIZE < length) {
+			if (endOfInput) {
+				throw new OpenLRBinaryException(
+						PhysicalFormatError.INVALID_BINARY_DATA);
+			}
+			return -1;
+		}
+		frameData = buffer;
+		frameOffset = pos + LENGTH_PREFIX_SIZE;
+		buffer.position(frameOffset + length);
+		return length;
+	}
+
+	/**
+	 * Locates and decodes the next Base64 encoded line.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param endOfInput
+	 *            true, if no more data follows the remaining bytes
+	 * @return the number of bytes of the reference or -1
+	 * @throws PhysicalFormatException
+	 *             if the data is malformed
+	 */
+	private int nextBase64Line(final ByteBuffer buffer,
+			final boolean endOfInput) throws PhysicalFormatException {
+		int limit = buffer.limit();
+		int pos = buffer.position();
+		while (pos < limit) {
+			int lineEnd = pos;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			if (lineEnd == limit && !endOfInput) {
+				// incomplete line
+				return -1;
+			}
+			int next = Math.min(lineEnd + 1, limit);
+			int start = pos;
+			while (start < lineEnd && isWhitespace(buffer.get(start))) {
+				start++;
+			}
+			int end = lineEnd;
+			while (end > start && isWhitespace(buffer.get(end - 1))) {
+				end--;
+			}
+			buffer.position(next);
+			if (end > start) {
+				return decodeBase64(buffer, start, end);
+			}
+			pos = next;
+		}
+		return -1;
+	}
+
+	/**
+	 * Decodes Base64 characters of the buffer into the scratch buffer.
+	 * Padding characters end the data.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param start
+	 *            the index of the first character
+	 * @param end
+	 *            the index after the last character
+	 * @return the number of decoded bytes
+	 * @throws OpenLRBinaryException
+	 *             if an invalid character is found
+	 */
+	private int decodeBase64(final ByteBuffer buffer, final int start,
+			final int end) throws OpenLRBinaryException {
+		int maxLength = Base64Codec.maxDecodedLength(end - start);
+		if (scratch.capacity() < maxLength) {
+			scratch = ByteBuffer.allocate(Math.max(maxLength,
+					2 * scratch.capacity()));
+		}
+		int length = Base64Codec.decode(buffer, start, end, scratch.array(),
+				0, true);
+		if (length < 0) {
+			throw new OpenLRBinaryException(
+					PhysicalFormatError.INVALID_BINARY_DATA);
+		}
+		frameData = scratch;
+		frameOffset = 0;
+		return length;
+	}
+
+	/**
+	 * Checks whether the byte is a whitespace character within a line.
+	 * 
+	 * @param b
+	 *            the byte
+	 * @return true, if the byte is a blank, tab or carriage return
+	 */
+	private static boolean isWhitespace(final byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+}
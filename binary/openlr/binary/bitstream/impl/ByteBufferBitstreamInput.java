@@ -0,0 +1,262 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary.bitstream.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import openlr.binary.bitstream.BitstreamException;
+import openlr.binary.bitstream.BitstreamException.BitstreamErrorType;
+import openlr.binary.bitstream.BitstreamInput;
+
+/**
+ * A ByteBufferBitstreamInput reads bitstream content directly from a region
+ * of a {@link ByteBuffer} or a byte array. Each read fetches the 64-bit word
+ * starting at the current byte and extracts the requested bits with shifts,
+ * so reading a value needs neither a loop over its bytes nor an internal
+ * buffer. The position and limit of the buffer are not changed.
+ * 
+ * An instance can be reset to read another region and does not allocate
+ * memory while reading. Byte arrays are wrapped once and the wrapper is
+ * reused as long as the same array is read. An instance is not thread-safe.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class ByteBufferBitstreamInput implements BitstreamInput {
+
+	/** The number of bits of a long word. */
+	private static final int WORD_BITS = 64;
+
+	/** The number of bytes of a long word. */
+	private static final int WORD_BYTES = 8;
+
+	/** The data buffer. */
+	private ByteBuffer data;
+
+	/** The array wrapped by the data buffer, null for other buffers. */
+	private byte[] wrappedArray;
+
+	/** Whether the data buffer uses little endian byte order. */
+	private boolean littleEndian;
+
+	/** The limit of the data buffer in bytes. */
+	private int dataLimit;
+
+	/** The current bit position within the data buffer. */
+	private long currentBit;
+
+	/** The bit position after the last bit of the region. */
+	private long endBit;
+
+	/**
+	 * Instantiates a new bitstream without data, the data needs to be set
+	 * with one of the reset methods before reading.
+	 */
+	public ByteBufferBitstreamInput() {
+		// no data yet
+	}
+
+	/**
+	 * Instantiates a new bitstream reading the remaining bytes of the
+	 * buffer.
+	 * 
+	 * @param buffer
+	 *            the buffer to read data from
+	 */
+	public ByteBufferBitstreamInput(final ByteBuffer buffer) {
+		reset(buffer, buffer.position(), buffer.remaining());
+	}
+
+	/**
+	 * Instantiates a new bitstream reading the whole byte array.
+	 * 
+	 * @param array
+	 *            the byte array to read data from
+	 */
+	public ByteBufferBitstreamInput(final byte[] array) {
+		reset(array, 0, array.length);
+	}
+
+	/**
+	 * Instantiates a new bitstream reading a region of the byte array.
+	 * 
+	 * @param array
+	 *            the byte array to read data from
+	 * @param offset
+	 *            the index of the first byte of the region
+	 * @param length
+	 *            the number of bytes of the region
+	 */
+	public ByteBufferBitstreamInput(final byte[] array, final int offset,
+			final int length) {
+		reset(array, offset, length);
+	}
+
+	/**
+	 * Sets the region of the buffer to be read next.
+	 * 
+	 * @param buffer
+	 *            the buffer to read data from
+	 * @param offset
+	 *            the absolute index of the first byte of the region
+	 * @param length
+	 *            the number of bytes of the region
+	 */
+	public final void reset(final ByteBuffer buffer, final int offset,
+			final int length) {
+		if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+			throw new IndexOutOfBoundsException("invalid region [" + offset
+					+ ", " + length + "] of " + buffer.limit() + " bytes");
+		}
+		data = buffer;
+		wrappedArray = null;
+		littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+		dataLimit = buffer.limit();
+		currentBit = (long) offset * BitstreamAbstract.BYTE_SIZE;
+		endBit = (long) (offset + length) * BitstreamAbstract.BYTE_SIZE;
+	}
+
+	/**
+	 * Sets the region of the byte array to be read next.
+	 * 
+	 * @param array
+	 *            the byte array to read data from
+	 * @param offset
+	 *            the index of the first byte of the region
+	 * @param length
+	 *            the number of bytes of the region
+	 */
+	public final void reset(final byte[] array, final int offset,
+			final int length) {
+		ByteBuffer buffer;
+		if (array == wrappedArray) {
+			buffer = data;
+		} else {
+			buffer = ByteBuffer.wrap(array);
+		}
+		reset(buffer, offset, length);
+		wrappedArray = array;
+	}
+
+	/**
+	 * Gets the number of bits of the region which are not yet read.
+	 * 
+	 * @return the number of remaining bits
+	 */
+	public final long remainingBits() {
+		return endBit - currentBit;
+	}
+
+	/**
+	 * Gets the long word starting at the byte index. Bytes beyond the limit
+	 * of the buffer are read as zero.
+	 * 
+	 * @param byteIndex
+	 *            the index of the first byte
+	 * @return the long word in big endian order
+	 */
+	private long getWord(final int byteIndex) {
+		if (byteIndex <= dataLimit - WORD_BYTES) {
+			long word = data.getLong(byteIndex);
+			if (littleEndian) {
+				return Long.reverseBytes(word);
+			}
+			return word;
+		}
+		long word = 0;
+		for (int i = 0; i < WORD_BYTES; i++) {
+			word <<= BitstreamAbstract.BYTE_SIZE;
+			if (byteIndex + i < dataLimit) {
+				word |= data.get(byteIndex + i)
+						& BitstreamAbstract.BITMASK[BitstreamAbstract.BYTE_SIZE];
+			}
+		}
+		return word;
+	}
+
+	/**
+	 * Moves the bit position by n bits and returns the word holding these
+	 * bits in its highest bits.
+	 * 
+	 * @param n
+	 *            the number of bits to read
+	 * @return the word aligned to the first bit to read
+	 * @throws BitstreamException
+	 *             if n is invalid or the region has less than n bits left
+	 */
+	private long nextWord(final int n) throws BitstreamException {
+		if (n > BitstreamAbstract.MAX_BIT_SIZE || n < 1) {
+			throw new BitstreamException(BitstreamErrorType.INVALIDBITSIZE);
+		}
+		if (endBit - currentBit < n) {
+			throw new BitstreamException(BitstreamErrorType.NOTENOUGHDATA);
+		}
+		int byteIndex = (int) (currentBit >>> BitstreamAbstract.BIT_BYTE_SHIFT);
+		int skipBits = (int) currentBit & BitstreamAbstract.HIGHEST_BIT;
+		currentBit += n;
+		return getWord(byteIndex) << skipBits;
+	}
+
+	/** {@inheritDoc} */
+	public final int getBits(final int n) throws BitstreamException {
+		if (n == 0) {
+			return 0;
+		}
+		return (int) (nextWord(n) >>> (WORD_BITS - n));
+	}
+
+	/** {@inheritDoc} */
+	public final int getSignedBits(final int n) throws BitstreamException {
+		if (n <= 1) {
+			// a single bit has no sign
+			return getBits(n);
+		}
+		// the arithmetic shift extends the sign
+		return (int) (nextWord(n) >> (WORD_BITS - n));
+	}
+
+	/**
+	 * Releases the reference to the data. The bitstream can be used again
+	 * after calling one of the reset methods.
+	 */
+	@Override
+	public final void close() {
+		data = null;
+		wrappedArray = null;
+		currentBit = 0;
+		endBit = 0;
+	}
+}
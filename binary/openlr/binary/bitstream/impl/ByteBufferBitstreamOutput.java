@@ -0,0 +1,211 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary.bitstream.impl;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import openlr.binary.bitstream.BitstreamException;
+import openlr.binary.bitstream.BitstreamException.BitstreamErrorType;
+import openlr.binary.bitstream.BitstreamOutput;
+
+/**
+ * A ByteBufferBitstreamOutput writes bitstream content directly into a
+ * {@link ByteBuffer}. The bits are collected in a long word and complete
+ * bytes are written at the position of the buffer, so no internal buffer and
+ * no output stream is needed. Without a target buffer the output writes
+ * into an own heap buffer which grows on demand.
+ * 
+ * An instance can be reset to write into another buffer and does not
+ * allocate memory while writing into a target buffer. An instance is not
+ * thread-safe.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class ByteBufferBitstreamOutput implements BitstreamOutput {
+
+	/** The number of bits of a long word. */
+	private static final int WORD_BITS = 64;
+
+	/** A long word with all bits set. */
+	private static final long ALL_BITS = -1L;
+
+	/** The buffer the data is written to. */
+	private ByteBuffer target;
+
+	/** Whether the target buffer is owned and may grow. */
+	private boolean growing;
+
+	/** The position of the target buffer when the writing started. */
+	private int startPosition;
+
+	/** The bits not yet written. */
+	private long pendingBits;
+
+	/** The number of bits not yet written, always less than a byte. */
+	private int nrPendingBits;
+
+	/**
+	 * Instantiates a new bitstream writing into an own buffer of the default
+	 * size.
+	 */
+	public ByteBufferBitstreamOutput() {
+		this(BitstreamAbstract.DEFAULT_BUFFER_LENGTH);
+	}
+
+	/**
+	 * Instantiates a new bitstream writing into an own buffer.
+	 * 
+	 * @param initialSize
+	 *            the initial size of the buffer in bytes
+	 */
+	public ByteBufferBitstreamOutput(final int initialSize) {
+		target = ByteBuffer.allocate(Math.max(1, initialSize));
+		growing = true;
+	}
+
+	/**
+	 * Instantiates a new bitstream writing into the target buffer at its
+	 * position.
+	 * 
+	 * @param buffer
+	 *            the target buffer
+	 */
+	public ByteBufferBitstreamOutput(final ByteBuffer buffer) {
+		reset(buffer);
+	}
+
+	/**
+	 * Sets the target buffer. The data is written at the current position of
+	 * the buffer, pending bits are discarded.
+	 * 
+	 * @param buffer
+	 *            the target buffer
+	 */
+	public final void reset(final ByteBuffer buffer) {
+		target = buffer;
+		growing = false;
+		startPosition = buffer.position();
+		pendingBits = 0;
+		nrPendingBits = 0;
+	}
+
+	/**
+	 * Discards the written data of the own buffer or moves the position of
+	 * the target buffer back to where the writing started.
+	 */
+	public final void reset() {
+		target.position(startPosition);
+		pendingBits = 0;
+		nrPendingBits = 0;
+	}
+
+	/** {@inheritDoc} */
+	public final int putBits(final int value, final int n)
+			throws BitstreamException {
+		if (n == 0) {
+			return value;
+		}
+		if (n > BitstreamAbstract.MAX_BIT_SIZE || n < 1) {
+			throw new BitstreamException(BitstreamErrorType.INVALIDBITSIZE);
+		}
+		pendingBits = (pendingBits << n) | (value & (ALL_BITS >>> (WORD_BITS - n)));
+		nrPendingBits += n;
+		while (nrPendingBits >= BitstreamAbstract.BYTE_SIZE) {
+			nrPendingBits -= BitstreamAbstract.BYTE_SIZE;
+			write((byte) (pendingBits >>> nrPendingBits));
+		}
+		pendingBits &= BitstreamAbstract.BITMASK[nrPendingBits];
+		return value;
+	}
+
+	/**
+	 * Writes the pending bits padded with zero bits to a complete byte.
+	 * 
+	 * @return the number of bytes written since the last reset
+	 * @throws BitstreamException
+	 *             if the target buffer is full
+	 */
+	public final int flush() throws BitstreamException {
+		if (nrPendingBits > 0) {
+			write((byte) (pendingBits << (BitstreamAbstract.BYTE_SIZE
+					- nrPendingBits)));
+			pendingBits = 0;
+			nrPendingBits = 0;
+		}
+		return target.position() - startPosition;
+	}
+
+	/**
+	 * Flushes the pending bits and returns a copy of the bytes written since
+	 * the last reset.
+	 * 
+	 * @return the written data
+	 * @throws BitstreamException
+	 *             if the target buffer is full
+	 */
+	public final byte[] getData() throws BitstreamException {
+		int length = flush();
+		byte[] result = new byte[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = target.get(startPosition + i);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes a byte into the target buffer.
+	 * 
+	 * @param b
+	 *            the byte
+	 * @throws BitstreamException
+	 *             if the target buffer is full and cannot grow
+	 */
+	private void write(final byte b) throws BitstreamException {
+		if (!target.hasRemaining()) {
+			if (!growing) {
+				throw new BitstreamException(BitstreamErrorType.WRITEFAILED,
+						new BufferOverflowException());
+			}
+			ByteBuffer larger = ByteBuffer.wrap(Arrays.copyOf(target.array(),
+					2 * target.capacity()));
+			larger.position(target.position());
+			target = larger;
+		}
+		target.put(b);
+	}
+}
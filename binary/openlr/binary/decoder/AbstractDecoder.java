@@ -33,7 +33,7 @@ package openlr.binary.decoder;
 import openlr.LocationReferencePoint;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.Attr1;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.IntermediateLRP;
@@ -74,7 +74,7 @@ public abstract class AbstractDecoder {
 	 * @throws OpenLRBinaryException the openlr binary processing exception
 	 */
 	public abstract RawLocationReference decodeData(
-			final String id, final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final String id, final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData) throws OpenLRBinaryException;
 	
 	/**
@@ -109,9 +109,7 @@ public abstract class AbstractDecoder {
 	 * @return the float
 	 */
 	protected final float calculateRelativeDistance(final int offset) {
-		float lower =  offset * OpenLRBinaryConstants.RELATIVE_OFFSET_LENGTH;
-		float upper =  (offset + 1) * OpenLRBinaryConstants.RELATIVE_OFFSET_LENGTH;
-		return (lower + upper) / 2;
+		return DecoderUtils.calculateRelativeDistance(offset);
 	}
 
 	/**
@@ -219,10 +217,7 @@ public abstract class AbstractDecoder {
 	 * @return the 32 bit double value representation
 	 */
 	protected final double calculate32BitRepresentation(final int val) {
-		int sgn = (int) Math.signum(val);
-		double retVal = (val - (sgn * OpenLRBinaryConstants.ROUND_FACTOR))
-				* OpenLRBinaryConstants.BIT24FACTOR_REVERSED;
-		return retVal;
+		return DecoderUtils.calculate32BitRepresentation(val);
 	}
 
 	/**
@@ -235,9 +230,7 @@ public abstract class AbstractDecoder {
 	 * @return the bearing estimate
 	 */
 	private double calculateBearingEstimate(final int interval) {
-		double lower = interval * OpenLRBinaryConstants.BEARING_SECTOR;
-		double upper = (interval + 1) * OpenLRBinaryConstants.BEARING_SECTOR;
-		return ((upper + lower) / 2);
+		return DecoderUtils.calculateBearingEstimate(interval);
 	}
 
 	/**
@@ -250,9 +243,7 @@ public abstract class AbstractDecoder {
 	 * @return the distance estimate
 	 */
 	protected final int calculateDistanceEstimate(final int interval) {
-		float lower = interval * OpenLRBinaryConstants.LENGTH_INTERVAL;
-		float upper = (interval + 1) * OpenLRBinaryConstants.LENGTH_INTERVAL;
-		return Math.round(((upper + lower) / 2));
+		return DecoderUtils.calculateDistanceEstimate(interval);
 	}
 	
 	/**
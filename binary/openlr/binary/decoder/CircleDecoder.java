@@ -33,7 +33,7 @@ package openlr.binary.decoder;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.Radius;
 import openlr.binary.data.Radius.RadiusType;
@@ -65,7 +65,7 @@ public class CircleDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		int radiusSize = totalBytes - BASE_SIZE;
@@ -36,7 +36,7 @@ import java.util.List;
 import openlr.LocationReferencePoint;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.IntermediateLRP;
 import openlr.binary.data.LastClosedLineLRP;
@@ -61,7 +61,7 @@ public class ClosedLineDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		// calculate number of intermediates
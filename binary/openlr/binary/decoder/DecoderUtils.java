@@ -0,0 +1,115 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary.decoder;
+
+import openlr.binary.OpenLRBinaryConstants;
+
+/**
+ * The class DecoderUtils converts the quantized values of the binary format
+ * back into coordinates, bearings, distances and relative offsets. The
+ * location type decoders and the binary flyweights share these conversions.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class DecoderUtils {
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private DecoderUtils() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Calculates the 32 bit double value representation of a coordinate out of
+	 * a 24 bit integer value representation.
+	 * 
+	 * @param val the 24 bit integer value
+	 * 
+	 * @return the 32 bit double value representation
+	 */
+	public static double calculate32BitRepresentation(final int val) {
+		int sgn = (int) Math.signum(val);
+		double retVal = (val - (sgn * OpenLRBinaryConstants.ROUND_FACTOR))
+				* OpenLRBinaryConstants.BIT24FACTOR_REVERSED;
+		return retVal;
+	}
+
+	/**
+	 * Calculates an estimate for the bearing value. The bearing information
+	 * provided by the location reference point indicates an interval in which
+	 * the concrete value is. The approximation is the middle of that interval.
+	 * 
+	 * @param interval the interval
+	 * 
+	 * @return the bearing estimate
+	 */
+	public static double calculateBearingEstimate(final int interval) {
+		double lower = interval * OpenLRBinaryConstants.BEARING_SECTOR;
+		double upper = (interval + 1) * OpenLRBinaryConstants.BEARING_SECTOR;
+		return ((upper + lower) / 2);
+	}
+
+	/**
+	 * Calculates an estimate for a distance value. The distance information
+	 * provided by the location reference point indicates an interval in which
+	 * the concrete value is. The approximation is the middle of that interval.
+	 * 
+	 * @param interval the interval
+	 * 
+	 * @return the distance estimate
+	 */
+	public static int calculateDistanceEstimate(final int interval) {
+		float lower = interval * OpenLRBinaryConstants.LENGTH_INTERVAL;
+		float upper = (interval + 1) * OpenLRBinaryConstants.LENGTH_INTERVAL;
+		return Math.round(((upper + lower) / 2));
+	}
+
+	/**
+	 * Calculates the relative distance of an offset. The offset indicates an
+	 * interval in which the concrete value is. The approximation is the middle
+	 * of that interval.
+	 * 
+	 * @param offset the offset
+	 * 
+	 * @return the relative distance in percent
+	 */
+	public static float calculateRelativeDistance(final int offset) {
+		float lower =  offset * OpenLRBinaryConstants.RELATIVE_OFFSET_LENGTH;
+		float upper =  (offset + 1) * OpenLRBinaryConstants.RELATIVE_OFFSET_LENGTH;
+		return (lower + upper) / 2;
+	}
+}
@@ -32,7 +32,7 @@ package openlr.binary.decoder;
 
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.RawBinaryData;
 import openlr.map.GeoCoordinates;
@@ -68,7 +68,7 @@ public class GeoCoordDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		AbsoluteCoordinates absCoord = null;
@@ -33,7 +33,7 @@ package openlr.binary.decoder;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
 import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.AbstractCoordinate;
 import openlr.binary.data.GridDimension;
@@ -62,7 +62,7 @@ public class GridDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		AbsoluteCoordinates lowerLeftCoord = null;
@@ -37,7 +37,7 @@ import openlr.LocationReferencePoint;
 import openlr.Offsets;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.IntermediateLRP;
 import openlr.binary.data.LastLRP;
@@ -74,7 +74,7 @@ public class LineDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		// calculate number of intermediates
@@ -35,7 +35,7 @@ import openlr.Offsets;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.LastLRP;
 import openlr.binary.data.Offset;
@@ -67,7 +67,7 @@ public class PoiAccessDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		FirstLRP firstLRP = null;
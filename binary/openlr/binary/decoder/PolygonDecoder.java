@@ -37,7 +37,7 @@ import openlr.binary.BinaryReturnCode;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
 import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.RawBinaryData;
 import openlr.binary.data.RelativeCoordinates;
@@ -63,7 +63,7 @@ public class PolygonDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 
@@ -34,7 +34,7 @@ import openlr.binary.BinaryReturnCode;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
 import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamInput;
+import openlr.binary.bitstream.BitstreamInput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.AbstractCoordinate;
 import openlr.binary.data.RawBinaryData;
@@ -61,7 +61,7 @@ public class RectangleDecoder extends AbstractDecoder {
 	 */
 	@Override
 	public final RawLocationReference decodeData(final String id,
-			final ByteArrayBitstreamInput ibs, final int totalBytes,
+			final BitstreamInput ibs, final int totalBytes,
 			final int version, final RawBinaryData binData)
 			throws OpenLRBinaryException {
 		AbsoluteCoordinates lowerLeftCoord = new AbsoluteCoordinates(ibs);
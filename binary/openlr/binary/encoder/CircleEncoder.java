@@ -36,7 +36,7 @@ import openlr.PhysicalFormatException;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.Header;
 import openlr.binary.data.Radius;
@@ -125,7 +125,7 @@ public class CircleEncoder extends AbstractEncoder {
 		radius = generateRadius(r);
 		AbsoluteCoordinates absCoord = generateAbsCoord(center);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		absCoord.put(out);
 		if (radius != null) {
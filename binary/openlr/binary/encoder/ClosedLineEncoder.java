@@ -38,7 +38,7 @@ import openlr.LocationType;
 import openlr.PhysicalFormatException;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.Header;
 import openlr.binary.data.IntermediateLRP;
@@ -113,7 +113,7 @@ public class ClosedLineEncoder extends AbstractEncoder {
 		LastClosedLineLRP lastLineLRP = generateLastLineLRP(
 				locref);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		firstLRP.put(out);
 		for (int i = 0; i < lrps.length; ++i) {
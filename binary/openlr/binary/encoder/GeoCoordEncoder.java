@@ -37,7 +37,7 @@ import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.Header;
 import openlr.binary.impl.LocationReferenceBinaryImpl;
@@ -112,7 +112,7 @@ public class GeoCoordEncoder extends AbstractEncoder {
 		Header header = generateHeader(version, LocationType.GEO_COORDINATES, false);
 		AbsoluteCoordinates absCoord = generateAbsCoord(coord);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		absCoord.put(out);
 		data = out.getData();
@@ -36,7 +36,7 @@ import openlr.PhysicalFormatException;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.AbstractCoordinate;
 import openlr.binary.data.GridDimension;
@@ -136,7 +136,7 @@ public class GridEncoder extends AbstractEncoder {
 		}
 		Header header = generateHeader(version, LocationType.GRID, false);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		GridDimension numCols = new GridDimension(ncols);
 		GridDimension numRows = new GridDimension(nrows);
 		header.put(out);
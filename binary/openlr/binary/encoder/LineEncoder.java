@@ -40,7 +40,7 @@ import openlr.PhysicalFormatException;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.Header;
 import openlr.binary.data.IntermediateLRP;
@@ -123,7 +123,7 @@ public class LineEncoder extends AbstractEncoder {
 		Offset nOff = generateOffset(od, false, version, locref);
 		LastLRP lastLRP = generateLastLrp(locref, pOff, nOff);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		firstLRP.put(out);
 		for (int i = 0; i < lrps.length; ++i) {
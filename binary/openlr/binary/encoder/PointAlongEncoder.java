@@ -42,7 +42,7 @@ import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.FirstLRP;
 import openlr.binary.data.Header;
 import openlr.binary.data.LastLRP;
@@ -141,7 +141,7 @@ public class PointAlongEncoder extends AbstractEncoder {
 		LastLRP last = generateLastLrp(lrps, pOff, s);
 		byte[] data = null;
 
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		first.put(out);
 		last.put(out);
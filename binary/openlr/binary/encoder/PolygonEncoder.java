@@ -41,7 +41,7 @@ import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
 import openlr.binary.OpenLRBinaryException;
 import openlr.binary.OpenLRBinaryException.PhysicalFormatError;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.Header;
 import openlr.binary.data.RelativeCoordinates;
@@ -144,7 +144,7 @@ public class PolygonEncoder extends AbstractEncoder {
 		}
 		Header header = generateHeader(version, LocationType.POLYGON, false);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		firstCornerPoint.put(out);
 		for (RelativeCoordinates relCoord : relCornerCoords) {
@@ -36,7 +36,7 @@ import openlr.PhysicalFormatException;
 import openlr.binary.BinaryReturnCode;
 import openlr.binary.ByteArray;
 import openlr.binary.OpenLRBinaryConstants;
-import openlr.binary.bitstream.impl.ByteArrayBitstreamOutput;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamOutput;
 import openlr.binary.data.AbsoluteCoordinates;
 import openlr.binary.data.AbstractCoordinate;
 import openlr.binary.data.Header;
@@ -127,7 +127,7 @@ public class RectangleEncoder extends AbstractEncoder {
 		}
 		Header header = generateHeader(version, LocationType.RECTANGLE, false);
 		byte[] data = null;
-		ByteArrayBitstreamOutput out = new ByteArrayBitstreamOutput();
+		ByteBufferBitstreamOutput out = new ByteBufferBitstreamOutput();
 		header.put(out);
 		coordLowerLeft.put(out);
 		coordUpperRight.put(out);
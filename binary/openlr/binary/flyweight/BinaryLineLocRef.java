@@ -0,0 +1,583 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.binary.flyweight;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import openlr.LocationReferencePoint;
+import openlr.Offsets;
+import openlr.binary.BinaryReturnCode;
+import openlr.binary.OpenLRBinaryConstants;
+import openlr.binary.OpenLRBinaryDecoder;
+import openlr.binary.bitstream.BitstreamException;
+import openlr.binary.bitstream.impl.ByteBufferBitstreamInput;
+import openlr.binary.decoder.DecoderUtils;
+import openlr.binary.impl.LocationReferencePointBinaryImpl;
+import openlr.binary.impl.OffsetsBinaryImpl;
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.rawLocRef.RawInvalidLocRef;
+import openlr.rawLocRef.RawLineLocRef;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The class BinaryLineLocRef is a reusable flyweight holding a decoded binary
+ * line location reference. Decoding reads the bits directly from a
+ * {@link ByteBuffer} or byte array and stores the values of the location
+ * reference points in primitive arrays which only grow if a reference has
+ * more points than any reference decoded before. No header, attribute or
+ * location reference point objects are created, so decoding a line
+ * reference does not allocate memory.
+ * 
+ * The values are the same as the ones of the {@link RawLineLocRef} created
+ * by the {@link OpenLRBinaryDecoder}, which can still be created with
+ * {@link #toRawLocationReference(String)} if needed. References of other
+ * location types are reported as invalid with
+ * {@link BinaryReturnCode#UNKNOWN_LOCATION_TYPE}.
+ * 
+ * The values are valid until the next call of a decode method. An instance
+ * is not thread-safe.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class BinaryLineLocRef {
+
+	/** The initial number of location reference points. */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/** The minimum number of bytes of a binary location reference. */
+	private static final int MIN_BYTES = Math.min(
+			OpenLRBinaryConstants.MIN_BYTES_LINE_LOCATION, Math.min(Math.min(
+					OpenLRBinaryConstants.MIN_BYTES_POINT_LOCATION,
+					OpenLRBinaryConstants.MIN_BYTES_POLYGON),
+					OpenLRBinaryConstants.MIN_BYTES_CLOSED_LINE_LOCATION));
+
+	/** The number of bits of absolute coordinates. */
+	private static final int ABSOLUTE_COORD_BITS = 24;
+
+	/** The number of bits of relative coordinates. */
+	private static final int RELATIVE_COORD_BITS = 16;
+
+	/** The number of bits of the side or orientation attribute. */
+	private static final int SIDE_OR_ORIENTATION_BITS = 2;
+
+	/** The number of bits of the frc and the lfrcnp attribute. */
+	private static final int FRC_BITS = 3;
+
+	/** The number of bits of the fow attribute. */
+	private static final int FOW_BITS = 3;
+
+	/** The number of bits of the bearing attribute. */
+	private static final int BEAR_BITS = 5;
+
+	/** The number of bits of the dnp attribute and the offsets. */
+	private static final int BYTE_BITS = 8;
+
+	/** The number of bits of the version. */
+	private static final int VERSION_BITS = 3;
+
+	/** The value of reserved bits. */
+	private static final int RFU_VALUE = 0;
+
+	/** The percentage factor of relative offsets. */
+	private static final int PERCENTAGE = 100;
+
+	/** The functional road classes indexed by their binary value. */
+	private static final FunctionalRoadClass[] FRCS = FunctionalRoadClass
+			.getFRCs().toArray(new FunctionalRoadClass[0]);
+
+	/** The forms of way indexed by their binary value. */
+	private static final FormOfWay[] FOWS = FormOfWay.getFOWs().toArray(
+			new FormOfWay[0]);
+
+	/** The reused bitstream. */
+	private final ByteBufferBitstreamInput ibs = new ByteBufferBitstreamInput();
+
+	/** The return code of an invalid reference, null if valid. */
+	private BinaryReturnCode returnCode = BinaryReturnCode.MISSING_DATA;
+
+	/** The binary version. */
+	private int version;
+
+	/** The number of location reference points. */
+	private int nrPoints;
+
+	/** The longitudes in degree. */
+	private double[] lon = new double[INITIAL_CAPACITY];
+
+	/** The latitudes in degree. */
+	private double[] lat = new double[INITIAL_CAPACITY];
+
+	/** The bearings. */
+	private double[] bearing = new double[INITIAL_CAPACITY];
+
+	/** The distances to the next point. */
+	private int[] dnp = new int[INITIAL_CAPACITY];
+
+	/** The functional road classes. */
+	private FunctionalRoadClass[] frc = new FunctionalRoadClass[INITIAL_CAPACITY];
+
+	/** The forms of way. */
+	private FormOfWay[] fow = new FormOfWay[INITIAL_CAPACITY];
+
+	/** The lowest functional road classes to the next point. */
+	private FunctionalRoadClass[] lfrcnp = new FunctionalRoadClass[INITIAL_CAPACITY];
+
+	/** The positive offset in meter (version 2). */
+	private int posOffset;
+
+	/** The negative offset in meter (version 2). */
+	private int negOffset;
+
+	/** The relative positive offset in percent (version 3). */
+	private float posOffsetRelative;
+
+	/** The relative negative offset in percent (version 3). */
+	private float negOffsetRelative;
+
+	/**
+	 * Decodes the line location reference stored in a region of the buffer.
+	 * The position and limit of the buffer are not changed.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param offset
+	 *            the absolute index of the first byte
+	 * @param length
+	 *            the number of bytes of the reference
+	 * @return true, if the reference is a valid line location reference
+	 * @throws BitstreamException
+	 *             if the data is shorter than its header indicates
+	 */
+	public boolean decode(final ByteBuffer buffer, final int offset,
+			final int length) throws BitstreamException {
+		ibs.reset(buffer, offset, length);
+		return decode(length);
+	}
+
+	/**
+	 * Decodes the line location reference stored in a region of the byte
+	 * array.
+	 * 
+	 * @param data
+	 *            the byte array
+	 * @param offset
+	 *            the index of the first byte
+	 * @param length
+	 *            the number of bytes of the reference
+	 * @return true, if the reference is a valid line location reference
+	 * @throws BitstreamException
+	 *             if the data is shorter than its header indicates
+	 */
+	public boolean decode(final byte[] data, final int offset,
+			final int length) throws BitstreamException {
+		ibs.reset(data, offset, length);
+		return decode(length);
+	}
+
+	/**
+	 * Decodes the reference the bitstream is positioned at. The checks
+	 * follow the ones of the {@link OpenLRBinaryDecoder}.
+	 * 
+	 * @param totalBytes
+	 *            the number of bytes of the reference
+	 * @return true, if the reference is a valid line location reference
+	 * @throws BitstreamException
+	 *             if reading the data fails
+	 */
+	private boolean decode(final int totalBytes) throws BitstreamException {
+		nrPoints = 0;
+		if (totalBytes < MIN_BYTES) {
+			returnCode = BinaryReturnCode.NOT_ENOUGH_BYTES;
+			return false;
+		}
+		// header
+		if (ibs.getBits(1) != RFU_VALUE) {
+			returnCode = BinaryReturnCode.READING_HEADER_FAILURE;
+			return false;
+		}
+		int arf1 = ibs.getBits(1);
+		boolean isPointLocation = ibs.getBits(1) == OpenLRBinaryConstants.IS_POINT;
+		int areaLocationCode = 2 * arf1 + ibs.getBits(1);
+		boolean hasAttributes = ibs.getBits(1) == OpenLRBinaryConstants.HAS_ATTRIBUTES;
+		version = ibs.getBits(VERSION_BITS);
+		if (version != OpenLRBinaryConstants.BINARY_VERSION_2
+				&& version != OpenLRBinaryConstants.BINARY_VERSION_3) {
+			returnCode = BinaryReturnCode.INVALID_VERSION;
+			return false;
+		}
+		boolean isAreaLocation = (areaLocationCode == 0 && !isPointLocation && !hasAttributes)
+				|| areaLocationCode > 0;
+		if (isPointLocation || isAreaLocation || !hasAttributes) {
+			returnCode = BinaryReturnCode.UNKNOWN_LOCATION_TYPE;
+			return false;
+		}
+
+		// integer division, possible offsets are ignored
+		int nrIntermediates = (totalBytes - OpenLRBinaryConstants.MIN_BYTES_LINE_LOCATION)
+				/ OpenLRBinaryConstants.LRP_SIZE;
+		ensureCapacity(nrIntermediates + 2);
+
+		// first location reference point
+		lon[0] = DecoderUtils.calculate32BitRepresentation(ibs
+				.getSignedBits(ABSOLUTE_COORD_BITS));
+		lat[0] = DecoderUtils.calculate32BitRepresentation(ibs
+				.getSignedBits(ABSOLUTE_COORD_BITS));
+		readAttr1(0);
+		readAttr2And3(0);
+
+		// intermediate location reference points
+		int last = nrIntermediates + 1;
+		for (int i = 1; i <= last; i++) {
+			lon[i] = lon[i - 1]
+					+ (ibs.getSignedBits(RELATIVE_COORD_BITS) / OpenLRBinaryConstants.DECA_MICRO_DEG_FACTOR);
+			lat[i] = lat[i - 1]
+					+ (ibs.getSignedBits(RELATIVE_COORD_BITS) / OpenLRBinaryConstants.DECA_MICRO_DEG_FACTOR);
+			readAttr1(i);
+			if (i < last) {
+				readAttr2And3(i);
+			}
+		}
+
+		// attribute 4 of the last location reference point
+		if (ibs.getBits(1) != RFU_VALUE) {
+			throw new BitstreamException(
+					BitstreamException.BitstreamErrorType.CONST_VALUE_MISMATCH);
+		}
+		boolean hasPosOffset = ibs.getBits(1) == OpenLRBinaryConstants.HAS_OFFSET;
+		boolean hasNegOffset = ibs.getBits(1) == OpenLRBinaryConstants.HAS_OFFSET;
+		bearing[last] = DecoderUtils.calculateBearingEstimate(ibs.getBits(BEAR_BITS));
+		dnp[last] = 0;
+		lfrcnp[last] = FunctionalRoadClass.FRC_7;
+
+		// offsets
+		int posOffsetValue = -1;
+		int negOffsetValue = -1;
+		if (hasPosOffset) {
+			posOffsetValue = ibs.getBits(BYTE_BITS);
+		}
+		if (hasNegOffset) {
+			negOffsetValue = ibs.getBits(BYTE_BITS);
+		}
+		posOffset = 0;
+		negOffset = 0;
+		posOffsetRelative = 0;
+		negOffsetRelative = 0;
+		if (version == OpenLRBinaryConstants.BINARY_VERSION_2) {
+			if (hasPosOffset) {
+				posOffset = DecoderUtils.calculateDistanceEstimate(posOffsetValue);
+			}
+			if (hasNegOffset) {
+				negOffset = DecoderUtils.calculateDistanceEstimate(negOffsetValue);
+			}
+		} else {
+			if (hasPosOffset) {
+				posOffsetRelative = DecoderUtils.calculateRelativeDistance(posOffsetValue);
+			}
+			if (hasNegOffset) {
+				negOffsetRelative = DecoderUtils.calculateRelativeDistance(negOffsetValue);
+			}
+		}
+		nrPoints = last + 1;
+		returnCode = null;
+		return true;
+	}
+
+	/**
+	 * Reads the attribute 1 of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @throws BitstreamException
+	 *             if reading the data fails
+	 */
+	private void readAttr1(final int index) throws BitstreamException {
+		// side or orientation is not used for line locations
+		ibs.getBits(SIDE_OR_ORIENTATION_BITS);
+		frc[index] = FRCS[ibs.getBits(FRC_BITS)];
+		fow[index] = FOWS[ibs.getBits(FOW_BITS)];
+	}
+
+	/**
+	 * Reads the attributes 2 and 3 of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @throws BitstreamException
+	 *             if reading the data fails
+	 */
+	private void readAttr2And3(final int index) throws BitstreamException {
+		lfrcnp[index] = FRCS[ibs.getBits(FRC_BITS)];
+		bearing[index] = DecoderUtils.calculateBearingEstimate(ibs.getBits(BEAR_BITS));
+		dnp[index] = DecoderUtils.calculateDistanceEstimate(ibs.getBits(BYTE_BITS));
+	}
+
+	/**
+	 * Ensures that the arrays can hold the number of points.
+	 * 
+	 * @param size
+	 *            the number of points
+	 */
+	private void ensureCapacity(final int size) {
+		if (lon.length < size) {
+			int newSize = Math.max(size, 2 * lon.length);
+			lon = Arrays.copyOf(lon, newSize);
+			lat = Arrays.copyOf(lat, newSize);
+			bearing = Arrays.copyOf(bearing, newSize);
+			dnp = Arrays.copyOf(dnp, newSize);
+			frc = Arrays.copyOf(frc, newSize);
+			fow = Arrays.copyOf(fow, newSize);
+			lfrcnp = Arrays.copyOf(lfrcnp, newSize);
+		}
+	}
+
+	/**
+	 * Checks if the last decoded reference is a valid line location
+	 * reference.
+	 * 
+	 * @return true, if valid
+	 */
+	public boolean isValid() {
+		return returnCode == null;
+	}
+
+	/**
+	 * Gets the return code of the last decoded reference.
+	 * 
+	 * @return the return code, null if the reference is valid
+	 */
+	public BinaryReturnCode getReturnCode() {
+		return returnCode;
+	}
+
+	/**
+	 * Gets the binary version of the last decoded reference.
+	 * 
+	 * @return the version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the number of location reference points.
+	 * 
+	 * @return the number of points, 0 if the reference is invalid
+	 */
+	public int getNumberOfPoints() {
+		return nrPoints;
+	}
+
+	/**
+	 * Gets the longitude of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the longitude in degree
+	 */
+	public double getLongitudeDeg(final int index) {
+		checkIndex(index);
+		return lon[index];
+	}
+
+	/**
+	 * Gets the latitude of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the latitude in degree
+	 */
+	public double getLatitudeDeg(final int index) {
+		checkIndex(index);
+		return lat[index];
+	}
+
+	/**
+	 * Gets the bearing of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the bearing estimate in degree
+	 */
+	public double getBearing(final int index) {
+		checkIndex(index);
+		return bearing[index];
+	}
+
+	/**
+	 * Gets the distance to the next location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the distance estimate in meter, 0 for the last point
+	 */
+	public int getDistanceToNext(final int index) {
+		checkIndex(index);
+		return dnp[index];
+	}
+
+	/**
+	 * Gets the functional road class of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the functional road class
+	 */
+	public FunctionalRoadClass getFRC(final int index) {
+		checkIndex(index);
+		return frc[index];
+	}
+
+	/**
+	 * Gets the form of way of a location reference point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the form of way
+	 */
+	public FormOfWay getFOW(final int index) {
+		checkIndex(index);
+		return fow[index];
+	}
+
+	/**
+	 * Gets the lowest functional road class to the next location reference
+	 * point.
+	 * 
+	 * @param index
+	 *            the index of the point
+	 * @return the lowest functional road class
+	 */
+	public FunctionalRoadClass getLfrc(final int index) {
+		checkIndex(index);
+		return lfrcnp[index];
+	}
+
+	/**
+	 * Checks if the reference has a positive offset.
+	 * 
+	 * @return true, if a positive offset is set
+	 */
+	public boolean hasPositiveOffset() {
+		return posOffset != 0 || posOffsetRelative != 0;
+	}
+
+	/**
+	 * Checks if the reference has a negative offset.
+	 * 
+	 * @return true, if a negative offset is set
+	 */
+	public boolean hasNegativeOffset() {
+		return negOffset != 0 || negOffsetRelative != 0;
+	}
+
+	/**
+	 * Gets the positive offset in meter. See
+	 * {@link Offsets#getPositiveOffset(int)}.
+	 * 
+	 * @param length
+	 *            the length of the path between the first two points, used
+	 *            for relative offsets
+	 * @return the positive offset
+	 */
+	public int getPositiveOffset(final int length) {
+		if (version == OpenLRBinaryConstants.BINARY_VERSION_3) {
+			return Math.round(posOffsetRelative * length / PERCENTAGE);
+		}
+		return posOffset;
+	}
+
+	/**
+	 * Gets the negative offset in meter. See
+	 * {@link Offsets#getNegativeOffset(int)}.
+	 * 
+	 * @param length
+	 *            the length of the path between the last two points, used for
+	 *            relative offsets
+	 * @return the negative offset
+	 */
+	public int getNegativeOffset(final int length) {
+		if (version == OpenLRBinaryConstants.BINARY_VERSION_3) {
+			return Math.round(negOffsetRelative * length / PERCENTAGE);
+		}
+		return negOffset;
+	}
+
+	/**
+	 * Creates a raw location reference from the decoded values.
+	 * 
+	 * @param id
+	 *            the id of the raw location reference
+	 * @return the raw line location reference or an invalid raw location
+	 *         reference
+	 */
+	public RawLocationReference toRawLocationReference(final String id) {
+		if (returnCode != null) {
+			return new RawInvalidLocRef(id, returnCode);
+		}
+		List<LocationReferencePoint> points = new ArrayList<LocationReferencePoint>(
+				nrPoints);
+		for (int i = 0; i < nrPoints; i++) {
+			points.add(new LocationReferencePointBinaryImpl(i + 1, frc[i],
+					fow[i], lon[i], lat[i], bearing[i], dnp[i], lfrcnp[i],
+					i == nrPoints - 1));
+		}
+		Offsets offsets;
+		if (version == OpenLRBinaryConstants.BINARY_VERSION_2) {
+			offsets = new OffsetsBinaryImpl(posOffset, negOffset);
+		} else {
+			offsets = new OffsetsBinaryImpl(posOffsetRelative,
+					negOffsetRelative);
+		}
+		return new RawLineLocRef(id, points, offsets);
+	}
+
+	/**
+	 * Checks the index of a location reference point.
+	 * 
+	 * @param index
+	 *            the index
+	 */
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= nrPoints) {
+			throw new IndexOutOfBoundsException("invalid point index "
+					+ index);
+		}
+	}
+}
@@ -0,0 +1,556 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.collection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class SegmentedLruCache is a thread-safe cache with a maximum number of
+ * entries. The keys are compared with their equals method.
+ * <p>
+ * The cache is split into segments which are locked independently and each
+ * segment is a "segmented least recently used" cache: new entries are stored
+ * in a probation area and move into a protected area when they are requested
+ * again. If the segment is full, the least recently used entry of the
+ * probation area is dropped first, so entries requested only once do not
+ * replace frequently requested ones. Optionally entries expire after a fixed
+ * time to live.
+ * <p>
+ * The cache counts hits, misses, evictions and expirations.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ * 
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ */
+public final class SegmentedLruCache<K, V> {
+
+	/** The share of a segment reserved for the protected area in percent. */
+	private static final int PROTECTED_PERCENTAGE = 80;
+
+	/** One hundred percent. */
+	private static final int HUNDRED = 100;
+
+	/** The number of nano seconds of a milli second. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** The maximum number of entries. */
+	private final int cacheSize;
+
+	/** The time to live of an entry in nano seconds, 0 if entries do not expire. */
+	private final long timeToLive;
+
+	/** The segments, their number is a power of two. */
+	private final List<Segment> segments;
+
+	/** The number of requests answered from the cache. */
+	private final AtomicLong hits = new AtomicLong();
+
+	/** The number of requests not answered from the cache. */
+	private final AtomicLong misses = new AtomicLong();
+
+	/** The number of entries dropped because the segment was full. */
+	private final AtomicLong evictions = new AtomicLong();
+
+	/** The number of entries dropped because they expired. */
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * Instantiates a new cache with a maximum size of cacheSize entries.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum cache size
+	 * @param timeToLiveMillis
+	 *            the time in milli seconds an entry is valid after it has been
+	 *            stored, 0 if the entries shall not expire
+	 * @param concurrencyLevel
+	 *            the number of segments which can be accessed concurrently
+	 */
+	public SegmentedLruCache(final int cacheSizeValue,
+			final long timeToLiveMillis, final int concurrencyLevel) {
+		if (cacheSizeValue <= 0) {
+			throw new IllegalArgumentException(
+					"cache size must be greater than 0");
+		}
+		if (timeToLiveMillis < 0) {
+			throw new IllegalArgumentException(
+					"time to live must not be negative");
+		}
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException(
+					"concurrency level must be greater than 0");
+		}
+		cacheSize = cacheSizeValue;
+		timeToLive = timeToLiveMillis * NANOS_PER_MILLI;
+		int nrSegments = 1;
+		while (nrSegments < concurrencyLevel
+				&& nrSegments * 2 <= cacheSizeValue) {
+			nrSegments *= 2;
+		}
+		segments = new ArrayList<Segment>(nrSegments);
+		for (int i = 0; i < nrSegments; i++) {
+			int capacity = cacheSizeValue / nrSegments;
+			if (i < cacheSizeValue % nrSegments) {
+				capacity++;
+			}
+			segments.add(new Segment(capacity));
+		}
+	}
+
+	/**
+	 * Gets the segment of a key.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the segment
+	 */
+	private Segment segmentFor(final K key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments.get(h & (segments.size() - 1));
+	}
+
+	/**
+	 * Calculates the expiry time of an entry stored now.
+	 * 
+	 * @return the expiry time or Long.MAX_VALUE if entries do not expire
+	 */
+	private long expiryTime() {
+		if (timeToLive == 0) {
+			return Long.MAX_VALUE;
+		}
+		return System.nanoTime() + timeToLive;
+	}
+
+	/**
+	 * Checks if an entry has expired.
+	 * 
+	 * @param entry
+	 *            the entry
+	 * @return true, if the entry has expired
+	 */
+	private boolean isExpired(final CacheEntry<V> entry) {
+		return timeToLive != 0 && System.nanoTime() - entry.expires > 0;
+	}
+
+	/**
+	 * Checks if a valid entry exists for a key.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return true, if the key is stored
+	 */
+	public boolean contains(final K key) {
+		return segmentFor(key).contains(key);
+	}
+
+	/**
+	 * Stores a value, the least recently used entries are dropped if the
+	 * segment is full.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	public void put(final K key, final V value) {
+		segmentFor(key).put(key, new CacheEntry<V>(value, expiryTime()));
+	}
+
+	/**
+	 * Gets the value of a key and counts the request as hit or miss.
+	 * 
+	 * @param key
+	 *            the key
+	 * @return the value or null
+	 */
+	public V get(final K key) {
+		V value = segmentFor(key).get(key);
+		if (value == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the maximum number of entries.
+	 * 
+	 * @return the maximum number of entries
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Gets the current number of entries, expired entries not yet dropped
+	 * are included.
+	 * 
+	 * @return the number of entries
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment s : segments) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		for (Segment s : segments) {
+			s.clear();
+		}
+	}
+
+	/**
+	 * Copies the valid entries segment by segment, each segment is locked
+	 * only while its entries are copied. The least recently used entries of a
+	 * segment come first.
+	 * 
+	 * @return the entries
+	 */
+	public List<Map.Entry<K, V>> entries() {
+		List<Map.Entry<K, V>> result = new ArrayList<Map.Entry<K, V>>();
+		for (Segment s : segments) {
+			s.copyEntries(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of requests answered from the cache.
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of requests not answered from the cache.
+	 * 
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of entries dropped because the cache was full.
+	 * 
+	 * @return the number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Gets the number of entries dropped because they expired.
+	 * 
+	 * @return the number of expirations
+	 */
+	public long getExpirationCount() {
+		return expirations.get();
+	}
+
+	/**
+	 * A stored value and its expiry time.
+	 * 
+	 * @param <T>
+	 *            the type of the value
+	 */
+	private static final class CacheEntry<T> {
+
+		/** The value. */
+		private final T value;
+
+		/** The expiry time in nano seconds. */
+		private final long expires;
+
+		/**
+		 * Creates an entry.
+		 * 
+		 * @param v
+		 *            the value
+		 * @param expiry
+		 *            the expiry time
+		 */
+		CacheEntry(final T v, final long expiry) {
+			value = v;
+			expires = expiry;
+		}
+	}
+
+	/**
+	 * A segment of the cache, all methods lock the segment.
+	 */
+	private final class Segment {
+
+		/** The maximum number of entries of the segment. */
+		private final int capacity;
+
+		/** The maximum number of entries in the protected area. */
+		private final int protectedCapacity;
+
+		/** The entries requested only once, in access order. */
+		private final LinkedHashMap<K, CacheEntry<V>> probation = new LinkedHashMap<K, CacheEntry<V>>(
+				16, 0.75f, true);
+
+		/** The entries requested several times, in access order. */
+		private final LinkedHashMap<K, CacheEntry<V>> protectedArea = new LinkedHashMap<K, CacheEntry<V>>(
+				16, 0.75f, true);
+
+		/**
+		 * Creates a segment.
+		 * 
+		 * @param cap
+		 *            the maximum number of entries
+		 */
+		Segment(final int cap) {
+			capacity = cap;
+			protectedCapacity = cap * PROTECTED_PERCENTAGE / HUNDRED;
+		}
+
+		/**
+		 * Gets the value of a key and moves the entry into the protected
+		 * area.
+		 * 
+		 * @param key
+		 *            the key
+		 * @return the value or null
+		 */
+		synchronized V get(final K key) {
+			CacheEntry<V> entry = protectedArea.get(key);
+			if (entry != null) {
+				if (isExpired(entry)) {
+					protectedArea.remove(key);
+					expirations.incrementAndGet();
+					return null;
+				}
+				return entry.value;
+			}
+			entry = probation.remove(key);
+			if (entry == null) {
+				return null;
+			}
+			if (isExpired(entry)) {
+				expirations.incrementAndGet();
+				return null;
+			}
+			protectedArea.put(key, entry);
+			if (protectedArea.size() > protectedCapacity) {
+				// the least recently used protected entry gets another chance
+				Iterator<Map.Entry<K, CacheEntry<V>>> iter = protectedArea
+						.entrySet().iterator();
+				Map.Entry<K, CacheEntry<V>> eldest = iter.next();
+				K eldestKey = eldest.getKey();
+				CacheEntry<V> eldestEntry = eldest.getValue();
+				iter.remove();
+				probation.put(eldestKey, eldestEntry);
+			}
+			return entry.value;
+		}
+
+		/**
+		 * Stores an entry, the least recently used entries are dropped if the
+		 * segment is full.
+		 * 
+		 * @param key
+		 *            the key
+		 * @param entry
+		 *            the entry
+		 */
+		synchronized void put(final K key, final CacheEntry<V> entry) {
+			if (protectedArea.containsKey(key)) {
+				protectedArea.put(key, entry);
+				return;
+			}
+			probation.put(key, entry);
+			while (probation.size() + protectedArea.size() > capacity) {
+				if (probation.isEmpty()) {
+					removeEldest(protectedArea);
+				} else {
+					removeEldest(probation);
+				}
+				evictions.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Checks if a valid entry exists. The access order only changes if the
+		 * entries expire, because the expiry time needs to be checked.
+		 * 
+		 * @param key
+		 *            the key
+		 * @return true, if the key is stored
+		 */
+		synchronized boolean contains(final K key) {
+			if (timeToLive == 0) {
+				return protectedArea.containsKey(key)
+						|| probation.containsKey(key);
+			}
+			CacheEntry<V> entry = protectedArea.get(key);
+			if (entry == null) {
+				entry = probation.get(key);
+			}
+			return entry != null && !isExpired(entry);
+		}
+
+		/**
+		 * Gets the number of entries.
+		 * 
+		 * @return the number of entries
+		 */
+		synchronized int size() {
+			return probation.size() + protectedArea.size();
+		}
+
+		/**
+		 * Removes all entries.
+		 */
+		synchronized void clear() {
+			probation.clear();
+			protectedArea.clear();
+		}
+
+		/**
+		 * Copies the valid entries, the least recently used entries first.
+		 * 
+		 * @param target
+		 *            the list receiving the entries
+		 */
+		synchronized void copyEntries(final List<Map.Entry<K, V>> target) {
+			copyEntries(probation, target);
+			copyEntries(protectedArea, target);
+		}
+
+		/**
+		 * Copies the valid entries of a map.
+		 * 
+		 * @param map
+		 *            the map
+		 * @param target
+		 *            the list receiving the entries
+		 */
+		private void copyEntries(final LinkedHashMap<K, CacheEntry<V>> map,
+				final List<Map.Entry<K, V>> target) {
+			for (Map.Entry<K, CacheEntry<V>> e : map.entrySet()) {
+				if (!isExpired(e.getValue())) {
+					target.add(new Entry<K, V>(e.getKey(),
+							e.getValue().value));
+				}
+			}
+		}
+
+		/**
+		 * Removes the least recently used entry of a map.
+		 * 
+		 * @param map
+		 *            the map
+		 */
+		private void removeEldest(final LinkedHashMap<K, CacheEntry<V>> map) {
+			Iterator<Map.Entry<K, CacheEntry<V>>> iter = map.entrySet()
+					.iterator();
+			iter.next();
+			iter.remove();
+		}
+	}
+
+	/**
+	 * An immutable copy of a cache entry.
+	 * 
+	 * @param <A>
+	 *            the type of the key
+	 * @param <B>
+	 *            the type of the value
+	 */
+	private static final class Entry<A, B> implements Map.Entry<A, B> {
+
+		/** The key. */
+		private final A key;
+
+		/** The value. */
+		private final B value;
+
+		/**
+		 * Creates an entry.
+		 * 
+		 * @param k
+		 *            the key
+		 * @param v
+		 *            the value
+		 */
+		Entry(final A k, final B v) {
+			key = k;
+			value = v;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public A getKey() {
+			return key;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public B getValue() {
+			return value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public B setValue(final B v) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder;
+
+import openlr.LocationReferencePoint;
+import openlr.OpenLRProcessingException;
+import openlr.location.Location;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The Interface DecoderListener receives timings and counts of the decoding
+ * process. A listener can be set in the {@link OpenLRDecoderParameter}, if no
+ * listener is set the decoder does not take any measurements.
+ * 
+ * The methods are called by the decoding thread, so an implementation shall
+ * be fast and thread-safe if the decoder is used by several threads.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public interface DecoderListener {
+
+	/**
+	 * Called when a phase of the decoding process has finished.
+	 * 
+	 * @param locRef
+	 *            the location reference being decoded
+	 * @param phase
+	 *            the phase
+	 * @param durationNanos
+	 *            the duration of the phase in nanoseconds
+	 */
+	void phaseFinished(RawLocationReference locRef, DecoderPhase phase,
+			long durationNanos);
+
+	/**
+	 * Called for each location reference point after the candidate lines have
+	 * been determined.
+	 * 
+	 * @param locRef
+	 *            the location reference being decoded
+	 * @param lrp
+	 *            the location reference point
+	 * @param nrCandidateNodes
+	 *            the number of candidate nodes
+	 * @param nrCandidateLines
+	 *            the number of candidate lines
+	 */
+	void candidatesFound(RawLocationReference locRef,
+			LocationReferencePoint lrp, int nrCandidateNodes,
+			int nrCandidateLines);
+
+	/**
+	 * Called for each pair of subsequent location reference points after the
+	 * route search between them has finished.
+	 * 
+	 * @param locRef
+	 *            the location reference being decoded
+	 * @param lrp
+	 *            the start location reference point of the pair
+	 * @param nrCandidatePairs
+	 *            the number of candidate line pairs being investigated, all
+	 *            but the last one are retries
+	 * @param nrExpansions
+	 *            the number of lines expanded by the route searches
+	 * @param found
+	 *            true, if a valid route has been found
+	 */
+	void routeResolved(RawLocationReference locRef,
+			LocationReferencePoint lrp, int nrCandidatePairs,
+			int nrExpansions, boolean found);
+
+	/**
+	 * Called when the decoding of a location reference has finished with a
+	 * valid or an invalid location.
+	 * 
+	 * @param locRef
+	 *            the location reference
+	 * @param location
+	 *            the decoded location
+	 * @param cached
+	 *            true, if the location has been taken from the location
+	 *            database
+	 * @param durationNanos
+	 *            the duration of the decoding in nanoseconds
+	 */
+	void decodingFinished(RawLocationReference locRef, Location location,
+			boolean cached, long durationNanos);
+
+	/**
+	 * Called when the decoding of a location reference has failed with an
+	 * exception.
+	 * 
+	 * @param locRef
+	 *            the location reference
+	 * @param error
+	 *            the exception thrown by the decoder
+	 * @param durationNanos
+	 *            the duration of the decoding in nanoseconds
+	 */
+	void decodingFailed(RawLocationReference locRef,
+			OpenLRProcessingException error, long durationNanos);
+}
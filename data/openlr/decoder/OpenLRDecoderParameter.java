@@ -61,6 +61,9 @@ public final class OpenLRDecoderParameter {
 	/** The phys decoder. */
 	private final List<PhysicalDecoder> physDecoder;
 
+	/** The decoder listener. */
+	private final DecoderListener listener;
+
 	/**
 	 * Instantiates a new open lr decoder parameter.
 	 *
@@ -71,6 +74,7 @@ public final class OpenLRDecoderParameter {
 		config = b.config;
 		ldb = b.ldb;
 		physDecoder = b.physDecoder;
+		listener = b.listener;
 	}
 
 	/**
@@ -144,6 +148,24 @@ public final class OpenLRDecoderParameter {
 	public List<PhysicalDecoder> getPhysicalDecoders() {
 		return physDecoder;
 	}
+
+	/**
+	 * Gets the decoder listener.
+	 *
+	 * @return the decoder listener, or null if none is set
+	 */
+	public DecoderListener getDecoderListener() {
+		return listener;
+	}
+
+	/**
+	 * Checks for decoder listener.
+	 *
+	 * @return true, if successful
+	 */
+	public boolean hasDecoderListener() {
+		return listener != null;
+	}
 	
 	/**
 	 * The Class Builder.
@@ -160,6 +182,9 @@ public final class OpenLRDecoderParameter {
 		
 		/** The phys decoder. */
 		private List<PhysicalDecoder> physDecoder = new ArrayList<PhysicalDecoder>();
+
+		/** The decoder listener. */
+		private DecoderListener listener;
 		
 		/**
 		 * With map database.
@@ -205,6 +230,17 @@ public final class OpenLRDecoderParameter {
 			return this;
 		}
 		
+		/**
+		 * With decoder listener.
+		 *
+		 * @param dl the decoder listener
+		 * @return the builder
+		 */
+		public Builder with(final DecoderListener dl) {
+			listener = dl;
+			return this;
+		}
+		
 		/**
 		 * Builds the parameter.
 		 *
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder;
+
+import openlr.OpenLRProcessingException;
+import openlr.location.Location;
+
+/**
+ * The Interface EncoderListener receives timings and counts of the encoding
+ * process. A listener can be set in the {@link OpenLREncoderParameter}, if no
+ * listener is set the encoder does not take any measurements.
+ * 
+ * The methods are called by the encoding thread, so an implementation shall
+ * be fast and thread-safe if the encoder is used by several threads.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public interface EncoderListener {
+
+	/**
+	 * Called when a phase of the encoding process has finished.
+	 * 
+	 * @param location
+	 *            the location being encoded
+	 * @param phase
+	 *            the phase
+	 * @param durationNanos
+	 *            the duration of the phase in nanoseconds
+	 */
+	void phaseFinished(Location location, EncoderPhase phase,
+			long durationNanos);
+
+	/**
+	 * Called after the location has been expanded to valid nodes.
+	 * 
+	 * @param location
+	 *            the location being encoded
+	 * @param nrLinesAtStart
+	 *            the number of lines added in front of the location
+	 * @param nrLinesAtEnd
+	 *            the number of lines added at the end of the location
+	 */
+	void locationExpanded(Location location, int nrLinesAtStart,
+			int nrLinesAtEnd);
+
+	/**
+	 * Called after the location reference points have been generated.
+	 * 
+	 * @param location
+	 *            the location being encoded
+	 * @param nrRouteSearches
+	 *            the number of route searches
+	 * @param nrExpansions
+	 *            the number of lines expanded by the route searches
+	 * @param nrRouteIntermediates
+	 *            the number of intermediates inserted because the location
+	 *            deviates from the shortest-path
+	 * @param nrDistanceIntermediates
+	 *            the number of intermediates inserted because the maximum
+	 *            distance between two location reference points is exceeded
+	 */
+	void locationReferenceGenerated(Location location, int nrRouteSearches,
+			int nrExpansions, int nrRouteIntermediates,
+			int nrDistanceIntermediates);
+
+	/**
+	 * Called when the encoding of a location has finished with a valid or an
+	 * invalid location reference.
+	 * 
+	 * @param location
+	 *            the location
+	 * @param holder
+	 *            the location reference holder
+	 * @param cached
+	 *            true, if the location reference has been taken from the
+	 *            location reference database
+	 * @param durationNanos
+	 *            the duration of the encoding in nanoseconds
+	 */
+	void encodingFinished(Location location, LocationReferenceHolder holder,
+			boolean cached, long durationNanos);
+
+	/**
+	 * Called when the encoding of a location has failed with an exception.
+	 * 
+	 * @param location
+	 *            the location
+	 * @param error
+	 *            the exception thrown by the encoder
+	 * @param durationNanos
+	 *            the duration of the encoding in nanoseconds
+	 */
+	void encodingFailed(Location location, OpenLRProcessingException error,
+			long durationNanos);
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder;
+
+/**
+ * The enum EncoderPhase lists the phases of the encoding process being
+ * reported to an {@link EncoderListener}. Not every location type passes all
+ * phases, e.g. area locations are only checked.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public enum EncoderPhase {
+
+	/** Validity check of the location and its offsets. */
+	LOCATION_CHECK,
+
+	/** Removal of lines covered completely by the offsets. */
+	ADJUST_OFFSETS,
+
+	/** Expansion of the location to valid start and end nodes. */
+	EXPANSION,
+
+	/** Coverage of the location with shortest-paths and intermediates. */
+	GENERATE_LOC_REF,
+
+	/** Final check and adjustment of the location reference. */
+	LOC_REF_ADJUST,
+
+	/** Encoding of the location reference into the physical formats. */
+	PHYSICAL_ENCODING;
+}
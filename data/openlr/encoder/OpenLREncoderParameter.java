@@ -59,6 +59,9 @@ public final class OpenLREncoderParameter {
 	
 	/** The phys encoder. */
 	private final List<PhysicalEncoder> physEncoder;	
+
+	/** The encoder listener. */
+	private final EncoderListener listener;
 	
 	
 	/**
@@ -71,6 +74,7 @@ public final class OpenLREncoderParameter {
 		config = b.config;
 		lrdb = b.lrdb;
 		physEncoder = b.physEncoder;
+		listener = b.listener;
 	}	
 
 	/**
@@ -144,6 +148,24 @@ public final class OpenLREncoderParameter {
 	public List<PhysicalEncoder> getPhysicalEncoders() {
 		return physEncoder;
 	}
+
+	/**
+	 * Gets the encoder listener.
+	 *
+	 * @return the encoder listener, or null if none is set
+	 */
+	public EncoderListener getEncoderListener() {
+		return listener;
+	}
+
+	/**
+	 * Checks for encoder listener.
+	 *
+	 * @return true, if successful
+	 */
+	public boolean hasEncoderListener() {
+		return listener != null;
+	}
 	
 	/**
 	 * The Class Builder.
@@ -162,6 +184,9 @@ public final class OpenLREncoderParameter {
 		/** The phys encoder. */
 		private List<PhysicalEncoder> physEncoder = Collections.emptyList();
 
+		/** The encoder listener. */
+		private EncoderListener listener;
+
 		
 		/**
 		 * With map database.
@@ -207,6 +232,17 @@ public final class OpenLREncoderParameter {
 			return this;
 		}
 		
+		/**
+		 * With encoder listener.
+		 *
+		 * @param el the encoder listener
+		 * @return the builder
+		 */
+		public Builder with(final EncoderListener el) {
+			listener = el;
+			return this;
+		}
+		
 		/**
 		 * Builds the parameter.
 		 *
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.location.utils;
+
+import openlr.location.Location;
+
+/**
+ * The LocationDataHandler receives the locations of a location data file read
+ * by
+ * {@link LocationDataReader#streamLocationData(java.io.BufferedReader, openlr.map.MapDatabase, java.util.concurrent.ExecutorService, int, LocationDataHandler)}
+ * . The methods are called by the reading thread in the order of the lines of
+ * the file.
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public interface LocationDataHandler {
+
+	/**
+	 * Handles a resolved location.
+	 * 
+	 * @param location
+	 *            the location
+	 * @return true, if reading shall continue, false to stop
+	 */
+	boolean handle(Location location);
+
+	/**
+	 * Handles a line which could not be resolved.
+	 * 
+	 * @param message
+	 *            the error message
+	 * @return true, if reading shall continue, false to stop
+	 */
+	boolean handleError(String message);
+}
@@ -34,6 +34,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import openlr.location.Location;
 import openlr.location.utils.worker.AbstractRW;
@@ -59,6 +67,9 @@ import openlr.map.MapDatabase;
  */
 public final class LocationDataReader {
 
+	/** The number of pending lines per thread of a temporary thread pool. */
+	private static final int PENDING_LINES_PER_THREAD = 4;
+
 	/**
 	 * Utility class shall not be instantiated.
 	 */
@@ -147,6 +158,139 @@ public final class LocationDataReader {
         return locData;
     }
 
+	/**
+	 * Streams the locations of a data file to a handler. The lines are
+	 * resolved in parallel using a temporary thread pool with the given number
+	 * of threads. See
+	 * {@link #streamLocationData(BufferedReader, MapDatabase, ExecutorService, int, LocationDataHandler)}
+	 * .
+	 * 
+	 * @param dataFile
+	 *            the data file, must not be null
+	 * @param mdb
+	 *            the mdb, must not be null and must be thread-safe
+	 * @param parallelism
+	 *            the number of resolving threads
+	 * @param handler
+	 *            the handler receiving the locations
+	 * @return the number of locations passed to the handler
+	 * @throws IOException
+	 *             if an error occurred reading the file or reading has been
+	 *             interrupted
+	 */
+	public static int streamLocationData(final File dataFile,
+			final MapDatabase mdb, final int parallelism,
+			final LocationDataHandler handler) throws IOException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: "
+					+ parallelism);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		BufferedReader br = null;
+		try {
+			br = new BufferedReader(new FileReader(dataFile));
+			return streamLocationData(br, mdb, executor, parallelism
+					* PENDING_LINES_PER_THREAD, handler);
+		} finally {
+			executor.shutdown();
+			if (br != null) {
+				br.close();
+			}
+		}
+	}
+
+	/**
+	 * Streams the locations of a reader to a handler without collecting them.
+	 * The lines are read by the calling thread and resolved in parallel by the
+	 * executor. At most maxPending lines are resolved ahead of the handler, so
+	 * the memory needed does not depend on the size of the input. The handler
+	 * is called by the calling thread in the order of the lines, a line which
+	 * cannot be resolved is passed to
+	 * {@link LocationDataHandler#handleError(String)}.
+	 * <p>
+	 * The map database is accessed concurrently and needs to be thread-safe.
+	 * 
+	 * @param reader
+	 *            the reader that provides the location data
+	 * @param mdb
+	 *            the mdb, must not be null and must be thread-safe
+	 * @param executor
+	 *            the executor resolving the lines
+	 * @param maxPending
+	 *            the maximum number of lines resolved ahead of the handler
+	 * @param handler
+	 *            the handler receiving the locations
+	 * @return the number of locations passed to the handler
+	 * @throws IOException
+	 *             if an error occurred reading the reader or reading has been
+	 *             interrupted
+	 */
+	public static int streamLocationData(final BufferedReader reader,
+			final MapDatabase mdb, final ExecutorService executor,
+			final int maxPending, final LocationDataHandler handler)
+			throws IOException {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("maxPending must be positive: "
+					+ maxPending);
+		}
+		Queue<Future<Location>> pending = new ArrayDeque<Future<Location>>(
+				maxPending);
+		int count = 0;
+		boolean proceed = true;
+		boolean endOfInput = false;
+		try {
+			while (proceed) {
+				while (!endOfInput && pending.size() < maxPending) {
+					String line = reader.readLine();
+					if (line == null) {
+						endOfInput = true;
+					} else {
+						final String trimmed = line.trim();
+						if (!skipDataLine(trimmed)) {
+							pending.add(executor.submit(new Callable<Location>() {
+								@Override
+								public Location call()
+										throws LocationDataException {
+									return resolveLocation(trimmed, mdb);
+								}
+							}));
+						}
+					}
+				}
+				Future<Location> next = pending.poll();
+				if (next == null) {
+					break;
+				}
+				try {
+					proceed = handler.handle(next.get());
+					count++;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof LocationDataException) {
+						proceed = handler.handleError(cause.getMessage());
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					} else {
+						throw new IllegalStateException(cause);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException ie = new InterruptedIOException(
+					"reading location data interrupted");
+			ie.initCause(e);
+			throw ie;
+		} finally {
+			for (Future<Location> f : pending) {
+				f.cancel(false);
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * Resolve data line.
 	 * 
@@ -162,6 +306,22 @@ public final class LocationDataReader {
 	public static void resolveDataLine(final String line,
 			final MapDatabase mdb, final LocationData locData)
 			throws LocationDataException {
+		locData.addLocation(resolveLocation(line, mdb));
+	}
+
+	/**
+	 * Resolves a data line against the map database.
+	 * 
+	 * @param line
+	 *            the line
+	 * @param mdb
+	 *            the mdb
+	 * @return the location
+	 * @throws LocationDataException
+	 *             the location data exception
+	 */
+	public static Location resolveLocation(final String line,
+			final MapDatabase mdb) throws LocationDataException {
 		String[] parts = line.split(LocationDataConstants.REGEX_PART_DELIMITER);
 		if (parts.length == LocationDataConstants.REQUIRED_PARTS) {
 			String marker = parts[LocationDataConstants.MARKER_PART];
@@ -191,8 +351,7 @@ public final class LocationDataReader {
 			} else {
 				throw new LocationDataException("Unknown location marker");
 			}
-			Location location = rw.readLocationString(id, featureList, mdb);
-			locData.addLocation(location);
+			return rw.readLocationString(id, featureList, mdb);
 		} else {
 			throw new LocationDataException("Invalid location string: " + line);
 		}
@@ -0,0 +1,408 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.rawLocRef;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import openlr.LocationReferencePoint;
+import openlr.LocationType;
+import openlr.Offsets;
+import openlr.location.data.Orientation;
+import openlr.location.data.SideOfRoad;
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+
+/**
+ * The class RawLocRefSerializer writes raw location references in a compact
+ * binary form and reads them again. The form holds the location type, the
+ * location reference points, the offsets and the further attributes of the
+ * location type. The ID and the sequence numbers of the location reference
+ * points are not written, so equal location references get the same bytes
+ * and the bytes can also be used to identify a location reference by its
+ * content. The sequence numbers are restored from the order of the points.
+ * <p>
+ * The offsets are written in meters, evaluated with the distances of the
+ * first and the last location reference point pair.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class RawLocRefSerializer {
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private RawLocRefSerializer() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Writes a raw location reference.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param raw
+	 *            the raw location reference
+	 * @return true, if the location type is supported, nothing is written
+	 *         otherwise
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static boolean write(final DataOutput out,
+			final RawLocationReference raw) throws IOException {
+		LocationType type = raw.getLocationType();
+		if (type == null || type == LocationType.UNKNOWN) {
+			return false;
+		}
+		out.writeByte(type.ordinal());
+		switch (type) {
+		case LINE_LOCATION:
+			writeLRPs(out, raw.getLocationReferencePoints());
+			writeOffsets(out, raw.getOffsets(),
+					raw.getLocationReferencePoints());
+			break;
+		case CLOSED_LINE:
+			writeLRPs(out, raw.getLocationReferencePoints());
+			break;
+		case POINT_ALONG_LINE:
+		case POI_WITH_ACCESS_POINT:
+			writeLRPs(out, raw.getLocationReferencePoints());
+			writeOffsets(out, raw.getOffsets(),
+					raw.getLocationReferencePoints());
+			out.writeByte(ordinal(raw.getSideOfRoad()));
+			out.writeByte(ordinal(raw.getOrientation()));
+			if (type == LocationType.POI_WITH_ACCESS_POINT) {
+				writeCoordinates(out, raw.getGeoCoordinates());
+			}
+			break;
+		case GEO_COORDINATES:
+			writeCoordinates(out, raw.getGeoCoordinates());
+			break;
+		case CIRCLE:
+			writeCoordinates(out, raw.getCenterPoint());
+			out.writeLong(raw.getRadius());
+			break;
+		case RECTANGLE:
+			writeCoordinates(out, raw.getLowerLeftPoint());
+			writeCoordinates(out, raw.getUpperRightPoint());
+			break;
+		case GRID:
+			writeCoordinates(out, raw.getLowerLeftPoint());
+			writeCoordinates(out, raw.getUpperRightPoint());
+			out.writeInt(raw.getNumberOfColumns());
+			out.writeInt(raw.getNumberOfRows());
+			break;
+		case POLYGON:
+			List<GeoCoordinates> corners = raw.getCornerPoints();
+			if (corners == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(corners.size());
+				for (GeoCoordinates gc : corners) {
+					writeCoordinates(out, gc);
+				}
+			}
+			break;
+		default:
+			throw new IOException("unsupported location type " + type);
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a raw location reference written by
+	 * {@link #write(DataOutput, RawLocationReference)}.
+	 * 
+	 * @param in
+	 *            the input
+	 * @param id
+	 *            the ID of the location reference
+	 * @return the raw location reference
+	 * @throws IOException
+	 *             if reading fails or the data is invalid
+	 */
+	public static RawLocationReference read(final DataInput in,
+			final String id) throws IOException {
+		int ordinal = in.readByte();
+		List<LocationType> types = LocationType.getLocationTypes();
+		if (ordinal < 0 || ordinal >= types.size()) {
+			throw new IOException("invalid location type " + ordinal);
+		}
+		LocationType type = types.get(ordinal);
+		switch (type) {
+		case LINE_LOCATION:
+			List<LocationReferencePoint> lineLrps = readLRPs(in);
+			return new RawLineLocRef(id, lineLrps, readOffsets(in));
+		case CLOSED_LINE:
+			return new RawClosedLineLocRef(id, readLRPs(in));
+		case POINT_ALONG_LINE:
+		case POI_WITH_ACCESS_POINT:
+			List<LocationReferencePoint> lrps = readLRPs(in);
+			if (lrps == null || lrps.size() != 2) {
+				throw new IOException("invalid number of points");
+			}
+			Offsets offsets = readOffsets(in);
+			SideOfRoad sor = readEnum(in, SideOfRoad.values());
+			Orientation ori = readEnum(in, Orientation.values());
+			if (type == LocationType.POINT_ALONG_LINE) {
+				return new RawPointAlongLocRef(id, lrps.get(0), lrps.get(1),
+						offsets, sor, ori);
+			}
+			return new RawPoiAccessLocRef(id, lrps.get(0), lrps.get(1),
+					offsets, readCoordinates(in), sor, ori);
+		case GEO_COORDINATES:
+			return new RawGeoCoordLocRef(id, readCoordinates(in));
+		case CIRCLE:
+			GeoCoordinates center = readCoordinates(in);
+			return new RawCircleLocRef(id, center, in.readLong());
+		case RECTANGLE:
+			GeoCoordinates rectLL = readCoordinates(in);
+			return new RawRectangleLocRef(id, rectLL, readCoordinates(in));
+		case GRID:
+			GeoCoordinates gridLL = readCoordinates(in);
+			GeoCoordinates gridUR = readCoordinates(in);
+			int cols = in.readInt();
+			return new RawGridLocRef(id, gridLL, gridUR, cols, in.readInt());
+		case POLYGON:
+			int nrCorners = in.readInt();
+			if (nrCorners < 0) {
+				throw new IOException("invalid number of corners "
+						+ nrCorners);
+			}
+			List<GeoCoordinates> corners = new ArrayList<GeoCoordinates>(
+					nrCorners);
+			for (int i = 0; i < nrCorners; i++) {
+				corners.add(readCoordinates(in));
+			}
+			return new RawPolygonLocRef(id, corners);
+		default:
+			throw new IOException("unsupported location type " + type);
+		}
+	}
+
+	/**
+	 * Writes location reference points.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param lrps
+	 *            the location reference points, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeLRPs(final DataOutput out,
+			final List<? extends LocationReferencePoint> lrps)
+			throws IOException {
+		if (lrps == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(lrps.size());
+		for (LocationReferencePoint lrp : lrps) {
+			out.writeDouble(lrp.getLongitudeDeg());
+			out.writeDouble(lrp.getLatitudeDeg());
+			out.writeDouble(lrp.getBearing());
+			out.writeInt(lrp.getDistanceToNext());
+			out.writeByte(ordinal(lrp.getFRC()));
+			out.writeByte(ordinal(lrp.getFOW()));
+			out.writeByte(ordinal(lrp.getLfrc()));
+			out.writeBoolean(lrp.isLastLRP());
+		}
+	}
+
+	/**
+	 * Reads location reference points.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the location reference points or null
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static List<LocationReferencePoint> readLRPs(final DataInput in)
+			throws IOException {
+		int nrPoints = in.readInt();
+		if (nrPoints == -1) {
+			return null;
+		}
+		if (nrPoints < 0) {
+			throw new IOException("invalid number of points " + nrPoints);
+		}
+		List<LocationReferencePoint> lrps = new ArrayList<LocationReferencePoint>(
+				nrPoints);
+		for (int i = 0; i < nrPoints; i++) {
+			double lon = in.readDouble();
+			double lat = in.readDouble();
+			double bearing = in.readDouble();
+			int dnp = in.readInt();
+			FunctionalRoadClass frc = readEnum(in, FunctionalRoadClass.values());
+			FormOfWay fow = readEnum(in, FormOfWay.values());
+			FunctionalRoadClass lfrc = readEnum(in,
+					FunctionalRoadClass.values());
+			boolean last = in.readBoolean();
+			lrps.add(new StoredLocRefPoint(lon, lat, bearing, dnp, frc, fow,
+					lfrc, last, i + 1));
+		}
+		return lrps;
+	}
+
+	/**
+	 * Writes the offsets.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param offsets
+	 *            the offsets, may be null
+	 * @param lrps
+	 *            the location reference points, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeOffsets(final DataOutput out,
+			final Offsets offsets,
+			final List<? extends LocationReferencePoint> lrps)
+			throws IOException {
+		if (offsets == null || lrps == null || lrps.size() < 2) {
+			out.writeBoolean(false);
+			return;
+		}
+		out.writeBoolean(true);
+		out.writeInt(offsets.getPositiveOffset(lrps.get(0).getDistanceToNext()));
+		out.writeInt(offsets.getNegativeOffset(lrps.get(lrps.size() - 2)
+				.getDistanceToNext()));
+	}
+
+	/**
+	 * Reads the offsets.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the offsets or null
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static Offsets readOffsets(final DataInput in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		int pOff = in.readInt();
+		return new StoredOffsets(pOff, in.readInt());
+	}
+
+	/**
+	 * Writes a coordinate pair.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param gc
+	 *            the coordinates, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeCoordinates(final DataOutput out,
+			final GeoCoordinates gc) throws IOException {
+		if (gc == null) {
+			out.writeBoolean(false);
+			return;
+		}
+		out.writeBoolean(true);
+		out.writeDouble(gc.getLongitudeDeg());
+		out.writeDouble(gc.getLatitudeDeg());
+	}
+
+	/**
+	 * Reads a coordinate pair.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the coordinates or null
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static GeoCoordinates readCoordinates(final DataInput in)
+			throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		double lon = in.readDouble();
+		return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(lon,
+				in.readDouble());
+	}
+
+	/**
+	 * Gets the ordinal of an enum value, or -1 for null.
+	 * 
+	 * @param e
+	 *            the enum value
+	 * @return the ordinal
+	 */
+	private static int ordinal(final Enum<?> e) {
+		if (e == null) {
+			return -1;
+		}
+		return e.ordinal();
+	}
+
+	/**
+	 * Reads an enum value written as ordinal.
+	 * 
+	 * @param <E>
+	 *            the enum type
+	 * @param in
+	 *            the input
+	 * @param values
+	 *            the enum values
+	 * @return the enum value or null
+	 * @throws IOException
+	 *             if reading fails or the ordinal is invalid
+	 */
+	private static <E extends Enum<E>> E readEnum(final DataInput in,
+			final E[] values) throws IOException {
+		int ordinal = in.readByte();
+		if (ordinal == -1) {
+			return null;
+		}
+		if (ordinal < 0 || ordinal >= values.length) {
+			throw new IOException("invalid enum value " + ordinal);
+		}
+		return values[ordinal];
+	}
+}
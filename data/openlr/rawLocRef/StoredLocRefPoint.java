@@ -0,0 +1,185 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.rawLocRef;
+
+import openlr.LocationReferencePoint;
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+
+/**
+ * The class StoredLocRefPoint holds the attributes of a location reference
+ * point restored by {@link RawLocRefSerializer}.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class StoredLocRefPoint implements LocationReferencePoint {
+
+	/** The longitude. */
+	private final double longitude;
+
+	/** The latitude. */
+	private final double latitude;
+
+	/** The bearing. */
+	private final double bearing;
+
+	/** The distance to the next point. */
+	private final int distanceToNext;
+
+	/** The functional road class. */
+	private final FunctionalRoadClass frc;
+
+	/** The form of way. */
+	private final FormOfWay fow;
+
+	/** The lowest functional road class to the next point. */
+	private final FunctionalRoadClass lfrc;
+
+	/** Whether this is the last point. */
+	private final boolean isLast;
+
+	/** The sequence number. */
+	private final int sequenceNumber;
+
+	/**
+	 * Creates a location reference point.
+	 * 
+	 * @param lon
+	 *            the longitude
+	 * @param lat
+	 *            the latitude
+	 * @param bear
+	 *            the bearing
+	 * @param dnp
+	 *            the distance to the next point
+	 * @param frcValue
+	 *            the functional road class
+	 * @param fowValue
+	 *            the form of way
+	 * @param lfrcValue
+	 *            the lowest functional road class to the next point
+	 * @param last
+	 *            whether this is the last point
+	 * @param seqNr
+	 *            the sequence number
+	 */
+	StoredLocRefPoint(final double lon, final double lat, final double bear,
+			final int dnp, final FunctionalRoadClass frcValue,
+			final FormOfWay fowValue, final FunctionalRoadClass lfrcValue,
+			final boolean last, final int seqNr) {
+		longitude = lon;
+		latitude = lat;
+		bearing = bear;
+		distanceToNext = dnp;
+		frc = frcValue;
+		fow = fowValue;
+		lfrc = lfrcValue;
+		isLast = last;
+		sequenceNumber = seqNr;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLongitudeDeg() {
+		return longitude;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLatitudeDeg() {
+		return latitude;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getDistanceToNext() {
+		return distanceToNext;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FunctionalRoadClass getLfrc() {
+		return lfrc;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getBearing() {
+		return bearing;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FormOfWay getFOW() {
+		return fow;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FunctionalRoadClass getFRC() {
+		return frc;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isLastLRP() {
+		return isLast;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getSequenceNumber() {
+		return sequenceNumber;
+	}
+}
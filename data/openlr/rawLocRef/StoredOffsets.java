@@ -0,0 +1,110 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.rawLocRef;
+
+import openlr.Offsets;
+
+/**
+ * The class StoredOffsets holds the offsets restored by
+ * {@link RawLocRefSerializer}. The offsets are stored in meters, so they do
+ * not depend on the length passed to the getters.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class StoredOffsets implements Offsets {
+
+	/** The positive offset. */
+	private final int positiveOffset;
+
+	/** The negative offset. */
+	private final int negativeOffset;
+
+	/**
+	 * Creates the offsets.
+	 * 
+	 * @param pOff
+	 *            the positive offset
+	 * @param nOff
+	 *            the negative offset
+	 */
+	StoredOffsets(final int pOff, final int nOff) {
+		positiveOffset = pOff;
+		negativeOffset = nOff;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPositiveOffset(final int length) {
+		return positiveOffset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNegativeOffset(final int length) {
+		return negativeOffset;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasPositiveOffset() {
+		return positiveOffset > 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNegativeOffset() {
+		return negativeOffset > 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("posOff: ").append(positiveOffset);
+		sb.append(" negOff: ").append(negativeOffset);
+		return sb.toString();
+	}
+}
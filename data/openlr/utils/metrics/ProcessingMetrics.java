@@ -0,0 +1,500 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.utils.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import openlr.LocationType;
+
+/**
+ * The class ProcessingMetrics aggregates the counts and timings of decodings
+ * or encodings in a thread-safe way. The total times are kept per location
+ * type and the phase times per location type and phase, the phases are the
+ * constants of the enum given to the constructor. The decoder and the encoder
+ * metrics delegate their bookkeeping to an instance of this class and add
+ * their own counters.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ * 
+ * @param <P>
+ *            the type of the processing phases
+ */
+public final class ProcessingMetrics<P extends Enum<P>> {
+
+	/** The return code key of valid results. */
+	public static final String RETURN_CODE_OK = "OK";
+
+	/** The number of nanoseconds per microsecond. */
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	/** The number of nanoseconds per millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** The number of location types. */
+	private static final int NR_TYPES = LocationType.values().length;
+
+	/** The phases. */
+	private final P[] phases;
+
+	/** The number of phases. */
+	private final int nrPhases;
+
+	/** The threshold for slow processings in nanoseconds, 0 if disabled. */
+	private final long slowThresholdNanos;
+
+	/** The number of processings. */
+	private final AtomicLong count = new AtomicLong();
+
+	/** The number of cache hits. */
+	private final AtomicLong cacheHits = new AtomicLong();
+
+	/** The number of failures. */
+	private final AtomicLong failures = new AtomicLong();
+
+	/** The number of slow processings. */
+	private final AtomicLong slowCount = new AtomicLong();
+
+	/** The total processing time. */
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	/** The maximum processing time. */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/** The number of processings per location type. */
+	private final AtomicLongArray typeCounts = new AtomicLongArray(NR_TYPES);
+
+	/** The total processing time per location type. */
+	private final AtomicLongArray typeNanos = new AtomicLongArray(NR_TYPES);
+
+	/** The number of processings per return code. */
+	private final ConcurrentMap<String, AtomicLong> returnCodes = new ConcurrentHashMap<String, AtomicLong>();
+
+	/** The number of executions per location type and phase. */
+	private final AtomicLongArray phaseCounts;
+
+	/** The total time per location type and phase. */
+	private final AtomicLongArray phaseNanos;
+
+	/** The maximum time per phase. */
+	private final AtomicLongArray maxPhaseNanos;
+
+	/**
+	 * Creates the metrics.
+	 * 
+	 * @param phaseType
+	 *            the enum class of the phases
+	 * @param slowThresholdMillis
+	 *            the threshold for slow processings in milliseconds, 0
+	 *            disables the counting
+	 */
+	public ProcessingMetrics(final Class<P> phaseType,
+			final long slowThresholdMillis) {
+		if (slowThresholdMillis < 0) {
+			throw new IllegalArgumentException("negative slow threshold");
+		}
+		phases = phaseType.getEnumConstants();
+		nrPhases = phases.length;
+		slowThresholdNanos = slowThresholdMillis * NANOS_PER_MILLI;
+		phaseCounts = new AtomicLongArray(NR_TYPES * nrPhases);
+		phaseNanos = new AtomicLongArray(NR_TYPES * nrPhases);
+		maxPhaseNanos = new AtomicLongArray(nrPhases);
+	}
+
+	/**
+	 * Adds the duration of a phase.
+	 * 
+	 * @param type
+	 *            the location type being processed
+	 * @param phase
+	 *            the phase
+	 * @param durationNanos
+	 *            the duration of the phase in nanoseconds
+	 */
+	public void phaseFinished(final LocationType type, final P phase,
+			final long durationNanos) {
+		int idx = type.ordinal() * nrPhases + phase.ordinal();
+		phaseCounts.incrementAndGet(idx);
+		phaseNanos.addAndGet(idx, durationNanos);
+		updateMax(maxPhaseNanos, phase.ordinal(), durationNanos);
+	}
+
+	/**
+	 * Adds a finished processing.
+	 * 
+	 * @param type
+	 *            the location type
+	 * @param returnCode
+	 *            the name of the return code, {@link #RETURN_CODE_OK} for
+	 *            valid results
+	 * @param cached
+	 *            true, if the result has been taken from a cache
+	 * @param failed
+	 *            true, if the processing failed with an exception
+	 * @param durationNanos
+	 *            the processing time in nanoseconds
+	 * @return true, if the processing exceeded the slow threshold
+	 */
+	public boolean finished(final LocationType type, final String returnCode,
+			final boolean cached, final boolean failed,
+			final long durationNanos) {
+		if (cached) {
+			cacheHits.incrementAndGet();
+		}
+		if (failed) {
+			failures.incrementAndGet();
+		}
+		countReturnCode(returnCode);
+		count.incrementAndGet();
+		totalNanos.addAndGet(durationNanos);
+		long max = maxNanos.get();
+		while (durationNanos > max
+				&& !maxNanos.compareAndSet(max, durationNanos)) {
+			max = maxNanos.get();
+		}
+		typeCounts.incrementAndGet(type.ordinal());
+		typeNanos.addAndGet(type.ordinal(), durationNanos);
+		if (slowThresholdNanos > 0 && durationNanos > slowThresholdNanos) {
+			slowCount.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a return code.
+	 * 
+	 * @param code
+	 *            the name of the return code
+	 */
+	private void countReturnCode(final String code) {
+		AtomicLong counter = returnCodes.get(code);
+		if (counter == null) {
+			AtomicLong newCounter = new AtomicLong();
+			counter = returnCodes.putIfAbsent(code, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		counter.incrementAndGet();
+	}
+
+	/**
+	 * Raises an element of an array to a value if the value is larger.
+	 * 
+	 * @param array
+	 *            the array
+	 * @param idx
+	 *            the index of the element
+	 * @param value
+	 *            the value
+	 */
+	private static void updateMax(final AtomicLongArray array, final int idx,
+			final long value) {
+		long max = array.get(idx);
+		while (value > max && !array.compareAndSet(idx, max, value)) {
+			max = array.get(idx);
+		}
+	}
+
+	/**
+	 * Gets the number of processings, including cache hits and failures.
+	 * 
+	 * @return the number of processings
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Gets the number of results taken from a cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getCacheHitCount() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * Gets the number of processings which failed with an exception.
+	 * 
+	 * @return the number of failures
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Gets the number of processings exceeding the slow threshold.
+	 * 
+	 * @return the number of slow processings
+	 */
+	public long getSlowCount() {
+		return slowCount.get();
+	}
+
+	/**
+	 * Gets the average processing time.
+	 * 
+	 * @return the average processing time in microseconds
+	 */
+	public double getAverageMicros() {
+		return average(totalNanos.get(), count.get()) / NANOS_PER_MICRO;
+	}
+
+	/**
+	 * Gets the maximum processing time.
+	 * 
+	 * @return the maximum processing time in microseconds
+	 */
+	public long getMaxMicros() {
+		return Math.round(maxNanos.get() / NANOS_PER_MICRO);
+	}
+
+	/**
+	 * Gets the number of processings per location type.
+	 * 
+	 * @return the number of processings per location type
+	 */
+	public Map<String, Long> getCountByType() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (LocationType t : LocationType.values()) {
+			long c = typeCounts.get(t.ordinal());
+			if (c > 0) {
+				result.put(t.name(), c);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the average processing time per location type.
+	 * 
+	 * @return the average processing time per location type in microseconds
+	 */
+	public Map<String, Double> getAverageMicrosByType() {
+		Map<String, Double> result = new TreeMap<String, Double>();
+		for (LocationType t : LocationType.values()) {
+			long c = typeCounts.get(t.ordinal());
+			if (c > 0) {
+				result.put(t.name(), average(typeNanos.get(t.ordinal()), c)
+						/ NANOS_PER_MICRO);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of processings per return code.
+	 * 
+	 * @return the number of processings per return code
+	 */
+	public Map<String, Long> getReturnCodeCounts() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> e : returnCodes.entrySet()) {
+			result.put(e.getKey(), e.getValue().get());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of executions per phase.
+	 * 
+	 * @return the number of executions per phase
+	 */
+	public Map<String, Long> getPhaseCounts() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (P p : phases) {
+			long c = 0;
+			for (int t = 0; t < NR_TYPES; t++) {
+				c += phaseCounts.get(t * nrPhases + p.ordinal());
+			}
+			result.put(p.name(), c);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the average time per phase.
+	 * 
+	 * @return the average time per phase in microseconds
+	 */
+	public Map<String, Double> getAveragePhaseMicros() {
+		Map<String, Double> result = new TreeMap<String, Double>();
+		for (P p : phases) {
+			long c = 0;
+			long nanos = 0;
+			for (int t = 0; t < NR_TYPES; t++) {
+				c += phaseCounts.get(t * nrPhases + p.ordinal());
+				nanos += phaseNanos.get(t * nrPhases + p.ordinal());
+			}
+			result.put(p.name(), average(nanos, c) / NANOS_PER_MICRO);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the maximum time per phase.
+	 * 
+	 * @return the maximum time per phase in microseconds
+	 */
+	public Map<String, Long> getMaxPhaseMicros() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (P p : phases) {
+			result.put(p.name(), Math.round(maxPhaseNanos.get(p.ordinal())
+					/ NANOS_PER_MICRO));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the average time per location type and phase. The keys are the
+	 * location type and the phase separated by a dot.
+	 * 
+	 * @return the average time per location type and phase in microseconds
+	 */
+	public Map<String, Double> getAveragePhaseMicrosByType() {
+		Map<String, Double> result = new TreeMap<String, Double>();
+		for (LocationType t : LocationType.values()) {
+			for (P p : phases) {
+				int idx = t.ordinal() * nrPhases + p.ordinal();
+				long c = phaseCounts.get(idx);
+				if (c > 0) {
+					result.put(t.name() + "." + p.name(), average(
+							phaseNanos.get(idx), c)
+							/ NANOS_PER_MICRO);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Resets all metrics.
+	 */
+	public void reset() {
+		count.set(0);
+		cacheHits.set(0);
+		failures.set(0);
+		slowCount.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+		for (int i = 0; i < NR_TYPES; i++) {
+			typeCounts.set(i, 0);
+			typeNanos.set(i, 0);
+		}
+		returnCodes.clear();
+		for (int i = 0; i < NR_TYPES * nrPhases; i++) {
+			phaseCounts.set(i, 0);
+			phaseNanos.set(i, 0);
+		}
+		for (int i = 0; i < nrPhases; i++) {
+			maxPhaseNanos.set(i, 0);
+		}
+	}
+
+	/**
+	 * Calculates an average.
+	 * 
+	 * @param sum
+	 *            the sum of the values
+	 * @param count
+	 *            the number of values
+	 * @return the average, or 0 if there are no values
+	 */
+	public static double average(final long sum, final long count) {
+		if (count == 0) {
+			return 0;
+		}
+		return (double) sum / count;
+	}
+
+	/**
+	 * Converts nanoseconds to microseconds.
+	 * 
+	 * @param nanos
+	 *            the time in nanoseconds
+	 * @return the time in microseconds
+	 */
+	public static long toMicros(final double nanos) {
+		return Math.round(nanos / NANOS_PER_MICRO);
+	}
+
+	/**
+	 * Registers metrics at the platform MBean server.
+	 * 
+	 * @param mbean
+	 *            the metrics implementing an MXBean interface
+	 * @param domain
+	 *            the JMX domain
+	 * @param type
+	 *            the type key of the object name
+	 * @param name
+	 *            the name key of the object name, it will be quoted
+	 * @return the object name of the registered metrics
+	 * @throws JMException
+	 *             if the registration fails
+	 */
+	public static ObjectName register(final Object mbean, final String domain,
+			final String type, final String name) throws JMException {
+		ObjectName objectName = new ObjectName(domain + ":type=" + type
+				+ ",name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(mbean,
+				objectName);
+		return objectName;
+	}
+
+	/**
+	 * Removes registered metrics from the platform MBean server.
+	 * 
+	 * @param objectName
+	 *            the object name of the registered metrics
+	 * @throws JMException
+	 *             if the metrics are not registered
+	 */
+	public static void unregister(final ObjectName objectName)
+			throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+	}
+}
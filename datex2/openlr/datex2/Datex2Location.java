@@ -201,8 +201,18 @@ public class Datex2Location {
 		d2.setPayloadPublication(payload);
 		Situation s = FACTORY.createSituation();
 		payload.getSituation().add(s);
+		s.getSituationRecord().add(createSituationRecord());
+		return FACTORY.createD2LogicalModel(d2);
+	}
+	
+	/**
+	 * Creates a situation record holding this location in its OpenLR
+	 * extension.
+	 *
+	 * @return the situation record
+	 */
+	final Accident createSituationRecord() {
 		Accident record = FACTORY.createAccident();
-		s.getSituationRecord().add(record);
 		if (isLineLocation()) {
 			Linear locations = FACTORY.createLinear();
 			LinearExtensionType ext = FACTORY.createLinearExtensionType();
@@ -220,9 +230,9 @@ public class Datex2Location {
 			locations.setPointExtension(ext);
 			record.setGroupOfLocations(locations);
 		}
-		return FACTORY.createD2LogicalModel(d2);
+		return record;
 	}
-	
+
 	/**
 	 * {@inheritDoc}
 	 */
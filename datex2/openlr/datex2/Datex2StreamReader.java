@@ -0,0 +1,234 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.datex2;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import openlr.PhysicalFormatException;
+import openlr.datex2.OpenLRDatex2Exception.XMLErrorType;
+import openlr.rawLocRef.RawLocationReference;
+import eu.datex2.schema._2_0rc2._2_0.ObjectFactory;
+import eu.datex2.schema._2_0rc2._2_0.SituationRecord;
+
+/**
+ * The Datex2StreamReader reads DATEX II situation publications with many
+ * situation records. The publication is scanned with a StAX reader and only
+ * one <code>situationRecord</code> element at a time is unmarshalled, so the
+ * memory needed is bounded by the size of a single record and not by the
+ * size of the publication.
+ * <p>
+ * The OpenLR location reference of each record with a linear or point
+ * location carrying the OpenLR extension is decoded with the
+ * {@link OpenLRDatex2Decoder} and passed to the handler together with the
+ * record. The id of the location reference is the id of the situation
+ * record. Records without an OpenLR location reference are skipped.
+ * <p>
+ * A reader is not thread-safe, each thread shall use its own instance.
+ * Several publications can be read in parallel by several readers.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class Datex2StreamReader {
+
+	/**
+	 * The Handler receives the location references of the situation
+	 * records.
+	 */
+	public interface Handler {
+
+		/**
+		 * Handles the decoded location reference of a situation record.
+		 * 
+		 * @param record
+		 *            the situation record
+		 * @param rawLocRef
+		 *            the raw location reference of the record
+		 * @return true, if reading shall continue, false to stop
+		 */
+		boolean handle(SituationRecord record, RawLocationReference rawLocRef);
+	}
+
+	/** The name of the situation record element. */
+	private static final String SITUATION_RECORD_ELEMENT = "situationRecord";
+
+	/** The Datex II decoder. */
+	private final OpenLRDatex2Decoder decoder = new OpenLRDatex2Decoder();
+
+	/** The StAX input factory. */
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+	/** The unmarshaller for situation records. */
+	private final Unmarshaller unmarshaller;
+
+	/** The number of location references passed to handlers. */
+	private long nrReferences;
+
+	/**
+	 * Instantiates a new Datex II stream reader.
+	 * 
+	 * @throws OpenLRDatex2Exception
+	 *             if instantiation failed
+	 */
+	public Datex2StreamReader() throws OpenLRDatex2Exception {
+		try {
+			unmarshaller = JAXBContext.newInstance(ObjectFactory.class)
+					.createUnmarshaller();
+		} catch (JAXBException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		}
+	}
+
+	/**
+	 * Gets the number of location references passed to handlers so far.
+	 * 
+	 * @return the number of location references
+	 */
+	public long getNumberOfReferences() {
+		return nrReferences;
+	}
+
+	/**
+	 * Reads the location references of all situation records of a file.
+	 * 
+	 * @param file
+	 *            the input file to read from
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws IOException
+	 *             if an i/o exception occurs
+	 * @throws PhysicalFormatException
+	 *             if the publication or a location reference is invalid
+	 */
+	public int read(final File file, final Handler handler)
+			throws IOException, PhysicalFormatException {
+		InputStream is = new BufferedInputStream(new FileInputStream(file));
+		try {
+			return read(is, handler);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Reads the location references of all situation records from an input
+	 * stream. The stream is not closed.
+	 * 
+	 * @param is
+	 *            the input stream to read from
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws PhysicalFormatException
+	 *             if the publication or a location reference is invalid
+	 */
+	public int read(final InputStream is, final Handler handler)
+			throws PhysicalFormatException {
+		XMLStreamReader xsr;
+		try {
+			xsr = inputFactory.createXMLStreamReader(is);
+		} catch (XMLStreamException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		}
+		try {
+			return read(xsr, handler);
+		} catch (XMLStreamException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		} catch (JAXBException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		} finally {
+			try {
+				xsr.close();
+			} catch (XMLStreamException e) {
+				// the underlying stream is left to the caller
+			}
+		}
+	}
+
+	/**
+	 * Scans the publication for situation records and unmarshals them one at
+	 * a time.
+	 * 
+	 * @param xsr
+	 *            the StAX reader
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws XMLStreamException
+	 *             if the publication cannot be read
+	 * @throws JAXBException
+	 *             if a situation record cannot be unmarshalled
+	 * @throws PhysicalFormatException
+	 *             if a location reference is invalid
+	 */
+	private int read(final XMLStreamReader xsr, final Handler handler)
+			throws XMLStreamException, JAXBException, PhysicalFormatException {
+		int count = 0;
+		boolean proceed = true;
+		while (proceed && xsr.hasNext()) {
+			if (xsr.getEventType() != XMLStreamConstants.START_ELEMENT
+					|| !SITUATION_RECORD_ELEMENT.equals(xsr.getLocalName())) {
+				xsr.next();
+				continue;
+			}
+			// unmarshalling moves the reader behind the end of the element
+			SituationRecord record = unmarshaller.unmarshal(xsr,
+					SituationRecord.class).getValue();
+			Datex2Location location = XmlReader.getOpenLRLocation(record
+					.getGroupOfLocations());
+			if (location != null) {
+				RawLocationReference rawLocRef = decoder.decodeData(
+						record.getId(), location);
+				count++;
+				nrReferences++;
+				proceed = handler.handle(record, rawLocRef);
+			}
+		}
+		return count;
+	}
+}
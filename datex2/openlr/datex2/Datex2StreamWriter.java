@@ -0,0 +1,239 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.datex2;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import openlr.datex2.OpenLRDatex2Exception.XMLErrorType;
+import eu.datex2.schema._2_0rc2._2_0.Accident;
+import eu.datex2.schema._2_0rc2._2_0.ObjectFactory;
+import eu.datex2.schema._2_0rc2._2_0.Situation;
+
+/**
+ * The Datex2StreamWriter writes many locations into one DATEX II situation
+ * publication without holding the publication in memory. The publication is
+ * written with a StAX writer and each location is marshalled as a
+ * <code>situation</code> fragment holding one situation record as soon as it
+ * is added, so the memory needed is bounded by the size of a single
+ * location. The output can optionally be gzip-compressed.
+ * <p>
+ * Like {@link Datex2Location#getXMLData()} the publication only shows where
+ * the OpenLR location references are embedded within DATEX II and is not
+ * valid against the DATEX II schema. It can be read with the
+ * {@link Datex2StreamReader}.
+ * <p>
+ * A writer is not thread-safe. It must be closed to complete the
+ * publication.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class Datex2StreamWriter implements Closeable {
+
+	/** The namespace of the DATEX II elements. */
+	private static final String DATEX2_NAMESPACE = "http://datex2.eu/schema/2_0RC2/2_0";
+
+	/** The prefix of the XML schema instance namespace. */
+	private static final String XSI_PREFIX = "xsi";
+
+	/** The name of the root element. */
+	private static final String MODEL_ELEMENT = "d2LogicalModel";
+
+	/** The name of the publication element. */
+	private static final String PUBLICATION_ELEMENT = "payloadPublication";
+
+	/** The type of the publication element. */
+	private static final String PUBLICATION_TYPE = "SituationPublication";
+
+	/** The qualified name of the situation elements. */
+	private static final QName SITUATION_QNAME = new QName(DATEX2_NAMESPACE,
+			"situation");
+
+	/** The encoding of the document. */
+	private static final String ENCODING = "UTF-8";
+
+	/** The XML version of the document. */
+	private static final String XML_VERSION = "1.0";
+
+	/** The line separator between situations. */
+	private static final String LINE_SEPARATOR = "\n";
+
+	/** The size of the output buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The object factory. */
+	private final ObjectFactory factory = new ObjectFactory();
+
+	/** The buffered output stream. */
+	private final OutputStream out;
+
+	/** The StAX writer. */
+	private final XMLStreamWriter xsw;
+
+	/** The fragment marshaller. */
+	private final Marshaller marshaller;
+
+	/** The number of written locations. */
+	private long nrReferences;
+
+	/** Whether the writer is closed. */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new Datex II stream writer and writes the start of the
+	 * publication.
+	 * 
+	 * @param os
+	 *            the output stream to write to, it is closed when the writer
+	 *            is closed
+	 * @param compress
+	 *            whether the publication is gzip-compressed
+	 * @throws IOException
+	 *             if the compressed stream cannot be created
+	 * @throws OpenLRDatex2Exception
+	 *             if the publication cannot be started
+	 */
+	public Datex2StreamWriter(final OutputStream os, final boolean compress)
+			throws IOException, OpenLRDatex2Exception {
+		OutputStream target = os;
+		if (compress) {
+			target = new GZIPOutputStream(os, BUFFER_SIZE);
+		}
+		out = new BufferedOutputStream(target, BUFFER_SIZE);
+		try {
+			marshaller = JAXBContext.newInstance(ObjectFactory.class)
+					.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+			xsw = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+					ENCODING);
+			xsw.writeStartDocument(ENCODING, XML_VERSION);
+			xsw.writeCharacters(LINE_SEPARATOR);
+			xsw.writeStartElement("", MODEL_ELEMENT, DATEX2_NAMESPACE);
+			xsw.writeDefaultNamespace(DATEX2_NAMESPACE);
+			xsw.writeNamespace(XSI_PREFIX,
+					XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+			xsw.writeStartElement("", PUBLICATION_ELEMENT, DATEX2_NAMESPACE);
+			xsw.writeAttribute(XSI_PREFIX,
+					XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type",
+					PUBLICATION_TYPE);
+			xsw.writeCharacters(LINE_SEPARATOR);
+		} catch (JAXBException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		} catch (XMLStreamException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		}
+	}
+
+	/**
+	 * Appends a location to the publication. The location is written as the
+	 * only situation record of a new situation.
+	 * 
+	 * @param id
+	 *            the id of the situation record
+	 * @param data
+	 *            the location
+	 * @throws OpenLRDatex2Exception
+	 *             if the location cannot be written
+	 */
+	public void write(final String id, final Datex2Location data)
+			throws OpenLRDatex2Exception {
+		if (closed) {
+			throw new OpenLRDatex2Exception(XMLErrorType.IO_ERROR,
+					"writer is closed");
+		}
+		Accident record = data.createSituationRecord();
+		record.setId(id);
+		Situation situation = factory.createSituation();
+		situation.getSituationRecord().add(record);
+		try {
+			marshaller.marshal(new JAXBElement<Situation>(SITUATION_QNAME,
+					Situation.class, situation), xsw);
+			xsw.writeCharacters(LINE_SEPARATOR);
+		} catch (JAXBException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		} catch (XMLStreamException e) {
+			throw new OpenLRDatex2Exception(XMLErrorType.XML_ERROR, e);
+		}
+		nrReferences++;
+	}
+
+	/**
+	 * Gets the number of locations written so far.
+	 * 
+	 * @return the number of locations
+	 */
+	public long getNumberOfReferences() {
+		return nrReferences;
+	}
+
+	/**
+	 * Completes the publication and closes the output stream.
+	 * 
+	 * @throws IOException
+	 *             if the publication cannot be completed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			xsw.writeEndElement();
+			xsw.writeEndElement();
+			xsw.writeEndDocument();
+			xsw.flush();
+			xsw.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			out.close();
+		}
+	}
+}
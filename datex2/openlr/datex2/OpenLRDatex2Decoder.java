@@ -69,11 +69,27 @@ public class OpenLRDatex2Decoder implements PhysicalDecoder {
 			throw new OpenLRDatex2Exception(XMLErrorType.DATA_ERROR,
 					"incorrect data class");
 		}
+		return decodeData(lr.getID(), (Datex2Location) data);
+	}
+
+	/**
+	 * Decodes a Datex II location without an enclosing location reference,
+	 * e.g. one read by the {@link Datex2StreamReader}.
+	 * 
+	 * @param id
+	 *            the id of the location reference
+	 * @param xmlData
+	 *            the Datex II location
+	 * @return the raw location reference
+	 * @throws PhysicalFormatException
+	 *             if the location is invalid
+	 */
+	public final RawLocationReference decodeData(final String id,
+			final Datex2Location xmlData) throws PhysicalFormatException {
 		RawLocationReference rawLocRef = null;
-		Datex2Location xmlData = (Datex2Location) data;
 		if (xmlData.isLineLocation()) {
 			LineDecoder decoder = new LineDecoder();
-			rawLocRef = decoder.decodeData(lr.getID(), xmlData.getLineLocation());
+			rawLocRef = decoder.decodeData(id, xmlData.getLineLocation());
 		} else if (xmlData.isPointLocation()) {
 			OpenlrPointLocationReference pointLoc = xmlData.getPointLocation();
 			OpenlrGeoCoordinate gCoord = pointLoc.getOpenlrGeoCoordinate();
@@ -86,13 +102,13 @@ public class OpenLRDatex2Decoder implements PhysicalDecoder {
 			}
 			if (gCoord != null) {
 				GeoCoordDecoder decoder = new GeoCoordDecoder();
-				rawLocRef = decoder.decodeData(lr.getID(), gCoord);
+				rawLocRef = decoder.decodeData(id, gCoord);
 			} else if (pal != null) {
 				PointAlongDecoder decoder = new PointAlongDecoder();
-				rawLocRef = decoder.decodeData(lr.getID(), pal);
+				rawLocRef = decoder.decodeData(id, pal);
 			} else if (palwap != null) {
 				PoiAccessDecoder decoder = new PoiAccessDecoder();
-				rawLocRef = decoder.decodeData(lr.getID(), palwap);
+				rawLocRef = decoder.decodeData(id, palwap);
 			}
 		}
 		return rawLocRef;
@@ -34,6 +34,7 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 
 import javax.xml.bind.JAXBContext;
@@ -61,6 +62,11 @@ import eu.datex2.schema._2_0rc2._2_0.SituationRecord;
 
 /**
  * The XMLFileReader reads OpenLR location reference data from a XML file.
+ * <p>
+ * A reader can be shared between threads. Each thread uses its own cached
+ * unmarshaller, so documents are parsed in parallel and no unmarshaller is
+ * created per document. Publications with many situation records can be
+ * read incrementally with the {@link Datex2StreamReader}.
  * 
  * <p>
  * OpenLR is a trade mark of TomTom International B.V.
@@ -74,15 +80,12 @@ public class XmlReader {
 	/** The Constant OPENLR_OBJECT_FACTORY. */
 	private static final Class<?> OBJECT_FACTORY = eu.datex2.schema._2_0rc2._2_0.ObjectFactory.class;
 
-	/**
-	 * Used to make sure that only one jaxb operation is active at any certain
-	 * time.
-	 */
-	private static final Object SYNC_OBJECT = new Object();
-
 	/** The JAXB context. */
 	private final JAXBContext jc;
 
+	/** The unmarshallers of each thread. */
+	private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>();
+
 	/**
 	 * Instantiates a new XML file reader.
 	 * 
@@ -117,11 +120,17 @@ public class XmlReader {
 			OpenLRDatex2Exception {
 		Datex2Location result = null;
 		if (file != null) {
-			synchronized (SYNC_OBJECT) {
-				Unmarshaller unmarshaller = jc.createUnmarshaller();
+			Unmarshaller unmarshaller = getUnmarshaller();
+			InputStream is = new BufferedInputStream(new FileInputStream(file));
+			try {
 				result = new Datex2Location(unmarshaller
-						.unmarshal(new StreamSource(new BufferedInputStream(
-								new FileInputStream(file)))));
+						.unmarshal(new StreamSource(is)));
+			} finally {
+				try {
+					is.close();
+				} catch (IOException e) {
+					// the data has been read already
+				}
 			}
 		}
 		return result;
@@ -146,82 +155,104 @@ public class XmlReader {
 			throws JAXBException, SAXException, OpenLRDatex2Exception {
 		Datex2Location result = null;
 		if (is != null) {
-			synchronized (SYNC_OBJECT) {
-				Unmarshaller unmarshaller = jc.createUnmarshaller();
-				Object o = unmarshaller.unmarshal(new StreamSource(
-						new BufferedInputStream(is)));
-				Object data = ((JAXBElement<?>) o).getValue();
-				if (data instanceof OpenlrLineLocationReference
-						|| data instanceof OpenlrPointLocationReference) {
-					result = new Datex2Location(data);
-				} else if (data instanceof D2LogicalModel) {
-					D2LogicalModel model = (D2LogicalModel) data;
-					if (model.getPayloadPublication() == null
-							|| !(model.getPayloadPublication() instanceof SituationPublication)) {
-						throw new OpenLRDatex2Exception(
-								XMLErrorType.DATA_ERROR);
-					}
-					SituationPublication payload = (SituationPublication) model
-							.getPayloadPublication();
-					if (payload.getSituation().isEmpty()) {
-						throw new OpenLRDatex2Exception(
-								XMLErrorType.DATA_ERROR);
-					}
-					Situation s = payload.getSituation().get(0);
-					if (s == null || s.getSituationRecord().isEmpty()) {
-						throw new OpenLRDatex2Exception(
-								XMLErrorType.DATA_ERROR);
-					}
-					SituationRecord record = s.getSituationRecord().get(0);
-					if (record == null || !(record instanceof Accident)) {
-						throw new OpenLRDatex2Exception(
-								XMLErrorType.DATA_ERROR);
-					}
-					Accident a = (Accident) record;
-					GroupOfLocations locations = a.getGroupOfLocations();
-					if (locations instanceof Linear) {
-						Linear linLoc = (Linear) locations;
-						if (linLoc.getLinearExtension() == null
-								|| linLoc.getLinearExtension()
-										.getOpenlrExtendedLinear() == null) {
-							throw new OpenLRDatex2Exception(
-									XMLErrorType.DATA_ERROR);
-						}
-						OpenlrExtendedLinear linear = linLoc
-								.getLinearExtension().getOpenlrExtendedLinear();
-						if (linear.getOpenlrLineLocationReference() == null) {
-							throw new OpenLRDatex2Exception(
-									XMLErrorType.DATA_ERROR);
-						} 
-						return new Datex2Location(linear
-							.getOpenlrLineLocationReference());
-
-					} else if (locations instanceof Point) {
-						Point pointLoc = (Point) locations;
-						if (pointLoc.getPointExtension() == null
-								|| pointLoc.getPointExtension().getOpenlrExtendedPoint() == null) {
-							throw new OpenLRDatex2Exception(
-									XMLErrorType.DATA_ERROR);
-						}
-						OpenlrExtendedPoint point = pointLoc.getPointExtension().getOpenlrExtendedPoint();
-						if (point.getOpenlrPointLocationReference() == null) {
-							throw new OpenLRDatex2Exception(
-									XMLErrorType.DATA_ERROR);
-						}
-						return new Datex2Location(point
-								.getOpenlrPointLocationReference());
-					} else {
-						throw new OpenLRDatex2Exception(
-								XMLErrorType.DATA_ERROR);
-					}
-				} else {
+			Unmarshaller unmarshaller = getUnmarshaller();
+			Object o = unmarshaller.unmarshal(new StreamSource(
+					new BufferedInputStream(is)));
+			Object data = ((JAXBElement<?>) o).getValue();
+			if (data instanceof OpenlrLineLocationReference
+					|| data instanceof OpenlrPointLocationReference) {
+				result = new Datex2Location(data);
+			} else if (data instanceof D2LogicalModel) {
+				D2LogicalModel model = (D2LogicalModel) data;
+				if (model.getPayloadPublication() == null
+						|| !(model.getPayloadPublication() instanceof SituationPublication)) {
 					throw new OpenLRDatex2Exception(
 							XMLErrorType.DATA_ERROR);
 				}
-
+				SituationPublication payload = (SituationPublication) model
+						.getPayloadPublication();
+				if (payload.getSituation().isEmpty()) {
+					throw new OpenLRDatex2Exception(
+							XMLErrorType.DATA_ERROR);
+				}
+				Situation s = payload.getSituation().get(0);
+				if (s == null || s.getSituationRecord().isEmpty()) {
+					throw new OpenLRDatex2Exception(
+							XMLErrorType.DATA_ERROR);
+				}
+				SituationRecord record = s.getSituationRecord().get(0);
+				if (record == null || !(record instanceof Accident)) {
+					throw new OpenLRDatex2Exception(
+							XMLErrorType.DATA_ERROR);
+				}
+				Accident a = (Accident) record;
+				result = getOpenLRLocation(a.getGroupOfLocations());
+				if (result == null) {
+					throw new OpenLRDatex2Exception(
+							XMLErrorType.DATA_ERROR);
+				}
+			} else {
+				throw new OpenLRDatex2Exception(
+						XMLErrorType.DATA_ERROR);
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * Gets the OpenLR location reference of a group of locations. Only linear
+	 * and point locations with an OpenLR extension hold such a reference.
+	 * 
+	 * @param locations
+	 *            the group of locations, might be null
+	 * @return the OpenLR location reference or null if the group of locations
+	 *         holds none
+	 */
+	static Datex2Location getOpenLRLocation(final GroupOfLocations locations) {
+		if (locations instanceof Linear) {
+			Linear linLoc = (Linear) locations;
+			if (linLoc.getLinearExtension() == null
+					|| linLoc.getLinearExtension().getOpenlrExtendedLinear() == null) {
+				return null;
+			}
+			OpenlrExtendedLinear linear = linLoc.getLinearExtension()
+					.getOpenlrExtendedLinear();
+			if (linear.getOpenlrLineLocationReference() == null) {
+				return null;
+			}
+			return new Datex2Location(linear.getOpenlrLineLocationReference());
+		} else if (locations instanceof Point) {
+			Point pointLoc = (Point) locations;
+			if (pointLoc.getPointExtension() == null
+					|| pointLoc.getPointExtension().getOpenlrExtendedPoint() == null) {
+				return null;
+			}
+			OpenlrExtendedPoint point = pointLoc.getPointExtension()
+					.getOpenlrExtendedPoint();
+			if (point.getOpenlrPointLocationReference() == null) {
+				return null;
+			}
+			return new Datex2Location(point.getOpenlrPointLocationReference());
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the unmarshaller of the current thread. The unmarshaller is
+	 * created on first use and reused for all further documents read by this
+	 * thread.
+	 * 
+	 * @return the unmarshaller
+	 * @throws JAXBException
+	 *             if the unmarshaller cannot be created
+	 */
+	private Unmarshaller getUnmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = unmarshallers.get();
+		if (unmarshaller == null) {
+			unmarshaller = jc.createUnmarshaller();
+			unmarshallers.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
 }
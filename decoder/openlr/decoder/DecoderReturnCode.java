@@ -64,7 +64,10 @@ public enum DecoderReturnCode implements StatusCode {
 	NO_MAP_DATABASE_FOUND("map database is required"),
 	
 	/** The INVALI d_ locatio n_ referenc e_ data. */
-	INVALID_LOCATION_REFERENCE_DATA("the input data is not valid");
+	INVALID_LOCATION_REFERENCE_DATA("the input data is not valid"),
+
+	/** The decoding process failed with an exception. */
+	PROCESSING_ERROR("the decoding process failed");
 
 	/** The error type description. */
 	private String description;
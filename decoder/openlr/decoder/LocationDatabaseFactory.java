@@ -30,7 +30,13 @@
  */
 package openlr.decoder;
 
+import java.io.File;
+import java.io.IOException;
+
 import openlr.decoder.database.LocationDatabaseLRU;
+import openlr.decoder.database.LocationDatabaseSLRU;
+import openlr.decoder.database.PersistentLocationDatabase;
+import openlr.map.MapDatabase;
 
 /**
  * 
@@ -62,4 +68,88 @@ public final class LocationDatabaseFactory {
 	public static LocationDatabase createLocationDatabase(final int cacheSize) {
 		return new LocationDatabaseLRU(cacheSize);
 	}
+
+	/**
+	 * Creates a location database with a capacity of cacheSize entries which
+	 * can be used by several decoder threads at the same time. The entries
+	 * are identified by the complete location reference and do not expire.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * 
+	 * @return the location reference database
+	 */
+	public static LocationDatabase createConcurrentLocationDatabase(
+			final int cacheSize) {
+		return new LocationDatabaseSLRU(cacheSize);
+	}
+
+	/**
+	 * Creates a location database with a capacity of cacheSize entries which
+	 * can be used by several decoder threads at the same time. The entries
+	 * are identified by the complete location reference and expire after the
+	 * time to live.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * @param timeToLiveMillis
+	 *            the time in milli seconds an entry is valid, 0 if the entries
+	 *            shall not expire
+	 * 
+	 * @return the location reference database
+	 */
+	public static LocationDatabase createConcurrentLocationDatabase(
+			final int cacheSize, final long timeToLiveMillis) {
+		return new LocationDatabaseSLRU(cacheSize, timeToLiveMillis,
+				LocationDatabaseSLRU.DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Creates a location database with a capacity of cacheSize entries which
+	 * stores the decoded locations in a file, so they are available again
+	 * after a restart. Entries of an existing file are restored if the file
+	 * has been written for the same map version.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * @param file
+	 *            the database file
+	 * @param mdb
+	 *            the map database the locations are decoded on
+	 * @param mapVersion
+	 *            the version of the map
+	 * 
+	 * @return the location database
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public static PersistentLocationDatabase createPersistentLocationDatabase(
+			final int cacheSize, final File file, final MapDatabase mdb,
+			final String mapVersion) throws IOException {
+		return new PersistentLocationDatabase(cacheSize, file, mdb, mapVersion);
+	}
+
+	/**
+	 * Creates a location database with a capacity of cacheSize entries which
+	 * stores the decoded locations in a file, so they are available again
+	 * after a restart. The map version is derived from the map database, see
+	 * {@link PersistentLocationDatabase#getMapVersion(MapDatabase)}.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * @param file
+	 *            the database file
+	 * @param mdb
+	 *            the map database the locations are decoded on
+	 * 
+	 * @return the location database
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public static PersistentLocationDatabase createPersistentLocationDatabase(
+			final int cacheSize, final File file, final MapDatabase mdb)
+			throws IOException {
+		return new PersistentLocationDatabase(cacheSize, file, mdb,
+				PersistentLocationDatabase.getMapVersion(mdb));
+	}
 }
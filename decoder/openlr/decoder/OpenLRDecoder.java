@@ -33,6 +33,11 @@ package openlr.decoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import openlr.LocationReference;
 import openlr.LocationType;
@@ -95,6 +100,9 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 	/** The Constant PATCH_VERSION. */
 	private static final int PATCH_VERSION = 0;
 
+	/** The number of nanoseconds per millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -116,6 +124,20 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 	 */
 	private Location decode(final OpenLRDecoderParameter parameter, final OpenLRDecoderProperties properties, 
 			final LocationReference locRef) throws OpenLRProcessingException {
+		List<PhysicalDecoder> physDecoder = getPhysicalDecoders(parameter);
+		return decodeRaw(parameter, properties, resolveRawFormat(locRef, physDecoder));
+	}
+
+	/**
+	 * Gets the physical decoders from the parameter or, if none are set, from
+	 * the class path.
+	 *
+	 * @param parameter the parameter
+	 * @return the physical decoders
+	 * @throws OpenLRProcessingException if no physical decoder is available
+	 */
+	private List<PhysicalDecoder> getPhysicalDecoders(
+			final OpenLRDecoderParameter parameter) throws OpenLRProcessingException {
 		List<PhysicalDecoder> physDecoder = parameter.getPhysicalDecoders();
 		if (physDecoder.isEmpty()) {
 			physDecoder = resolvePhysicalDecoder();
@@ -125,7 +147,7 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 					DecoderProcessingError.NO_PHYSICAL_DECODER_DETECTED,
 					"No physical decoder found!");
 		}
-		return decodeRaw(parameter, properties, resolveRawFormat(locRef, physDecoder));
+		return physDecoder;
 	}
 
 	/**
@@ -158,6 +180,244 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 		return locations;
 	}
 	
+	/**
+	 * Decodes a list of location references in parallel using the given
+	 * executor. The physical decoders and the decoder properties are resolved
+	 * once and shared by all tasks. The resulting list has the same order as
+	 * the input list. A location reference which cannot be decoded does not
+	 * abort the batch, it will be returned as an {@link InvalidLocation}
+	 * instead.
+	 * <p>
+	 * The map database and the location database (if set) of the parameter
+	 * will be accessed concurrently and need to be thread-safe.
+	 *
+	 * @param parameter the parameter
+	 * @param locRefs the location references
+	 * @param executor the executor running the decoding tasks
+	 * @return the decoded locations, in the order of the input list
+	 * @throws OpenLRProcessingException if no physical decoder is available, the
+	 *             properties are invalid or the batch has been interrupted
+	 */
+	public List<Location> decode(final OpenLRDecoderParameter parameter,
+			final List<LocationReference> locRefs,
+			final ExecutorService executor) throws OpenLRProcessingException {
+		final OpenLRDecoderProperties properties = new OpenLRDecoderProperties(
+				parameter.getConfiguration());
+		final List<PhysicalDecoder> physDecoder = getPhysicalDecoders(parameter);
+		List<Callable<Location>> tasks = new ArrayList<Callable<Location>>(
+				locRefs.size());
+		for (final LocationReference locRef : locRefs) {
+			tasks.add(new Callable<Location>() {
+				@Override
+				public Location call() {
+					try {
+						return decodeRaw(parameter, properties,
+								resolveRawFormat(locRef, physDecoder));
+					} catch (OpenLRProcessingException e) {
+						if (locRef == null) {
+							return createInvalidLocation(null,
+									LocationType.UNKNOWN, e);
+						}
+						return createInvalidLocation(locRef.getID(),
+								locRef.getLocationType(), e);
+					} catch (RuntimeException e) {
+						if (locRef == null) {
+							return createFailedLocation(null,
+									LocationType.UNKNOWN, e);
+						}
+						return createFailedLocation(locRef.getID(),
+								locRef.getLocationType(), e);
+					}
+				}
+			});
+		}
+		return executeBatch(executor, tasks);
+	}
+
+	/**
+	 * Decodes a list of location references in parallel using a temporary
+	 * thread pool with the given number of threads. See
+	 * {@link #decode(OpenLRDecoderParameter, List, ExecutorService)}.
+	 *
+	 * @param parameter the parameter
+	 * @param locRefs the location references
+	 * @param parallelism the number of decoding threads
+	 * @return the decoded locations, in the order of the input list
+	 * @throws OpenLRProcessingException if no physical decoder is available, the
+	 *             properties are invalid or the batch has been interrupted
+	 */
+	public List<Location> decode(final OpenLRDecoderParameter parameter,
+			final List<LocationReference> locRefs, final int parallelism)
+			throws OpenLRProcessingException {
+		ExecutorService executor = createExecutor(parallelism);
+		try {
+			return decode(parameter, locRefs, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Decodes a list of raw location references in parallel using the given
+	 * executor. The decoder properties are resolved once and shared by all
+	 * tasks. The resulting list has the same order as the input list. A
+	 * location reference which cannot be decoded does not abort the batch, it
+	 * will be returned as an {@link InvalidLocation} instead.
+	 * <p>
+	 * The map database and the location database (if set) of the parameter
+	 * will be accessed concurrently and need to be thread-safe.
+	 *
+	 * @param parameter the parameter
+	 * @param locRefs the raw location references
+	 * @param executor the executor running the decoding tasks
+	 * @return the decoded locations, in the order of the input list
+	 * @throws OpenLRProcessingException if the properties are invalid or the
+	 *             batch has been interrupted
+	 */
+	public List<Location> decodeRaw(final OpenLRDecoderParameter parameter,
+			final List<RawLocationReference> locRefs,
+			final ExecutorService executor) throws OpenLRProcessingException {
+		final OpenLRDecoderProperties properties = new OpenLRDecoderProperties(
+				parameter.getConfiguration());
+		List<Callable<Location>> tasks = new ArrayList<Callable<Location>>(
+				locRefs.size());
+		for (final RawLocationReference rawLocRef : locRefs) {
+			tasks.add(new Callable<Location>() {
+				@Override
+				public Location call() {
+					try {
+						return decodeRaw(parameter, properties, rawLocRef);
+					} catch (OpenLRProcessingException e) {
+						if (rawLocRef == null) {
+							return createInvalidLocation(null,
+									LocationType.UNKNOWN, e);
+						}
+						return createInvalidLocation(rawLocRef.getID(),
+								rawLocRef.getLocationType(), e);
+					} catch (RuntimeException e) {
+						if (rawLocRef == null) {
+							return createFailedLocation(null,
+									LocationType.UNKNOWN, e);
+						}
+						return createFailedLocation(rawLocRef.getID(),
+								rawLocRef.getLocationType(), e);
+					}
+				}
+			});
+		}
+		return executeBatch(executor, tasks);
+	}
+
+	/**
+	 * Decodes a list of raw location references in parallel using a temporary
+	 * thread pool with the given number of threads. See
+	 * {@link #decodeRaw(OpenLRDecoderParameter, List, ExecutorService)}.
+	 *
+	 * @param parameter the parameter
+	 * @param locRefs the raw location references
+	 * @param parallelism the number of decoding threads
+	 * @return the decoded locations, in the order of the input list
+	 * @throws OpenLRProcessingException if the properties are invalid or the
+	 *             batch has been interrupted
+	 */
+	public List<Location> decodeRaw(final OpenLRDecoderParameter parameter,
+			final List<RawLocationReference> locRefs, final int parallelism)
+			throws OpenLRProcessingException {
+		ExecutorService executor = createExecutor(parallelism);
+		try {
+			return decodeRaw(parameter, locRefs, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Creates a fixed thread pool for a single batch.
+	 *
+	 * @param parallelism the number of threads
+	 * @return the executor
+	 */
+	private static ExecutorService createExecutor(final int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: "
+					+ parallelism);
+		}
+		return Executors.newFixedThreadPool(parallelism);
+	}
+
+	/**
+	 * Runs all decoding tasks and collects the results in task order. The
+	 * tasks turn all exceptions into invalid locations, only errors thrown by
+	 * a task are re-thrown to the caller.
+	 *
+	 * @param executor the executor
+	 * @param tasks the decoding tasks
+	 * @return the decoded locations
+	 * @throws OpenLRProcessingException if the batch has been interrupted
+	 */
+	private static List<Location> executeBatch(final ExecutorService executor,
+			final List<Callable<Location>> tasks)
+			throws OpenLRProcessingException {
+		List<Location> locations = new ArrayList<Location>(tasks.size());
+		try {
+			List<Future<Location>> futures = executor.invokeAll(tasks);
+			for (Future<Location> f : futures) {
+				locations.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OpenLRDecoderProcessingException(
+					DecoderProcessingError.BATCH_INTERRUPTED, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+		return locations;
+	}
+
+	/**
+	 * Creates an invalid location for a location reference whose decoding
+	 * failed with an exception.
+	 *
+	 * @param id the location reference id
+	 * @param locType the location type
+	 * @param e the decoding exception
+	 * @return the invalid location
+	 */
+	private static Location createInvalidLocation(final String id,
+			final LocationType locType, final OpenLRProcessingException e) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("decoding of " + id + " failed: " + e);
+		}
+		DecoderReturnCode code = DecoderReturnCode.PROCESSING_ERROR;
+		if (e.getErrorCode() == DecoderProcessingError.INVALID_LOC_REF_DATA) {
+			code = DecoderReturnCode.INVALID_LOCATION_REFERENCE_DATA;
+		} else if (e.getErrorCode() == DecoderProcessingError.INVALID_LOCATION_TYPE) {
+			code = DecoderReturnCode.INVALID_LOCATION_TYPE;
+		}
+		return new InvalidLocation(id, code, locType);
+	}
+
+	/**
+	 * Creates an invalid location for a location reference whose decoding
+	 * failed with an unexpected runtime exception, so that the other location
+	 * references of a batch are still decoded.
+	 *
+	 * @param id the location reference id
+	 * @param locType the location type
+	 * @param e the runtime exception
+	 * @return the invalid location
+	 */
+	private static Location createFailedLocation(final String id,
+			final LocationType locType, final RuntimeException e) {
+		LOG.error("decoding of " + id + " failed", e);
+		return new InvalidLocation(id, DecoderReturnCode.PROCESSING_ERROR,
+				locType);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -168,6 +428,23 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 		return decodeRaw(parameter, properties, rawLocRef);
 	}
 
+	/**
+	 * Creates a decoder session for the parameter. The session resolves the
+	 * decoder properties and the physical decoders once and can be used for
+	 * any number of decoding calls, also by several threads at the same time.
+	 * Changes of the configuration after the session has been created are
+	 * not taken into account.
+	 *
+	 * @param parameter the parameter
+	 * @return the decoder session
+	 * @throws OpenLRProcessingException if the properties are invalid
+	 */
+	public OpenLRDecoderSession createSession(
+			final OpenLRDecoderParameter parameter)
+			throws OpenLRProcessingException {
+		return new OpenLRDecoderSession(this, parameter);
+	}
+
 
 	/**
 	 * Decode raw.
@@ -178,16 +455,27 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 	 * @return the location
 	 * @throws OpenLRProcessingException the open lr processing exception
 	 */
-	private Location decodeRaw(final OpenLRDecoderParameter parameter, final OpenLRDecoderProperties properties, 
+	Location decodeRaw(final OpenLRDecoderParameter parameter, final OpenLRDecoderProperties properties, 
 			final RawLocationReference rawLocRef) throws OpenLRProcessingException {
 		if (rawLocRef == null) {
 			throw new OpenLRDecoderProcessingException(
 					DecoderProcessingError.INVALID_LOC_REF_DATA, "No data found!");
 		}
+		DecoderListener listener = parameter.getDecoderListener();
+		int compTime4Cache = properties.getCompTime4Cache();
+		boolean measureCompTime = parameter.hasLocationDatabase()
+				&& compTime4Cache > 0;
+		long startTime = 0;
+		// the listener gets the time of the whole request, including the
+		// validity check and the database lookup
+		if (listener != null) {
+			startTime = System.nanoTime();
+		}
 		if (!rawLocRef.isValid()) {
-			return new InvalidLocation(rawLocRef.getID(),
-					DecoderReturnCode.INVALID_LOCATION_REFERENCE_DATA,
-					rawLocRef.getLocationType());
+			return notifyDecodingFinished(listener, rawLocRef,
+					new InvalidLocation(rawLocRef.getID(),
+							DecoderReturnCode.INVALID_LOCATION_REFERENCE_DATA,
+							rawLocRef.getLocationType()), false, startTime);
 		}
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("decode " + rawLocRef.getID());
@@ -196,15 +484,13 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 			}
 		}
 
-		int compTime4Cache = properties.getCompTime4Cache();
-		long startTime = 0;
-		long endTime = 0;
-
 		Location decoded = null;
+		boolean cached = false;
 		if (parameter.hasLocationDatabase()) {
 			LocationDatabase locDB = parameter.getLocationDatabase();
 			decoded = locDB.getResult(rawLocRef);
-			if (LOG.isDebugEnabled() && decoded != null) {
+			cached = decoded != null;
+			if (LOG.isDebugEnabled() && cached) {
 				LOG.debug("decoded location found in database");
 			}
 		}
@@ -241,31 +527,63 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 				break;
 			case UNKNOWN:
 			default:
-				return new InvalidLocation(rawLocRef.getID(),
-						DecoderReturnCode.INVALID_LOCATION_TYPE,
-						LocationType.UNKNOWN);
+				return notifyDecodingFinished(listener, rawLocRef,
+						new InvalidLocation(rawLocRef.getID(),
+								DecoderReturnCode.INVALID_LOCATION_TYPE,
+								LocationType.UNKNOWN), false, startTime);
 			}
 
-			// measure the decoding time if a threshold for caching has been set
-			if (parameter.hasLocationDatabase() && compTime4Cache > 0) {
-				startTime = System.currentTimeMillis();
+			worker.setDecoderListener(listener);
+			// the threshold for caching only applies to the decoding itself
+			long decodingStart = 0;
+			if (measureCompTime) {
+				decodingStart = System.nanoTime();
 			}
-			decoded = worker.doDecoding(properties, parameter.getMapDatase(), rawLocRef);
-			if (parameter.hasLocationDatabase() && compTime4Cache > 0) {
-				endTime = System.currentTimeMillis();
+			try {
+				decoded = worker.doDecoding(properties,
+						parameter.getMapDatase(), rawLocRef);
+			} catch (OpenLRProcessingException e) {
+				if (listener != null) {
+					listener.decodingFailed(rawLocRef, e, System.nanoTime()
+							- startTime);
+				}
+				throw e;
 			}
 
 			// store in DB if a database is available and no time threshold is
 			// set or
 			// the decoding time exceeds this threshold!!
 			if (parameter.hasLocationDatabase()
-					&& (compTime4Cache <= 0 || (endTime - startTime > compTime4Cache))) {
+					&& (!measureCompTime || (System.nanoTime() - decodingStart > compTime4Cache
+							* NANOS_PER_MILLI))) {
 				parameter.getLocationDatabase().storeResult(rawLocRef, decoded);
 			}
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("decoding finished");
 			}
 		}
+		return notifyDecodingFinished(listener, rawLocRef, decoded, cached,
+				startTime);
+	}
+
+	/**
+	 * Reports a finished decoding to the listener if a listener is set.
+	 *
+	 * @param listener the decoder listener, or null
+	 * @param rawLocRef the raw location reference
+	 * @param decoded the decoded location
+	 * @param cached true, if the location was found in the location database
+	 * @param startTime the start time of the decoding in nanoseconds
+	 * @return the decoded location
+	 */
+	private static Location notifyDecodingFinished(
+			final DecoderListener listener,
+			final RawLocationReference rawLocRef, final Location decoded,
+			final boolean cached, final long startTime) {
+		if (listener != null) {
+			listener.decodingFinished(rawLocRef, decoded, cached,
+					System.nanoTime() - startTime);
+		}
 		return decoded;
 	}
 
@@ -283,7 +601,7 @@ public final class OpenLRDecoder implements openlr.OpenLRDecoder {
 	 * @return the raw format of a location reference
 	 * @throws OpenLRProcessingException the open lr processing exception
 	 */
-	private RawLocationReference resolveRawFormat(
+	RawLocationReference resolveRawFormat(
 			final LocationReference locRef, final List<PhysicalDecoder> decoders)
 			throws OpenLRProcessingException {
 		if (locRef == null) {
@@ -71,7 +71,10 @@ public class OpenLRDecoderProcessingException extends OpenLRProcessingException
 		ROUTE_RESOLVE_ERROR("route cannot be resolved"),
 		
 		/** The INVALI d_ ma p_ data. */
-		INVALID_MAP_DATA("geo coordinates are out of bounds");
+		INVALID_MAP_DATA("geo coordinates are out of bounds"),
+
+		/** A batch decoding has been interrupted. */
+		BATCH_INTERRUPTED("batch decoding has been interrupted");
 		
 		/** The description. */
 		private final String description;
@@ -0,0 +1,198 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import openlr.LocationReference;
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalDecoder;
+import openlr.decoder.OpenLRDecoderProcessingException.DecoderProcessingError;
+import openlr.decoder.properties.OpenLRDecoderProperties;
+import openlr.location.Location;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The class OpenLRDecoderSession decodes location references with a fixed
+ * decoder parameter. The decoder properties are read from the configuration
+ * and the physical decoders are resolved (from the parameter or, if none are
+ * set, from the class path) once when the session is created, so each
+ * decoding call only performs the decoding itself.
+ * <p>
+ * A session is immutable and can be used by several threads at the same
+ * time, provided that the map database and the location database (if set)
+ * are thread-safe. Sessions are created by
+ * {@link OpenLRDecoder#createSession(OpenLRDecoderParameter)}.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OpenLRDecoderSession {
+
+	/** The decoder. */
+	private final OpenLRDecoder decoder;
+
+	/** The parameter. */
+	private final OpenLRDecoderParameter parameter;
+
+	/** The decoder properties. */
+	private final OpenLRDecoderProperties properties;
+
+	/** The physical decoders. */
+	private final List<PhysicalDecoder> physDecoders;
+
+	/**
+	 * Creates a new decoder session.
+	 * 
+	 * @param dec
+	 *            the decoder
+	 * @param param
+	 *            the parameter
+	 * @throws OpenLRProcessingException
+	 *             if the properties are invalid
+	 */
+	OpenLRDecoderSession(final OpenLRDecoder dec,
+			final OpenLRDecoderParameter param)
+			throws OpenLRProcessingException {
+		decoder = dec;
+		parameter = param;
+		properties = new OpenLRDecoderProperties(param.getConfiguration());
+		List<PhysicalDecoder> decoders = param.getPhysicalDecoders();
+		if (decoders.isEmpty()) {
+			decoders = OpenLRDecoder.resolvePhysicalDecoder();
+		}
+		physDecoders = Collections
+				.unmodifiableList(new ArrayList<PhysicalDecoder>(decoders));
+	}
+
+	/**
+	 * Decodes a location reference.
+	 * 
+	 * @param locRef
+	 *            the location reference
+	 * @return the location
+	 * @throws OpenLRProcessingException
+	 *             if no physical decoder is available or the decoding fails
+	 */
+	public Location decode(final LocationReference locRef)
+			throws OpenLRProcessingException {
+		if (physDecoders.isEmpty()) {
+			throw new OpenLRDecoderProcessingException(
+					DecoderProcessingError.NO_PHYSICAL_DECODER_DETECTED,
+					"No physical decoder found!");
+		}
+		return decoder.decodeRaw(parameter, properties,
+				decoder.resolveRawFormat(locRef, physDecoders));
+	}
+
+	/**
+	 * Decodes a list of location references one after the other.
+	 * 
+	 * @param locRefs
+	 *            the location references
+	 * @return the locations, in the order of the input list
+	 * @throws OpenLRProcessingException
+	 *             if no physical decoder is available or the decoding fails
+	 */
+	public List<Location> decode(final List<LocationReference> locRefs)
+			throws OpenLRProcessingException {
+		List<Location> locations = new ArrayList<Location>(locRefs.size());
+		for (LocationReference locRef : locRefs) {
+			locations.add(decode(locRef));
+		}
+		return locations;
+	}
+
+	/**
+	 * Decodes a raw location reference.
+	 * 
+	 * @param rawLocRef
+	 *            the raw location reference
+	 * @return the location
+	 * @throws OpenLRProcessingException
+	 *             if the decoding fails
+	 */
+	public Location decodeRaw(final RawLocationReference rawLocRef)
+			throws OpenLRProcessingException {
+		return decoder.decodeRaw(parameter, properties, rawLocRef);
+	}
+
+	/**
+	 * Decodes a list of raw location references one after the other.
+	 * 
+	 * @param locRefs
+	 *            the raw location references
+	 * @return the locations, in the order of the input list
+	 * @throws OpenLRProcessingException
+	 *             if the decoding fails
+	 */
+	public List<Location> decodeRaw(final List<RawLocationReference> locRefs)
+			throws OpenLRProcessingException {
+		List<Location> locations = new ArrayList<Location>(locRefs.size());
+		for (RawLocationReference rawLocRef : locRefs) {
+			locations.add(decodeRaw(rawLocRef));
+		}
+		return locations;
+	}
+
+	/**
+	 * Gets the parameter of the session.
+	 * 
+	 * @return the parameter
+	 */
+	public OpenLRDecoderParameter getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * Gets the decoder properties resolved from the configuration.
+	 * 
+	 * @return the decoder properties
+	 */
+	public OpenLRDecoderProperties getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Gets the physical decoders used by the session.
+	 * 
+	 * @return the physical decoders, unmodifiable
+	 */
+	public List<PhysicalDecoder> getPhysicalDecoders() {
+		return physDecoders;
+	}
+}
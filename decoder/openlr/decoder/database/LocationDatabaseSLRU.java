@@ -0,0 +1,205 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.database;
+
+import openlr.collection.SegmentedLruCache;
+import openlr.decoder.LocationDatabase;
+import openlr.location.Location;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The Class LocationDatabaseSLRU implements the LocationDatabase interface
+ * for storing decoded locations which are accessed by several decoder threads
+ * at the same time.
+ * <p>
+ * The entries are identified by the location reference itself (using its
+ * equals method), so different location references having the same hash code
+ * never share an entry. The entries are kept in a {@link SegmentedLruCache}
+ * which is split into independently locked segments: new entries are stored
+ * in a probation area and move into a protected area when they are requested
+ * again, so locations requested only once do not replace frequently requested
+ * ones. Optionally entries expire after a fixed time to live.
+ * <p>
+ * The database counts hits, misses, evictions and expirations.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class LocationDatabaseSLRU implements LocationDatabase {
+
+	/** The default number of segments. */
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	/** The stored locations. */
+	private final SegmentedLruCache<RawLocationReference, Location> cache;
+
+	/**
+	 * Instantiates a new location database with a maximum size of cacheSize
+	 * entries. The entries do not expire.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum cache size
+	 */
+	public LocationDatabaseSLRU(final int cacheSizeValue) {
+		this(cacheSizeValue, 0, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Instantiates a new location database with a maximum size of cacheSize
+	 * entries.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum cache size
+	 * @param timeToLiveMillis
+	 *            the time in milli seconds an entry is valid after it has been
+	 *            stored, 0 if the entries shall not expire
+	 * @param concurrencyLevel
+	 *            the number of segments which can be accessed concurrently
+	 */
+	public LocationDatabaseSLRU(final int cacheSizeValue,
+			final long timeToLiveMillis, final int concurrencyLevel) {
+		cache = new SegmentedLruCache<RawLocationReference, Location>(
+				cacheSizeValue, timeToLiveMillis, concurrencyLevel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean containsLR(final RawLocationReference locRef) {
+		if (locRef == null) {
+			return false;
+		}
+		return cache.contains(locRef);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void storeResult(final RawLocationReference locRef,
+			final Location loc) {
+		if (loc == null || locRef == null) {
+			return;
+		}
+		cache.put(locRef, loc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Location getResult(final RawLocationReference locRef) {
+		if (locRef == null) {
+			throw new IllegalArgumentException();
+		}
+		return cache.get(locRef);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getCacheSize() {
+		return cache.getCacheSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getCurrentNrEntries() {
+		return cache.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Gets the number of requests answered from the database.
+	 * 
+	 * @return the number of hits
+	 */
+	public final long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Gets the number of requests not answered from the database.
+	 * 
+	 * @return the number of misses
+	 */
+	public final long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Gets the number of entries dropped because the database was full.
+	 * 
+	 * @return the number of evictions
+	 */
+	public final long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	/**
+	 * Gets the number of entries dropped because they expired.
+	 * 
+	 * @return the number of expirations
+	 */
+	public final long getExpirationCount() {
+		return cache.getExpirationCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("max size: ").append(getCacheSize());
+		sb.append(" #entries: ").append(getCurrentNrEntries());
+		sb.append(" #hits: ").append(getHitCount());
+		sb.append(" #misses: ").append(getMissCount());
+		sb.append(" #evictions: ").append(getEvictionCount());
+		sb.append(" #expirations: ").append(getExpirationCount());
+		return sb.toString();
+	}
+}
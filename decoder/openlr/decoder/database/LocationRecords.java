@@ -0,0 +1,601 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.database;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import openlr.LocationType;
+import openlr.decoder.location.AffectedLinesImpl;
+import openlr.decoder.location.DecodedCircleLocation;
+import openlr.decoder.location.DecodedClosedLineLocation;
+import openlr.decoder.location.DecodedGridLocation;
+import openlr.decoder.location.DecodedLineLocation;
+import openlr.decoder.location.DecodedPoiAccessLocation;
+import openlr.decoder.location.DecodedPointAlongLocation;
+import openlr.decoder.location.DecodedPolygonLocation;
+import openlr.decoder.location.DecodedRectangleLocation;
+import openlr.location.Location;
+import openlr.location.LocationFactory;
+import openlr.location.data.AffectedLines;
+import openlr.location.data.Orientation;
+import openlr.location.data.SideOfRoad;
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+import openlr.map.InvalidMapDataException;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+
+/**
+ * The Class LocationRecords converts decoded locations into a compact byte
+ * representation and back. Lines are stored by their IDs and resolved in the
+ * map database when the location is restored, all other attributes (offsets,
+ * coordinates, side of road, orientation, sub routes and affected lines) are
+ * stored as values.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class LocationRecords {
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private LocationRecords() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Converts a location into bytes. Only valid locations can be converted.
+	 * 
+	 * @param loc
+	 *            the location
+	 * @return the bytes or null, if the location cannot be stored
+	 */
+	static byte[] toBytes(final Location loc) {
+		if (loc == null || !loc.isValid() || loc.getLocationType() == null
+				|| loc.getLocationType() == LocationType.UNKNOWN) {
+			return null;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			write(out, loc);
+			out.flush();
+		} catch (IOException e) {
+			// writing into a byte array does not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Restores a location from its bytes.
+	 * 
+	 * @param data
+	 *            the bytes
+	 * @param mdb
+	 *            the map database
+	 * @return the location or null, if a line of the location does not exist
+	 *         in the map database or the data is invalid
+	 */
+	static Location fromBytes(final byte[] data, final MapDatabase mdb) {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				data));
+		try {
+			return read(in, mdb);
+		} catch (IOException e) {
+			return null;
+		} catch (InvalidMapDataException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a location.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param loc
+	 *            the location
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void write(final DataOutputStream out, final Location loc)
+			throws IOException {
+		LocationType type = loc.getLocationType();
+		writeString(out, loc.getID());
+		out.writeByte(type.ordinal());
+		switch (type) {
+		case LINE_LOCATION:
+			writeLines(out, loc.getLocationLines());
+			out.writeInt(loc.getPositiveOffset());
+			out.writeInt(loc.getNegativeOffset());
+			writeSubRoutes(out, getSubRoutes(loc));
+			break;
+		case POINT_ALONG_LINE:
+		case POI_WITH_ACCESS_POINT:
+			out.writeLong(loc.getPoiLine().getID());
+			out.writeInt(loc.getPositiveOffset());
+			out.writeByte(ordinal(loc.getSideOfRoad()));
+			out.writeByte(ordinal(loc.getOrientation()));
+			if (type == LocationType.POI_WITH_ACCESS_POINT) {
+				writeCoordinates(out, loc.getPointLocation());
+			}
+			writeSubRoutes(out, getSubRoutes(loc));
+			break;
+		case GEO_COORDINATES:
+			writeCoordinates(out, loc.getPointLocation());
+			break;
+		case CLOSED_LINE:
+			writeLines(out, loc.getLocationLines());
+			writeAffectedLines(out, loc.getAffectedLines());
+			break;
+		case CIRCLE:
+			writeCoordinates(out, loc.getCenterPoint());
+			out.writeLong(loc.getRadius());
+			writeAffectedLines(out, loc.getAffectedLines());
+			break;
+		case RECTANGLE:
+			writeCoordinates(out, loc.getLowerLeftPoint());
+			writeCoordinates(out, loc.getUpperRightPoint());
+			writeAffectedLines(out, loc.getAffectedLines());
+			break;
+		case GRID:
+			writeCoordinates(out, loc.getLowerLeftPoint());
+			writeCoordinates(out, loc.getUpperRightPoint());
+			out.writeInt(loc.getNumberOfColumns());
+			out.writeInt(loc.getNumberOfRows());
+			writeAffectedLines(out, loc.getAffectedLines());
+			break;
+		case POLYGON:
+			List<GeoCoordinates> corners = loc.getCornerPoints();
+			out.writeInt(corners.size());
+			for (GeoCoordinates gc : corners) {
+				writeCoordinates(out, gc);
+			}
+			writeAffectedLines(out, loc.getAffectedLines());
+			break;
+		default:
+			throw new IOException("unsupported location type " + type);
+		}
+	}
+
+	/**
+	 * Reads a location.
+	 * 
+	 * @param in
+	 *            the input
+	 * @param mdb
+	 *            the map database
+	 * @return the location or null, if a line does not exist in the map
+	 *         database
+	 * @throws IOException
+	 *             if reading fails
+	 * @throws InvalidMapDataException
+	 *             if the stored data is invalid
+	 */
+	private static Location read(final DataInputStream in,
+			final MapDatabase mdb) throws IOException, InvalidMapDataException {
+		String id = readString(in);
+		List<LocationType> types = LocationType.getLocationTypes();
+		int typeOrdinal = in.readByte();
+		if (typeOrdinal < 0 || typeOrdinal >= types.size()) {
+			throw new IOException("invalid location type " + typeOrdinal);
+		}
+		LocationType type = types.get(typeOrdinal);
+		switch (type) {
+		case LINE_LOCATION:
+			List<Line> lines = readLines(in, mdb);
+			int pOff = in.readInt();
+			int nOff = in.readInt();
+			List<List<Line>> subRoutes = readSubRoutes(in, mdb);
+			if (lines == null || subRoutes == null) {
+				return null;
+			}
+			return new DecodedLineLocation(id, lines, subRoutes, pOff, nOff);
+		case POINT_ALONG_LINE:
+		case POI_WITH_ACCESS_POINT:
+			Line line = mdb.getLine(in.readLong());
+			int offset = in.readInt();
+			SideOfRoad sor = readEnum(in, SideOfRoad.values());
+			Orientation ori = readEnum(in, Orientation.values());
+			GeoCoordinates poi = null;
+			if (type == LocationType.POI_WITH_ACCESS_POINT) {
+				poi = readCoordinates(in);
+			}
+			List<List<Line>> subs = readSubRoutes(in, mdb);
+			if (line == null || subs == null) {
+				return null;
+			}
+			if (type == LocationType.POINT_ALONG_LINE) {
+				return new DecodedPointAlongLocation(id, line, subs, offset,
+						sor, ori);
+			}
+			return new DecodedPoiAccessLocation(id, line, subs, offset, poi,
+					sor, ori);
+		case GEO_COORDINATES:
+			GeoCoordinates gc = readCoordinates(in);
+			return LocationFactory.createGeoCoordinateLocation(id,
+					gc.getLongitudeDeg(), gc.getLatitudeDeg());
+		case CLOSED_LINE:
+			List<Line> closed = readLines(in, mdb);
+			AffectedLines closedAffected = readAffectedLines(in, mdb);
+			if (closed == null || closedAffected == null) {
+				return null;
+			}
+			return new DecodedClosedLineLocation(id, closedAffected, closed);
+		case CIRCLE:
+			GeoCoordinates center = readCoordinates(in);
+			long radius = in.readLong();
+			AffectedLines circleAffected = readAffectedLines(in, mdb);
+			if (circleAffected == null) {
+				return null;
+			}
+			return new DecodedCircleLocation(id, circleAffected, center,
+					radius);
+		case RECTANGLE:
+			GeoCoordinates ll = readCoordinates(in);
+			GeoCoordinates ur = readCoordinates(in);
+			AffectedLines rectAffected = readAffectedLines(in, mdb);
+			if (rectAffected == null) {
+				return null;
+			}
+			return new DecodedRectangleLocation(id, rectAffected, ll, ur);
+		case GRID:
+			GeoCoordinates gridLL = readCoordinates(in);
+			GeoCoordinates gridUR = readCoordinates(in);
+			int ncols = in.readInt();
+			int nrows = in.readInt();
+			AffectedLines gridAffected = readAffectedLines(in, mdb);
+			if (gridAffected == null) {
+				return null;
+			}
+			return new DecodedGridLocation(id, gridAffected, ncols, nrows,
+					gridLL, gridUR);
+		case POLYGON:
+			int nrCorners = readSize(in);
+			List<GeoCoordinates> corners = new ArrayList<GeoCoordinates>(
+					nrCorners);
+			for (int i = 0; i < nrCorners; i++) {
+				corners.add(readCoordinates(in));
+			}
+			AffectedLines polyAffected = readAffectedLines(in, mdb);
+			if (polyAffected == null) {
+				return null;
+			}
+			return new DecodedPolygonLocation(id, polyAffected, corners);
+		default:
+			throw new IOException("unsupported location type " + type);
+		}
+	}
+
+	/**
+	 * Gets the sub routes of a decoded location.
+	 * 
+	 * @param loc
+	 *            the location
+	 * @return the sub routes or null
+	 */
+	private static List<List<Line>> getSubRoutes(final Location loc) {
+		if (loc instanceof DecodedLineLocation) {
+			return ((DecodedLineLocation) loc).getSubRouteList();
+		} else if (loc instanceof DecodedPointAlongLocation) {
+			return ((DecodedPointAlongLocation) loc).getSubRouteList();
+		} else if (loc instanceof DecodedPoiAccessLocation) {
+			return ((DecodedPoiAccessLocation) loc).getSubRouteList();
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the IDs of lines.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param lines
+	 *            the lines, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeLines(final DataOutputStream out,
+			final List<? extends Line> lines) throws IOException {
+		if (lines == null) {
+			out.writeInt(0);
+			return;
+		}
+		out.writeInt(lines.size());
+		for (Line l : lines) {
+			out.writeLong(l.getID());
+		}
+	}
+
+	/**
+	 * Reads line IDs and resolves the lines in the map database.
+	 * 
+	 * @param in
+	 *            the input
+	 * @param mdb
+	 *            the map database
+	 * @return the lines or null, if a line does not exist
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static List<Line> readLines(final DataInputStream in,
+			final MapDatabase mdb) throws IOException {
+		int nrLines = readSize(in);
+		List<Line> lines = new ArrayList<Line>(nrLines);
+		boolean complete = true;
+		for (int i = 0; i < nrLines; i++) {
+			Line l = mdb.getLine(in.readLong());
+			if (l == null) {
+				complete = false;
+			}
+			lines.add(l);
+		}
+		if (!complete) {
+			return null;
+		}
+		return lines;
+	}
+
+	/**
+	 * Writes sub routes.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param subRoutes
+	 *            the sub routes, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeSubRoutes(final DataOutputStream out,
+			final List<List<Line>> subRoutes) throws IOException {
+		if (subRoutes == null) {
+			out.writeInt(0);
+			return;
+		}
+		out.writeInt(subRoutes.size());
+		for (List<Line> route : subRoutes) {
+			writeLines(out, route);
+		}
+	}
+
+	/**
+	 * Reads sub routes.
+	 * 
+	 * @param in
+	 *            the input
+	 * @param mdb
+	 *            the map database
+	 * @return the sub routes or null, if a line does not exist
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static List<List<Line>> readSubRoutes(final DataInputStream in,
+			final MapDatabase mdb) throws IOException {
+		int nrRoutes = readSize(in);
+		List<List<Line>> subRoutes = new ArrayList<List<Line>>(nrRoutes);
+		boolean complete = true;
+		for (int i = 0; i < nrRoutes; i++) {
+			List<Line> route = readLines(in, mdb);
+			if (route == null) {
+				complete = false;
+			}
+			subRoutes.add(route);
+		}
+		if (!complete) {
+			return null;
+		}
+		return subRoutes;
+	}
+
+	/**
+	 * Writes affected lines.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param affected
+	 *            the affected lines, may be null
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeAffectedLines(final DataOutputStream out,
+			final AffectedLines affected) throws IOException {
+		if (affected == null) {
+			writeLines(out, null);
+			writeLines(out, null);
+			return;
+		}
+		writeLines(out, affected.getCoveredLines());
+		writeLines(out, affected.getIntersectedLines());
+	}
+
+	/**
+	 * Reads affected lines.
+	 * 
+	 * @param in
+	 *            the input
+	 * @param mdb
+	 *            the map database
+	 * @return the affected lines or null, if a line does not exist
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static AffectedLines readAffectedLines(final DataInputStream in,
+			final MapDatabase mdb) throws IOException {
+		List<Line> covered = readLines(in, mdb);
+		List<Line> intersected = readLines(in, mdb);
+		if (covered == null || intersected == null) {
+			return null;
+		}
+		if (covered.isEmpty() && intersected.isEmpty()) {
+			return AffectedLinesImpl.EMPTY;
+		}
+		return new AffectedLinesImpl(covered, intersected);
+	}
+
+	/**
+	 * Writes a coordinate pair.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param gc
+	 *            the coordinates
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeCoordinates(final DataOutputStream out,
+			final GeoCoordinates gc) throws IOException {
+		out.writeDouble(gc.getLongitudeDeg());
+		out.writeDouble(gc.getLatitudeDeg());
+	}
+
+	/**
+	 * Reads a coordinate pair.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the coordinates
+	 * @throws IOException
+	 *             if reading fails
+	 * @throws InvalidMapDataException
+	 *             if the coordinates are invalid
+	 */
+	private static GeoCoordinates readCoordinates(final DataInputStream in)
+			throws IOException, InvalidMapDataException {
+		double lon = in.readDouble();
+		double lat = in.readDouble();
+		return new GeoCoordinatesImpl(lon, lat);
+	}
+
+	/**
+	 * Writes a string which may be null.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param s
+	 *            the string
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeString(final DataOutputStream out, final String s)
+			throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	/**
+	 * Reads a string which may be null.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the string
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static String readString(final DataInputStream in)
+			throws IOException {
+		if (in.readBoolean()) {
+			return in.readUTF();
+		}
+		return null;
+	}
+
+	/**
+	 * Reads a non-negative number of elements.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the number of elements
+	 * @throws IOException
+	 *             if reading fails or the number is negative
+	 */
+	private static int readSize(final DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0) {
+			throw new IOException("invalid number of elements " + size);
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the ordinal of an enum value, or -1 for null.
+	 * 
+	 * @param e
+	 *            the enum value
+	 * @return the ordinal
+	 */
+	private static int ordinal(final Enum<?> e) {
+		if (e == null) {
+			return -1;
+		}
+		return e.ordinal();
+	}
+
+	/**
+	 * Reads an enum value written as ordinal.
+	 * 
+	 * @param <E>
+	 *            the enum type
+	 * @param in
+	 *            the input
+	 * @param values
+	 *            the enum values
+	 * @return the enum value or null
+	 * @throws IOException
+	 *             if reading fails or the ordinal is invalid
+	 */
+	private static <E extends Enum<E>> E readEnum(final DataInputStream in,
+			final E[] values) throws IOException {
+		int ordinal = in.readByte();
+		if (ordinal == -1) {
+			return null;
+		}
+		if (ordinal < 0 || ordinal >= values.length) {
+			throw new IOException("invalid enum value " + ordinal);
+		}
+		return values[ordinal];
+	}
+}
@@ -0,0 +1,698 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import openlr.decoder.LocationDatabase;
+import openlr.location.Location;
+import openlr.map.MapDatabase;
+import openlr.map.utils.MapDatabaseUtils;
+import openlr.rawLocRef.RawLocationReference;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The Class PersistentLocationDatabase implements the LocationDatabase
+ * interface with a memory-mapped file, so the decoded locations survive a
+ * restart of the decoder.
+ * <p>
+ * The file starts with a header holding the version of the map the locations
+ * were decoded on. If the map version of the database differs from the one
+ * in the file, the file content is dropped. The header is followed by
+ * records which are only appended: each record holds the content of the
+ * location reference (see {@link ReferenceKey}), the IDs of the decoded lines,
+ * the offsets and the further attributes of the decoded location as well as a
+ * checksum. An index in memory maps the location references to the position
+ * of their latest record and is restored by scanning the file when it is
+ * opened, a torn record at the end of the file is ignored. The lines are
+ * resolved in the map database whenever a location is requested, a record
+ * referring to a line which does not exist anymore is dropped.
+ * <p>
+ * The index holds at most cacheSize entries, the least recently used entry
+ * is dropped if it is full. Records which are replaced or dropped remain in
+ * the file until the file is compacted, this happens automatically if the
+ * dropped records use more space than the valid ones or on request by
+ * {@link #compact()}.
+ * <p>
+ * Only valid locations are stored. All methods lock the database, the
+ * database shall be closed with {@link #close()} when it is not needed
+ * anymore.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class PersistentLocationDatabase implements LocationDatabase {
+
+	/** The logger. */
+	private static final Logger LOG = Logger
+			.getLogger(PersistentLocationDatabase.class);
+
+	/** The identifier of a database file ("OLDB"). */
+	private static final int MAGIC = 0x4F4C4442;
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The position of the data end in the header. */
+	private static final int END_POSITION = 8;
+
+	/** The position of the map version in the header. */
+	private static final int MAP_VERSION_POSITION = 12;
+
+	/** The size of the record header (key length, value length, checksum). */
+	private static final int RECORD_HEADER_SIZE = 12;
+
+	/** The initial size of the mapped file. */
+	private static final int INITIAL_FILE_SIZE = 1 << 20;
+
+	/** The maximum size of the mapped file. */
+	private static final int MAX_FILE_SIZE = Integer.MAX_VALUE - 8;
+
+	/** The minimum number of unused bytes which triggers a compaction. */
+	private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+	/** The character set of the map version. */
+	private static final String CHARSET = "UTF-8";
+
+	/** The maximum number of entries. */
+	private final int cacheSize;
+
+	/** The map database used to resolve the line IDs. */
+	private final MapDatabase mapDatabase;
+
+	/** The file. */
+	private final File file;
+
+	/** The random access file. */
+	private final RandomAccessFile raf;
+
+	/** The channel of the file. */
+	private final FileChannel channel;
+
+	/** The mapped file content. */
+	private MappedByteBuffer buffer;
+
+	/** The position of the first record. */
+	private final int dataStart;
+
+	/** The position after the last record. */
+	private int dataEnd;
+
+	/** The position of the latest record of each key, in access order. */
+	private final LinkedHashMap<ReferenceKey, Integer> index = new LinkedHashMap<ReferenceKey, Integer>(
+			16, 0.75f, true);
+
+	/** The number of bytes used by records in the index. */
+	private long usedBytes;
+
+	/** The number of bytes used by replaced or dropped records. */
+	private long unusedBytes;
+
+	/** The number of entries restored from the file. */
+	private final int restoredEntries;
+
+	/** The number of requests answered from the database. */
+	private long hits;
+
+	/** The number of requests not answered from the database. */
+	private long misses;
+
+	/** The number of entries dropped because the database was full. */
+	private long evictions;
+
+	/** The number of compactions. */
+	private long compactions;
+
+	/** The flag indicating that the database has been closed. */
+	private boolean closed;
+
+	/**
+	 * Opens a persistent location database. If the file exists and was
+	 * written for the same map version, its entries are restored, otherwise
+	 * the file is created or overwritten.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum number of entries
+	 * @param dbFile
+	 *            the database file
+	 * @param mdb
+	 *            the map database the locations are decoded on
+	 * @param mapVersion
+	 *            the version of the map, see {@link #getMapVersion(MapDatabase)}
+	 * @throws IOException
+	 *             if the file cannot be opened or written
+	 */
+	public PersistentLocationDatabase(final int cacheSizeValue,
+			final File dbFile, final MapDatabase mdb, final String mapVersion)
+			throws IOException {
+		if (cacheSizeValue <= 0) {
+			throw new IllegalArgumentException(
+					"cache size must be greater than 0");
+		}
+		if (dbFile == null || mdb == null || mapVersion == null) {
+			throw new IllegalArgumentException();
+		}
+		cacheSize = cacheSizeValue;
+		mapDatabase = mdb;
+		file = dbFile;
+		byte[] version = mapVersion.getBytes(CHARSET);
+		dataStart = MAP_VERSION_POSITION + 4 + version.length;
+		raf = new RandomAccessFile(dbFile, "rw");
+		channel = raf.getChannel();
+		try {
+			boolean restore = raf.length() >= dataStart;
+			map((int) Math.min(Math.max(raf.length(), INITIAL_FILE_SIZE),
+					MAX_FILE_SIZE));
+			if (restore && hasValidHeader(version)) {
+				restoreIndex();
+			} else {
+				initialize(version);
+			}
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		}
+		restoredEntries = index.size();
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(restoredEntries + " locations restored from " + dbFile);
+		}
+	}
+
+	/**
+	 * Gets a version of a map database which can be used if the map does not
+	 * provide a version itself, see
+	 * {@link MapDatabaseUtils#getMapVersion(MapDatabase)}.
+	 * 
+	 * @param mdb
+	 *            the map database
+	 * @return the map version
+	 */
+	public static String getMapVersion(final MapDatabase mdb) {
+		return MapDatabaseUtils.getMapVersion(mdb);
+	}
+
+	/**
+	 * Maps the file with the given size.
+	 * 
+	 * @param size
+	 *            the size
+	 * @throws IOException
+	 *             if mapping fails
+	 */
+	private void map(final int size) throws IOException {
+		if (raf.length() < size) {
+			raf.setLength(size);
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	/**
+	 * Checks the header of the file.
+	 * 
+	 * @param version
+	 *            the expected map version
+	 * @return true, if the file has been written for the map version
+	 */
+	private boolean hasValidHeader(final byte[] version) {
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getInt(MAP_VERSION_POSITION) != version.length) {
+			return false;
+		}
+		byte[] stored = new byte[version.length];
+		buffer.position(MAP_VERSION_POSITION + 4);
+		buffer.get(stored);
+		int end = buffer.getInt(END_POSITION);
+		return Arrays.equals(stored, version) && end >= dataStart
+				&& end <= buffer.capacity();
+	}
+
+	/**
+	 * Writes a new header, all entries of the file are dropped.
+	 * 
+	 * @param version
+	 *            the map version
+	 */
+	private void initialize(final byte[] version) {
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(MAP_VERSION_POSITION, version.length);
+		buffer.position(MAP_VERSION_POSITION + 4);
+		buffer.put(version);
+		setDataEnd(dataStart);
+	}
+
+	/**
+	 * Restores the index by scanning the records of the file. The scan stops
+	 * at the first invalid record.
+	 */
+	private void restoreIndex() {
+		int end = buffer.getInt(END_POSITION);
+		int pos = dataStart;
+		while (pos + RECORD_HEADER_SIZE <= end) {
+			int keyLength = buffer.getInt(pos);
+			int valueLength = buffer.getInt(pos + 4);
+			if (keyLength <= 0 || valueLength <= 0
+					|| keyLength > end - pos - RECORD_HEADER_SIZE
+					|| valueLength > end - pos - RECORD_HEADER_SIZE - keyLength) {
+				break;
+			}
+			byte[] key = new byte[keyLength];
+			byte[] value = new byte[valueLength];
+			buffer.position(pos + RECORD_HEADER_SIZE);
+			buffer.get(key);
+			buffer.get(value);
+			if (buffer.getInt(pos + 8) != checksum(key, value)) {
+				break;
+			}
+			addToIndex(new ReferenceKey(key), pos, RECORD_HEADER_SIZE
+					+ keyLength + valueLength);
+			pos += RECORD_HEADER_SIZE + keyLength + valueLength;
+		}
+		if (pos != end) {
+			LOG.warn("invalid record found in " + file + " at position "
+					+ pos + ", following records are ignored");
+		}
+		setDataEnd(pos);
+	}
+
+	/**
+	 * Sets the end of the data and stores it in the header.
+	 * 
+	 * @param end
+	 *            the position after the last record
+	 */
+	private void setDataEnd(final int end) {
+		dataEnd = end;
+		buffer.putInt(END_POSITION, end);
+	}
+
+	/**
+	 * Calculates the checksum of a record.
+	 * 
+	 * @param key
+	 *            the key bytes
+	 * @param value
+	 *            the value bytes
+	 * @return the checksum
+	 */
+	private static int checksum(final byte[] key, final byte[] value) {
+		CRC32 crc = new CRC32();
+		crc.update(key);
+		crc.update(value);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Gets the size of the record at a position.
+	 * 
+	 * @param pos
+	 *            the position
+	 * @return the size in bytes
+	 */
+	private int recordSize(final int pos) {
+		return RECORD_HEADER_SIZE + buffer.getInt(pos) + buffer.getInt(pos + 4);
+	}
+
+	/**
+	 * Adds a record to the index, replaced and dropped records are counted as
+	 * unused.
+	 * 
+	 * @param key
+	 *            the key
+	 * @param pos
+	 *            the position of the record
+	 * @param size
+	 *            the size of the record
+	 */
+	private void addToIndex(final ReferenceKey key, final int pos,
+			final int size) {
+		Integer old = index.put(key, pos);
+		usedBytes += size;
+		if (old != null) {
+			release(old);
+		}
+		while (index.size() > cacheSize) {
+			Iterator<Integer> iter = index.values().iterator();
+			int eldest = iter.next();
+			iter.remove();
+			release(eldest);
+			evictions++;
+		}
+	}
+
+	/**
+	 * Marks the record at a position as unused.
+	 * 
+	 * @param pos
+	 *            the position
+	 */
+	private void release(final int pos) {
+		int size = recordSize(pos);
+		usedBytes -= size;
+		unusedBytes += size;
+	}
+
+	/**
+	 * Checks that the database has not been closed.
+	 */
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("database has been closed");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized boolean containsLR(
+			final RawLocationReference locRef) {
+		checkOpen();
+		if (locRef == null) {
+			return false;
+		}
+		ReferenceKey key = ReferenceKey.of(locRef);
+		return key != null && index.containsKey(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized Location getResult(
+			final RawLocationReference locRef) {
+		checkOpen();
+		if (locRef == null) {
+			throw new IllegalArgumentException();
+		}
+		ReferenceKey key = ReferenceKey.of(locRef);
+		Integer pos = null;
+		if (key != null) {
+			pos = index.get(key);
+		}
+		if (pos == null) {
+			misses++;
+			return null;
+		}
+		byte[] value = new byte[buffer.getInt(pos + 4)];
+		buffer.position(pos + RECORD_HEADER_SIZE + buffer.getInt(pos));
+		buffer.get(value);
+		Location loc = LocationRecords.fromBytes(value, mapDatabase);
+		if (loc == null) {
+			// the location does not fit to the map anymore
+			index.remove(key);
+			release(pos);
+			misses++;
+			return null;
+		}
+		hits++;
+		return loc;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized void storeResult(
+			final RawLocationReference locRef, final Location loc) {
+		checkOpen();
+		if (locRef == null || loc == null) {
+			return;
+		}
+		ReferenceKey key = ReferenceKey.of(locRef);
+		byte[] value = LocationRecords.toBytes(loc);
+		if (key == null || value == null) {
+			return;
+		}
+		byte[] keyData = key.getData();
+		int size = RECORD_HEADER_SIZE + keyData.length + value.length;
+		try {
+			if (!ensureCapacity(size)) {
+				LOG.warn("database file " + file + " is full");
+				return;
+			}
+		} catch (IOException e) {
+			LOG.error("cannot extend database file " + file, e);
+			return;
+		}
+		int pos = dataEnd;
+		buffer.putInt(pos, keyData.length);
+		buffer.putInt(pos + 4, value.length);
+		buffer.putInt(pos + 8, checksum(keyData, value));
+		buffer.position(pos + RECORD_HEADER_SIZE);
+		buffer.put(keyData);
+		buffer.put(value);
+		setDataEnd(pos + size);
+		addToIndex(key, pos, size);
+		if (unusedBytes > usedBytes && unusedBytes >= MIN_COMPACTION_SIZE) {
+			compactRecords();
+		}
+	}
+
+	/**
+	 * Ensures that a record of the given size can be appended, the file is
+	 * compacted or extended if necessary.
+	 * 
+	 * @param size
+	 *            the record size
+	 * @return true, if the record fits into the file
+	 * @throws IOException
+	 *             if the file cannot be extended
+	 */
+	private boolean ensureCapacity(final int size) throws IOException {
+		if ((long) dataEnd + size <= buffer.capacity()) {
+			return true;
+		}
+		if ((long) dataEnd + size > MAX_FILE_SIZE) {
+			compactRecords();
+			if ((long) dataEnd + size > MAX_FILE_SIZE) {
+				return false;
+			}
+		}
+		long newSize = Math.max((long) buffer.capacity() * 2, (long) dataEnd
+				+ size);
+		map((int) Math.min(newSize, MAX_FILE_SIZE));
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized int getCurrentNrEntries() {
+		return index.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The records are removed from the file as well.
+	 */
+	@Override
+	public final synchronized void clear() {
+		checkOpen();
+		index.clear();
+		usedBytes = 0;
+		unusedBytes = 0;
+		setDataEnd(dataStart);
+	}
+
+	/**
+	 * Removes the replaced and dropped records from the file. The valid
+	 * records are moved to the beginning of the data section, their order is
+	 * kept.
+	 */
+	public final synchronized void compact() {
+		checkOpen();
+		compactRecords();
+	}
+
+	/**
+	 * Removes the replaced and dropped records from the file. The data end is
+	 * reset while records are moved, so an interrupted compaction leaves an
+	 * empty but valid file.
+	 */
+	private void compactRecords() {
+		int[] positions = new int[index.size()];
+		int i = 0;
+		for (Integer pos : index.values()) {
+			positions[i++] = pos;
+		}
+		Arrays.sort(positions);
+		setDataEnd(dataStart);
+		buffer.force();
+		Map<Integer, Integer> moved = new LinkedHashMap<Integer, Integer>();
+		int target = dataStart;
+		for (int pos : positions) {
+			int size = recordSize(pos);
+			if (pos != target) {
+				byte[] record = new byte[size];
+				buffer.position(pos);
+				buffer.get(record);
+				buffer.position(target);
+				buffer.put(record);
+				moved.put(pos, target);
+			}
+			target += size;
+		}
+		for (Map.Entry<ReferenceKey, Integer> e : index.entrySet()) {
+			Integer newPos = moved.get(e.getValue());
+			if (newPos != null) {
+				e.setValue(newPos);
+			}
+		}
+		setDataEnd(target);
+		usedBytes = target - dataStart;
+		unusedBytes = 0;
+		compactions++;
+	}
+
+	/**
+	 * Writes all changes to the file.
+	 */
+	public final synchronized void flush() {
+		checkOpen();
+		buffer.force();
+	}
+
+	/**
+	 * Writes all changes to the file and closes it. The database cannot be
+	 * used anymore afterwards.
+	 * 
+	 * @throws IOException
+	 *             if closing the file fails
+	 */
+	public final synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer.force();
+		index.clear();
+		channel.close();
+		raf.close();
+	}
+
+	/**
+	 * Gets the number of entries restored from the file when the database was
+	 * opened.
+	 * 
+	 * @return the number of restored entries
+	 */
+	public final int getRestoredEntries() {
+		return restoredEntries;
+	}
+
+	/**
+	 * Gets the number of requests answered from the database.
+	 * 
+	 * @return the number of hits
+	 */
+	public final synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of requests not answered from the database.
+	 * 
+	 * @return the number of misses
+	 */
+	public final synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of entries dropped because the database was full.
+	 * 
+	 * @return the number of evictions
+	 */
+	public final synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the number of compactions of the file.
+	 * 
+	 * @return the number of compactions
+	 */
+	public final synchronized long getCompactionCount() {
+		return compactions;
+	}
+
+	/**
+	 * Gets the number of bytes used by records in the file.
+	 * 
+	 * @return the size of the records in bytes
+	 */
+	public final synchronized long getFileDataSize() {
+		return dataEnd - dataStart;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("file: ").append(file);
+		sb.append(" max size: ").append(cacheSize);
+		sb.append(" #entries: ").append(index.size());
+		sb.append(" #restored: ").append(restoredEntries);
+		sb.append(" #hits: ").append(hits);
+		sb.append(" #misses: ").append(misses);
+		sb.append(" #evictions: ").append(evictions);
+		sb.append(" #compactions: ").append(compactions);
+		sb.append(" data size: ").append(dataEnd - dataStart);
+		return sb.toString();
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.database;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import openlr.rawLocRef.RawLocRefSerializer;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The Class ReferenceKey identifies a location reference by its content. The
+ * key holds the bytes written by {@link RawLocRefSerializer}, a canonical
+ * representation of the location type, the location reference points, the
+ * offsets and the further attributes of the location reference. The ID of
+ * the location reference is not part of the key, so equal location
+ * references with different IDs share a key in the same way as the equals
+ * method of the raw location references.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class ReferenceKey {
+
+	/** The canonical bytes of the location reference. */
+	private final byte[] data;
+
+	/** The hash code of the bytes. */
+	private final int hash;
+
+	/**
+	 * Creates a key from its canonical bytes.
+	 * 
+	 * @param bytes
+	 *            the canonical bytes
+	 */
+	ReferenceKey(final byte[] bytes) {
+		data = bytes;
+		hash = Arrays.hashCode(bytes);
+	}
+
+	/**
+	 * Creates the key of a raw location reference.
+	 * 
+	 * @param raw
+	 *            the raw location reference
+	 * @return the key or null, if the location type is not supported
+	 */
+	static ReferenceKey of(final RawLocationReference raw) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			if (!RawLocRefSerializer.write(out, raw)) {
+				return null;
+			}
+			out.flush();
+		} catch (IOException e) {
+			// writing into a byte array does not fail
+			throw new IllegalStateException(e);
+		}
+		return new ReferenceKey(bytes.toByteArray());
+	}
+
+	/**
+	 * Gets the canonical bytes of the key, the array must not be modified.
+	 * 
+	 * @return the bytes
+	 */
+	byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ReferenceKey)) {
+			return false;
+		}
+		ReferenceKey other = (ReferenceKey) obj;
+		return hash == other.hash && Arrays.equals(data, other.data);
+	}
+}
@@ -0,0 +1,466 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import openlr.LocationReferencePoint;
+import openlr.OpenLRProcessingException;
+import openlr.decoder.DecoderListener;
+import openlr.decoder.DecoderPhase;
+import openlr.decoder.OpenLRDecoderParameter;
+import openlr.location.Location;
+import openlr.map.GeoCoordinates;
+import openlr.rawLocRef.RawLocationReference;
+import openlr.utils.metrics.ProcessingMetrics;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The class DecoderMetrics is a thread-safe {@link DecoderListener} which
+ * aggregates the timings and counts of all decodings. It is enabled by setting
+ * it in the {@link OpenLRDecoderParameter} and can be shared by several
+ * decoders and sessions. The metrics can be read with the getters or through
+ * JMX after calling {@link #register(String)}.
+ * 
+ * Decodings exceeding a time threshold are counted and logged with the ID and
+ * the position of the location reference, this shows which references and map
+ * areas are expensive to decode.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class DecoderMetrics implements DecoderListener, DecoderMetricsMXBean {
+
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(DecoderMetrics.class);
+
+	/** The JMX domain of the registered metrics. */
+	public static final String JMX_DOMAIN = "openlr.decoder";
+
+	/** The return code key of valid locations. */
+	public static final String RETURN_CODE_OK = ProcessingMetrics.RETURN_CODE_OK;
+
+	/** The decoding counts and timings. */
+	private final ProcessingMetrics<DecoderPhase> metrics;
+
+	/** The number of location reference points with candidates searched. */
+	private final AtomicLong lrps = new AtomicLong();
+
+	/** The total number of candidate nodes. */
+	private final AtomicLong candidateNodes = new AtomicLong();
+
+	/** The total number of candidate lines. */
+	private final AtomicLong candidateLines = new AtomicLong();
+
+	/** The number of location reference points without candidate lines. */
+	private final AtomicLong noCandidateLines = new AtomicLong();
+
+	/** The number of resolved pairs of location reference points. */
+	private final AtomicLong routePairs = new AtomicLong();
+
+	/** The number of route retries. */
+	private final AtomicLong routeRetries = new AtomicLong();
+
+	/** The total number of route search expansions. */
+	private final AtomicLong routeExpansions = new AtomicLong();
+
+	/** The number of pairs without a valid route. */
+	private final AtomicLong routeFailures = new AtomicLong();
+
+	/**
+	 * Creates metrics without logging of slow decodings.
+	 */
+	public DecoderMetrics() {
+		this(0);
+	}
+
+	/**
+	 * Creates metrics logging each decoding which takes longer than the
+	 * threshold.
+	 * 
+	 * @param slowThresholdMillis
+	 *            the threshold in milliseconds, 0 disables the logging
+	 */
+	public DecoderMetrics(final long slowThresholdMillis) {
+		metrics = new ProcessingMetrics<DecoderPhase>(DecoderPhase.class,
+				slowThresholdMillis);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void phaseFinished(final RawLocationReference locRef,
+			final DecoderPhase phase, final long durationNanos) {
+		metrics.phaseFinished(locRef.getLocationType(), phase, durationNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void candidatesFound(final RawLocationReference locRef,
+			final LocationReferencePoint lrp, final int nrCandidateNodes,
+			final int nrCandidateLines) {
+		lrps.incrementAndGet();
+		candidateNodes.addAndGet(nrCandidateNodes);
+		candidateLines.addAndGet(nrCandidateLines);
+		if (nrCandidateLines == 0) {
+			noCandidateLines.incrementAndGet();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void routeResolved(final RawLocationReference locRef,
+			final LocationReferencePoint lrp, final int nrCandidatePairs,
+			final int nrExpansions, final boolean found) {
+		routePairs.incrementAndGet();
+		if (nrCandidatePairs > 1) {
+			routeRetries.addAndGet(nrCandidatePairs - 1);
+		}
+		routeExpansions.addAndGet(nrExpansions);
+		if (!found) {
+			routeFailures.incrementAndGet();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void decodingFinished(final RawLocationReference locRef,
+			final Location location, final boolean cached,
+			final long durationNanos) {
+		String code;
+		if (location.isValid()) {
+			code = RETURN_CODE_OK;
+		} else if (location.getReturnCode() != null) {
+			code = location.getReturnCode().name();
+		} else {
+			code = "UNKNOWN";
+		}
+		finished(locRef, code, cached, false, durationNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void decodingFailed(final RawLocationReference locRef,
+			final OpenLRProcessingException error, final long durationNanos) {
+		finished(locRef, error.getErrorCode().getName(), false, true,
+				durationNanos);
+	}
+
+	/**
+	 * Updates the decoding counters and logs slow decodings.
+	 * 
+	 * @param locRef
+	 *            the location reference
+	 * @param code
+	 *            the name of the return code
+	 * @param cached
+	 *            true, if the location has been taken from the cache
+	 * @param failed
+	 *            true, if the decoding failed with an exception
+	 * @param durationNanos
+	 *            the decoding time
+	 */
+	private void finished(final RawLocationReference locRef,
+			final String code, final boolean cached, final boolean failed,
+			final long durationNanos) {
+		if (metrics.finished(locRef.getLocationType(), code, cached, failed,
+				durationNanos)) {
+			LOG.warn("slow decoding of location reference " + locRef.getID()
+					+ " (" + locRef.getLocationType() + getPosition(locRef)
+					+ "): " + ProcessingMetrics.toMicros(durationNanos)
+					+ "us");
+		}
+	}
+
+	/**
+	 * Gets a textual position of a location reference for logging.
+	 * 
+	 * @param locRef
+	 *            the location reference
+	 * @return the position of the first location reference point or the
+	 *         center point, or an empty string if none is available
+	 */
+	private static String getPosition(final RawLocationReference locRef) {
+		if (locRef.getLocationReferencePoints() != null
+				&& !locRef.getLocationReferencePoints().isEmpty()) {
+			LocationReferencePoint p = locRef.getLocationReferencePoints().get(
+					0);
+			return " at " + p.getLongitudeDeg() + "," + p.getLatitudeDeg();
+		}
+		GeoCoordinates center = locRef.getCenterPoint();
+		if (center != null) {
+			return " at " + center.getLongitudeDeg() + ","
+					+ center.getLatitudeDeg();
+		}
+		return "";
+	}
+
+	/**
+	 * Registers the metrics at the platform MBean server.
+	 * 
+	 * @param name
+	 *            the name of the metrics, e.g. the name of the decoding
+	 *            service
+	 * @return the object name of the registered metrics
+	 * @throws JMException
+	 *             if the registration fails
+	 */
+	public final ObjectName register(final String name) throws JMException {
+		return ProcessingMetrics.register(this, JMX_DOMAIN, "DecoderMetrics",
+				name);
+	}
+
+	/**
+	 * Removes registered metrics from the platform MBean server.
+	 * 
+	 * @param objectName
+	 *            the object name returned by {@link #register(String)}
+	 * @throws JMException
+	 *             if the metrics are not registered
+	 */
+	public static void unregister(final ObjectName objectName)
+			throws JMException {
+		ProcessingMetrics.unregister(objectName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getDecodingCount() {
+		return metrics.getCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getCacheHitCount() {
+		return metrics.getCacheHitCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getFailureCount() {
+		return metrics.getFailureCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getSlowDecodingCount() {
+		return metrics.getSlowCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageDecodingMicros() {
+		return metrics.getAverageMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getMaxDecodingMicros() {
+		return metrics.getMaxMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getDecodingCountByType() {
+		return metrics.getCountByType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Double> getAverageDecodingMicrosByType() {
+		return metrics.getAverageMicrosByType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getReturnCodeCounts() {
+		return metrics.getReturnCodeCounts();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getPhaseCounts() {
+		return metrics.getPhaseCounts();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Double> getAveragePhaseMicros() {
+		return metrics.getAveragePhaseMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getMaxPhaseMicros() {
+		return metrics.getMaxPhaseMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getLrpCount() {
+		return lrps.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageCandidateNodes() {
+		return ProcessingMetrics.average(candidateNodes.get(), lrps.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageCandidateLines() {
+		return ProcessingMetrics.average(candidateLines.get(), lrps.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getNoCandidateLinesCount() {
+		return noCandidateLines.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getRoutePairCount() {
+		return routePairs.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getRouteRetryCount() {
+		return routeRetries.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageRouteExpansions() {
+		return ProcessingMetrics.average(routeExpansions.get(),
+				routePairs.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getRouteFailureCount() {
+		return routeFailures.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void reset() {
+		metrics.reset();
+		lrps.set(0);
+		candidateNodes.set(0);
+		candidateLines.set(0);
+		noCandidateLines.set(0);
+		routePairs.set(0);
+		routeRetries.set(0);
+		routeExpansions.set(0);
+		routeFailures.set(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("decodings: ").append(getDecodingCount());
+		sb.append(" cache hits: ").append(getCacheHitCount());
+		sb.append(" failures: ").append(getFailureCount());
+		sb.append(" avg: ").append(Math.round(getAverageDecodingMicros()))
+				.append("us");
+		sb.append(" max: ").append(getMaxDecodingMicros()).append("us");
+		sb.append(" return codes: ").append(getReturnCodeCounts());
+		sb.append(" phases [us]: ").append(getAveragePhaseMicros());
+		sb.append(" route retries: ").append(getRouteRetryCount());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.metrics;
+
+import java.util.Map;
+
+/**
+ * The Interface DecoderMetricsMXBean defines the attributes and operations of
+ * the {@link DecoderMetrics} being available through JMX. Times are given in
+ * microseconds.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public interface DecoderMetricsMXBean {
+
+	/**
+	 * Gets the number of decoded location references, including cache hits
+	 * and failures.
+	 * 
+	 * @return the number of decodings
+	 */
+	long getDecodingCount();
+
+	/**
+	 * Gets the number of locations taken from the location database.
+	 * 
+	 * @return the number of cache hits
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * Gets the number of decodings which failed with an exception.
+	 * 
+	 * @return the number of failures
+	 */
+	long getFailureCount();
+
+	/**
+	 * Gets the number of decodings exceeding the slow decoding threshold.
+	 * 
+	 * @return the number of slow decodings
+	 */
+	long getSlowDecodingCount();
+
+	/**
+	 * Gets the average decoding time.
+	 * 
+	 * @return the average decoding time in microseconds
+	 */
+	double getAverageDecodingMicros();
+
+	/**
+	 * Gets the maximum decoding time.
+	 * 
+	 * @return the maximum decoding time in microseconds
+	 */
+	long getMaxDecodingMicros();
+
+	/**
+	 * Gets the number of decodings per location type.
+	 * 
+	 * @return the number of decodings per location type
+	 */
+	Map<String, Long> getDecodingCountByType();
+
+	/**
+	 * Gets the average decoding time per location type.
+	 * 
+	 * @return the average decoding time per location type in microseconds
+	 */
+	Map<String, Double> getAverageDecodingMicrosByType();
+
+	/**
+	 * Gets the number of decodings per return code. Valid locations are
+	 * counted as "OK", failures with the name of the error code.
+	 * 
+	 * @return the number of decodings per return code
+	 */
+	Map<String, Long> getReturnCodeCounts();
+
+	/**
+	 * Gets the number of executions per decoder phase.
+	 * 
+	 * @return the number of executions per phase
+	 */
+	Map<String, Long> getPhaseCounts();
+
+	/**
+	 * Gets the average time per decoder phase.
+	 * 
+	 * @return the average time per phase in microseconds
+	 */
+	Map<String, Double> getAveragePhaseMicros();
+
+	/**
+	 * Gets the maximum time per decoder phase.
+	 * 
+	 * @return the maximum time per phase in microseconds
+	 */
+	Map<String, Long> getMaxPhaseMicros();
+
+	/**
+	 * Gets the number of location reference points for which candidates have
+	 * been searched.
+	 * 
+	 * @return the number of location reference points
+	 */
+	long getLrpCount();
+
+	/**
+	 * Gets the average number of candidate nodes per location reference
+	 * point.
+	 * 
+	 * @return the average number of candidate nodes
+	 */
+	double getAverageCandidateNodes();
+
+	/**
+	 * Gets the average number of candidate lines per location reference
+	 * point.
+	 * 
+	 * @return the average number of candidate lines
+	 */
+	double getAverageCandidateLines();
+
+	/**
+	 * Gets the number of location reference points without candidate lines.
+	 * 
+	 * @return the number of location reference points without candidates
+	 */
+	long getNoCandidateLinesCount();
+
+	/**
+	 * Gets the number of resolved pairs of location reference points.
+	 * 
+	 * @return the number of pairs
+	 */
+	long getRoutePairCount();
+
+	/**
+	 * Gets the number of candidate line pairs investigated after the first
+	 * pair of a location reference point failed.
+	 * 
+	 * @return the number of retries
+	 */
+	long getRouteRetryCount();
+
+	/**
+	 * Gets the average number of lines expanded by the route searches of a
+	 * pair of location reference points.
+	 * 
+	 * @return the average number of expansions
+	 */
+	double getAverageRouteExpansions();
+
+	/**
+	 * Gets the number of pairs of location reference points without a valid
+	 * route.
+	 * 
+	 * @return the number of route failures
+	 */
+	long getRouteFailureCount();
+
+	/**
+	 * Resets all metrics.
+	 */
+	void reset();
+}
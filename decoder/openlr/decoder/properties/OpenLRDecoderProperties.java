@@ -100,6 +100,18 @@ public class OpenLRDecoderProperties {
 	/** The comp time4 cache. */
 	private final int compTime4Cache;
 
+	/** The bidirectional route search. */
+	private final boolean bidirectionalRouteSearch;
+
+	/** The one to many route search. */
+	private final boolean oneToManyRouteSearch;
+
+	/** The bearing cache size. */
+	private final int bearingCacheSize;
+
+	/** The approximate distance. */
+	private final boolean approximateDistance;
+
 	/**
 	 * Instantiates a new open lr decoder properties.
 	 * 
@@ -172,6 +184,15 @@ public class OpenLRDecoderProperties {
 				config, OpenLRDecoderProperty.LINES_DIRECTLY_FACTOR);
 		compTime4Cache = OpenLRPropertyAccess.getIntegerPropertyValue(config,
 				OpenLRDecoderProperty.COMP_TIME_4_CACHE);
+		bidirectionalRouteSearch = OpenLRPropertyAccess
+				.getBooleanPropertyValue(config,
+						OpenLRDecoderProperty.BIDIRECTIONAL_ROUTE_SEARCH);
+		oneToManyRouteSearch = OpenLRPropertyAccess.getBooleanPropertyValue(
+				config, OpenLRDecoderProperty.ONE_TO_MANY_ROUTE_SEARCH);
+		bearingCacheSize = OpenLRPropertyAccess.getIntegerPropertyValue(
+				config, OpenLRDecoderProperty.BEARING_CACHE_SIZE);
+		approximateDistance = OpenLRPropertyAccess.getBooleanPropertyValue(
+				config, OpenLRDecoderProperty.APPROXIMATE_DISTANCE);
 	}
 
 	/**
@@ -355,4 +376,47 @@ public class OpenLRDecoderProperties {
 		return compTime4Cache;
 	}
 
+	/**
+	 * Checks if the routes between the candidate lines shall be calculated
+	 * with a bidirectional search. Both searches calculate routes of the
+	 * same length. The bidirectional search settles fewer lines, but on the
+	 * short distances between two location reference points the saving is
+	 * small and depends on the map.
+	 * 
+	 * @return the bidirectionalRouteSearch
+	 */
+	public final boolean isBidirectionalRouteSearch() {
+		return bidirectionalRouteSearch;
+	}
+
+	/**
+	 * Checks if all destination candidates of a start candidate line shall be
+	 * evaluated with a single route search.
+	 * 
+	 * @return the oneToManyRouteSearch
+	 */
+	public final boolean isOneToManyRouteSearch() {
+		return oneToManyRouteSearch;
+	}
+
+	/**
+	 * Gets the maximum number of lines per direction in the bearing cache of
+	 * a map database, 0 disables the cache.
+	 * 
+	 * @return the bearingCacheSize
+	 */
+	public final int getBearingCacheSize() {
+		return bearingCacheSize;
+	}
+
+	/**
+	 * Checks if short distances shall be approximated instead of being
+	 * calculated exactly.
+	 * 
+	 * @return the approximateDistance
+	 */
+	public final boolean isApproximateDistance() {
+		return approximateDistance;
+	}
+
 }
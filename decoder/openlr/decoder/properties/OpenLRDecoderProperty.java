@@ -148,7 +148,21 @@ public enum OpenLRDecoderProperty implements OpenLRProperty {
 	LINES_DIRECTLY_FACTOR("Lines_Directly_Factor", PropertyType.FLOAT, 0.95f),
 
 	/** The COM p_ tim e_4_ cache. */
-	COMP_TIME_4_CACHE("CompTime4Cache", PropertyType.INTEGER, 0);
+	COMP_TIME_4_CACHE("CompTime4Cache", PropertyType.INTEGER, 0),
+
+	/** The BIDIRECTIONA l_ rout e_ search. */
+	BIDIRECTIONAL_ROUTE_SEARCH("BidirectionalRouteSearch",
+			PropertyType.BOOLEAN, false),
+
+	/** The ON e_ t o_ man y_ rout e_ search. */
+	ONE_TO_MANY_ROUTE_SEARCH("OneToManyRouteSearch", PropertyType.BOOLEAN,
+			false),
+
+	/** The BEARIN g_ cach e_ size. */
+	BEARING_CACHE_SIZE("BearingCacheSize", PropertyType.INTEGER, 0),
+
+	/** The APPROXIMAT e_ distance. */
+	APPROXIMATE_DISTANCE("ApproximateDistance", PropertyType.BOOLEAN, false);
 
 	/**
 	 * Instantiates a new open lr decoder properties.
@@ -0,0 +1,308 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.rating;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.utils.GeometryUtils;
+import openlr.map.utils.GeometryUtils.BearingDirection;
+
+/**
+ * The class BearingCache stores the bearing values of lines measured from
+ * their start node (in direction) or from their end node (against direction).
+ * These are the bearings needed to rate the candidate lines found at the
+ * candidate nodes and they do not depend on the location reference, so they
+ * are calculated only once per line, direction and bearing distance.
+ * <p>
+ * A cache belongs to a single map database, because line IDs are only unique
+ * within a map. The caches are obtained via
+ * {@link #getInstance(MapDatabase, int, int)} and kept as long as the map
+ * database is referenced. The map data must not change while a cache is in
+ * use.
+ * <p>
+ * The values of each direction are split into segments which are locked
+ * independently, so decoders running in parallel rarely wait for each other.
+ * Each segment drops its least recently used values if it is full.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class BearingCache {
+
+	/** The maximum number of segments per direction. */
+	private static final int CONCURRENCY_LEVEL = 16;
+
+	/** The number of bits of an int value. */
+	private static final int INT_BITS = 32;
+
+	/** The hash table load factor of the segments. */
+	private static final float LOAD_FACTOR = 0.75f;
+
+	/**
+	 * The caches of each map database, grouped by bearing distance and
+	 * maximum size.
+	 */
+	private static final Map<MapDatabase, Map<Long, BearingCache>> CACHES = new WeakHashMap<MapDatabase, Map<Long, BearingCache>>();
+
+	/** The bearing distance used for the cached values. */
+	private final int bearingDistance;
+
+	/** The bearings measured from the start node. */
+	private final Segment[] inDirection;
+
+	/** The bearings measured from the end node. */
+	private final Segment[] againstDirection;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param bearDist
+	 *            the bearing distance
+	 * @param maxEntries
+	 *            the maximum number of lines per direction
+	 */
+	private BearingCache(final int bearDist, final int maxEntries) {
+		bearingDistance = bearDist;
+		inDirection = createSegments(maxEntries);
+		againstDirection = createSegments(maxEntries);
+	}
+
+	/**
+	 * Creates the segments of a direction, the maximum number of lines is
+	 * split between the segments.
+	 * 
+	 * @param maxEntries
+	 *            the maximum number of lines of the direction
+	 * @return the segments
+	 */
+	private static Segment[] createSegments(final int maxEntries) {
+		int nrSegments = 1;
+		while (nrSegments < CONCURRENCY_LEVEL
+				&& nrSegments * 2 <= maxEntries) {
+			nrSegments *= 2;
+		}
+		Segment[] segments = new Segment[nrSegments];
+		for (int i = 0; i < nrSegments; i++) {
+			int capacity = maxEntries / nrSegments;
+			if (i < maxEntries % nrSegments) {
+				capacity++;
+			}
+			segments[i] = new Segment(capacity);
+		}
+		return segments;
+	}
+
+	/**
+	 * Gets the cache of a map database, bearing distance and maximum size.
+	 * The cache is created if it does not exist yet, so decoders using
+	 * different cache sizes get different caches.
+	 * 
+	 * @param mdb
+	 *            the map database
+	 * @param bearDist
+	 *            the bearing distance
+	 * @param maxEntries
+	 *            the maximum number of lines per direction
+	 * @return the bearing cache
+	 */
+	public static BearingCache getInstance(final MapDatabase mdb,
+			final int bearDist, final int maxEntries) {
+		if (mdb == null) {
+			throw new IllegalArgumentException("map database is null");
+		}
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException(
+					"cache size must be greater than 0");
+		}
+		Long key = ((long) bearDist << INT_BITS) | maxEntries;
+		synchronized (CACHES) {
+			Map<Long, BearingCache> caches = CACHES.get(mdb);
+			if (caches == null) {
+				caches = new HashMap<Long, BearingCache>();
+				CACHES.put(mdb, caches);
+			}
+			BearingCache cache = caches.get(key);
+			if (cache == null) {
+				cache = new BearingCache(bearDist, maxEntries);
+				caches.put(key, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Gets the bearing distance used for the cached values.
+	 * 
+	 * @return the bearing distance
+	 */
+	public int getBearingDistance() {
+		return bearingDistance;
+	}
+
+	/**
+	 * Gets the bearing of a line measured from its start node (in direction)
+	 * or from its end node (against direction). The value is the same as
+	 * {@link GeometryUtils#calculateLineBearing(Line, BearingDirection, int, int)}
+	 * with a projection of 0.
+	 * 
+	 * @param line
+	 *            the line
+	 * @param dir
+	 *            the bearing direction
+	 * @return the bearing value of the line
+	 */
+	public double getBearing(final Line line, final BearingDirection dir) {
+		Segment[] segments;
+		if (dir == BearingDirection.IN_DIRECTION) {
+			segments = inDirection;
+		} else {
+			segments = againstDirection;
+		}
+		long id = line.getID();
+		int h = (int) (id ^ (id >>> INT_BITS));
+		h ^= (h >>> (INT_BITS / 2));
+		Segment segment = segments[h & (segments.length - 1)];
+		Double bearing = segment.get(id);
+		if (bearing == null) {
+			// calculated without lock, another thread may store the same value
+			bearing = GeometryUtils.calculateLineBearing(line, dir,
+					bearingDistance, 0);
+			segment.put(id, bearing);
+		}
+		return bearing;
+	}
+
+	/**
+	 * Gets the number of cached bearing values.
+	 * 
+	 * @return the number of cached values
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment s : inDirection) {
+			size += s.size();
+		}
+		for (Segment s : againstDirection) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all cached values, e.g. after the map data has changed.
+	 */
+	public void clear() {
+		for (Segment s : inDirection) {
+			s.clear();
+		}
+		for (Segment s : againstDirection) {
+			s.clear();
+		}
+	}
+
+	/**
+	 * A segment of the bearing values of one direction, all methods lock the
+	 * segment.
+	 */
+	private static final class Segment {
+
+		/** The bearing values in access order. */
+		private final LinkedHashMap<Long, Double> values;
+
+		/**
+		 * Creates a segment.
+		 * 
+		 * @param capacity
+		 *            the maximum number of values
+		 */
+		Segment(final int capacity) {
+			values = new LinkedHashMap<Long, Double>(
+					(int) Math.ceil(capacity / LOAD_FACTOR) + 1, LOAD_FACTOR,
+					true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						final Map.Entry<Long, Double> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+
+		/**
+		 * Gets the bearing of a line.
+		 * 
+		 * @param id
+		 *            the line ID
+		 * @return the bearing or null
+		 */
+		synchronized Double get(final long id) {
+			return values.get(id);
+		}
+
+		/**
+		 * Stores the bearing of a line.
+		 * 
+		 * @param id
+		 *            the line ID
+		 * @param bearing
+		 *            the bearing
+		 */
+		synchronized void put(final long id, final Double bearing) {
+			values.put(id, bearing);
+		}
+
+		/**
+		 * Gets the number of values.
+		 * 
+		 * @return the number of values
+		 */
+		synchronized int size() {
+			return values.size();
+		}
+
+		/**
+		 * Removes all values.
+		 */
+		synchronized void clear() {
+			values.clear();
+		}
+	}
+}
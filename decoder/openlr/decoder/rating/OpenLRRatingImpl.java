@@ -81,6 +81,27 @@ public class OpenLRRatingImpl implements OpenLRRating {
 	/** The Constant fowRatingTable. */
 	private static final FormOfWayRatingTable FOW_RATING_TABLE = new FormOfWayRatingTable();
 
+	/** The cache of the line bearings, or null if not used. */
+	private final BearingCache bearingCache;
+
+	/**
+	 * Creates a rating function calculating all bearings.
+	 */
+	public OpenLRRatingImpl() {
+		this(null);
+	}
+
+	/**
+	 * Creates a rating function taking the bearings of lines rated at their
+	 * start or end node from a cache.
+	 * 
+	 * @param cache
+	 *            the bearing cache, or null if no cache shall be used
+	 */
+	public OpenLRRatingImpl(final BearingCache cache) {
+		bearingCache = cache;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public final int getRating(final OpenLRDecoderProperties properties,
@@ -234,8 +255,15 @@ public class OpenLRRatingImpl implements OpenLRRating {
 			final OpenLRDecoderProperties properties, final double bearing,
 			final BearingDirection dir, final Line line,
 			final int projectionAlongLine) throws OpenLRProcessingException {
-		double lineBearing = GeometryUtils.calculateLineBearing(line, dir,
-				properties.getBearingDistance(), projectionAlongLine);
+		double lineBearing;
+		if (bearingCache != null && projectionAlongLine <= 0
+				&& bearingCache.getBearingDistance() == properties
+						.getBearingDistance()) {
+			lineBearing = bearingCache.getBearing(line, dir);
+		} else {
+			lineBearing = GeometryUtils.calculateLineBearing(line, dir,
+					properties.getBearingDistance(), projectionAlongLine);
+		}
 
 		int diff = (int) Math.round(Math.abs(bearing - lineBearing));
 		if (diff > HALF_CIRCLE) {
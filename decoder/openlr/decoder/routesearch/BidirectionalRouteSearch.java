@@ -0,0 +1,436 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.routesearch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import openlr.map.Line;
+import openlr.map.Node;
+import openlr.map.utils.GeometryUtils;
+import openlr.map.utils.PQElem;
+import openlr.map.utils.PQElemHeap;
+import openlr.map.utils.PathUtils;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The class BidirectionalRouteSearch calculates the same shortest path as the
+ * A* search in {@link RouteSearch} by running two A* searches at the same
+ * time. The forward search starts at the start line and expands the
+ * successors ({@link Line#getNextLines()}), the backward search starts at the
+ * destination and expands the predecessors ({@link Line#getPrevLines()}).
+ * Each search uses the airline distance to the other end as heuristic. Every
+ * time a line is reached by both searches a route candidate is found, the
+ * search stops as soon as the smallest key of one of the open lists exceeds
+ * the length of the best candidate. Each step settles a line of the
+ * direction with the larger smallest key, this reaches the stop criterion
+ * with fewer settled lines than balancing both open lists.
+ * <p>
+ * The lowest functional road class and the maximum distance are applied in
+ * both directions, so the route length is the same as for the one-directional
+ * search. If several shortest routes exist, both searches may return
+ * different ones.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class BidirectionalRouteSearch {
+
+	/** logger */
+	private static final Logger LOG = Logger
+			.getLogger(BidirectionalRouteSearch.class);
+
+	/** The start line. */
+	private final Line startLine;
+
+	/** The destination line. */
+	private final Line destLine;
+
+	/** The maximum route length. */
+	private final int maxDistance;
+
+	/** The lowest functional road class being investigated. */
+	private final int lowestFRC;
+
+	/** Whether the destination line is part of the route. */
+	private final boolean isLast;
+
+	/** Whether the heuristic uses the approximated distance. */
+	private final boolean approximateDistance;
+
+	/** The forward search. */
+	private final Direction forward;
+
+	/** The backward search. */
+	private final Direction backward;
+
+	/** The length of the best route found so far. */
+	private int bestLength = Integer.MAX_VALUE;
+
+	/** The forward element of the best route, ending at the meeting line. */
+	private PQElem bestForward;
+
+	/** The backward element of the best route, starting at the meeting line. */
+	private PQElem bestBackward;
+
+	/** The number of lines taken from the open lists. */
+	private int settledLines;
+
+	/**
+	 * Prepares a search. The parameters have the same meaning as in
+	 * {@link RouteSearch#calculateRoute(Line, Line, int, int, boolean)}.
+	 * 
+	 * @param start
+	 *            the start line
+	 * @param dest
+	 *            the destination line
+	 * @param maxDist
+	 *            the maximum route length
+	 * @param lfrc
+	 *            the lowest functional road class
+	 * @param last
+	 *            whether the destination line belongs to the route
+	 * @param approximate
+	 *            whether the heuristic uses the approximated distance
+	 */
+	BidirectionalRouteSearch(final Line start, final Line dest,
+			final int maxDist, final int lfrc, final boolean last,
+			final boolean approximate) {
+		startLine = start;
+		destLine = dest;
+		maxDistance = maxDist;
+		lowestFRC = lfrc;
+		isLast = last;
+		approximateDistance = approximate;
+		Node target;
+		if (isLast) {
+			target = destLine.getEndNode();
+		} else {
+			target = destLine.getStartNode();
+		}
+		forward = new Direction(true, target);
+		backward = new Direction(false, startLine.getStartNode());
+	}
+
+	/**
+	 * Gets the number of lines taken from the open lists.
+	 * 
+	 * @return the number of settled lines
+	 */
+	int getNumberOfSettledLines() {
+		return settledLines;
+	}
+
+	/**
+	 * Calculates the route.
+	 * 
+	 * @return the route from the start line up to the destination line
+	 *         (included if the destination is the last line), or null if no
+	 *         route exists
+	 */
+	List<Line> calculate() {
+		if ((isLast && startLine.getID() == destLine.getID())
+				|| (!isLast && endsBeforeDestination(startLine))) {
+			// the one-directional search stops at the start line as well
+			bestLength = startLine.getLineLength();
+			List<Line> route = new ArrayList<Line>(1);
+			route.add(startLine);
+			return route;
+		}
+
+		// the forward search starts with the start line
+		forward.add(startLine, startLine.getLineLength(), null);
+		// the backward search starts with the destination or its predecessors
+		if (isLast) {
+			if (isAllowed(destLine)) {
+				backward.relax(destLine, 0, null);
+			}
+		} else {
+			Iterator<Line> prev = destLine.getPrevLines();
+			while (prev.hasNext()) {
+				Line p = prev.next();
+				if (isAllowed(p) && endsBeforeDestination(p)) {
+					backward.relax(p, 0, null);
+				}
+			}
+		}
+
+		while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+			if (forward.open.peek().getFirstVal() > bestLength
+					|| backward.open.peek().getFirstVal() > bestLength) {
+				break;
+			}
+			// the search stops as soon as the larger of both smallest keys
+			// exceeds the best length, so settle the direction which is
+			// closer to that bound
+			Direction dir = forward;
+			if (backward.open.peek().getFirstVal() > forward.open.peek()
+					.getFirstVal()) {
+				dir = backward;
+			}
+			PQElem actual = dir.open.poll();
+			settledLines++;
+			dir.expand(actual);
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("bidirectional route search settled " + settledLines
+					+ " lines");
+		}
+		if (bestForward == null) {
+			return null;
+		}
+		List<Line> route = PathUtils.constructPath(bestForward);
+		PQElem next = bestBackward.getPrevious();
+		while (next != null) {
+			route.add(next.getLine());
+			next = next.getPrevious();
+		}
+		return route;
+	}
+
+	/**
+	 * Gets the length of the calculated route.
+	 * 
+	 * @return the route length
+	 */
+	int getRouteLength() {
+		return bestLength;
+	}
+
+	/**
+	 * Checks if a line ends at the start node of the destination line and
+	 * the destination line is one of its successors.
+	 * 
+	 * @param line
+	 *            the line
+	 * @return true, if the destination directly follows the line
+	 */
+	private boolean endsBeforeDestination(final Line line) {
+		if (!line.getEndNode().equals(destLine.getStartNode())) {
+			return false;
+		}
+		Iterator<? extends Line> iter = line.getNextLines();
+		while (iter.hasNext()) {
+			if (iter.next().getID() == destLine.getID()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a line ends at the start node of the destination line without
+	 * the destination line being one of its successors. The one-directional
+	 * search does not expand such lines if the destination is not the last
+	 * line, so they are excluded here in both directions.
+	 * 
+	 * @param line
+	 *            the line
+	 * @return true, if the route must not continue after the line
+	 */
+	private boolean isDeadEnd(final Line line) {
+		return !isLast && line.getEndNode().equals(destLine.getStartNode())
+				&& !endsBeforeDestination(line);
+	}
+
+	/**
+	 * Checks the lowest functional road class criteria, the start line is
+	 * always allowed.
+	 * 
+	 * @param line
+	 *            the line
+	 * @return true, if the line may be part of the route
+	 */
+	private boolean isAllowed(final Line line) {
+		return line.getID() == startLine.getID()
+				|| line.getFRC().getID() <= lowestFRC;
+	}
+
+	/**
+	 * Records a route candidate if a line has been reached from both sides.
+	 * 
+	 * @param fwd
+	 *            the forward element of the line
+	 * @param bwd
+	 *            the backward element of the line
+	 */
+	private void checkMeeting(final PQElem fwd, final PQElem bwd) {
+		int length = fwd.getSecondVal() + bwd.getSecondVal()
+				- fwd.getLine().getLineLength();
+		if (length < bestLength && length <= maxDistance) {
+			bestLength = length;
+			bestForward = fwd;
+			bestBackward = bwd;
+		}
+	}
+
+	/**
+	 * One direction of the search. The second value of a forward element is
+	 * the route length from the start of the start line to the end of its
+	 * line, the second value of a backward element is the length from the
+	 * start of its line to the end of the route. The parent of a backward
+	 * element is the following line in the route.
+	 */
+	private final class Direction {
+
+		/** Whether this is the forward search. */
+		private final boolean isForward;
+
+		/** The longitude of the heuristic target. */
+		private final double targetLon;
+
+		/** The latitude of the heuristic target. */
+		private final double targetLat;
+
+		/** The open list. */
+		private final PQElemHeap open = new PQElemHeap();
+
+		/** The best element of each line reached so far. */
+		private final Map<Long, PQElem> reached = new HashMap<Long, PQElem>();
+
+		/**
+		 * Creates a search direction.
+		 * 
+		 * @param fwd
+		 *            true for the forward search
+		 * @param target
+		 *            the node the heuristic points to
+		 */
+		Direction(final boolean fwd, final Node target) {
+			isForward = fwd;
+			targetLon = target.getLongitudeDeg();
+			targetLat = target.getLatitudeDeg();
+		}
+
+		/**
+		 * Gets the other direction.
+		 * 
+		 * @return the other direction
+		 */
+		private Direction other() {
+			if (isForward) {
+				return backward;
+			}
+			return forward;
+		}
+
+		/**
+		 * Adds an element without maximum distance check.
+		 * 
+		 * @param line
+		 *            the line
+		 * @param length
+		 *            the length value
+		 * @param parent
+		 *            the parent element
+		 */
+		void add(final Line line, final int length, final PQElem parent) {
+			Node n;
+			if (isForward) {
+				n = line.getEndNode();
+			} else {
+				n = line.getStartNode();
+			}
+			int heurist = (int) Math.round(GeometryUtils.distance(targetLon,
+					targetLat, n.getLongitudeDeg(), n.getLatitudeDeg(),
+					approximateDistance));
+			PQElem elem = new PQElem(line, length + heurist, length, parent);
+			open.update(elem);
+			reached.put(line.getID(), elem);
+			PQElem otherElem = other().reached.get(line.getID());
+			if (otherElem != null) {
+				if (isForward) {
+					checkMeeting(elem, otherElem);
+				} else {
+					checkMeeting(otherElem, elem);
+				}
+			}
+		}
+
+		/**
+		 * Reaches a line from a neighbour and stores it if the length
+		 * improves.
+		 * 
+		 * @param line
+		 *            the line
+		 * @param baseLength
+		 *            the length value of the neighbour
+		 * @param parent
+		 *            the neighbour element
+		 */
+		void relax(final Line line, final int baseLength, final PQElem parent) {
+			if (!isForward && isDeadEnd(line)) {
+				return;
+			}
+			int newDist = baseLength + line.getLineLength();
+			if (newDist > maxDistance) {
+				return;
+			}
+			PQElem existing = reached.get(line.getID());
+			if (existing != null && existing.getSecondVal() <= newDist) {
+				return;
+			}
+			add(line, newDist, parent);
+		}
+
+		/**
+		 * Expands the neighbours of an element taken from the open list.
+		 * 
+		 * @param actual
+		 *            the element
+		 */
+		void expand(final PQElem actual) {
+			Iterator<Line> iter;
+			if (isForward) {
+				if (isDeadEnd(actual.getLine())) {
+					return;
+				}
+				iter = actual.getLine().getNextLines();
+			} else {
+				iter = actual.getLine().getPrevLines();
+			}
+			while (iter.hasNext()) {
+				Line l = iter.next();
+				if (isAllowed(l)) {
+					relax(l, actual.getSecondVal(), actual);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.decoder.routesearch;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import openlr.map.Line;
+import openlr.map.utils.PQElem;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The class OneToManyRouteSearch holds a shortest-path tree rooted at a start
+ * line. The tree is calculated with a Dijkstra search which is extended
+ * lazily, each query settles only the lines up to the maximum distance
+ * requested. All destination candidates of the next location reference point
+ * can therefore be evaluated with a single search instead of one search per
+ * candidate pair.
+ * <p>
+ * The routes are read with
+ * {@link RouteSearch#calculateRoute(OneToManyRouteSearch, Line, int, boolean)}
+ * . The tree applies the lowest functional road class criteria in the same way
+ * as the A* search, so the route lengths are the same. If several shortest
+ * routes exist, both searches may return different ones.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OneToManyRouteSearch {
+
+	/** logger */
+	private static final Logger LOG = Logger
+			.getLogger(OneToManyRouteSearch.class);
+
+	/** The start line. */
+	private final Line startLine;
+
+	/** The lowest functional road class being investigated. */
+	private final int lowestFRC;
+
+	/** The open list and the best length values found so far. */
+	private final RouteSearchData data = new RouteSearchData();
+
+	/** The settled lines, their length values are final. */
+	private final Map<Long, PQElem> settled = new HashMap<Long, PQElem>();
+
+	/**
+	 * Creates a shortest-path tree for the start line. No lines are settled
+	 * before the first query.
+	 * 
+	 * @param startline
+	 *            the start of the route calculation
+	 * @param lfrc
+	 *            the lowest functional road class for lines being
+	 *            investigated during the search
+	 */
+	public OneToManyRouteSearch(final Line startline, final int lfrc) {
+		if (startline == null) {
+			throw new IllegalArgumentException("start line is null");
+		}
+		startLine = startline;
+		lowestFRC = lfrc;
+		int startLength = startline.getLineLength();
+		data.addToOpen(new PQElem(startline, startLength, startLength, null));
+	}
+
+	/**
+	 * Gets the start line of the tree.
+	 * 
+	 * @return the start line
+	 */
+	public Line getStartLine() {
+		return startLine;
+	}
+
+	/**
+	 * Gets the lowest functional road class of the tree.
+	 * 
+	 * @return the lowest functional road class
+	 */
+	public int getLowestFRC() {
+		return lowestFRC;
+	}
+
+	/**
+	 * Gets the number of settled lines.
+	 * 
+	 * @return the number of settled lines
+	 */
+	public int getNumberOfSettledLines() {
+		return settled.size();
+	}
+
+	/**
+	 * Gets the tree element of a line, the line is settled if its route
+	 * length does not exceed the maximum distance.
+	 * 
+	 * @param line
+	 *            the line
+	 * @param maxDistance
+	 *            the maximum route length
+	 * @return the element of the line, or null if the line cannot be reached
+	 *         within the maximum distance
+	 */
+	PQElem getElement(final Line line, final int maxDistance) {
+		PQElem elem = settled.get(line.getID());
+		if (elem == null) {
+			settleUntil(maxDistance);
+			elem = settled.get(line.getID());
+		}
+		if (elem == null || elem.getSecondVal() > maxDistance) {
+			return null;
+		}
+		return elem;
+	}
+
+	/**
+	 * Settles all lines having a route length not exceeding the maximum
+	 * distance.
+	 * 
+	 * @param maxDistance
+	 *            the maximum route length
+	 */
+	private void settleUntil(final int maxDistance) {
+		while (!data.isOpenEmpty()
+				&& data.getOpenList().peek().getSecondVal() <= maxDistance) {
+			PQElem actualElement = data.pollElement();
+			settled.put(actualElement.getLine().getID(), actualElement);
+			extractNextLines(actualElement);
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("route tree of start line " + startLine.getID()
+					+ " settled " + settled.size() + " lines up to "
+					+ maxDistance + "m");
+		}
+	}
+
+	/**
+	 * Adds the successor lines to the open list if a shorter distance to that
+	 * line is found.
+	 * 
+	 * @param actualElement
+	 *            the current element
+	 */
+	private void extractNextLines(final PQElem actualElement) {
+		Iterator<? extends Line> iterNext = actualElement.getLine()
+				.getNextLines();
+		while (iterNext.hasNext()) {
+			Line succ = iterNext.next();
+			if (succ.getFRC().getID() > lowestFRC
+					|| settled.containsKey(succ.getID())) {
+				continue;
+			}
+			int newDist = actualElement.getSecondVal() + succ.getLineLength();
+			if (data.hasLengthValue(succ)) {
+				if (newDist < data.getLengthValue(succ)) {
+					data.updateInOpen(new PQElem(succ, newDist, newDist,
+							actualElement));
+				}
+			} else {
+				data.addToOpen(new PQElem(succ, newDist, newDist,
+						actualElement));
+			}
+		}
+	}
+}
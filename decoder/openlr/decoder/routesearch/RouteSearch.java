@@ -95,6 +95,51 @@ public class RouteSearch {
 	/** The length of the calculated route. */
 	private int routeLength = -1;
 
+	/** The number of lines expanded by the last route calculation. */
+	private int expansions;
+
+	/** Whether the route is calculated with a bidirectional search. */
+	private final boolean bidirectional;
+
+	/** Whether the heuristic uses the approximated distance. */
+	private final boolean approximateDistance;
+
+	/**
+	 * Creates a route search using the one-directional A* search.
+	 */
+	public RouteSearch() {
+		this(false);
+	}
+
+	/**
+	 * Creates a route search. The bidirectional search expands the network
+	 * from the start line and from the destination line at the same time and
+	 * calculates a route of the same length as the one-directional search.
+	 * 
+	 * @param useBidirectional
+	 *            true, if the bidirectional search shall be used
+	 */
+	public RouteSearch(final boolean useBidirectional) {
+		this(useBidirectional, false);
+	}
+
+	/**
+	 * Creates a route search. The heuristic values can be calculated with
+	 * {@link GeometryUtils#approximateDistance(double, double, double, double)}
+	 * instead of the exact distance, the difference is far below the rounding
+	 * of the heuristic values to meters.
+	 * 
+	 * @param useBidirectional
+	 *            true, if the bidirectional search shall be used
+	 * @param useApproximateDistance
+	 *            true, if the heuristic shall use the approximated distance
+	 */
+	public RouteSearch(final boolean useBidirectional,
+			final boolean useApproximateDistance) {
+		bidirectional = useBidirectional;
+		approximateDistance = useApproximateDistance;
+	}
+
 	/**
 	 * Calculates the shortest path between start and destination line. The
 	 * calculation stops if
@@ -139,7 +184,12 @@ public class RouteSearch {
 		// reset global data structures (data needs to be stored in the class)
 		theRoute = null;
 		routeLength = -1;
+		expansions = 0;
 		state = RouteSearchResult.NOT_CALCULATED;
+		if (bidirectional) {
+			return calculateBidirectional(startline, destline, maxDistance,
+					lowestFRC, isLast);
+		}
 		// setup local data structures
 		RouteSearchData data = new RouteSearchData();
 
@@ -169,6 +219,7 @@ public class RouteSearch {
 
 			// get the top element of the open list
 			PQElem actualElement = data.pollElement();
+			expansions++;
 
 			// check if we have found the destination and if so then construct
 			// the route and stop calculation
@@ -206,6 +257,156 @@ public class RouteSearch {
 		return state;
 	}
 
+	/**
+	 * Reads the shortest path between the start line of a route tree and the
+	 * destination line. The parameters and the result are the same as for
+	 * {@link #calculateRoute(Line, Line, int, int, boolean)}, the start line
+	 * and the lowest functional road class are taken from the tree. If the
+	 * route found in the tree passes the start node of the destination line
+	 * before its end and this is not the last route search, the route is
+	 * calculated without the tree because such routes are not allowed.
+	 * 
+	 * @param tree
+	 *            the route tree of the start line
+	 * @param destline
+	 *            the destination of the route calculation
+	 * @param maxDistance
+	 *            the max_distance for a shortest-path
+	 * @param isLast
+	 *            indicator if this is the last route search
+	 * 
+	 * @return the status of the route search
+	 */
+	public final RouteSearchResult calculateRoute(
+			final OneToManyRouteSearch tree, final Line destline,
+			final int maxDistance, final boolean isLast) {
+		if (tree == null || destline == null) {
+			state = RouteSearchResult.ROUTE_CONSTRUCTION_FAILED;
+			return state;
+		}
+		Line startline = tree.getStartLine();
+		theRoute = null;
+		routeLength = -1;
+		expansions = 0;
+		state = RouteSearchResult.NOT_CALCULATED;
+		int settledBefore = tree.getNumberOfSettledLines();
+		if (isLast) {
+			if (startline.getID() == destline.getID()) {
+				setRouteFound(new PQElem(startline, 0, startline
+						.getLineLength(), null));
+				return state;
+			}
+			PQElem elem = tree.getElement(destline, maxDistance);
+			if (elem != null) {
+				setRouteFound(elem);
+			}
+		} else {
+			Node e = destline.getStartNode();
+			PQElem best = null;
+			Iterator<Line> iter = destline.getPrevLines();
+			while (iter.hasNext()) {
+				Line prev = iter.next();
+				if (!prev.getEndNode().equals(e)
+						|| !isPredecessor(prev, destline)) {
+					continue;
+				}
+				if (prev.getID() == startline.getID()) {
+					best = new PQElem(startline, 0, startline.getLineLength(),
+							null);
+					break;
+				}
+				PQElem elem = tree.getElement(prev, maxDistance);
+				if (elem != null
+						&& (best == null || elem.getSecondVal() < best
+								.getSecondVal())) {
+					best = elem;
+				}
+			}
+			if (best != null) {
+				PQElem pe = best.getPrevious();
+				while (pe != null) {
+					if (pe.getLine().getEndNode().equals(e)) {
+						int treeExpansions = tree.getNumberOfSettledLines()
+								- settledBefore;
+						RouteSearchResult result = calculateRoute(startline,
+								destline, maxDistance, tree.getLowestFRC(),
+								isLast);
+						expansions += treeExpansions;
+						return result;
+					}
+					pe = pe.getPrevious();
+				}
+				setRouteFound(best);
+			}
+		}
+		expansions = tree.getNumberOfSettledLines() - settledBefore;
+		if (state == RouteSearchResult.NOT_CALCULATED) {
+			state = RouteSearchResult.NO_ROUTE_FOUND;
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("route search in tree of start (" + startline.getID()
+					+ ") to destination (" + destline.getID()
+					+ ") finished with status: " + state.name());
+		}
+		return state;
+	}
+
+	/**
+	 * Checks if the destination line is a successor of a line.
+	 * 
+	 * @param line
+	 *            the line
+	 * @param destline
+	 *            the destination line
+	 * @return true, if the destination line directly follows the line
+	 */
+	private static boolean isPredecessor(final Line line, final Line destline) {
+		Iterator<? extends Line> iter = line.getNextLines();
+		while (iter.hasNext()) {
+			if (iter.next().getID() == destline.getID()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Calculates the route using the {@link BidirectionalRouteSearch}.
+	 * 
+	 * @param startline
+	 *            the start of the route calculation
+	 * @param destline
+	 *            the destination of the route calculation
+	 * @param maxDistance
+	 *            the max_distance for a shortest-path
+	 * @param lowestFRC
+	 *            the lowest functional road class for lines being investigated
+	 *            during the search
+	 * @param isLast
+	 *            indicator if this is the last route search
+	 * @return the status of the route search after stopping the search
+	 */
+	private RouteSearchResult calculateBidirectional(final Line startline,
+			final Line destline, final int maxDistance, final int lowestFRC,
+			final boolean isLast) {
+		BidirectionalRouteSearch search = new BidirectionalRouteSearch(
+				startline, destline, maxDistance, lowestFRC, isLast,
+				approximateDistance);
+		List<Line> route = search.calculate();
+		expansions = search.getNumberOfSettledLines();
+		if (route == null) {
+			state = RouteSearchResult.NO_ROUTE_FOUND;
+		} else {
+			theRoute = route;
+			routeLength = search.getRouteLength();
+			state = RouteSearchResult.ROUTE_FOUND;
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("route search finished with status: " + state.name());
+		}
+		return state;
+	}
+
 	/**
 	 * Extract the successor lines and add the lines to the open list if a
 	 * shorter distance to that line is found. This method takes the maximum
@@ -248,7 +449,8 @@ public class RouteSearch {
 				continue;
 			}
 			int heurist = (int) Math.round(GeometryUtils.distance(destX, destY,
-					succEnd.getLongitudeDeg(), succEnd.getLatitudeDeg()));
+					succEnd.getLongitudeDeg(), succEnd.getLatitudeDeg(),
+					approximateDistance));
 			int newHeurVal = newDist + heurist;
 			// check if we already have a value for this line
 			if (data.hasLengthValue(succ)) {
@@ -315,6 +517,17 @@ public class RouteSearch {
 	public final int getRouteLength() {
 		return routeLength;
 	}
+
+	/**
+	 * Gets the number of lines taken from the open list(s) by the last route
+	 * calculation. If the route is read from a route tree only the lines
+	 * settled in the tree for this calculation are counted.
+	 * 
+	 * @return the number of expanded lines
+	 */
+	public final int getNumberOfExpansions() {
+		return expansions;
+	}
 	
 	/**
 	 * {@inheritDoc}
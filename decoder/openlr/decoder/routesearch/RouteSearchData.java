@@ -30,12 +30,11 @@
  */
 package openlr.decoder.routesearch;
 
-import java.util.PriorityQueue;
-
 import openlr.collection.OpenLongIntHashMap;
 import openlr.map.Line;
 import openlr.map.utils.PQElem;
 import openlr.map.utils.PQElem.PQElemComparator;
+import openlr.map.utils.PQElemHeap;
 
 /**
  * The class RouteSearchData holds the best values for each line and the open list
@@ -57,7 +56,7 @@ public class RouteSearchData {
 	 * open contains an ordered listlocElem of elements which need to be
 	 * investigated during route search
 	 */
-	private final PriorityQueue<PQElem> open;
+	private final PQElemHeap open;
 
 	/** contains the shortest distance to each line being investigated so far */
 	private final OpenLongIntHashMap bestValues;
@@ -67,7 +66,7 @@ public class RouteSearchData {
 	 */
 	public RouteSearchData() {
 		// setup local data structures
-		open = new PriorityQueue<PQElem>(PQ_INITIAL_SIZE, new PQElemComparator());
+		open = new PQElemHeap(PQ_INITIAL_SIZE, new PQElemComparator());
 		bestValues = new OpenLongIntHashMap();
 	}
 	
@@ -120,13 +119,14 @@ public class RouteSearchData {
 	}
 	
 	/**
-	 * Update in open.
+	 * Update in open. The element replaces the element of the same line in
+	 * the open list in O(log n).
 	 *
 	 * @param elem the elem
 	 */
 	public final void updateInOpen(final PQElem elem) {
-		open.remove(elem); 
-		addToOpen(elem);
+		open.update(elem);
+		bestValues.put(elem.getLine().getID(), elem.getSecondVal());
 	}
 	
 	/**
@@ -134,7 +134,7 @@ public class RouteSearchData {
 	 *
 	 * @return the open list
 	 */
-	public final PriorityQueue<PQElem> getOpenList() {
+	public final PQElemHeap getOpenList() {
 		return open;
 	}
 	
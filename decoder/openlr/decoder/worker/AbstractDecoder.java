@@ -31,12 +31,16 @@
 package openlr.decoder.worker;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import openlr.LocationReferencePoint;
 import openlr.LocationType;
 import openlr.OpenLRProcessingException;
+import openlr.decoder.DecoderListener;
+import openlr.decoder.DecoderPhase;
 import openlr.decoder.DecoderReturnCode;
 import openlr.decoder.data.CandidateLine;
 import openlr.decoder.data.CandidateLinePair;
@@ -45,10 +49,14 @@ import openlr.decoder.data.CandidateNodesResultSet;
 import openlr.decoder.data.NodeWithDistance;
 import openlr.decoder.data.ResolvedRoutes;
 import openlr.decoder.properties.OpenLRDecoderProperties;
+import openlr.decoder.rating.BearingCache;
 import openlr.decoder.rating.OpenLRRating;
 import openlr.decoder.rating.OpenLRRatingImpl;
+import openlr.decoder.routesearch.OneToManyRouteSearch;
 import openlr.decoder.routesearch.RouteSearch;
+import openlr.decoder.worker.coverage.AbstractCoverage;
 import openlr.location.Location;
+import openlr.location.data.AffectedLines;
 import openlr.map.FunctionalRoadClass;
 import openlr.map.Line;
 import openlr.map.MapDatabase;
@@ -81,6 +89,78 @@ public abstract class AbstractDecoder {
 	/** The rating function being used. */
 	private static final OpenLRRating RATING_FUNCTION = new OpenLRRatingImpl();
 
+	/** The decoder listener, or null if no measurements shall be taken. */
+	private DecoderListener listener;
+
+	/** The number of lines expanded by the route searches of an LRP pair. */
+	private int routeExpansions;
+
+	/**
+	 * Sets the listener receiving the timings and counts of the decoding. A
+	 * worker instance decodes one location reference at a time, so the
+	 * listener shall be set before {@link #doDecoding} is called.
+	 * 
+	 * @param l
+	 *            the decoder listener, or null if no measurements shall be
+	 *            taken
+	 */
+	public final void setDecoderListener(final DecoderListener l) {
+		listener = l;
+	}
+
+	/**
+	 * Gets the start time of a phase if a listener is set.
+	 * 
+	 * @return the current time in nanoseconds, or 0 if no listener is set
+	 */
+	private long phaseStart() {
+		if (listener == null) {
+			return 0;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Reports a finished phase to the listener if a listener is set.
+	 * 
+	 * @param rawLocRef
+	 *            the raw location reference
+	 * @param phase
+	 *            the phase
+	 * @param startTime
+	 *            the start time of the phase
+	 */
+	private void phaseFinished(final RawLocationReference rawLocRef,
+			final DecoderPhase phase, final long startTime) {
+		if (listener != null) {
+			listener.phaseFinished(rawLocRef, phase, System.nanoTime()
+					- startTime);
+		}
+	}
+
+	/**
+	 * Calculates the lines covered by an area location.
+	 * 
+	 * @param rawLocRef
+	 *            the raw location reference
+	 * @param coverage
+	 *            the coverage of the area
+	 * @param mdb
+	 *            the map database
+	 * @return the affected lines
+	 * @throws OpenLRProcessingException
+	 *             if the calculation fails
+	 */
+	protected final AffectedLines calculateAffectedLines(
+			final RawLocationReference rawLocRef,
+			final AbstractCoverage coverage, final MapDatabase mdb)
+			throws OpenLRProcessingException {
+		long start = phaseStart();
+		AffectedLines result = coverage.getAffectedLines(mdb);
+		phaseFinished(rawLocRef, DecoderPhase.CALC_AFFECTED_LINES, start);
+		return result;
+	}
+
 	/**
 	 * This method decodes a location reference which has already been
 	 * transformed from a physical format into a structured (raw) data set. The
@@ -130,6 +210,30 @@ public abstract class AbstractDecoder {
 			final OpenLRDecoderProperties properties,
 			final RawLocationReference rawLocRef, final MapDatabase mdb)
 			throws OpenLRProcessingException {
+		long start = phaseStart();
+		CandidateNodesResultSet resultSet = searchCandidateNodes(properties,
+				rawLocRef, mdb);
+		phaseFinished(rawLocRef, DecoderPhase.FIND_CANDIDATE_NODES, start);
+		return resultSet;
+	}
+
+	/**
+	 * Searches the candidate nodes for all location reference points.
+	 * 
+	 * @param properties
+	 *            the OpenLR properties
+	 * @param rawLocRef
+	 *            the raw loc ref
+	 * @param mdb
+	 *            the map database
+	 * @return the candidate nodes result set
+	 * @throws OpenLRProcessingException
+	 *             the open lr processing exception
+	 */
+	private CandidateNodesResultSet searchCandidateNodes(
+			final OpenLRDecoderProperties properties,
+			final RawLocationReference rawLocRef, final MapDatabase mdb)
+			throws OpenLRProcessingException {
 		// read maximum distance from the properties
 		int maxDistance = properties.getMaxNodeDistance();
 		List<? extends LocationReferencePoint> points = rawLocRef
@@ -149,7 +253,8 @@ public abstract class AbstractDecoder {
 				Node n = nodes.next();
 				int distance = (int) Math.round(GeometryUtils.distance(
 						p.getLongitudeDeg(), p.getLatitudeDeg(),
-						n.getLongitudeDeg(), n.getLatitudeDeg()));
+						n.getLongitudeDeg(), n.getLatitudeDeg(),
+						properties.isApproximateDistance()));
 				if (distance < minDistance) {
 					minDistance = distance;
 				}
@@ -189,6 +294,8 @@ public abstract class AbstractDecoder {
 	 * 
 	 * @param properties
 	 *            the OpenLR encoder properties
+	 * @param ratingFunction
+	 *            the rating function
 	 * @param lrp
 	 *            the location reference point (having no candidate lines so
 	 *            far)
@@ -202,6 +309,7 @@ public abstract class AbstractDecoder {
 	 */
 	private List<CandidateLine> findCandidateLinesDirectly(
 			final OpenLRDecoderProperties properties,
+			final OpenLRRating ratingFunction,
 			final LocationReferencePoint lrp, final MapDatabase mdb,
 			final List<CandidateLine> alreadyFound)
 			throws OpenLRProcessingException {
@@ -229,7 +337,7 @@ public abstract class AbstractDecoder {
 			}
 			int lengthAlongDseg = line.measureAlongLine(lrp.getLongitudeDeg(),
 					lrp.getLatitudeDeg());
-			int rating = RATING_FUNCTION.getRating(properties, dist, lrp, line,
+			int rating = ratingFunction.getRating(properties, dist, lrp, line,
 					lengthAlongDseg);
 			if (!alreadyFound.isEmpty()) {
 				float factor = properties.getLinesDirectlyFactor();
@@ -288,7 +396,47 @@ public abstract class AbstractDecoder {
 			final RawLocationReference rawLocRef,
 			final CandidateNodesResultSet candidateNodes, final MapDatabase mdb)
 			throws OpenLRProcessingException {
+		long start = phaseStart();
+		CandidateLinesResultSet resultSet = searchCandidateLines(properties,
+				rawLocRef, candidateNodes, mdb);
+		phaseFinished(rawLocRef, DecoderPhase.FIND_CANDIDATE_LINES, start);
+		if (listener != null) {
+			for (LocationReferencePoint p : rawLocRef
+					.getLocationReferencePoints()) {
+				int nrLines = resultSet.getNumberOfCandidateLines(p);
+				listener.candidatesFound(rawLocRef, p, candidateNodes
+						.getCandidateNodes(p).size(), nrLines);
+				if (nrLines == 0) {
+					// the search stops at the first point without lines
+					break;
+				}
+			}
+		}
+		return resultSet;
+	}
+
+	/**
+	 * Searches the candidate lines for all location reference points.
+	 * 
+	 * @param properties
+	 *            the OpenLR properties
+	 * @param rawLocRef
+	 *            the raw loc ref
+	 * @param candidateNodes
+	 *            the candidate nodes
+	 * @param mdb
+	 *            the map database
+	 * @return the candidate lines result set
+	 * @throws OpenLRProcessingException
+	 *             the open lr processing exception
+	 */
+	private CandidateLinesResultSet searchCandidateLines(
+			final OpenLRDecoderProperties properties,
+			final RawLocationReference rawLocRef,
+			final CandidateNodesResultSet candidateNodes, final MapDatabase mdb)
+			throws OpenLRProcessingException {
 		CandidateLinesResultSet resultSet = new CandidateLinesResultSet();
+		OpenLRRating ratingFunction = getRatingFunction(properties, mdb);
 		List<? extends LocationReferencePoint> points = rawLocRef
 				.getLocationReferencePoints();
 		// iterate over all LRP
@@ -309,7 +457,7 @@ public abstract class AbstractDecoder {
 					Line line = linesIterator.next();
 					// check the current line
 					CandidateLine candidateLine = investigateline(properties,
-							line, p, nwd);
+							ratingFunction, line, p, nwd);
 					if (candidateLine.isValid()) {
 						// if the line is valid and rated add it as candidate
 						// line
@@ -321,7 +469,7 @@ public abstract class AbstractDecoder {
 			// also look for candidate lines directly (not starting from /
 			// ending at a node)
 			List<CandidateLine> candidatesDirectly = findCandidateLinesDirectly(
-					properties, p, mdb, candidatesAtNodes);
+					properties, ratingFunction, p, mdb, candidatesAtNodes);
 
 			// merge the candidates
 			List<CandidateLine> candidates = new ArrayList<CandidateLine>();
@@ -348,6 +496,26 @@ public abstract class AbstractDecoder {
 		return resultSet;
 	}
 
+	/**
+	 * Gets the rating function for the candidate lines. If the bearing cache
+	 * is enabled the bearings are taken from the cache of the map database.
+	 * 
+	 * @param properties
+	 *            the OpenLR properties
+	 * @param mdb
+	 *            the map database
+	 * @return the rating function
+	 */
+	private static OpenLRRating getRatingFunction(
+			final OpenLRDecoderProperties properties, final MapDatabase mdb) {
+		int cacheSize = properties.getBearingCacheSize();
+		if (cacheSize <= 0 || mdb == null) {
+			return RATING_FUNCTION;
+		}
+		return new OpenLRRatingImpl(BearingCache.getInstance(mdb,
+				properties.getBearingDistance(), cacheSize));
+	}
+
 	/**
 	 * Investigates and rates a line. The rating value indicates how good the
 	 * lines matches the LRP attributes. If the line does not match at all (due
@@ -356,6 +524,8 @@ public abstract class AbstractDecoder {
 	 * 
 	 * @param properties
 	 *            the OpenLR properties
+	 * @param ratingFunction
+	 *            the rating function
 	 * @param line
 	 *            the line being investigated
 	 * @param p
@@ -367,7 +537,8 @@ public abstract class AbstractDecoder {
 	 *             the open lr processing exception
 	 */
 	private CandidateLine investigateline(
-			final OpenLRDecoderProperties properties, final Line line,
+			final OpenLRDecoderProperties properties,
+			final OpenLRRating ratingFunction, final Line line,
 			final LocationReferencePoint p, final NodeWithDistance nwd)
 			throws OpenLRProcessingException {
 		if (line == null || p == null || nwd == null) {
@@ -402,7 +573,7 @@ public abstract class AbstractDecoder {
 		}
 
 		// rate the line
-		int rating = RATING_FUNCTION.getRating(properties, nwd.getDistance(),
+		int rating = ratingFunction.getRating(properties, nwd.getDistance(),
 				p, line, 0);
 
 		// check if the rating value fulfills the minimum criteria
@@ -443,6 +614,33 @@ public abstract class AbstractDecoder {
 			final RawLocationReference rawLocRef,
 			final CandidateLinesResultSet candidateLines,
 			final LocationType locType) throws OpenLRProcessingException {
+		long start = phaseStart();
+		ResolvedRoutes resolvedRoutes = calculateRoutes(properties, rawLocRef,
+				candidateLines, locType);
+		phaseFinished(rawLocRef, DecoderPhase.RESOLVE_ROUTE, start);
+		return resolvedRoutes;
+	}
+
+	/**
+	 * Calculates the routes between all subsequent location reference points.
+	 * 
+	 * @param properties
+	 *            the OpenLR properties
+	 * @param rawLocRef
+	 *            the raw loc ref
+	 * @param candidateLines
+	 *            the candidate lines
+	 * @param locType
+	 *            the loc type
+	 * @return the resolved routes
+	 * @throws OpenLRProcessingException
+	 *             the open lr processing exception
+	 */
+	private ResolvedRoutes calculateRoutes(
+			final OpenLRDecoderProperties properties,
+			final RawLocationReference rawLocRef,
+			final CandidateLinesResultSet candidateLines,
+			final LocationType locType) throws OpenLRProcessingException {
 		ResolvedRoutes resolvedRoutes = new ResolvedRoutes();
 
 		List<? extends LocationReferencePoint> points = rawLocRef
@@ -488,6 +686,12 @@ public abstract class AbstractDecoder {
 						.resolveCandidatesOrder(lrp, lrpNext, candidateLines,
 								previousEndCandidate, properties, locType);
 				boolean routeSearchFinished = false;
+				int nrPairs = 0;
+				routeExpansions = 0;
+				Map<Long, OneToManyRouteSearch> routeTrees = null;
+				if (properties.isOneToManyRouteSearch()) {
+					routeTrees = new HashMap<Long, OneToManyRouteSearch>();
+				}
 				for (CandidateLinePair currentPair : lrpPairs) {
 					CandidateLine startCandidate = candidateLines
 							.getCandidateLineAtIndex(lrp,
@@ -495,13 +699,25 @@ public abstract class AbstractDecoder {
 					CandidateLine destCandidate = candidateLines
 							.getCandidateLineAtIndex(lrpNext,
 									currentPair.getDestIndex());
+					OneToManyRouteSearch routeTree = null;
+					if (routeTrees != null) {
+						routeTree = getRouteTree(routeTrees,
+								startCandidate.getLine(), lfrc);
+					}
+					nrPairs++;
 					routeSearchFinished = checkCandidatePair(startCandidate,
 							destCandidate, properties, resolvedRoutes, lfrc,
-							lrpPrev, lrp, lrpNext, previousEndCandidate);
+							lrpPrev, lrp, lrpNext, previousEndCandidate,
+							routeTree);
 					if (routeSearchFinished) {
 						break;
 					}
 				}
+				if (listener != null) {
+					listener.routeResolved(rawLocRef, lrp, nrPairs,
+							routeExpansions, routeSearchFinished
+									&& !resolvedRoutes.hasErrorCode());
+				}
 				if (!routeSearchFinished) {
 					LOG.error("cannot determine a route between lrp "
 							+ lrp.getSequenceNumber() + " and "
@@ -543,6 +759,29 @@ public abstract class AbstractDecoder {
 		return singleLine;
 	}
 
+	/**
+	 * Gets the route tree of a start line, the tree is created if it does not
+	 * exist yet.
+	 * 
+	 * @param routeTrees
+	 *            the route trees of the current location reference point
+	 * @param startLine
+	 *            the start line
+	 * @param lfrc
+	 *            the lfrc
+	 * @return the route tree
+	 */
+	private OneToManyRouteSearch getRouteTree(
+			final Map<Long, OneToManyRouteSearch> routeTrees,
+			final Line startLine, final int lfrc) {
+		OneToManyRouteSearch tree = routeTrees.get(startLine.getID());
+		if (tree == null) {
+			tree = new OneToManyRouteSearch(startLine, lfrc);
+			routeTrees.put(startLine.getID(), tree);
+		}
+		return tree;
+	}
+
 	/**
 	 * Check candidate pair.
 	 * 
@@ -564,6 +803,9 @@ public abstract class AbstractDecoder {
 	 *            the lrp next
 	 * @param previousEndCandidate
 	 *            the previous end candidate
+	 * @param routeTree
+	 *            the route tree of the start line, or null if every pair is
+	 *            calculated separately
 	 * @return true, if successful
 	 * @throws OpenLRProcessingException
 	 *             the open lr processing exception
@@ -575,9 +817,12 @@ public abstract class AbstractDecoder {
 			final LocationReferencePoint lrpPrev,
 			final LocationReferencePoint lrp,
 			final LocationReferencePoint lrpNext,
-			final CandidateLine previousEndCandidate)
+			final CandidateLine previousEndCandidate,
+			final OneToManyRouteSearch routeTree)
 			throws OpenLRProcessingException {
-		RouteSearch rsearch = new RouteSearch();
+		RouteSearch rsearch = new RouteSearch(
+				properties.isBidirectionalRouteSearch(),
+				properties.isApproximateDistance());
 		Line startLine = startCandidate.getLine();
 		Line destLine = destCandidate.getLine();
 		if (LOG.isDebugEnabled()) {
@@ -592,8 +837,15 @@ public abstract class AbstractDecoder {
 		int maxDistance = DecoderUtils.calculateMaxLength(lrp, startCandidate,
 				destCandidate, properties);
 		// calculate route between start and end and a maximum distance
-		RouteSearch.RouteSearchResult result = rsearch.calculateRoute(
-				startLine, destLine, maxDistance, lfrc, lrpNext.isLastLRP());
+		RouteSearch.RouteSearchResult result;
+		if (routeTree != null) {
+			result = rsearch.calculateRoute(routeTree, destLine, maxDistance,
+					lrpNext.isLastLRP());
+		} else {
+			result = rsearch.calculateRoute(startLine, destLine, maxDistance,
+					lfrc, lrpNext.isLastLRP());
+		}
+		routeExpansions += rsearch.getNumberOfExpansions();
 		return handleRouteSearchResult(properties, resolvedRoutes, rsearch,
 				lrpPrev, lrp, previousEndCandidate, startCandidate,
 				destCandidate, result);
@@ -788,13 +1040,16 @@ public abstract class AbstractDecoder {
 		CandidateLine ppreviousCandidate = resolvedRoutes
 				.getCandidateStart(lrpPrev);
 		Line newStart = ppreviousCandidate.getLine();
-		RouteSearch rsearchInner = new RouteSearch();
+		RouteSearch rsearchInner = new RouteSearch(
+				properties.isBidirectionalRouteSearch(),
+				properties.isApproximateDistance());
 		int maxdistanceInner = DecoderUtils.calculateMaxLength(lrpPrev,
 				ppreviousCandidate, newCandidate, properties);
 		RouteSearch.RouteSearchResult resultRedo = rsearchInner.calculateRoute(
 				newStart, newCandidate.getLine(), maxdistanceInner, lrpPrev
 						.getLfrc().getID() + properties.getFrcVariance(),
 				lrp.isLastLRP());
+		routeExpansions += rsearchInner.getNumberOfExpansions();
 		if (resultRedo == RouteSearch.RouteSearchResult.ROUTE_FOUND
 				&& DecoderUtils.getMinDistanceNP(lrpPrev, properties) <= rsearchInner
 						.getRouteLength()) {
@@ -68,7 +68,7 @@ public class CircleDecoder extends AbstractDecoder {
 		AffectedLines affectedLines = null;
 		if (prop.isCalcAffectedLines()) {
 			CircleCoverage coverage = new CircleCoverage(center, radius);
-			affectedLines = coverage.getAffectedLines(mdb);
+			affectedLines = calculateAffectedLines(rawLocRef, coverage, mdb);
 		} else {
 			affectedLines = AffectedLinesImpl.EMPTY;
 		}
@@ -163,7 +163,7 @@ public class ClosedLineDecoder extends AbstractDecoder {
 				throw new OpenLRDecoderProcessingException(
 						DecoderProcessingError.INVALID_MAP_DATA, e);
 			}
-			result = coverage.getAffectedLines(mdb);
+			result = calculateAffectedLines(rawLocRef, coverage, mdb);
 		} else {
 			result = AffectedLinesImpl.EMPTY;
 		}
@@ -72,7 +72,7 @@ public class GridDecoder extends AbstractDecoder {
 			AffectedLines result = null;
 			if (prop.isCalcAffectedLines()) {
 				GridCoverage coverage = new GridCoverage(lowerleft, upperRight, ncols, nrows);
-				result = coverage.getAffectedLines(mdb);
+				result = calculateAffectedLines(rawLocRef, coverage, mdb);
 			} else {
 				result = AffectedLinesImpl.EMPTY;
 			}
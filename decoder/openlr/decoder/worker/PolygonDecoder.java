@@ -66,7 +66,7 @@ public class PolygonDecoder extends AbstractDecoder {
 		AffectedLines result = null;
 		if (prop.isCalcAffectedLines()) {
 			PolygonCoverage coverage = new PolygonCoverage(cornerPoints);
-			result = coverage.getAffectedLines(mdb);
+			result = calculateAffectedLines(rawLocRef, coverage, mdb);
 		} else {
 			result = AffectedLinesImpl.EMPTY;
 		}
@@ -75,7 +75,7 @@ public class RectangleDecoder extends AbstractDecoder {
 				throw new OpenLRDecoderProcessingException(
 						DecoderProcessingError.INVALID_MAP_DATA, e);
 			}
-			result = coverage.getAffectedLines(mdb);
+			result = calculateAffectedLines(rawLocRef, coverage, mdb);
 		} else {
 			result = AffectedLinesImpl.EMPTY;
 		}
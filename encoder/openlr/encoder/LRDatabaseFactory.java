@@ -30,7 +30,15 @@
  */
 package openlr.encoder;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import openlr.PhysicalEncoder;
 import openlr.encoder.database.LRDatabaseLRU;
+import openlr.encoder.database.LRDatabaseSLRU;
+import openlr.map.MapDatabase;
+import openlr.map.utils.MapDatabaseUtils;
 
 /** 
 * <p>
@@ -63,4 +71,78 @@ public final class LRDatabaseFactory {
 		return new LRDatabaseLRU(cacheSize);
 	}
 
+	/**
+	 * Creates a location reference database with a capacity of cacheSize
+	 * entries which can be used by several encoder threads at the same time.
+	 * The entries are identified by the content of the location.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * 
+	 * @return the location reference database
+	 */
+	public static LRDatabaseSLRU createConcurrentLRDatabase(
+			final int cacheSize) {
+		return new LRDatabaseSLRU(cacheSize);
+	}
+
+	/**
+	 * Creates a location reference database with a capacity of cacheSize
+	 * entries which can be used by several encoder threads at the same time.
+	 * If the file exists, the database is filled with the entries stored in
+	 * the file, the physical location references are encoded again with the
+	 * physical encoders. The database can be written to the file with
+	 * {@link LRDatabaseSLRU#save(File, String)}.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * @param file
+	 *            the database file
+	 * @param mapVersion
+	 *            the version of the map the locations are encoded on
+	 * @param physEncoders
+	 *            the physical encoders
+	 * 
+	 * @return the location reference database
+	 * @throws IOException
+	 *             if the file exists but cannot be read or was written for
+	 *             another map version
+	 */
+	public static LRDatabaseSLRU createConcurrentLRDatabase(
+			final int cacheSize, final File file, final String mapVersion,
+			final List<PhysicalEncoder> physEncoders) throws IOException {
+		LRDatabaseSLRU db = new LRDatabaseSLRU(cacheSize);
+		if (file.exists()) {
+			db.load(file, mapVersion, physEncoders);
+		}
+		return db;
+	}
+
+	/**
+	 * Creates a location reference database with a capacity of cacheSize
+	 * entries which can be used by several encoder threads at the same time
+	 * and fills it from the file. The map version is derived from the map
+	 * database, see {@link MapDatabaseUtils#getMapVersion(MapDatabase)}.
+	 * 
+	 * @param cacheSize
+	 *            the capacity
+	 * @param file
+	 *            the database file
+	 * @param mdb
+	 *            the map database the locations are encoded on
+	 * @param physEncoders
+	 *            the physical encoders
+	 * 
+	 * @return the location reference database
+	 * @throws IOException
+	 *             if the file exists but cannot be read or was written for
+	 *             another map version
+	 */
+	public static LRDatabaseSLRU createConcurrentLRDatabase(
+			final int cacheSize, final File file, final MapDatabase mdb,
+			final List<PhysicalEncoder> physEncoders) throws IOException {
+		return createConcurrentLRDatabase(cacheSize, file,
+				MapDatabaseUtils.getMapVersion(mdb), physEncoders);
+	}
+
 }
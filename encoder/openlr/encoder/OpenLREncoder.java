@@ -89,6 +89,9 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 	/** The Constant PATCH_VERSION. */
 	private static final int PATCH_VERSION = 2;
 
+	/** The number of nanoseconds per millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -143,15 +146,46 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 			final OpenLREncoderParameter parameter,
 			final OpenLREncoderProperties properties, final Location loc)
 			throws OpenLRProcessingException {
+		return encodeLocation(parameter, properties, null, loc);
+	}
+
+	/**
+	 * Encode location.
+	 * 
+	 * @param parameter
+	 *            the parameter
+	 * @param properties
+	 *            the properties
+	 * @param encoders
+	 *            the physical encoders, or null if they shall be taken from
+	 *            the parameter or the class path
+	 * @param loc
+	 *            the loc
+	 * @return the location reference holder
+	 * @throws OpenLRProcessingException
+	 *             the open lr processing exception
+	 */
+	LocationReferenceHolder encodeLocation(
+			final OpenLREncoderParameter parameter,
+			final OpenLREncoderProperties properties,
+			final List<PhysicalEncoder> encoders, final Location loc)
+			throws OpenLRProcessingException {
 		if (loc == null) {
 			LOG.error("No location provided!");
 			throw new OpenLREncoderProcessingException(
 					EncoderProcessingError.INVALID_PARAMETER);
 		}
 
+		EncoderListener listener = parameter.getEncoderListener();
 		int compTime4Cache = properties.getCompTime4Cache();
+		boolean measureCompTime = parameter.hasLRDatabase()
+				&& compTime4Cache > 0;
 		long startTime = 0;
-		long endTime = 0;
+		// measure the encoding time if a listener or a threshold for caching
+		// has been set
+		if (listener != null || measureCompTime) {
+			startTime = System.nanoTime();
+		}
 
 		// check if the location is already encoded and stored in the database
 		if (parameter.hasLRDatabase()) {
@@ -161,12 +195,16 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 				LOG.debug("Location found in the database cache");
 			}
 			if (lrh != null) {
-				return lrh;
+				return notifyEncodingFinished(listener, loc, lrh, true,
+						startTime);
 			}
 		}
 
 		// look for physical encoders in class path
-		List<PhysicalEncoder> physEncoders = parameter.getPhysicalEncoders();
+		List<PhysicalEncoder> physEncoders = encoders;
+		if (physEncoders == null) {
+			physEncoders = parameter.getPhysicalEncoders();
+		}
 		if (physEncoders.isEmpty()) {
 			// if no physical encoders are set from outside, try to load them
 			// from classpath
@@ -224,21 +262,32 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 			break;
 		case UNKNOWN:
 		default:
-			return new LocationReferenceHolderImpl(loc.getID(),
-					EncoderReturnCode.INVALID_LOCATION_TYPE,
-					loc.getLocationType());
+			return notifyEncodingFinished(listener, loc,
+					new LocationReferenceHolderImpl(loc.getID(),
+							EncoderReturnCode.INVALID_LOCATION_TYPE,
+							loc.getLocationType()), false, startTime);
 		}
-		// measure the encoding time if a threshold for caching has been set
-		if (parameter.hasLRDatabase() && compTime4Cache > 0) {
-			startTime = System.currentTimeMillis();
+		worker.setEncoderListener(listener);
+		RawLocationReference rawLocRef;
+		try {
+			rawLocRef = worker.doEncoding(loc, properties,
+					parameter.getMapDatase());
+		} catch (OpenLRProcessingException e) {
+			if (listener != null) {
+				listener.encodingFailed(loc, e, System.nanoTime() - startTime);
+			}
+			throw e;
 		}
-		RawLocationReference rawLocRef = worker.doEncoding(loc, properties, parameter.getMapDatase());
 
 		LocationReferenceHolderImpl lrHolder = null;
 		if (!rawLocRef.isValid()) {
 			lrHolder = new LocationReferenceHolderImpl(rawLocRef.getID(),
 					rawLocRef.getReturnCode(), rawLocRef.getLocationType());
 		} else {
+			long physStart = 0;
+			if (listener != null) {
+				physStart = System.nanoTime();
+			}
 			lrHolder = new LocationReferenceHolderImpl(loc.getID(), rawLocRef);
 			for (PhysicalEncoder pEnc : physEncoders) {
 				int version = properties.getPhysicalFormatVersion(pEnc.getDataFormatIdentifier());
@@ -251,13 +300,15 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 				lrHolder.addLocationReference(pEnc.getDataFormatIdentifier(),
 						locRef);
 			}
-		}
-		if (parameter.hasLRDatabase() && compTime4Cache > 0) {
-			endTime = System.currentTimeMillis();
+			if (listener != null) {
+				listener.phaseFinished(loc, EncoderPhase.PHYSICAL_ENCODING,
+						System.nanoTime() - physStart);
+			}
 		}
 
 		if (parameter.hasLRDatabase()
-				&& (compTime4Cache <= 0 || (endTime - startTime > compTime4Cache))) {
+				&& (!measureCompTime || (System.nanoTime() - startTime > compTime4Cache
+						* NANOS_PER_MILLI))) {
 			LRDatabase lrdb = parameter.getLRDatabase();
 			lrdb.storeResult(loc, lrHolder);
 		}
@@ -265,7 +316,54 @@ public final class OpenLREncoder implements openlr.OpenLREncoder {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("encoding finished (valid=" + lrHolder.isValid() + ")");
 		}
-		return lrHolder;
+		return notifyEncodingFinished(listener, loc, lrHolder, false,
+				startTime);
+	}
+
+	/**
+	 * Reports a finished encoding to the listener if a listener is set.
+	 * 
+	 * @param listener
+	 *            the encoder listener, or null
+	 * @param loc
+	 *            the location
+	 * @param holder
+	 *            the location reference holder
+	 * @param cached
+	 *            true, if the holder was found in the location reference
+	 *            database
+	 * @param startTime
+	 *            the start time of the encoding in nanoseconds
+	 * @return the location reference holder
+	 */
+	private static LocationReferenceHolder notifyEncodingFinished(
+			final EncoderListener listener, final Location loc,
+			final LocationReferenceHolder holder, final boolean cached,
+			final long startTime) {
+		if (listener != null) {
+			listener.encodingFinished(loc, holder, cached, System.nanoTime()
+					- startTime);
+		}
+		return holder;
+	}
+
+	/**
+	 * Creates an encoder session for the parameter. The session resolves the
+	 * physical encoders and the encoder properties once and can be used for
+	 * any number of encoding calls, also by several threads at the same time.
+	 * Changes of the configuration after the session has been created are not
+	 * taken into account.
+	 * 
+	 * @param parameter
+	 *            the parameter
+	 * @return the encoder session
+	 * @throws OpenLRProcessingException
+	 *             if the properties are invalid
+	 */
+	public OpenLREncoderSession createSession(
+			final OpenLREncoderParameter parameter)
+			throws OpenLRProcessingException {
+		return new OpenLREncoderSession(this, parameter);
 	}
 
 	/**
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import openlr.OpenLRProcessingException;
+import openlr.PhysicalEncoder;
+import openlr.encoder.OpenLREncoderProcessingException.EncoderProcessingError;
+import openlr.encoder.properties.OpenLREncoderProperties;
+import openlr.location.Location;
+
+/**
+ * The class OpenLREncoderSession encodes locations with a fixed encoder
+ * parameter. The physical encoders are resolved (from the parameter or, if
+ * none are set, from the class path) and the encoder properties are read from
+ * the configuration once when the session is created, so each encoding call
+ * only performs the encoding itself.
+ * <p>
+ * A session is immutable and can be used by several threads at the same
+ * time, provided that the map database and the location reference database
+ * (if set) are thread-safe. Sessions are created by
+ * {@link OpenLREncoder#createSession(OpenLREncoderParameter)}.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OpenLREncoderSession {
+
+	/** The encoder. */
+	private final OpenLREncoder encoder;
+
+	/** The parameter. */
+	private final OpenLREncoderParameter parameter;
+
+	/** The physical encoders. */
+	private final List<PhysicalEncoder> physEncoders;
+
+	/** The encoder properties. */
+	private final OpenLREncoderProperties properties;
+
+	/**
+	 * Creates a new encoder session.
+	 * 
+	 * @param enc
+	 *            the encoder
+	 * @param param
+	 *            the parameter
+	 * @throws OpenLRProcessingException
+	 *             if the properties are invalid
+	 */
+	OpenLREncoderSession(final OpenLREncoder enc,
+			final OpenLREncoderParameter param)
+			throws OpenLRProcessingException {
+		encoder = enc;
+		parameter = param;
+		List<PhysicalEncoder> encoders = param.getPhysicalEncoders();
+		if (encoders.isEmpty()) {
+			encoders = OpenLREncoder.getPhysicalEncoderServices();
+		}
+		physEncoders = Collections
+				.unmodifiableList(new ArrayList<PhysicalEncoder>(encoders));
+		properties = new OpenLREncoderProperties(param.getConfiguration(),
+				physEncoders);
+	}
+
+	/**
+	 * Encodes a location.
+	 * 
+	 * @param loc
+	 *            the location
+	 * @return the location reference holder
+	 * @throws OpenLRProcessingException
+	 *             if no physical encoder is available or the encoding fails
+	 */
+	public LocationReferenceHolder encodeLocation(final Location loc)
+			throws OpenLRProcessingException {
+		return encoder.encodeLocation(parameter, properties, physEncoders, loc);
+	}
+
+	/**
+	 * Encodes a list of locations one after the other.
+	 * 
+	 * @param locs
+	 *            the locations
+	 * @return the location reference holders, in the order of the input list
+	 * @throws OpenLRProcessingException
+	 *             if the list is empty, no physical encoder is available or
+	 *             the encoding fails
+	 */
+	public List<LocationReferenceHolder> encodeLocations(
+			final List<Location> locs) throws OpenLRProcessingException {
+		if (locs == null || locs.isEmpty()) {
+			throw new OpenLREncoderProcessingException(
+					EncoderProcessingError.INVALID_PARAMETER);
+		}
+		List<LocationReferenceHolder> holders = new ArrayList<LocationReferenceHolder>(
+				locs.size());
+		for (Location loc : locs) {
+			holders.add(encodeLocation(loc));
+		}
+		return holders;
+	}
+
+	/**
+	 * Gets the parameter of the session.
+	 * 
+	 * @return the parameter
+	 */
+	public OpenLREncoderParameter getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * Gets the encoder properties resolved from the configuration.
+	 * 
+	 * @return the encoder properties
+	 */
+	public OpenLREncoderProperties getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Gets the physical encoders used by the session.
+	 * 
+	 * @return the physical encoders, unmodifiable
+	 */
+	public List<PhysicalEncoder> getPhysicalEncoders() {
+		return physEncoders;
+	}
+}
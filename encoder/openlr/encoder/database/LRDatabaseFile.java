@@ -0,0 +1,275 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import openlr.LocationReference;
+import openlr.LocationType;
+import openlr.PhysicalEncoder;
+import openlr.encoder.LocationReferenceHolder;
+import openlr.encoder.LocationReferenceHolderImpl;
+import openlr.rawLocRef.RawLocRefSerializer;
+import openlr.rawLocRef.RawLocationReference;
+
+/**
+ * The class LRDatabaseFile writes and reads the entries of a location
+ * reference database. A file stores the location key and the raw location
+ * reference of each entry together with the data format identifiers and
+ * versions of its physical location references. The raw location references
+ * are written by {@link RawLocRefSerializer}. Reading a file encodes the raw
+ * location references again with the physical encoders, so the file does not
+ * depend on any physical format.
+ * <p>
+ * The location keys hold line IDs, so the header stores the version of the
+ * map the entries were encoded on and a file is only read for the same map
+ * version. Only valid entries are written.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class LRDatabaseFile {
+
+	/** The file identifier "OLRD". */
+	private static final int MAGIC = 0x4F4C5244;
+
+	/** The file format version. */
+	private static final int VERSION = 2;
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private LRDatabaseFile() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Writes the entries to a file.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param mapVersion
+	 *            the version of the map the entries were encoded on
+	 * @param entries
+	 *            the entries
+	 * @return the number of entries written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	static int write(final File file, final String mapVersion,
+			final List<Map.Entry<LocationKey, LocationReferenceHolder>> entries)
+			throws IOException {
+		List<Map.Entry<LocationKey, LocationReferenceHolder>> valid = new ArrayList<Map.Entry<LocationKey, LocationReferenceHolder>>();
+		for (Map.Entry<LocationKey, LocationReferenceHolder> e : entries) {
+			LocationReferenceHolder holder = e.getValue();
+			if (holder.isValid() && isSupported(holder.getRawLocationReferenceData())) {
+				valid.add(e);
+			}
+		}
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(mapVersion);
+			out.writeInt(valid.size());
+			for (Map.Entry<LocationKey, LocationReferenceHolder> e : valid) {
+				LocationReferenceHolder holder = e.getValue();
+				e.getKey().write(out);
+				writeString(out, holder.getID());
+				RawLocRefSerializer.write(out,
+						holder.getRawLocationReferenceData());
+				out.writeInt(holder.getNumberOfDataFormats());
+				for (String ident : holder.getDataFormatIdentifiers()) {
+					out.writeUTF(ident);
+					LocationReference lr = holder.getLocationReference(ident);
+					if (lr == null) {
+						out.writeInt(-1);
+					} else {
+						out.writeInt(lr.getVersion());
+					}
+				}
+			}
+		} finally {
+			out.close();
+		}
+		return valid.size();
+	}
+
+	/**
+	 * Reads the entries of a file. The physical location references are
+	 * created with the physical encoders, data formats without an encoder
+	 * are skipped.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param mapVersion
+	 *            the version of the map the entries will be used with
+	 * @param physEncoders
+	 *            the physical encoders
+	 * @return the entries in the order of the file
+	 * @throws IOException
+	 *             if reading fails, the file is not a location reference
+	 *             database file or it was written for another map version
+	 */
+	static Map<LocationKey, LocationReferenceHolder> read(final File file,
+			final String mapVersion, final List<PhysicalEncoder> physEncoders)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("not a location reference database file: "
+						+ file);
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("unsupported file version " + version);
+			}
+			String fileMapVersion = in.readUTF();
+			if (!fileMapVersion.equals(mapVersion)) {
+				throw new IOException("file " + file
+						+ " was written for map version " + fileMapVersion
+						+ ", expected " + mapVersion);
+			}
+			int nrEntries = in.readInt();
+			Map<LocationKey, LocationReferenceHolder> entries = new LinkedHashMap<LocationKey, LocationReferenceHolder>();
+			for (int i = 0; i < nrEntries; i++) {
+				LocationKey key = LocationKey.read(in);
+				String id = readString(in);
+				RawLocationReference raw = RawLocRefSerializer.read(in, id);
+				LocationReferenceHolderImpl holder = new LocationReferenceHolderImpl(
+						id, raw);
+				int nrFormats = in.readInt();
+				for (int j = 0; j < nrFormats; j++) {
+					String ident = in.readUTF();
+					int formatVersion = in.readInt();
+					PhysicalEncoder pEnc = findEncoder(physEncoders, ident);
+					if (pEnc == null) {
+						continue;
+					}
+					LocationReference lr;
+					if (formatVersion == -1) {
+						lr = pEnc.encodeData(raw);
+					} else {
+						lr = pEnc.encodeData(raw, formatVersion);
+					}
+					holder.addLocationReference(ident, lr);
+				}
+				entries.put(key, holder);
+			}
+			return entries;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Finds the physical encoder of a data format.
+	 * 
+	 * @param physEncoders
+	 *            the physical encoders
+	 * @param ident
+	 *            the data format identifier
+	 * @return the encoder or null
+	 */
+	private static PhysicalEncoder findEncoder(
+			final List<PhysicalEncoder> physEncoders, final String ident) {
+		for (PhysicalEncoder pEnc : physEncoders) {
+			if (ident.equals(pEnc.getDataFormatIdentifier())) {
+				return pEnc;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if a raw location reference can be written.
+	 * 
+	 * @param raw
+	 *            the raw location reference
+	 * @return true, if the location type is supported
+	 */
+	private static boolean isSupported(final RawLocationReference raw) {
+		return raw != null && raw.isValid()
+				&& raw.getLocationType() != LocationType.UNKNOWN;
+	}
+
+	/**
+	 * Writes a string which may be null.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param s
+	 *            the string
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeString(final DataOutputStream out, final String s)
+			throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	/**
+	 * Reads a string which may be null.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the string
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private static String readString(final DataInputStream in)
+			throws IOException {
+		if (in.readBoolean()) {
+			return in.readUTF();
+		}
+		return null;
+	}
+}
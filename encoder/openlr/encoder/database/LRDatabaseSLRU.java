@@ -0,0 +1,249 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import openlr.PhysicalEncoder;
+import openlr.collection.SegmentedLruCache;
+import openlr.encoder.LRDatabase;
+import openlr.encoder.LocationReferenceHolder;
+import openlr.location.Location;
+import openlr.map.MapDatabase;
+import openlr.map.utils.MapDatabaseUtils;
+
+/**
+ * The Class LRDatabaseSLRU implements the LRDatabase interface for storing
+ * location references which are accessed by several encoder threads at the
+ * same time.
+ * <p>
+ * The entries are identified by the content of the location (its type, line
+ * IDs, offsets, coordinates and further attributes), so locations having the
+ * same hash code never share an entry while equal locations with different
+ * IDs do. The entries are kept in a {@link SegmentedLruCache} which is split
+ * into independently locked segments: new entries are stored in a probation
+ * area and move into a protected area when they are requested again. If a
+ * segment is full, the least recently used entry of the probation area is
+ * dropped first.
+ * <p>
+ * The database counts hits, misses and evictions. Its valid entries can be
+ * saved to a file and loaded again for the same map, see
+ * {@link #save(File, String)} and {@link #load(File, String, List)}.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class LRDatabaseSLRU implements LRDatabase {
+
+	/** The default number of segments. */
+	public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	/** The stored location references. */
+	private final SegmentedLruCache<LocationKey, LocationReferenceHolder> cache;
+
+	/**
+	 * Instantiates a new location reference database with a maximum size of
+	 * cacheSize entries.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum cache size
+	 */
+	public LRDatabaseSLRU(final int cacheSizeValue) {
+		this(cacheSizeValue, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	/**
+	 * Instantiates a new location reference database with a maximum size of
+	 * cacheSize entries.
+	 * 
+	 * @param cacheSizeValue
+	 *            the maximum cache size
+	 * @param concurrencyLevel
+	 *            the number of segments which can be accessed concurrently
+	 */
+	public LRDatabaseSLRU(final int cacheSizeValue, final int concurrencyLevel) {
+		cache = new SegmentedLruCache<LocationKey, LocationReferenceHolder>(
+				cacheSizeValue, 0, concurrencyLevel);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean containsLR(final Location loc) {
+		if (loc == null) {
+			return false;
+		}
+		return cache.contains(LocationKey.of(loc));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void storeResult(final Location loc,
+			final LocationReferenceHolder locref) {
+		if (loc == null || locref == null) {
+			return;
+		}
+		cache.put(LocationKey.of(loc), locref);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final LocationReferenceHolder getResult(final Location loc) {
+		if (loc == null) {
+			throw new IllegalArgumentException();
+		}
+		return cache.get(LocationKey.of(loc));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getCacheSize() {
+		return cache.getCacheSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getCurrentNrEntries() {
+		return cache.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Gets the number of requests answered from the database.
+	 * 
+	 * @return the number of hits
+	 */
+	public final long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * Gets the number of requests not answered from the database.
+	 * 
+	 * @return the number of misses
+	 */
+	public final long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * Gets the number of entries dropped because the database was full.
+	 * 
+	 * @return the number of evictions
+	 */
+	public final long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	/**
+	 * Saves the valid entries to a file, an existing file will be
+	 * overwritten. The entries are copied segment by segment, each segment
+	 * is locked only while its entries are copied.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param mapVersion
+	 *            the version of the map the entries were encoded on, see
+	 *            {@link MapDatabaseUtils#getMapVersion(MapDatabase)}
+	 * @return the number of entries written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public final int save(final File file, final String mapVersion)
+			throws IOException {
+		return LRDatabaseFile.write(file, mapVersion, cache.entries());
+	}
+
+	/**
+	 * Loads the entries of a file written by {@link #save(File, String)}
+	 * into this database. The physical location references are encoded again
+	 * from the stored raw location references, data formats without a
+	 * physical encoder in the list are skipped.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param mapVersion
+	 *            the version of the map the entries will be used with
+	 * @param physEncoders
+	 *            the physical encoders
+	 * @return the number of entries read
+	 * @throws IOException
+	 *             if reading fails or the file was written for another map
+	 *             version
+	 */
+	public final int load(final File file, final String mapVersion,
+			final List<PhysicalEncoder> physEncoders) throws IOException {
+		Map<LocationKey, LocationReferenceHolder> entries = LRDatabaseFile
+				.read(file, mapVersion, physEncoders);
+		for (Map.Entry<LocationKey, LocationReferenceHolder> e : entries
+				.entrySet()) {
+			cache.put(e.getKey(), e.getValue());
+		}
+		return entries.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("max size: ").append(getCacheSize());
+		sb.append(" #entries: ").append(getCurrentNrEntries());
+		sb.append(" #hits: ").append(getHitCount());
+		sb.append(" #misses: ").append(getMissCount());
+		sb.append(" #evictions: ").append(getEvictionCount());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,283 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder.database;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import openlr.location.Location;
+import openlr.map.GeoCoordinates;
+import openlr.map.Line;
+
+/**
+ * The class LocationKey identifies a location by its content: the location
+ * type, the IDs of the location lines and the POI line, the offsets, the
+ * coordinates, the side of road and orientation and the area attributes. Two
+ * locations having the same content get equal keys, regardless of their IDs,
+ * and locations with a different content never get equal keys.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class LocationKey {
+
+	/** The number of integer attributes. */
+	private static final int NR_INT_VALUES = 6;
+
+	/** The factor combining the side of road and orientation ordinals. */
+	private static final int ENUM_FACTOR = 256;
+
+	/** The location type, offsets, columns, rows, side of road, orientation. */
+	private final int[] intValues;
+
+	/** The IDs of the location lines followed by the ID of the POI line. */
+	private final long[] lineIds;
+
+	/** The coordinates, each preceded by a marker of the coordinate kind. */
+	private final double[] coordinates;
+
+	/** The radius. */
+	private final long radius;
+
+	/** The hash code. */
+	private final int hash;
+
+	/**
+	 * Creates a key.
+	 * 
+	 * @param ints
+	 *            the integer attributes
+	 * @param ids
+	 *            the line IDs
+	 * @param coords
+	 *            the coordinates
+	 * @param r
+	 *            the radius
+	 */
+	private LocationKey(final int[] ints, final long[] ids,
+			final double[] coords, final long r) {
+		intValues = ints;
+		lineIds = ids;
+		coordinates = coords;
+		radius = r;
+		int h = Arrays.hashCode(intValues);
+		h = 31 * h + Arrays.hashCode(lineIds);
+		h = 31 * h + Arrays.hashCode(coordinates);
+		h = 31 * h + (int) (radius ^ (radius >>> 32));
+		hash = h;
+	}
+
+	/**
+	 * Creates the key of a location.
+	 * 
+	 * @param loc
+	 *            the location
+	 * @return the key
+	 */
+	static LocationKey of(final Location loc) {
+		int[] ints = new int[NR_INT_VALUES];
+		ints[0] = loc.getLocationType().ordinal();
+		ints[1] = loc.getPositiveOffset();
+		ints[2] = loc.getNegativeOffset();
+		ints[3] = loc.getNumberOfColumns();
+		ints[4] = loc.getNumberOfRows();
+		ints[5] = (ordinal(loc.getSideOfRoad()) + 1) * ENUM_FACTOR
+				+ ordinal(loc.getOrientation()) + 1;
+
+		List<Line> lines = loc.getLocationLines();
+		int nrLines = 0;
+		if (lines != null) {
+			nrLines = lines.size();
+		}
+		Line poi = loc.getPoiLine();
+		long[] ids;
+		if (poi != null) {
+			ids = new long[nrLines + 1];
+			ids[nrLines] = poi.getID();
+		} else {
+			ids = new long[nrLines];
+		}
+		for (int i = 0; i < nrLines; i++) {
+			ids[i] = lines.get(i).getID();
+		}
+
+		CoordinateBuffer coords = new CoordinateBuffer();
+		coords.add(1, loc.getPointLocation());
+		coords.add(2, loc.getAccessPoint());
+		coords.add(3, loc.getCenterPoint());
+		coords.add(4, loc.getLowerLeftPoint());
+		coords.add(5, loc.getUpperRightPoint());
+		List<GeoCoordinates> corners = loc.getCornerPoints();
+		if (corners != null) {
+			for (GeoCoordinates c : corners) {
+				coords.add(6, c);
+			}
+		}
+		return new LocationKey(ints, ids, coords.toArray(), loc.getRadius());
+	}
+
+	/**
+	 * Gets the ordinal of an enum value, or -1 for null.
+	 * 
+	 * @param e
+	 *            the enum value
+	 * @return the ordinal
+	 */
+	private static int ordinal(final Enum<?> e) {
+		if (e == null) {
+			return -1;
+		}
+		return e.ordinal();
+	}
+
+	/**
+	 * Writes the key.
+	 * 
+	 * @param out
+	 *            the output
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write(final DataOutput out) throws IOException {
+		for (int v : intValues) {
+			out.writeInt(v);
+		}
+		out.writeInt(lineIds.length);
+		for (long id : lineIds) {
+			out.writeLong(id);
+		}
+		out.writeInt(coordinates.length);
+		for (double c : coordinates) {
+			out.writeDouble(c);
+		}
+		out.writeLong(radius);
+	}
+
+	/**
+	 * Reads a key written by {@link #write(DataOutput)}.
+	 * 
+	 * @param in
+	 *            the input
+	 * @return the key
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	static LocationKey read(final DataInput in) throws IOException {
+		int[] ints = new int[NR_INT_VALUES];
+		for (int i = 0; i < NR_INT_VALUES; i++) {
+			ints[i] = in.readInt();
+		}
+		long[] ids = new long[in.readInt()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = in.readLong();
+		}
+		double[] coords = new double[in.readInt()];
+		for (int i = 0; i < coords.length; i++) {
+			coords[i] = in.readDouble();
+		}
+		return new LocationKey(ints, ids, coords, in.readLong());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LocationKey)) {
+			return false;
+		}
+		LocationKey other = (LocationKey) obj;
+		return hash == other.hash && radius == other.radius
+				&& Arrays.equals(intValues, other.intValues)
+				&& Arrays.equals(lineIds, other.lineIds)
+				&& Arrays.equals(coordinates, other.coordinates);
+	}
+
+	/**
+	 * A growing list of coordinates.
+	 */
+	private static final class CoordinateBuffer {
+
+		/** The values. */
+		private double[] values = new double[0];
+
+		/** The number of values. */
+		private int size;
+
+		/**
+		 * Adds a coordinate preceded by its kind, null is ignored.
+		 * 
+		 * @param kind
+		 *            the kind of the coordinate
+		 * @param gc
+		 *            the coordinate
+		 */
+		void add(final int kind, final GeoCoordinates gc) {
+			if (gc == null) {
+				return;
+			}
+			if (size + 3 > values.length) {
+				values = Arrays.copyOf(values, Math.max(8,
+						values.length * 2 + 3));
+			}
+			values[size++] = kind;
+			values[size++] = gc.getLongitudeDeg();
+			values[size++] = gc.getLatitudeDeg();
+		}
+
+		/**
+		 * Gets the values.
+		 * 
+		 * @return the values
+		 */
+		double[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,419 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import openlr.OpenLRProcessingException;
+import openlr.encoder.EncoderListener;
+import openlr.encoder.EncoderPhase;
+import openlr.encoder.LocationReferenceHolder;
+import openlr.encoder.OpenLREncoderParameter;
+import openlr.location.Location;
+import openlr.utils.metrics.ProcessingMetrics;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The class EncoderMetrics is a thread-safe {@link EncoderListener} which
+ * aggregates the timings and counts of all encodings per location type and
+ * encoder phase. It is enabled by setting it in the
+ * {@link OpenLREncoderParameter} and can be shared by several encoders and
+ * sessions. The metrics can be read with the getters or through JMX after
+ * calling {@link #register(String)}.
+ * 
+ * The counts of route searches, intermediates and expansion lines show the
+ * effect of the encoder properties, e.g. a small maximum distance between
+ * location reference points increases the number of distance intermediates.
+ * Encodings exceeding a time threshold are counted and logged with the ID of
+ * the location.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class EncoderMetrics implements EncoderListener, EncoderMetricsMXBean {
+
+	/** logger */
+	private static final Logger LOG = Logger.getLogger(EncoderMetrics.class);
+
+	/** The JMX domain of the registered metrics. */
+	public static final String JMX_DOMAIN = "openlr.encoder";
+
+	/** The return code key of valid location references. */
+	public static final String RETURN_CODE_OK = ProcessingMetrics.RETURN_CODE_OK;
+
+	/** The encoding counts and timings. */
+	private final ProcessingMetrics<EncoderPhase> metrics;
+
+	/** The number of generated location references. */
+	private final AtomicLong locRefs = new AtomicLong();
+
+	/** The total number of route searches. */
+	private final AtomicLong routeSearches = new AtomicLong();
+
+	/** The total number of route search expansions. */
+	private final AtomicLong routeExpansions = new AtomicLong();
+
+	/** The number of route intermediates. */
+	private final AtomicLong routeIntermediates = new AtomicLong();
+
+	/** The number of distance intermediates. */
+	private final AtomicLong distanceIntermediates = new AtomicLong();
+
+	/** The number of lines added by expansions. */
+	private final AtomicLong expansionLines = new AtomicLong();
+
+	/**
+	 * Creates metrics without logging of slow encodings.
+	 */
+	public EncoderMetrics() {
+		this(0);
+	}
+
+	/**
+	 * Creates metrics logging each encoding which takes longer than the
+	 * threshold.
+	 * 
+	 * @param slowThresholdMillis
+	 *            the threshold in milliseconds, 0 disables the logging
+	 */
+	public EncoderMetrics(final long slowThresholdMillis) {
+		metrics = new ProcessingMetrics<EncoderPhase>(EncoderPhase.class,
+				slowThresholdMillis);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void phaseFinished(final Location location,
+			final EncoderPhase phase, final long durationNanos) {
+		metrics.phaseFinished(location.getLocationType(), phase,
+				durationNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void locationExpanded(final Location location,
+			final int nrLinesAtStart, final int nrLinesAtEnd) {
+		expansionLines.addAndGet(nrLinesAtStart + nrLinesAtEnd);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void locationReferenceGenerated(final Location location,
+			final int nrRouteSearches, final int nrExpansions,
+			final int nrRouteIntermediates, final int nrDistanceIntermediates) {
+		locRefs.incrementAndGet();
+		routeSearches.addAndGet(nrRouteSearches);
+		routeExpansions.addAndGet(nrExpansions);
+		routeIntermediates.addAndGet(nrRouteIntermediates);
+		distanceIntermediates.addAndGet(nrDistanceIntermediates);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void encodingFinished(final Location location,
+			final LocationReferenceHolder holder, final boolean cached,
+			final long durationNanos) {
+		String code;
+		if (holder.isValid()) {
+			code = RETURN_CODE_OK;
+		} else if (holder.getReturnCode() != null) {
+			code = holder.getReturnCode().name();
+		} else {
+			code = "UNKNOWN";
+		}
+		finished(location, code, cached, false, durationNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void encodingFailed(final Location location,
+			final OpenLRProcessingException error, final long durationNanos) {
+		finished(location, error.getErrorCode().getName(), false, true,
+				durationNanos);
+	}
+
+	/**
+	 * Updates the encoding counters and logs slow encodings.
+	 * 
+	 * @param location
+	 *            the location
+	 * @param code
+	 *            the name of the return code
+	 * @param cached
+	 *            true, if the location reference has been taken from the
+	 *            location reference database
+	 * @param failed
+	 *            true, if the encoding failed with an exception
+	 * @param durationNanos
+	 *            the encoding time
+	 */
+	private void finished(final Location location, final String code,
+			final boolean cached, final boolean failed,
+			final long durationNanos) {
+		if (metrics.finished(location.getLocationType(), code, cached, failed,
+				durationNanos)) {
+			LOG.warn("slow encoding of location " + location.getID() + " ("
+					+ location.getLocationType() + "): "
+					+ ProcessingMetrics.toMicros(durationNanos) + "us");
+		}
+	}
+
+	/**
+	 * Registers the metrics at the platform MBean server.
+	 * 
+	 * @param name
+	 *            the name of the metrics, e.g. the name of the encoding
+	 *            service
+	 * @return the object name of the registered metrics
+	 * @throws JMException
+	 *             if the registration fails
+	 */
+	public final ObjectName register(final String name) throws JMException {
+		return ProcessingMetrics.register(this, JMX_DOMAIN, "EncoderMetrics",
+				name);
+	}
+
+	/**
+	 * Removes registered metrics from the platform MBean server.
+	 * 
+	 * @param objectName
+	 *            the object name returned by {@link #register(String)}
+	 * @throws JMException
+	 *             if the metrics are not registered
+	 */
+	public static void unregister(final ObjectName objectName)
+			throws JMException {
+		ProcessingMetrics.unregister(objectName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getEncodingCount() {
+		return metrics.getCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getCacheHitCount() {
+		return metrics.getCacheHitCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getFailureCount() {
+		return metrics.getFailureCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getSlowEncodingCount() {
+		return metrics.getSlowCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageEncodingMicros() {
+		return metrics.getAverageMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getMaxEncodingMicros() {
+		return metrics.getMaxMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getEncodingCountByType() {
+		return metrics.getCountByType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Double> getAverageEncodingMicrosByType() {
+		return metrics.getAverageMicrosByType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getReturnCodeCounts() {
+		return metrics.getReturnCodeCounts();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getPhaseCounts() {
+		return metrics.getPhaseCounts();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Double> getAveragePhaseMicros() {
+		return metrics.getAveragePhaseMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Long> getMaxPhaseMicros() {
+		return metrics.getMaxPhaseMicros();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Map<String, Double> getAveragePhaseMicrosByType() {
+		return metrics.getAveragePhaseMicrosByType();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getLocRefCount() {
+		return locRefs.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageRouteSearches() {
+		return ProcessingMetrics.average(routeSearches.get(), locRefs.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double getAverageRouteExpansions() {
+		return ProcessingMetrics.average(routeExpansions.get(), locRefs.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getRouteIntermediateCount() {
+		return routeIntermediates.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getDistanceIntermediateCount() {
+		return distanceIntermediates.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final long getExpansionLineCount() {
+		return expansionLines.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void reset() {
+		metrics.reset();
+		locRefs.set(0);
+		routeSearches.set(0);
+		routeExpansions.set(0);
+		routeIntermediates.set(0);
+		distanceIntermediates.set(0);
+		expansionLines.set(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("encodings: ").append(getEncodingCount());
+		sb.append(" cache hits: ").append(getCacheHitCount());
+		sb.append(" failures: ").append(getFailureCount());
+		sb.append(" avg: ").append(Math.round(getAverageEncodingMicros()))
+				.append("us");
+		sb.append(" max: ").append(getMaxEncodingMicros()).append("us");
+		sb.append(" return codes: ").append(getReturnCodeCounts());
+		sb.append(" phases [us]: ").append(getAveragePhaseMicros());
+		sb.append(" route searches: ").append(getAverageRouteSearches());
+		return sb.toString();
+	}
+}
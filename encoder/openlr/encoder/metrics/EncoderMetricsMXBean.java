@@ -0,0 +1,194 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.encoder.metrics;
+
+import java.util.Map;
+
+/**
+ * The Interface EncoderMetricsMXBean defines the attributes and operations of
+ * the {@link EncoderMetrics} being available through JMX. Times are given in
+ * microseconds.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public interface EncoderMetricsMXBean {
+
+	/**
+	 * Gets the number of encoded locations, including cache hits and
+	 * failures.
+	 * 
+	 * @return the number of encodings
+	 */
+	long getEncodingCount();
+
+	/**
+	 * Gets the number of location references taken from the location
+	 * reference database.
+	 * 
+	 * @return the number of cache hits
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * Gets the number of encodings which failed with an exception.
+	 * 
+	 * @return the number of failures
+	 */
+	long getFailureCount();
+
+	/**
+	 * Gets the number of encodings exceeding the slow encoding threshold.
+	 * 
+	 * @return the number of slow encodings
+	 */
+	long getSlowEncodingCount();
+
+	/**
+	 * Gets the average encoding time.
+	 * 
+	 * @return the average encoding time in microseconds
+	 */
+	double getAverageEncodingMicros();
+
+	/**
+	 * Gets the maximum encoding time.
+	 * 
+	 * @return the maximum encoding time in microseconds
+	 */
+	long getMaxEncodingMicros();
+
+	/**
+	 * Gets the number of encodings per location type.
+	 * 
+	 * @return the number of encodings per location type
+	 */
+	Map<String, Long> getEncodingCountByType();
+
+	/**
+	 * Gets the average encoding time per location type.
+	 * 
+	 * @return the average encoding time per location type in microseconds
+	 */
+	Map<String, Double> getAverageEncodingMicrosByType();
+
+	/**
+	 * Gets the number of encodings per return code. Valid location references
+	 * are counted as "OK", failures with the name of the error code.
+	 * 
+	 * @return the number of encodings per return code
+	 */
+	Map<String, Long> getReturnCodeCounts();
+
+	/**
+	 * Gets the number of executions per encoder phase.
+	 * 
+	 * @return the number of executions per phase
+	 */
+	Map<String, Long> getPhaseCounts();
+
+	/**
+	 * Gets the average time per encoder phase.
+	 * 
+	 * @return the average time per phase in microseconds
+	 */
+	Map<String, Double> getAveragePhaseMicros();
+
+	/**
+	 * Gets the maximum time per encoder phase.
+	 * 
+	 * @return the maximum time per phase in microseconds
+	 */
+	Map<String, Long> getMaxPhaseMicros();
+
+	/**
+	 * Gets the average time per location type and encoder phase. The keys
+	 * are the location type and the phase separated by a dot.
+	 * 
+	 * @return the average time per location type and phase in microseconds
+	 */
+	Map<String, Double> getAveragePhaseMicrosByType();
+
+	/**
+	 * Gets the number of generated location references.
+	 * 
+	 * @return the number of generated location references
+	 */
+	long getLocRefCount();
+
+	/**
+	 * Gets the average number of route searches per location reference.
+	 * 
+	 * @return the average number of route searches
+	 */
+	double getAverageRouteSearches();
+
+	/**
+	 * Gets the average number of lines expanded by the route searches of a
+	 * location reference.
+	 * 
+	 * @return the average number of route search expansions
+	 */
+	double getAverageRouteExpansions();
+
+	/**
+	 * Gets the number of intermediates inserted because a location deviates
+	 * from the shortest-path.
+	 * 
+	 * @return the number of route intermediates
+	 */
+	long getRouteIntermediateCount();
+
+	/**
+	 * Gets the number of intermediates inserted because the maximum distance
+	 * between two location reference points is exceeded.
+	 * 
+	 * @return the number of distance intermediates
+	 */
+	long getDistanceIntermediateCount();
+
+	/**
+	 * Gets the number of lines added by the expansion of locations to valid
+	 * nodes.
+	 * 
+	 * @return the number of expansion lines
+	 */
+	long getExpansionLineCount();
+
+	/**
+	 * Resets all metrics.
+	 */
+	void reset();
+}
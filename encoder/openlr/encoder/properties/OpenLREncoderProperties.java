@@ -60,6 +60,9 @@ public class OpenLREncoderProperties {
 	/** The comp time4 cache. */
 	private final int compTime4Cache;
 
+	/** The approximate distance. */
+	private final boolean approximateDistance;
+
 	/**
 	 * Instantiates a new open lr encoder properties.
 	 * 
@@ -92,6 +95,9 @@ public class OpenLREncoderProperties {
 
 		compTime4Cache = OpenLRPropertyAccess.getIntegerPropertyValue(config,
 				OpenLREncoderProperty.COMP_TIME_4_CACHE);
+
+		approximateDistance = OpenLRPropertyAccess.getBooleanPropertyValue(
+				config, OpenLREncoderProperty.APPROXIMATE_DISTANCE);
 	}
 
 	/**
@@ -143,4 +149,14 @@ public class OpenLREncoderProperties {
 		return compTime4Cache;
 	}
 
+	/**
+	 * Checks if the route search heuristic shall use approximated instead of
+	 * exact distances.
+	 * 
+	 * @return the approximateDistance
+	 */
+	public final boolean isApproximateDistance() {
+		return approximateDistance;
+	}
+
 }
@@ -59,7 +59,10 @@ public enum OpenLREncoderProperty implements OpenLRProperty {
 	PHYSICAL_FORMAT_VERSION("PhysicalFormatVersion", PropertyType.INTEGER_BY_ID, -1),
 	
 	/** The COM p_ tim e_4_ cache. */
-	COMP_TIME_4_CACHE("CompTime4Cache", PropertyType.INTEGER, 0);
+	COMP_TIME_4_CACHE("CompTime4Cache", PropertyType.INTEGER, 0),
+	
+	/** approximate short distances in the route search */
+	APPROXIMATE_DISTANCE("ApproximateDistance", PropertyType.BOOLEAN, Boolean.FALSE);
 
 	/**
 	 * Instantiates a new open lr encoder properties.
@@ -148,8 +148,8 @@ public class IntermediateHandler {
 				// been investigated and deviation cannot be the actual line as
 				// the
 				// deviation starts earlier in the location
-				PQElem intermediateElement = (PQElem) PathUtils
-						.findElementInQueue(data.getOpenList(), intermediate);
+				PQElem intermediateElement = data.getOpenList().get(
+						intermediate.getID());
 				if (intermediateElement == null) {
 					// if not found, this is an error
 					LOG.error("intermediate not found in open list");
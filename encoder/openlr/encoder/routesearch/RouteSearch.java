@@ -95,6 +95,12 @@ public class RouteSearch {
 	/** The end loop index. */
 	private final int endLoopIndex;
 
+	/** Whether the heuristic uses the approximated distance. */
+	private final boolean approximateDistance;
+
+	/** The number of lines expanded by the route calculation. */
+	private int expansions;
+
 	/**
 	 * Instantiates a new route search.
 	 * 
@@ -105,6 +111,26 @@ public class RouteSearch {
 	 */
 	public RouteSearch(final List<? extends Line> loc)
 			throws OpenLREncoderProcessingException {
+		this(loc, false);
+	}
+
+	/**
+	 * Instantiates a new route search. The heuristic values can be calculated
+	 * with
+	 * {@link GeometryUtils#approximateDistance(double, double, double, double)}
+	 * instead of the exact distance.
+	 * 
+	 * @param loc
+	 *            the loc
+	 * @param useApproximateDistance
+	 *            true, if the heuristic shall use the approximated distance
+	 * @throws OpenLREncoderProcessingException
+	 *             the open lr encoder runtime exception
+	 */
+	public RouteSearch(final List<? extends Line> loc,
+			final boolean useApproximateDistance)
+			throws OpenLREncoderProcessingException {
+		approximateDistance = useApproximateDistance;
 		location = loc;
 		if (location == null || location.isEmpty()) {
 			throw new OpenLREncoderProcessingException(
@@ -217,6 +243,7 @@ public class RouteSearch {
 
 				// get the top element of the open list
 				PQElem actualElement = data.pollElement();
+				expansions++;
 
 				// check the location being part of the shortest path tree and
 				// if not change the state to INTERMEDIATE_FOUND
@@ -304,7 +331,8 @@ public class RouteSearch {
 			// calculate heuristic value, length, weighted length
 			Node succEnd = succ.getEndNode();
 			int heurist = (int) Math.round(GeometryUtils.distance(destX, destY,
-					succEnd.getLongitudeDeg(), succEnd.getLatitudeDeg()));
+					succEnd.getLongitudeDeg(), succEnd.getLatitudeDeg(),
+					approximateDistance));
 			int newDist = actualElement.getSecondVal() + succ.getLineLength();
 			int newHeurVal = newDist + heurist;
 
@@ -328,6 +356,16 @@ public class RouteSearch {
 		}
 	}
 
+	/**
+	 * Gets the number of lines taken from the open list by the route
+	 * calculation.
+	 * 
+	 * @return the number of expanded lines
+	 */
+	public final int getNumberOfExpansions() {
+		return expansions;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
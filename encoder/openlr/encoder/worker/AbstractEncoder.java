@@ -35,11 +35,18 @@ import java.util.Iterator;
 import java.util.List;
 
 import openlr.OpenLRProcessingException;
+import openlr.encoder.EncoderListener;
+import openlr.encoder.EncoderPhase;
 import openlr.encoder.OpenLREncoderProcessingException;
 import openlr.encoder.OpenLREncoderProcessingException.EncoderProcessingError;
+import openlr.encoder.data.AdjustOffsets;
+import openlr.encoder.data.ExpansionData;
 import openlr.encoder.data.ExpansionHelper;
 import openlr.encoder.data.LocRefData;
 import openlr.encoder.data.LocRefPoint;
+import openlr.encoder.locRefAdjust.LocationReferenceAdjust;
+import openlr.encoder.locationCheck.CheckResult;
+import openlr.encoder.locationCheck.LocationCheck;
 import openlr.encoder.properties.OpenLREncoderProperties;
 import openlr.encoder.routesearch.RouteSearch;
 import openlr.encoder.routesearch.RouteSearchResult;
@@ -78,6 +85,131 @@ public abstract class AbstractEncoder {
 	/** The Constant FRC_COMPARATOR. */
 	private static final FrcComparator FRC_COMPARATOR = new FunctionalRoadClass.FrcComparator();
 
+	/** The encoder listener, or null if no measurements shall be taken. */
+	private EncoderListener listener;
+
+	/**
+	 * Sets the listener receiving the timings and counts of the encoding. A
+	 * worker instance encodes one location at a time, so the listener shall
+	 * be set before {@link #doEncoding} is called.
+	 *
+	 * @param l the encoder listener, or null if no measurements shall be taken
+	 */
+	public final void setEncoderListener(final EncoderListener l) {
+		listener = l;
+	}
+
+	/**
+	 * Gets the start time of a phase if a listener is set.
+	 *
+	 * @return the current time in nanoseconds, or 0 if no listener is set
+	 */
+	private long phaseStart() {
+		if (listener == null) {
+			return 0;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Reports a finished phase to the listener if a listener is set.
+	 *
+	 * @param location the location
+	 * @param phase the phase
+	 * @param startTime the start time of the phase
+	 */
+	private void phaseFinished(final Location location,
+			final EncoderPhase phase, final long startTime) {
+		if (listener != null) {
+			listener.phaseFinished(location, phase, System.nanoTime()
+					- startTime);
+		}
+	}
+
+	/**
+	 * Checks the validity of the location and, if requested and the location
+	 * is valid, the validity of its offsets.
+	 *
+	 * @param locCheck the location check of the location type
+	 * @param properties the properties
+	 * @param mdb the map database
+	 * @param location the location
+	 * @param checkOffsets true, if the offsets shall be checked
+	 * @return the check result
+	 * @throws OpenLRProcessingException the open lr processing exception
+	 */
+	protected final CheckResult checkLocation(final LocationCheck locCheck,
+			final OpenLREncoderProperties properties, final MapDatabase mdb,
+			final Location location, final boolean checkOffsets)
+			throws OpenLRProcessingException {
+		long start = phaseStart();
+		CheckResult result = locCheck.check(properties, mdb, location);
+		if (checkOffsets && result.checkPassed()) {
+			result = locCheck.checkOffsets(properties, location);
+		}
+		phaseFinished(location, EncoderPhase.LOCATION_CHECK, start);
+		return result;
+	}
+
+	/**
+	 * Removes the lines covered completely by the offsets.
+	 *
+	 * @param location the location
+	 * @param properties the properties
+	 * @return the adjusted location
+	 * @throws OpenLRProcessingException the open lr processing exception
+	 */
+	protected final Location adjustOffsets(final Location location,
+			final OpenLREncoderProperties properties)
+			throws OpenLRProcessingException {
+		long start = phaseStart();
+		Location adjusted = AdjustOffsets.adjustOffsets(location, properties);
+		phaseFinished(location, EncoderPhase.ADJUST_OFFSETS, start);
+		return adjusted;
+	}
+
+	/**
+	 * Expands the location to valid start and end nodes.
+	 *
+	 * @param properties the properties
+	 * @param mdb the map database
+	 * @param locRefData the loc ref data
+	 * @return the expansion
+	 * @throws OpenLRProcessingException the open lr processing exception
+	 */
+	protected final ExpansionData expandLocation(
+			final OpenLREncoderProperties properties, final MapDatabase mdb,
+			final LocRefData locRefData) throws OpenLRProcessingException {
+		long start = phaseStart();
+		ExpansionData expansion = ExpansionHelper.createExpandedLocation(
+				properties, mdb, locRefData);
+		if (listener != null) {
+			Location location = locRefData.getLocation();
+			phaseFinished(location, EncoderPhase.EXPANSION, start);
+			listener.locationExpanded(location, expansion.getExpansionStart()
+					.size(), expansion.getExpansionEnd().size());
+		}
+		return expansion;
+	}
+
+	/**
+	 * Checks and adjusts the generated location reference.
+	 *
+	 * @param locRefAdjust the adjustment of the location type
+	 * @param properties the properties
+	 * @param locRefData the loc ref data
+	 * @throws OpenLRProcessingException the open lr processing exception
+	 */
+	protected final void adjustLocationReference(
+			final LocationReferenceAdjust locRefAdjust,
+			final OpenLREncoderProperties properties,
+			final LocRefData locRefData) throws OpenLRProcessingException {
+		long start = phaseStart();
+		locRefAdjust.adjustLocationReference(properties, locRefData);
+		phaseFinished(locRefData.getLocation(), EncoderPhase.LOC_REF_ADJUST,
+				start);
+	}
+
 	/**
 	 * Do OpenLR encoding. This method checks the validity of the location and
 	 * encodes it. It also handles the the check whether a location has already
@@ -109,6 +241,9 @@ public abstract class AbstractEncoder {
 	protected final List<LocRefPoint> generateLocRef(
 			final LocRefData locRefData, final OpenLREncoderProperties properties)
 			throws OpenLRProcessingException {
+		long start = phaseStart();
+		int nrRouteSearches = 0;
+		int nrExpansions = 0;
 		// initialize data structures
 		List<LocRefPoint> locRefPoints = new ArrayList<LocRefPoint>();
 		// start the coverage calculation with the whole location
@@ -123,9 +258,12 @@ public abstract class AbstractEncoder {
 		// find shortest-path(s) until the whole location is covered by a
 		// concatenation of these shortest-path(s)
 		while (!remainingLocation.isEmpty()) {
-			RouteSearch rs = new RouteSearch(remainingLocation);
+			RouteSearch rs = new RouteSearch(remainingLocation,
+					properties.isApproximateDistance());
 			// do route search between current start and end of location
 			RouteSearchResult rsResult = rs.calculateRoute(lowestPossibleFRC);
+			nrRouteSearches++;
+			nrExpansions += rs.getNumberOfExpansions();
 			RouteSearchResult.RouteSearchReturnCode searchResult = rsResult
 					.getResult();
 
@@ -196,6 +334,14 @@ public abstract class AbstractEncoder {
 			lrpCount++;
 		}
 		checkedList.get(checkedList.size() - 1).setSequenceNumber(lrpCount);
+		if (listener != null) {
+			Location location = locRefData.getLocation();
+			phaseFinished(location, EncoderPhase.GENERATE_LOC_REF, start);
+			// the route search points except the first one are intermediates
+			listener.locationReferenceGenerated(location, nrRouteSearches,
+					nrExpansions, locRefPoints.size() - 2, checkedList.size()
+							- locRefPoints.size());
+		}
 		return checkedList;
 	}
 
@@ -67,8 +67,8 @@ public class CircleEncoder extends AbstractEncoder {
 			final OpenLREncoderProperties prop, final MapDatabase mdb) throws OpenLRProcessingException {
 		// check if the location is valid
 		LocationCheck locCheck = new CircleLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb,
-				location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				false);
 
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(
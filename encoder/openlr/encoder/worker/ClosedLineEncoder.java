@@ -66,8 +66,8 @@ public class ClosedLineEncoder extends AbstractEncoder {
 
 		// check if the location is valid
 		LocationCheck locCheck = new ClosedLineLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb,
-				location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				false);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(
 					location.getID(), retCode.getError(),
@@ -82,7 +82,7 @@ public class ClosedLineEncoder extends AbstractEncoder {
 		// check if the location reference meets all restrictions and adjust
 		// length values if necessary
 		LocationReferenceAdjust locRefAdjust = new ClosedLineLocRefAdjust();
-		locRefAdjust.adjustLocationReference(prop, lrd);
+		adjustLocationReference(locRefAdjust, prop, lrd);
 
 		RawLocationReference rawLocRef = new RawClosedLineLocRef(
 				location.getID(), lrd.getLocRefPoints());
@@ -61,8 +61,8 @@ public class GridEncoder extends AbstractEncoder {
 			final OpenLREncoderProperties prop, final MapDatabase mdb) throws OpenLRProcessingException {
 		// check if the location is valid
 		LocationCheck locCheck = new GridLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb,
-				location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				false);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(
 					location.getID(), retCode.getError(),
@@ -31,8 +31,6 @@
 package openlr.encoder.worker;
 
 import openlr.OpenLRProcessingException;
-import openlr.encoder.data.AdjustOffsets;
-import openlr.encoder.data.ExpansionHelper;
 import openlr.encoder.data.LocRefData;
 import openlr.encoder.locRefAdjust.LocationReferenceAdjust;
 import openlr.encoder.locRefAdjust.worker.LineLocRefAdjust;
@@ -68,22 +66,16 @@ public class LineEncoder extends AbstractEncoder {
 		
 		// check if the location is valid 
 		LocationCheck locCheck = new LineLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb,
-				location);
-		if (!retCode.checkPassed()) {
-			RawLocationReference invalid = new RawInvalidLocRef(location.getID(), retCode.getError(), location.getLocationType());
-			return invalid;
-		}
-		
-		retCode = locCheck.checkOffsets(prop, location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				true);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(location.getID(), retCode.getError(), location.getLocationType());
 			return invalid;
 		}
 
 		LocRefData locRefData = new LocRefData(location);
-		locRefData.setAdjustedLocation(AdjustOffsets.adjustOffsets(location, prop));
-		locRefData.setExpansion(ExpansionHelper.createExpandedLocation(prop, mdb, locRefData));
+		locRefData.setAdjustedLocation(adjustOffsets(location, prop));
+		locRefData.setExpansion(expandLocation(prop, mdb, locRefData));
 
 		// initialize location reference data array and start encoding
 		locRefData.setLocRefPoints(generateLocRef(locRefData, prop));
@@ -92,7 +84,7 @@ public class LineEncoder extends AbstractEncoder {
 		// length values if necessary
 		LocationReferenceAdjust locRefAdjust = new LineLocRefAdjust();
 		//TODO
-		locRefAdjust.adjustLocationReference(prop, locRefData);
+		adjustLocationReference(locRefAdjust, prop, locRefData);
 
 		RawLocationReference rawLocRef = new RawLineLocRef(
 				locRefData.getID(), locRefData.getLocRefPoints(), locRefData.getOffsets());
@@ -35,7 +35,6 @@ import java.util.List;
 import openlr.OpenLRProcessingException;
 import openlr.encoder.OpenLREncoderProcessingException;
 import openlr.encoder.OpenLREncoderProcessingException.EncoderProcessingError;
-import openlr.encoder.data.ExpansionHelper;
 import openlr.encoder.data.LocRefData;
 import openlr.encoder.data.LocRefPoint;
 import openlr.encoder.locRefAdjust.LocationReferenceAdjust;
@@ -74,15 +73,8 @@ public class PoiAccessEncoder extends AbstractEncoder {
 
 		// check if the location is valid and expand
 		LocationCheck locCheck = new PoiAccessLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb, location);
-		if (!retCode.checkPassed()) {
-			RawLocationReference invalid = new RawInvalidLocRef(
-					location.getID(), retCode.getError(),
-					location.getLocationType());
-			return invalid;
-		}
-
-		retCode = locCheck.checkOffsets(prop, location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				true);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(
 					location.getID(), retCode.getError(),
@@ -90,8 +82,7 @@ public class PoiAccessEncoder extends AbstractEncoder {
 			return invalid;
 		}
 		LocRefData lrd = new LocRefData(location);
-		lrd.setExpansion(ExpansionHelper.createExpandedLocation(prop,
-				mdb, lrd));
+		lrd.setExpansion(expandLocation(prop, mdb, lrd));
 
 		// initialize location reference data array and start encoding
 		lrd.setLocRefPoints(generateLocRef(lrd, prop));
@@ -100,7 +91,7 @@ public class PoiAccessEncoder extends AbstractEncoder {
 		// length values
 		// if necessary
 		LocationReferenceAdjust locRefAdjust = new PoiAccessLocRefAdjust();
-		locRefAdjust.adjustLocationReference(prop, lrd);
+		adjustLocationReference(locRefAdjust, prop, lrd);
 
 		RawLocationReference rawLocRef = null;
 		List<LocRefPoint> lrps = lrd.getLocRefPoints();
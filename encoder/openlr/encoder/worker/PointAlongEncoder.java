@@ -33,7 +33,6 @@ package openlr.encoder.worker;
 import java.util.List;
 
 import openlr.OpenLRProcessingException;
-import openlr.encoder.data.ExpansionHelper;
 import openlr.encoder.data.LocRefData;
 import openlr.encoder.data.LocRefPoint;
 import openlr.encoder.locRefAdjust.LocationReferenceAdjust;
@@ -70,15 +69,8 @@ public class PointAlongEncoder extends AbstractEncoder {
 
 		// check if the location is valid and expand
 		LocationCheck locCheck = new PointAlongLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb, location);
-		if (!retCode.checkPassed()) {
-			RawLocationReference invalid = new RawInvalidLocRef(
-					location.getID(), retCode.getError(),
-					location.getLocationType());
-			return invalid;
-		}
-
-		retCode = locCheck.checkOffsets(prop, location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				true);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(
 					location.getID(), retCode.getError(),
@@ -87,8 +79,7 @@ public class PointAlongEncoder extends AbstractEncoder {
 		}
 
 		LocRefData lrd = new LocRefData(location);
-		lrd.setExpansion(ExpansionHelper.createExpandedLocation(prop,
-				mdb, lrd));
+		lrd.setExpansion(expandLocation(prop, mdb, lrd));
 
 		// initialize location reference data array and start encoding
 		lrd.setLocRefPoints(generateLocRef(lrd, prop));
@@ -97,7 +88,7 @@ public class PointAlongEncoder extends AbstractEncoder {
 		// length values
 		// if necessary
 		LocationReferenceAdjust locRefAdjust = new PointAlongLocRefAdjust();
-		locRefAdjust.adjustLocationReference(prop, lrd);
+		adjustLocationReference(locRefAdjust, prop, lrd);
 
 		List<LocRefPoint> lrps = lrd.getLocRefPoints();
 
@@ -68,8 +68,8 @@ public class RectangleEncoder extends AbstractEncoder {
 
 		// check if the location is valid
 		LocationCheck locCheck = new RectangleLocationCheck();
-		CheckResult retCode = locCheck.check(prop, mdb,
-				location);
+		CheckResult retCode = checkLocation(locCheck, prop, mdb, location,
+				false);
 		if (!retCode.checkPassed()) {
 			RawLocationReference invalid = new RawInvalidLocRef(location.getID(), retCode.getError(), location.getLocationType());
 			return invalid;
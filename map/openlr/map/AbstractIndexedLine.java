@@ -0,0 +1,344 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import openlr.map.utils.GeometryUtils;
+
+/**
+ * The class AbstractIndexedLine implements the geometry methods of the
+ * {@link Line} interface for lines whose shape points are packed into arrays
+ * or buffers of a map database. A subclass provides the range of its shape
+ * points and the coordinates of a shape point, the geometry methods then
+ * work directly on the packed data without creating coordinate objects for
+ * the whole shape.
+ * <p>
+ * Two lines are equal if they are of the same class and have the same ID.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public abstract class AbstractIndexedLine implements Line {
+
+	/**
+	 * Gets the index of the first shape point of the line.
+	 * 
+	 * @return the index of the first shape point
+	 */
+	protected abstract int getFirstShapePoint();
+
+	/**
+	 * Gets the index after the last shape point of the line. A line has at
+	 * least two shape points.
+	 * 
+	 * @return the end (exclusive) of the shape points
+	 */
+	protected abstract int getShapePointEnd();
+
+	/**
+	 * Gets the longitude of a shape point.
+	 * 
+	 * @param p
+	 *            the index of the shape point
+	 * @return the longitude
+	 */
+	protected abstract double getShapeLongitude(int p);
+
+	/**
+	 * Gets the latitude of a shape point.
+	 * 
+	 * @param p
+	 *            the index of the shape point
+	 * @return the latitude
+	 */
+	protected abstract double getShapeLatitude(int p);
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @deprecated use {@link #getGeoCoordinateAlongLine(int)} instead.
+	 */
+	@Override
+	@Deprecated
+	public final Point2D.Double getPointAlongLine(final int distanceAlong) {
+		GeoCoordinates point = getGeoCoordinateAlongLine(distanceAlong);
+		return new Point2D.Double(point.getLongitudeDeg(),
+				point.getLatitudeDeg());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final GeoCoordinates getGeoCoordinateAlongLine(
+			final int distanceAlong) {
+		if (distanceAlong == 0) {
+			Node start = getStartNode();
+			return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+					start.getLongitudeDeg(), start.getLatitudeDeg());
+		} else if (distanceAlong >= getLineLength()) {
+			Node end = getEndNode();
+			return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+					end.getLongitudeDeg(), end.getLatitudeDeg());
+		}
+		double remaining = distanceAlong;
+		int last = getShapePointEnd() - 1;
+		for (int p = getFirstShapePoint(); p < last; p++) {
+			double dist = segmentLength(p);
+			if (remaining > dist) {
+				remaining -= dist;
+			} else {
+				return pointOnSegment(p, remaining / dist);
+			}
+		}
+		return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+				getShapeLongitude(last), getShapeLatitude(last));
+	}
+
+	/**
+	 * Gets the length of the segment starting at a shape point.
+	 * 
+	 * @param p
+	 *            the index of the segment start
+	 * @return the length in meter
+	 */
+	private double segmentLength(final int p) {
+		return GeometryUtils.distance(getShapeLongitude(p),
+				getShapeLatitude(p), getShapeLongitude(p + 1),
+				getShapeLatitude(p + 1));
+	}
+
+	/**
+	 * Gets the point at a fraction of the segment starting at a shape point.
+	 * 
+	 * @param p
+	 *            the index of the segment start
+	 * @param frac
+	 *            the fraction
+	 * @return the point
+	 */
+	private GeoCoordinates pointOnSegment(final int p, final double frac) {
+		double lon1 = getShapeLongitude(p);
+		double lat1 = getShapeLatitude(p);
+		double lon2 = getShapeLongitude(p + 1);
+		double lat2 = getShapeLatitude(p + 1);
+		if (frac <= 0.0) {
+			return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(lon1, lat1);
+		}
+		if (frac >= 1.0) {
+			return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(lon2, lat2);
+		}
+		return GeoCoordinatesImpl.newGeoCoordinatesUnchecked((lon2 - lon1)
+				* frac + lon1, (lat2 - lat1) * frac + lat1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int distanceToPoint(final double longitude,
+			final double latitude) {
+		int minDist = Integer.MAX_VALUE;
+		int last = getShapePointEnd() - 1;
+		for (int p = getFirstShapePoint(); p < last; p++) {
+			int dist = segmentDistance(p, longitude, latitude);
+			if (dist < minDist) {
+				minDist = dist;
+			}
+		}
+		return minDist;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int measureAlongLine(final double longitude,
+			final double latitude) {
+		int first = getFirstShapePoint();
+		int last = getShapePointEnd() - 1;
+
+		// find the closest segment
+		int closest = first;
+		int minDist = Integer.MAX_VALUE;
+		for (int p = first; p < last; p++) {
+			int dist = segmentDistance(p, longitude, latitude);
+			if (dist < minDist) {
+				closest = p;
+				minDist = dist;
+			}
+		}
+
+		// sum up the full segments before and the projected part
+		int length = 0;
+		for (int p = first; p < closest; p++) {
+			length += (int) segmentLength(p);
+		}
+		int dist = (int) segmentLength(closest);
+		length += projectionFactor(closest, longitude, latitude) * dist;
+		return length;
+	}
+
+	/**
+	 * Calculates the distance between a point and its projection onto a
+	 * segment.
+	 * 
+	 * @param p
+	 *            the index of the segment start
+	 * @param longitude
+	 *            the longitude of the point
+	 * @param latitude
+	 *            the latitude of the point
+	 * @return the distance in meter
+	 */
+	private int segmentDistance(final int p, final double longitude,
+			final double latitude) {
+		double lon1 = getShapeLongitude(p);
+		double lat1 = getShapeLatitude(p);
+		double lon2 = getShapeLongitude(p + 1);
+		double lat2 = getShapeLatitude(p + 1);
+		double frac = projectionFactor(p, longitude, latitude);
+		double projLon;
+		double projLat;
+		if (frac <= 0.0) {
+			projLon = lon1;
+			projLat = lat1;
+		} else if (frac >= 1.0) {
+			projLon = lon2;
+			projLat = lat2;
+		} else {
+			projLon = (lon2 - lon1) * frac + lon1;
+			projLat = (lat2 - lat1) * frac + lat1;
+		}
+		return (int) GeometryUtils.distance(longitude, latitude, projLon,
+				projLat);
+	}
+
+	/**
+	 * Calculates the projection factor of a point onto a segment, clamped to
+	 * [0, 1].
+	 * 
+	 * @param p
+	 *            the index of the segment start
+	 * @param longitude
+	 *            the longitude of the point
+	 * @param latitude
+	 *            the latitude of the point
+	 * @return the projection factor
+	 */
+	private double projectionFactor(final int p, final double longitude,
+			final double latitude) {
+		double lon1 = getShapeLongitude(p);
+		double lat1 = getShapeLatitude(p);
+		double dx = getShapeLongitude(p + 1) - lon1;
+		double dy = getShapeLatitude(p + 1) - lat1;
+		double len = dx * dx + dy * dy;
+		double r = ((longitude - lon1) * dx + (latitude - lat1) * dy) / len;
+		if (r < 0.0) {
+			r = 0.0;
+		} else if (r > 1.0) {
+			r = 1.0;
+		}
+		return r;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @deprecated use {@link #getShapeCoordinates()} instead.
+	 */
+	@Override
+	@Deprecated
+	public final Path2D.Double getShape() {
+		Path2D.Double path = new Path2D.Double();
+		int first = getFirstShapePoint();
+		int end = getShapePointEnd();
+		path.moveTo(getShapeLongitude(first), getShapeLatitude(first));
+		for (int p = first + 1; p < end; p++) {
+			path.lineTo(getShapeLongitude(p), getShapeLatitude(p));
+		}
+		return path;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final List<GeoCoordinates> getShapeCoordinates() {
+		int first = getFirstShapePoint();
+		int end = getShapePointEnd();
+		List<GeoCoordinates> shape = new ArrayList<GeoCoordinates>(end - first);
+		for (int p = first; p < end; p++) {
+			shape.add(GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+					getShapeLongitude(p), getShapeLatitude(p)));
+		}
+		return Collections.unmodifiableList(shape);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		} else if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		return getID() == ((Line) other).getID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int hashCode() {
+		long id = getID();
+		return (int) (id ^ (id >>> 32));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String toString() {
+		return String.valueOf(getID());
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map;
+
+import java.nio.IntBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The class IndexedLineIterator iterates over up to two slices of a buffer
+ * of line indices without copying them. Map databases storing their topology
+ * as adjacency arrays use it for the incoming and outgoing lines of nodes and
+ * lines, a subclass resolves a line index into the line object.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public abstract class IndexedLineIterator implements Iterator<Line> {
+
+	/** The first slice. */
+	private final IntBuffer first;
+
+	/** The current position in the first slice. */
+	private int firstPos;
+
+	/** The end of the first slice. */
+	private final int firstEnd;
+
+	/** The second slice, may be null. */
+	private final IntBuffer second;
+
+	/** The current position in the second slice. */
+	private int secondPos;
+
+	/** The end of the second slice. */
+	private final int secondEnd;
+
+	/**
+	 * Creates an iterator over two slices.
+	 * 
+	 * @param a
+	 *            the first buffer
+	 * @param aFrom
+	 *            the first index of the first slice
+	 * @param aTo
+	 *            the end (exclusive) of the first slice
+	 * @param b
+	 *            the second buffer
+	 * @param bFrom
+	 *            the first index of the second slice
+	 * @param bTo
+	 *            the end (exclusive) of the second slice
+	 */
+	protected IndexedLineIterator(final IntBuffer a, final int aFrom,
+			final int aTo, final IntBuffer b, final int bFrom, final int bTo) {
+		first = a;
+		firstPos = aFrom;
+		firstEnd = aTo;
+		second = b;
+		secondPos = bFrom;
+		secondEnd = bTo;
+	}
+
+	/**
+	 * Creates an iterator over one slice.
+	 * 
+	 * @param a
+	 *            the buffer
+	 * @param from
+	 *            the first index of the slice
+	 * @param to
+	 *            the end (exclusive) of the slice
+	 */
+	protected IndexedLineIterator(final IntBuffer a, final int from,
+			final int to) {
+		this(a, from, to, null, 0, 0);
+	}
+
+	/**
+	 * Gets the line at an index.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the line
+	 */
+	protected abstract Line lineAt(int index);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final boolean hasNext() {
+		return firstPos < firstEnd || secondPos < secondEnd;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Line next() {
+		if (firstPos < firstEnd) {
+			return lineAt(first.get(firstPos++));
+		} else if (secondPos < secondEnd) {
+			return lineAt(second.get(secondPos++));
+		}
+		throw new NoSuchElementException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
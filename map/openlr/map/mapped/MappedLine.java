@@ -0,0 +1,186 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import openlr.map.AbstractIndexedLine;
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.map.Line;
+import openlr.map.Node;
+import openlr.map.mapped.MappedMapDatabase.LineIterator;
+
+/**
+ * Implementation of the OpenLR {@link openlr.map.Line} interface backed by the
+ * mapped data of a {@link MappedMapDatabase}. An instance only holds the line
+ * index, the geometry methods of {@link AbstractIndexedLine} work directly on
+ * the mapped shape points.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class MappedLine extends AbstractIndexedLine {
+
+	/** The map holding the line data. */
+	private final MappedMapDatabase map;
+
+	/** The line index. */
+	private final int index;
+
+	/**
+	 * Creates the line at an index.
+	 * 
+	 * @param mdb
+	 *            the map
+	 * @param idx
+	 *            the line index
+	 */
+	MappedLine(final MappedMapDatabase mdb, final int idx) {
+		map = mdb;
+		index = idx;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected int getFirstShapePoint() {
+		return map.shapeOffsets.get(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected int getShapePointEnd() {
+		return map.shapeOffsets.get(index + 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected double getShapeLongitude(final int p) {
+		return map.shapeCoords.get(2 * p);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected double getShapeLatitude(final int p) {
+		return map.shapeCoords.get(2 * p + 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Node getStartNode() {
+		return map.nodeAt(map.lineStart(index));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Node getEndNode() {
+		return map.nodeAt(map.lineEnd(index));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FormOfWay getFOW() {
+		return map.fowAt(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FunctionalRoadClass getFRC() {
+		return map.frcAt(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getLineLength() {
+		return map.lineLength(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getID() {
+		return map.lineId(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getPrevLines() {
+		int node = map.lineStart(index);
+		return new LineIterator(map, map.inLines, map.inOffsets.get(node),
+				map.inOffsets.get(node + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getNextLines() {
+		int node = map.lineEnd(index);
+		return new LineIterator(map, map.outLines, map.outOffsets.get(node),
+				map.outOffsets.get(node + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<Locale, List<String>> getNames() {
+		return map.namesAt(index);
+	}
+}
@@ -0,0 +1,718 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.map.IndexedLineIterator;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.map.spatial.GridIndex;
+import openlr.map.utils.GeometryUtils;
+import openlr.map.utils.MapDatabaseUtils;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Implementation of the OpenLR {@link MapDatabase} interface reading a map
+ * file written by the {@link MappedMapWriter}. The sections of the file are
+ * memory mapped read-only when the map is opened and all requests are
+ * answered directly from the mapped data. Line and node objects only hold
+ * their index and are created on request, so the heap usage is independent
+ * of the map size and opening a map file does not read the network.
+ * <p>
+ * The instance is immutable and can be shared between threads. The mapping
+ * is released when the instance is garbage collected.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class MappedMapDatabase implements MapDatabase {
+
+	/** The logger. */
+	private static final Logger LOG = Logger
+			.getLogger(MappedMapDatabase.class);
+
+	/** The form of way values. */
+	private static final FormOfWay[] FOW_VALUES = FormOfWay.values();
+
+	/** The functional road class values. */
+	private static final FunctionalRoadClass[] FRC_VALUES = FunctionalRoadClass
+			.values();
+
+	/** The number of nodes. */
+	private final int nrNodes;
+
+	/** The number of lines. */
+	private final int nrLines;
+
+	/** The node IDs in ascending order. */
+	private final LongBuffer nodeIds;
+
+	/** The node positions, longitude and latitude per node. */
+	final DoubleBuffer nodeCoords;
+
+	/** The offsets of each node into {@link #outLines}. */
+	final IntBuffer outOffsets;
+
+	/** The indices of the outgoing lines grouped by start node. */
+	final IntBuffer outLines;
+
+	/** The offsets of each node into {@link #inLines}. */
+	final IntBuffer inOffsets;
+
+	/** The indices of the incoming lines grouped by end node. */
+	final IntBuffer inLines;
+
+	/** The line IDs in ascending order. */
+	private final LongBuffer lineIds;
+
+	/** The line records. */
+	private final ByteBuffer lineRecords;
+
+	/** The offsets of each line into the shape points. */
+	final IntBuffer shapeOffsets;
+
+	/** The shape points, longitude and latitude per point. */
+	final DoubleBuffer shapeCoords;
+
+	/** The offsets of each line into the name data. */
+	private final IntBuffer nameOffsets;
+
+	/** The encoded line names. */
+	private final ByteBuffer nameData;
+
+	/** The restricted turns in ascending order. */
+	private final LongBuffer turnRestrictions;
+
+	/** The grid over the node positions. */
+	private final GridIndex nodeGrid;
+
+	/** The grid over the line bounding boxes. */
+	private final GridIndex lineGrid;
+
+	/** Whether the map holds turn restrictions. */
+	private final boolean hasTurnRestrictions;
+
+	/** The map bounding box. */
+	private final Rectangle2D.Double boundingBox;
+
+	/** The name of the source map. */
+	private final String name;
+
+	/**
+	 * Opens a map file and maps its sections into memory.
+	 * 
+	 * @param file
+	 *            the map file
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid map file
+	 */
+	public MappedMapDatabase(final File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() < MappedMapFormat.HEADER_SIZE) {
+				throw new IOException("Invalid map file " + file
+						+ ": file too short");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					MappedMapFormat.HEADER_SIZE);
+			if (header.getInt() != MappedMapFormat.MAGIC) {
+				throw new IOException("Invalid map file " + file
+						+ ": unknown file type");
+			}
+			int version = header.getInt();
+			if (version != MappedMapFormat.VERSION) {
+				throw new IOException("Invalid map file " + file
+						+ ": unsupported version " + version);
+			}
+			nrNodes = header.getInt();
+			nrLines = header.getInt();
+			int flags = header.getInt();
+			hasTurnRestrictions = (flags & MappedMapFormat.FLAG_TURN_RESTRICTIONS) != 0;
+			boundingBox = new Rectangle2D.Double(header.getDouble(),
+					header.getDouble(), header.getDouble(), header.getDouble());
+			if (header.getInt() != MappedMapFormat.NR_SECTIONS) {
+				throw new IOException("Invalid map file " + file
+						+ ": wrong number of sections");
+			}
+			ByteBuffer[] sections = new ByteBuffer[MappedMapFormat.NR_SECTIONS];
+			for (int i = 0; i < MappedMapFormat.NR_SECTIONS; i++) {
+				long offset = header.getLong();
+				long length = header.getLong();
+				if (offset < MappedMapFormat.HEADER_SIZE || length < 0
+						|| length > Integer.MAX_VALUE
+						|| offset + length > channel.size()) {
+					throw new IOException("Invalid map file " + file
+							+ ": corrupt section " + i);
+				}
+				sections[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						offset, length);
+			}
+
+			byte[] nameBytes = new byte[sections[MappedMapFormat.SECTION_NAME]
+					.remaining()];
+			sections[MappedMapFormat.SECTION_NAME].get(nameBytes);
+			name = new String(nameBytes, "UTF-8");
+			nodeIds = sections[MappedMapFormat.SECTION_NODE_IDS]
+					.asLongBuffer();
+			nodeCoords = sections[MappedMapFormat.SECTION_NODE_COORDS]
+					.asDoubleBuffer();
+			outOffsets = sections[MappedMapFormat.SECTION_OUT_OFFSETS]
+					.asIntBuffer();
+			outLines = sections[MappedMapFormat.SECTION_OUT_LINES]
+					.asIntBuffer();
+			inOffsets = sections[MappedMapFormat.SECTION_IN_OFFSETS]
+					.asIntBuffer();
+			inLines = sections[MappedMapFormat.SECTION_IN_LINES].asIntBuffer();
+			lineIds = sections[MappedMapFormat.SECTION_LINE_IDS]
+					.asLongBuffer();
+			lineRecords = sections[MappedMapFormat.SECTION_LINE_RECORDS];
+			shapeOffsets = sections[MappedMapFormat.SECTION_SHAPE_OFFSETS]
+					.asIntBuffer();
+			shapeCoords = sections[MappedMapFormat.SECTION_SHAPE_COORDS]
+					.asDoubleBuffer();
+			nameOffsets = sections[MappedMapFormat.SECTION_NAME_OFFSETS]
+					.asIntBuffer();
+			nameData = sections[MappedMapFormat.SECTION_NAME_DATA];
+			turnRestrictions = sections[MappedMapFormat.SECTION_TURN_RESTRICTIONS]
+					.asLongBuffer();
+			try {
+				nodeGrid = GridIndex
+						.read(sections[MappedMapFormat.SECTION_NODE_GRID]);
+				lineGrid = GridIndex
+						.read(sections[MappedMapFormat.SECTION_LINE_GRID]);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid map file " + file + ": "
+						+ e.getMessage());
+			}
+			if (nodeIds.limit() != nrNodes || lineIds.limit() != nrLines
+					|| outOffsets.limit() != nrNodes + 1
+					|| inOffsets.limit() != nrNodes + 1
+					|| shapeOffsets.limit() != nrLines + 1
+					|| nameOffsets.limit() != nrLines + 1
+					|| lineRecords.limit() != nrLines
+							* MappedMapFormat.LINE_RECORD_SIZE) {
+				throw new IOException("Invalid map file " + file
+						+ ": section sizes do not match the header");
+			}
+		} finally {
+			raf.close();
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("map file " + file + " mapped: " + nrNodes + " nodes, "
+					+ nrLines + " lines");
+		}
+	}
+
+	/**
+	 * Gets the index of an ID in a sorted ID buffer.
+	 * 
+	 * @param ids
+	 *            the IDs in ascending order
+	 * @param id
+	 *            the ID to search for
+	 * @return the index, or -1 if the ID is not found
+	 */
+	private static int indexOf(final LongBuffer ids, final long id) {
+		int low = 0;
+		int high = ids.limit() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midId = ids.get(mid);
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the ID of a node.
+	 * 
+	 * @param index
+	 *            the node index
+	 * @return the node ID
+	 */
+	long nodeId(final int index) {
+		return nodeIds.get(index);
+	}
+
+	/**
+	 * Gets the ID of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the line ID
+	 */
+	long lineId(final int index) {
+		return lineIds.get(index);
+	}
+
+	/**
+	 * Gets the start node index of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the start node index
+	 */
+	int lineStart(final int index) {
+		return lineRecords.getInt(index * MappedMapFormat.LINE_RECORD_SIZE
+				+ MappedMapFormat.LINE_START);
+	}
+
+	/**
+	 * Gets the end node index of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the end node index
+	 */
+	int lineEnd(final int index) {
+		return lineRecords.getInt(index * MappedMapFormat.LINE_RECORD_SIZE
+				+ MappedMapFormat.LINE_END);
+	}
+
+	/**
+	 * Gets the length of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the length in meter
+	 */
+	int lineLength(final int index) {
+		return lineRecords.getInt(index * MappedMapFormat.LINE_RECORD_SIZE
+				+ MappedMapFormat.LINE_LENGTH);
+	}
+
+	/**
+	 * Gets the form of way of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the form of way
+	 */
+	FormOfWay fowAt(final int index) {
+		return FOW_VALUES[lineRecords.get(index
+				* MappedMapFormat.LINE_RECORD_SIZE + MappedMapFormat.LINE_FOW)];
+	}
+
+	/**
+	 * Gets the functional road class of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the functional road class
+	 */
+	FunctionalRoadClass frcAt(final int index) {
+		return FRC_VALUES[lineRecords.get(index
+				* MappedMapFormat.LINE_RECORD_SIZE + MappedMapFormat.LINE_FRC)];
+	}
+
+	/**
+	 * Decodes the names of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the names, an empty map if the line has no name
+	 */
+	Map<Locale, List<String>> namesAt(final int index) {
+		int start = nameOffsets.get(index);
+		int end = nameOffsets.get(index + 1);
+		if (start == end) {
+			return Collections.emptyMap();
+		}
+		byte[] data = new byte[end - start];
+		ByteBuffer view = nameData.duplicate();
+		view.position(start);
+		view.get(data);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				data));
+		try {
+			int nrLocales = in.readInt();
+			Map<Locale, List<String>> names = new HashMap<Locale, List<String>>();
+			for (int i = 0; i < nrLocales; i++) {
+				Locale locale = parseLocale(in.readUTF());
+				int nrNames = in.readInt();
+				List<String> values = new ArrayList<String>(nrNames);
+				for (int j = 0; j < nrNames; j++) {
+					values.add(in.readUTF());
+				}
+				names.put(locale, Collections.unmodifiableList(values));
+			}
+			return Collections.unmodifiableMap(names);
+		} catch (IOException e) {
+			throw new IllegalStateException("Corrupt names of line "
+					+ lineId(index), e);
+		}
+	}
+
+	/**
+	 * Parses a locale written by {@link Locale#toString()}.
+	 * 
+	 * @param value
+	 *            the locale string
+	 * @return the locale
+	 */
+	private static Locale parseLocale(final String value) {
+		String[] parts = value.split("_", -1);
+		if (parts.length == 1) {
+			return new Locale(parts[0]);
+		} else if (parts.length == 2) {
+			return new Locale(parts[0], parts[1]);
+		}
+		return new Locale(parts[0], parts[1], value.substring(parts[0]
+				.length() + parts[1].length() + 2));
+	}
+
+	/**
+	 * Gets the line object at an index.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the line
+	 */
+	MappedLine lineAt(final int index) {
+		return new MappedLine(this, index);
+	}
+
+	/**
+	 * Gets the node object at an index.
+	 * 
+	 * @param index
+	 *            the node index
+	 * @return the node
+	 */
+	MappedNode nodeAt(final int index) {
+		return new MappedNode(this, index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasTurnRestrictions() {
+		return hasTurnRestrictions;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Line getLine(final long id) {
+		int idx = indexOf(lineIds, id);
+		if (idx < 0) {
+			return null;
+		}
+		return new MappedLine(this, idx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Node getNode(final long id) {
+		int idx = indexOf(nodeIds, id);
+		if (idx < 0) {
+			return null;
+		}
+		return new MappedNode(this, idx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> findNodesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		final List<Node> result = new ArrayList<Node>();
+		double dLat = MapDatabaseUtils.latitudeDelta(distance);
+		double dLon = MapDatabaseUtils.longitudeDelta(distance, latitude);
+		nodeGrid.query(longitude - dLon, latitude - dLat, longitude + dLon,
+				latitude + dLat, new GridIndex.Visitor() {
+					@Override
+					public void visit(final int index) {
+						if (GeometryUtils.distance(longitude, latitude,
+								nodeCoords.get(2 * index),
+								nodeCoords.get(2 * index + 1)) <= distance) {
+							result.add(new MappedNode(
+									MappedMapDatabase.this, index));
+						}
+					}
+				});
+		return result.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> findLinesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		final List<Line> result = new ArrayList<Line>();
+		double dLat = MapDatabaseUtils.latitudeDelta(distance);
+		double dLon = MapDatabaseUtils.longitudeDelta(distance, latitude);
+		lineGrid.query(longitude - dLon, latitude - dLat, longitude + dLon,
+				latitude + dLat, new GridIndex.Visitor() {
+					@Override
+					public void visit(final int index) {
+						MappedLine line = new MappedLine(
+								MappedMapDatabase.this, index);
+						if (line.distanceToPoint(longitude, latitude) <= distance) {
+							result.add(line);
+						}
+					}
+				});
+		return result.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The map file stores restricted turns between two consecutive lines, so
+	 * every pair of consecutive lines of the path is checked.
+	 */
+	@Override
+	public boolean hasTurnRestrictionOnPath(final List<? extends Line> path) {
+		if (!hasTurnRestrictions || path == null) {
+			return false;
+		}
+		int previous = -1;
+		for (Line l : path) {
+			int current = indexOf(lineIds, l.getID());
+			if (previous >= 0 && current >= 0
+					&& isRestrictedTurn(previous, current)) {
+				return true;
+			}
+			previous = current;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the turn from one line into another is restricted.
+	 * 
+	 * @param from
+	 *            the index of the incoming line
+	 * @param to
+	 *            the index of the outgoing line
+	 * @return true, if the turn is restricted
+	 */
+	private boolean isRestrictedTurn(final int from, final int to) {
+		return indexOf(turnRestrictions, ((long) from << Integer.SIZE) | to) >= 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> getAllNodes() {
+		return new Iterator<Node>() {
+
+			/** The next node index. */
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < nrNodes;
+			}
+
+			@Override
+			public Node next() {
+				if (next >= nrNodes) {
+					throw new NoSuchElementException();
+				}
+				return new MappedNode(MappedMapDatabase.this, next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getAllLines() {
+		return new Iterator<Line>() {
+
+			/** The next line index. */
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < nrLines;
+			}
+
+			@Override
+			public Line next() {
+				if (next >= nrLines) {
+					throw new NoSuchElementException();
+				}
+				return new MappedLine(MappedMapDatabase.this, next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Rectangle2D.Double getMapBoundingBox() {
+		return (Rectangle2D.Double) boundingBox.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfNodes() {
+		return nrNodes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfLines() {
+		return nrLines;
+	}
+
+	/**
+	 * Returns the name of the source map.
+	 * 
+	 * @return the map name
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Iterates over up to two slices of a line index buffer of the map.
+	 */
+	static final class LineIterator extends IndexedLineIterator {
+
+		/** The map. */
+		private final MappedMapDatabase map;
+
+		/**
+		 * Creates an iterator over two slices.
+		 * 
+		 * @param mdb
+		 *            the map
+		 * @param a
+		 *            the first buffer
+		 * @param aFrom
+		 *            the first index of the first slice
+		 * @param aTo
+		 *            the end (exclusive) of the first slice
+		 * @param b
+		 *            the second buffer
+		 * @param bFrom
+		 *            the first index of the second slice
+		 * @param bTo
+		 *            the end (exclusive) of the second slice
+		 */
+		LineIterator(final MappedMapDatabase mdb, final IntBuffer a,
+				final int aFrom, final int aTo, final IntBuffer b,
+				final int bFrom, final int bTo) {
+			super(a, aFrom, aTo, b, bFrom, bTo);
+			map = mdb;
+		}
+
+		/**
+		 * Creates an iterator over one slice.
+		 * 
+		 * @param mdb
+		 *            the map
+		 * @param a
+		 *            the buffer
+		 * @param from
+		 *            the first index of the slice
+		 * @param to
+		 *            the end (exclusive) of the slice
+		 */
+		LineIterator(final MappedMapDatabase mdb, final IntBuffer a,
+				final int from, final int to) {
+			super(a, from, to);
+			map = mdb;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Line lineAt(final int index) {
+			return map.lineAt(index);
+		}
+	}
+}
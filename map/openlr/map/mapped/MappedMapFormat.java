@@ -0,0 +1,157 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+/**
+ * The constants of the binary map file format. All values are stored in big
+ * endian byte order.
+ * <p>
+ * A map file starts with a fixed size header:
+ * <ul>
+ * <li>magic number (int) and format version (int)</li>
+ * <li>number of nodes (int) and number of lines (int)</li>
+ * <li>flags (int), see {@link #FLAG_TURN_RESTRICTIONS}</li>
+ * <li>map bounding box as x, y, width and height (4 doubles)</li>
+ * <li>number of sections (int) followed by the offset (long) and length
+ * (long) of each section</li>
+ * </ul>
+ * The sections follow the header, each section starts at a multiple of
+ * {@link #SECTION_ALIGNMENT}. Nodes and lines are numbered by their index in
+ * the ID sections, which are sorted by ascending ID. A single section must not
+ * be larger than 2 GB.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class MappedMapFormat {
+
+	/** The magic number identifying a map file ("OLRM"). */
+	static final int MAGIC = 0x4F4C524D;
+
+	/** The current format version. */
+	static final int VERSION = 1;
+
+	/** Flag indicating that the map holds turn restrictions. */
+	static final int FLAG_TURN_RESTRICTIONS = 1;
+
+	/** The map name, UTF-8 encoded. */
+	static final int SECTION_NAME = 0;
+
+	/** The node IDs in ascending order (long per node). */
+	static final int SECTION_NODE_IDS = 1;
+
+	/** The node positions (longitude and latitude double per node). */
+	static final int SECTION_NODE_COORDS = 2;
+
+	/** The offsets into the outgoing lines (int per node + 1). */
+	static final int SECTION_OUT_OFFSETS = 3;
+
+	/** The outgoing line indices grouped by start node (int per line). */
+	static final int SECTION_OUT_LINES = 4;
+
+	/** The offsets into the incoming lines (int per node + 1). */
+	static final int SECTION_IN_OFFSETS = 5;
+
+	/** The incoming line indices grouped by end node (int per line). */
+	static final int SECTION_IN_LINES = 6;
+
+	/** The line IDs in ascending order (long per line). */
+	static final int SECTION_LINE_IDS = 7;
+
+	/** The line attributes ({@link #LINE_RECORD_SIZE} bytes per line). */
+	static final int SECTION_LINE_RECORDS = 8;
+
+	/** The offsets into the shape points (int per line + 1). */
+	static final int SECTION_SHAPE_OFFSETS = 9;
+
+	/** The shape points (longitude and latitude double per point). */
+	static final int SECTION_SHAPE_COORDS = 10;
+
+	/** The offsets into the name data (int per line + 1). */
+	static final int SECTION_NAME_OFFSETS = 11;
+
+	/** The encoded line names. */
+	static final int SECTION_NAME_DATA = 12;
+
+	/**
+	 * The restricted turns in ascending order, a turn is encoded as
+	 * (incoming line index << 32 | outgoing line index) (long per turn).
+	 */
+	static final int SECTION_TURN_RESTRICTIONS = 13;
+
+	/** The grid over the node positions. */
+	static final int SECTION_NODE_GRID = 14;
+
+	/** The grid over the line bounding boxes. */
+	static final int SECTION_LINE_GRID = 15;
+
+	/** The number of sections. */
+	static final int NR_SECTIONS = 16;
+
+	/** The size of the header in bytes. */
+	static final int HEADER_SIZE = 5 * 4 + 4 * 8 + 4 + NR_SECTIONS * 2 * 8;
+
+	/** The alignment of the sections in bytes. */
+	static final int SECTION_ALIGNMENT = 8;
+
+	/**
+	 * The size of a line record: start node index (int), end node index
+	 * (int), length (int), functional road class (byte), form of way (byte)
+	 * and two bytes padding.
+	 */
+	static final int LINE_RECORD_SIZE = 16;
+
+	/** The position of the start node index in a line record. */
+	static final int LINE_START = 0;
+
+	/** The position of the end node index in a line record. */
+	static final int LINE_END = 4;
+
+	/** The position of the length in a line record. */
+	static final int LINE_LENGTH = 8;
+
+	/** The position of the functional road class in a line record. */
+	static final int LINE_FRC = 12;
+
+	/** The position of the form of way in a line record. */
+	static final int LINE_FOW = 13;
+
+	/**
+	 * Utility class cannot be instantiated.
+	 */
+	private MappedMapFormat() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import openlr.map.MapDatabase;
+import openlr.map.loader.MapLoadParameter;
+import openlr.map.loader.OpenLRMapLoader;
+import openlr.map.loader.OpenLRMapLoaderException;
+
+/**
+ * The class MappedMapLoader implements an OpenLR map loader. It opens a binary
+ * map file written by the {@link MappedMapWriter} through memory mapping.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class MappedMapLoader implements OpenLRMapLoader {
+
+	/** The map descriptor. */
+	private String mapDescriptor;
+
+	/** The parameters of this loader. */
+	private static final Collection<MapLoadParameter> PARAMS = new ArrayList<MapLoadParameter>();
+
+	static {
+		PARAMS.add(new MapFileParameter());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final MapDatabase load(final Collection<MapLoadParameter> params)
+			throws OpenLRMapLoaderException {
+		if (params.isEmpty()) {
+			throw new OpenLRMapLoaderException("No parameter found");
+		}
+		String fName = extractFileName(params);
+		MapDatabase map = null;
+		try {
+			map = new MappedMapDatabase(new File(fName));
+		} catch (IOException e) {
+			throw new OpenLRMapLoaderException("Cannot load map file", e);
+		}
+		mapDescriptor = fName;
+		return map;
+	}
+
+	/**
+	 * Extract the map file name from the parameter list.
+	 * 
+	 * @param params
+	 *            the parameter list
+	 * @return the map file name
+	 * @throws OpenLRMapLoaderException
+	 *             if no map file is given
+	 */
+	private String extractFileName(final Collection<MapLoadParameter> params)
+			throws OpenLRMapLoaderException {
+		String fName = null;
+		for (MapLoadParameter param : params) {
+			if (param.getIdentifier() == MapFileParameter.IDENTIFIER) {
+				fName = param.getValue();
+			}
+		}
+		if (fName == null) {
+			throw new OpenLRMapLoaderException(
+					"Incorrect parameter (map file name)");
+		}
+		return fName;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Collection<MapLoadParameter> getParameter() {
+		return PARAMS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int getNumberOfParams() {
+		return 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getDescription() {
+		return "Loader of memory mapped binary map files";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getName() {
+		return "Mapped Map Loader";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final String getMapDescriptor() {
+		return mapDescriptor;
+	}
+}
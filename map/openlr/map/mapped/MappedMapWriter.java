@@ -0,0 +1,763 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import openlr.map.GeoCoordinates;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.map.spatial.GridIndex;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The MappedMapWriter writes the network of a map database into a binary map
+ * file which can be opened by a {@link MappedMapDatabase}. The layout of the
+ * file is described in {@link MappedMapFormat}.
+ * <p>
+ * Lines without shape points are stored with the positions of their start and
+ * end node as shape. The turn restrictions of the source map are stored as
+ * restricted pairs of consecutive lines; restrictions spanning more than two
+ * lines cannot be read through the map database interface and are not
+ * stored.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class MappedMapWriter {
+
+	/** The logger. */
+	private static final Logger LOG = Logger.getLogger(MappedMapWriter.class);
+
+	/** The buffer size of the file output. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Orders nodes by ascending ID. */
+	private static final Comparator<Node> NODE_ORDER = new Comparator<Node>() {
+		@Override
+		public int compare(final Node n1, final Node n2) {
+			return compareIds(n1.getID(), n2.getID());
+		}
+	};
+
+	/** Orders lines by ascending ID. */
+	private static final Comparator<Line> LINE_ORDER = new Comparator<Line>() {
+		@Override
+		public int compare(final Line l1, final Line l2) {
+			return compareIds(l1.getID(), l2.getID());
+		}
+	};
+
+	/**
+	 * Utility class cannot be instantiated.
+	 */
+	private MappedMapWriter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Writes the complete network of a map database into a map file. An
+	 * existing file will be overwritten.
+	 * 
+	 * @param map
+	 *            the map database
+	 * @param file
+	 *            the target file
+	 * @throws IOException
+	 *             if writing the file fails
+	 */
+	public static void write(final MapDatabase map, final File file)
+			throws IOException {
+		if (map == null || file == null) {
+			throw new IllegalArgumentException(
+					"Map and file must not be null.");
+		}
+		List<Node> nodes = collect(map.getAllNodes());
+		List<Line> lines = collect(map.getAllLines());
+		Collections.sort(nodes, NODE_ORDER);
+		Collections.sort(lines, LINE_ORDER);
+		int nrNodes = nodes.size();
+		int nrLines = lines.size();
+
+		long[] nodeIds = new long[nrNodes];
+		double[] nodeLon = new double[nrNodes];
+		double[] nodeLat = new double[nrNodes];
+		for (int i = 0; i < nrNodes; i++) {
+			Node n = nodes.get(i);
+			nodeIds[i] = n.getID();
+			nodeLon[i] = n.getLongitudeDeg();
+			nodeLat[i] = n.getLatitudeDeg();
+		}
+		long[] lineIds = new long[nrLines];
+		int[] lineStart = new int[nrLines];
+		int[] lineEnd = new int[nrLines];
+		for (int i = 0; i < nrLines; i++) {
+			Line l = lines.get(i);
+			lineIds[i] = l.getID();
+			lineStart[i] = requireNode(nodeIds, l.getStartNode().getID());
+			lineEnd[i] = requireNode(nodeIds, l.getEndNode().getID());
+		}
+
+		double[] minLon = new double[nrLines];
+		double[] minLat = new double[nrLines];
+		double[] maxLon = new double[nrLines];
+		double[] maxLat = new double[nrLines];
+		long[] offsets = new long[MappedMapFormat.NR_SECTIONS];
+		long[] lengths = new long[MappedMapFormat.NR_SECTIONS];
+		CountingOutputStream counter = new CountingOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file),
+						BUFFER_SIZE));
+		DataOutputStream out = new DataOutputStream(counter);
+		try {
+			out.write(new byte[MappedMapFormat.HEADER_SIZE]);
+
+			beginSection(out, counter, offsets, MappedMapFormat.SECTION_NAME);
+			out.write(String.valueOf(map).getBytes("UTF-8"));
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_NAME);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_NODE_IDS);
+			for (long id : nodeIds) {
+				out.writeLong(id);
+			}
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_NODE_IDS);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_NODE_COORDS);
+			for (int i = 0; i < nrNodes; i++) {
+				out.writeDouble(nodeLon[i]);
+				out.writeDouble(nodeLat[i]);
+			}
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_NODE_COORDS);
+
+			writeAdjacency(out, counter, offsets, lengths, lineStart,
+					nrNodes, MappedMapFormat.SECTION_OUT_OFFSETS,
+					MappedMapFormat.SECTION_OUT_LINES);
+			writeAdjacency(out, counter, offsets, lengths, lineEnd, nrNodes,
+					MappedMapFormat.SECTION_IN_OFFSETS,
+					MappedMapFormat.SECTION_IN_LINES);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_LINE_IDS);
+			for (long id : lineIds) {
+				out.writeLong(id);
+			}
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_LINE_IDS);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_LINE_RECORDS);
+			for (int i = 0; i < nrLines; i++) {
+				Line l = lines.get(i);
+				out.writeInt(lineStart[i]);
+				out.writeInt(lineEnd[i]);
+				out.writeInt(l.getLineLength());
+				out.writeByte(l.getFRC().ordinal());
+				out.writeByte(l.getFOW().ordinal());
+				out.writeShort(0);
+			}
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_LINE_RECORDS);
+
+			writeShapes(out, counter, offsets, lengths, lines, nodeLon,
+					nodeLat, lineStart, lineEnd, minLon, minLat, maxLon,
+					maxLat);
+			writeNames(out, counter, offsets, lengths, lines);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_TURN_RESTRICTIONS);
+			if (map.hasTurnRestrictions()) {
+				for (long turn : findRestrictedTurns(map, lines, lineIds)) {
+					out.writeLong(turn);
+				}
+			}
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_TURN_RESTRICTIONS);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_NODE_GRID);
+			new GridIndex(nodeLon, nodeLat, nodeLon, nodeLat).write(out);
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_NODE_GRID);
+
+			beginSection(out, counter, offsets,
+					MappedMapFormat.SECTION_LINE_GRID);
+			new GridIndex(minLon, minLat, maxLon, maxLat).write(out);
+			endSection(counter, offsets, lengths,
+					MappedMapFormat.SECTION_LINE_GRID);
+		} finally {
+			out.close();
+		}
+
+		Rectangle2D.Double bbox = map.getMapBoundingBox();
+		if (bbox == null) {
+			bbox = calculateBoundingBox(nodeLon, nodeLat, minLon, minLat,
+					maxLon, maxLat);
+		}
+		writeHeader(file, map, bbox, nrNodes, nrLines, offsets, lengths);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("map file " + file + " written: " + nrNodes
+					+ " nodes, " + nrLines + " lines, " + counter.getCount()
+					+ " bytes");
+		}
+	}
+
+	/**
+	 * Writes the file header once all sections are written.
+	 * 
+	 * @param file
+	 *            the map file
+	 * @param map
+	 *            the source map
+	 * @param bbox
+	 *            the map bounding box
+	 * @param nrNodes
+	 *            the number of nodes
+	 * @param nrLines
+	 *            the number of lines
+	 * @param offsets
+	 *            the section offsets
+	 * @param lengths
+	 *            the section lengths
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeHeader(final File file, final MapDatabase map,
+			final Rectangle2D.Double bbox, final int nrNodes, final int nrLines, final long[] offsets,
+			final long[] lengths) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				MappedMapFormat.HEADER_SIZE);
+		DataOutputStream header = new DataOutputStream(bytes);
+		header.writeInt(MappedMapFormat.MAGIC);
+		header.writeInt(MappedMapFormat.VERSION);
+		header.writeInt(nrNodes);
+		header.writeInt(nrLines);
+		int flags = 0;
+		if (map.hasTurnRestrictions()) {
+			flags |= MappedMapFormat.FLAG_TURN_RESTRICTIONS;
+		}
+		header.writeInt(flags);
+		header.writeDouble(bbox.x);
+		header.writeDouble(bbox.y);
+		header.writeDouble(bbox.width);
+		header.writeDouble(bbox.height);
+		header.writeInt(MappedMapFormat.NR_SECTIONS);
+		for (int i = 0; i < MappedMapFormat.NR_SECTIONS; i++) {
+			header.writeLong(offsets[i]);
+			header.writeLong(lengths[i]);
+		}
+		header.flush();
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(0);
+			raf.write(bytes.toByteArray());
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Calculates the bounding box of all nodes and lines.
+	 * 
+	 * @param nodeLon
+	 *            the node longitudes
+	 * @param nodeLat
+	 *            the node latitudes
+	 * @param minLon
+	 *            the west border of each line
+	 * @param minLat
+	 *            the south border of each line
+	 * @param maxLon
+	 *            the east border of each line
+	 * @param maxLat
+	 *            the north border of each line
+	 * @return the bounding box
+	 */
+	private static Rectangle2D.Double calculateBoundingBox(
+			final double[] nodeLon, final double[] nodeLat,
+			final double[] minLon, final double[] minLat,
+			final double[] maxLon, final double[] maxLat) {
+		double west = Double.MAX_VALUE;
+		double south = Double.MAX_VALUE;
+		double east = -Double.MAX_VALUE;
+		double north = -Double.MAX_VALUE;
+		for (int i = 0; i < nodeLon.length; i++) {
+			west = Math.min(west, nodeLon[i]);
+			south = Math.min(south, nodeLat[i]);
+			east = Math.max(east, nodeLon[i]);
+			north = Math.max(north, nodeLat[i]);
+		}
+		for (int i = 0; i < minLon.length; i++) {
+			west = Math.min(west, minLon[i]);
+			south = Math.min(south, minLat[i]);
+			east = Math.max(east, maxLon[i]);
+			north = Math.max(north, maxLat[i]);
+		}
+		if (west > east) {
+			return new Rectangle2D.Double();
+		}
+		return new Rectangle2D.Double(west, south, east - west, north - south);
+	}
+
+	/**
+	 * Writes the compressed adjacency of the lines grouped by a node.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param counter
+	 *            the byte counter of the output
+	 * @param offsets
+	 *            the section offsets
+	 * @param lengths
+	 *            the section lengths
+	 * @param lineNode
+	 *            the node index of each line
+	 * @param nrNodes
+	 *            the number of nodes
+	 * @param offsetSection
+	 *            the section receiving the offsets
+	 * @param lineSection
+	 *            the section receiving the line indices
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeAdjacency(final DataOutputStream out,
+			final CountingOutputStream counter, final long[] offsets,
+			final long[] lengths, final int[] lineNode, final int nrNodes,
+			final int offsetSection, final int lineSection)
+			throws IOException {
+		int[] nodeOffsets = new int[nrNodes + 1];
+		for (int node : lineNode) {
+			nodeOffsets[node + 1]++;
+		}
+		for (int i = 1; i < nodeOffsets.length; i++) {
+			nodeOffsets[i] += nodeOffsets[i - 1];
+		}
+		int[] adjacent = new int[lineNode.length];
+		int[] fill = new int[nrNodes];
+		for (int line = 0; line < lineNode.length; line++) {
+			int node = lineNode[line];
+			adjacent[nodeOffsets[node] + fill[node]] = line;
+			fill[node]++;
+		}
+
+		beginSection(out, counter, offsets, offsetSection);
+		for (int offset : nodeOffsets) {
+			out.writeInt(offset);
+		}
+		endSection(counter, offsets, lengths, offsetSection);
+		beginSection(out, counter, offsets, lineSection);
+		for (int line : adjacent) {
+			out.writeInt(line);
+		}
+		endSection(counter, offsets, lengths, lineSection);
+	}
+
+	/**
+	 * Writes the shape offsets and shape points and calculates the bounding
+	 * box of each line.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param counter
+	 *            the byte counter of the output
+	 * @param offsets
+	 *            the section offsets
+	 * @param lengths
+	 *            the section lengths
+	 * @param lines
+	 *            the lines
+	 * @param nodeLon
+	 *            the node longitudes
+	 * @param nodeLat
+	 *            the node latitudes
+	 * @param lineStart
+	 *            the start node index of each line
+	 * @param lineEnd
+	 *            the end node index of each line
+	 * @param minLon
+	 *            receives the west border of each line
+	 * @param minLat
+	 *            receives the south border of each line
+	 * @param maxLon
+	 *            receives the east border of each line
+	 * @param maxLat
+	 *            receives the north border of each line
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeShapes(final DataOutputStream out,
+			final CountingOutputStream counter, final long[] offsets,
+			final long[] lengths, final List<Line> lines,
+			final double[] nodeLon, final double[] nodeLat,
+			final int[] lineStart, final int[] lineEnd,
+			final double[] minLon, final double[] minLat,
+			final double[] maxLon, final double[] maxLat) throws IOException {
+		int nrLines = lines.size();
+		beginSection(out, counter, offsets,
+				MappedMapFormat.SECTION_SHAPE_OFFSETS);
+		int offset = 0;
+		out.writeInt(offset);
+		for (int i = 0; i < nrLines; i++) {
+			List<GeoCoordinates> shape = lines.get(i).getShapeCoordinates();
+			if (shape == null || shape.size() < 2) {
+				offset += 2;
+			} else {
+				offset += shape.size();
+			}
+			out.writeInt(offset);
+		}
+		endSection(counter, offsets, lengths,
+				MappedMapFormat.SECTION_SHAPE_OFFSETS);
+
+		beginSection(out, counter, offsets,
+				MappedMapFormat.SECTION_SHAPE_COORDS);
+		for (int i = 0; i < nrLines; i++) {
+			minLon[i] = Double.MAX_VALUE;
+			minLat[i] = Double.MAX_VALUE;
+			maxLon[i] = -Double.MAX_VALUE;
+			maxLat[i] = -Double.MAX_VALUE;
+			List<GeoCoordinates> shape = lines.get(i).getShapeCoordinates();
+			if (shape == null || shape.size() < 2) {
+				writePoint(out, i, nodeLon[lineStart[i]],
+						nodeLat[lineStart[i]], minLon, minLat, maxLon,
+						maxLat);
+				writePoint(out, i, nodeLon[lineEnd[i]], nodeLat[lineEnd[i]],
+						minLon, minLat, maxLon, maxLat);
+			} else {
+				for (GeoCoordinates c : shape) {
+					writePoint(out, i, c.getLongitudeDeg(),
+							c.getLatitudeDeg(), minLon, minLat, maxLon,
+							maxLat);
+				}
+			}
+		}
+		endSection(counter, offsets, lengths,
+				MappedMapFormat.SECTION_SHAPE_COORDS);
+	}
+
+	/**
+	 * Writes a shape point and extends the bounding box of its line.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param line
+	 *            the line index
+	 * @param lon
+	 *            the longitude
+	 * @param lat
+	 *            the latitude
+	 * @param minLon
+	 *            the west borders
+	 * @param minLat
+	 *            the south borders
+	 * @param maxLon
+	 *            the east borders
+	 * @param maxLat
+	 *            the north borders
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writePoint(final DataOutputStream out,
+			final int line, final double lon, final double lat,
+			final double[] minLon, final double[] minLat,
+			final double[] maxLon, final double[] maxLat) throws IOException {
+		out.writeDouble(lon);
+		out.writeDouble(lat);
+		minLon[line] = Math.min(minLon[line], lon);
+		minLat[line] = Math.min(minLat[line], lat);
+		maxLon[line] = Math.max(maxLon[line], lon);
+		maxLat[line] = Math.max(maxLat[line], lat);
+	}
+
+	/**
+	 * Writes the name offsets and the encoded line names. The names of a line
+	 * are encoded as the number of locales (int) followed by the locale
+	 * (UTF), the number of names (int) and the names (UTF) of each locale.
+	 * Lines without names have no data.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param counter
+	 *            the byte counter of the output
+	 * @param offsets
+	 *            the section offsets
+	 * @param lengths
+	 *            the section lengths
+	 * @param lines
+	 *            the lines
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeNames(final DataOutputStream out,
+			final CountingOutputStream counter, final long[] offsets,
+			final long[] lengths, final List<Line> lines) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		DataOutputStream names = new DataOutputStream(data);
+		beginSection(out, counter, offsets,
+				MappedMapFormat.SECTION_NAME_OFFSETS);
+		out.writeInt(0);
+		for (Line l : lines) {
+			Map<Locale, List<String>> lineNames = l.getNames();
+			if (lineNames != null && !lineNames.isEmpty()) {
+				names.writeInt(lineNames.size());
+				for (Map.Entry<Locale, List<String>> entry : lineNames
+						.entrySet()) {
+					names.writeUTF(entry.getKey().toString());
+					List<String> values = entry.getValue();
+					names.writeInt(values.size());
+					for (String name : values) {
+						names.writeUTF(name);
+					}
+				}
+			}
+			out.writeInt(names.size());
+		}
+		endSection(counter, offsets, lengths,
+				MappedMapFormat.SECTION_NAME_OFFSETS);
+		beginSection(out, counter, offsets, MappedMapFormat.SECTION_NAME_DATA);
+		names.flush();
+		data.writeTo(out);
+		endSection(counter, offsets, lengths,
+				MappedMapFormat.SECTION_NAME_DATA);
+	}
+
+	/**
+	 * Finds all restricted turns between two consecutive lines.
+	 * 
+	 * @param map
+	 *            the map database
+	 * @param lines
+	 *            the lines in ascending ID order
+	 * @param lineIds
+	 *            the line IDs in ascending order
+	 * @return the encoded turns in ascending order
+	 */
+	private static long[] findRestrictedTurns(final MapDatabase map,
+			final List<Line> lines, final long[] lineIds) {
+		List<Long> turns = new ArrayList<Long>();
+		for (int i = 0; i < lines.size(); i++) {
+			Line l = lines.get(i);
+			Iterator<Line> next = l.getNextLines();
+			while (next.hasNext()) {
+				Line n = next.next();
+				if (map.hasTurnRestrictionOnPath(Arrays.asList(l, n))) {
+					int j = Arrays.binarySearch(lineIds, n.getID());
+					if (j >= 0) {
+						turns.add(((long) i << Integer.SIZE) | j);
+					}
+				}
+			}
+		}
+		long[] result = new long[turns.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = turns.get(i);
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Pads the output to the section alignment and records the section
+	 * offset.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param counter
+	 *            the byte counter of the output
+	 * @param offsets
+	 *            the section offsets
+	 * @param section
+	 *            the section
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void beginSection(final DataOutputStream out,
+			final CountingOutputStream counter, final long[] offsets,
+			final int section) throws IOException {
+		while (counter.getCount() % MappedMapFormat.SECTION_ALIGNMENT != 0) {
+			out.writeByte(0);
+		}
+		offsets[section] = counter.getCount();
+	}
+
+	/**
+	 * Records the length of a section.
+	 * 
+	 * @param counter
+	 *            the byte counter of the output
+	 * @param offsets
+	 *            the section offsets
+	 * @param lengths
+	 *            the section lengths
+	 * @param section
+	 *            the section
+	 * @throws IOException
+	 *             if the section is too large
+	 */
+	private static void endSection(final CountingOutputStream counter,
+			final long[] offsets, final long[] lengths, final int section)
+			throws IOException {
+		lengths[section] = counter.getCount() - offsets[section];
+		if (lengths[section] > Integer.MAX_VALUE) {
+			throw new IOException("Map section " + section
+					+ " exceeds the maximum size of 2 GB");
+		}
+	}
+
+	/**
+	 * Gets the index of a node which must exist.
+	 * 
+	 * @param nodeIds
+	 *            the sorted node IDs
+	 * @param id
+	 *            the node ID
+	 * @return the node index
+	 */
+	private static int requireNode(final long[] nodeIds, final long id) {
+		int idx = Arrays.binarySearch(nodeIds, id);
+		if (idx < 0) {
+			throw new IllegalArgumentException("Line references unknown node "
+					+ id);
+		}
+		return idx;
+	}
+
+	/**
+	 * Compares two IDs.
+	 * 
+	 * @param id1
+	 *            the first ID
+	 * @param id2
+	 *            the second ID
+	 * @return the comparison result
+	 */
+	private static int compareIds(final long id1, final long id2) {
+		if (id1 < id2) {
+			return -1;
+		} else if (id1 > id2) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Copies the elements of an iterator into a list.
+	 * 
+	 * @param <E>
+	 *            the element type
+	 * @param iter
+	 *            the iterator
+	 * @return the list
+	 */
+	private static <E> List<E> collect(final Iterator<E> iter) {
+		List<E> list = new ArrayList<E>();
+		while (iter.hasNext()) {
+			list.add(iter.next());
+		}
+		return list;
+	}
+
+	/**
+	 * An output stream counting the bytes written.
+	 */
+	private static final class CountingOutputStream extends
+			FilterOutputStream {
+
+		/** The number of bytes written. */
+		private long count;
+
+		/**
+		 * Creates a counting stream.
+		 * 
+		 * @param out
+		 *            the underlying stream
+		 */
+		CountingOutputStream(final OutputStream out) {
+			super(out);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void write(final int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void write(final byte[] b, final int off, final int len)
+				throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		/**
+		 * Gets the number of bytes written.
+		 * 
+		 * @return the byte count
+		 */
+		long getCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.mapped;
+
+import java.util.Iterator;
+
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+import openlr.map.Line;
+import openlr.map.Node;
+
+/**
+ * Implementation of the OpenLR {@link openlr.map.Node} interface backed by the
+ * mapped data of a {@link MappedMapDatabase}. An instance only holds the node
+ * index.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class MappedNode implements Node {
+
+	/** The map holding the node data. */
+	private final MappedMapDatabase map;
+
+	/** The node index. */
+	private final int index;
+
+	/**
+	 * Creates the node at an index.
+	 * 
+	 * @param mdb
+	 *            the map
+	 * @param idx
+	 *            the node index
+	 */
+	MappedNode(final MappedMapDatabase mdb, final int idx) {
+		map = mdb;
+		index = idx;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLatitudeDeg() {
+		return map.nodeCoords.get(2 * index + 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLongitudeDeg() {
+		return map.nodeCoords.get(2 * index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public GeoCoordinates getGeoCoordinates() {
+		return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+				map.nodeCoords.get(2 * index),
+				map.nodeCoords.get(2 * index + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getConnectedLines() {
+		return new MappedMapDatabase.LineIterator(map, map.inLines,
+				map.inOffsets.get(index), map.inOffsets.get(index + 1),
+				map.outLines, map.outOffsets.get(index),
+				map.outOffsets.get(index + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberConnectedLines() {
+		return map.inOffsets.get(index + 1) - map.inOffsets.get(index)
+				+ map.outOffsets.get(index + 1) - map.outOffsets.get(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getOutgoingLines() {
+		return new MappedMapDatabase.LineIterator(map, map.outLines,
+				map.outOffsets.get(index), map.outOffsets.get(index + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getIncomingLines() {
+		return new MappedMapDatabase.LineIterator(map, map.inLines,
+				map.inOffsets.get(index), map.inOffsets.get(index + 1));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getID() {
+		return map.nodeId(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		} else if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		return getID() == ((Node) other).getID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		long id = getID();
+		return (int) (id ^ (id >>> 32));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.valueOf(getID());
+	}
+}
@@ -0,0 +1,832 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.memory;
+
+import java.awt.geom.Rectangle2D;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import openlr.map.FormOfWay;
+import openlr.map.FunctionalRoadClass;
+import openlr.map.GeoCoordinates;
+import openlr.map.IndexedLineIterator;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.map.spatial.SpatialIndex;
+import openlr.map.utils.MapDatabaseUtils;
+
+/**
+ * Implementation of the OpenLR {@link openlr.map.MapDatabase} interface which
+ * holds the complete road network in memory. The network is copied once from
+ * another map database using {@link MapDatabase#getAllNodes()} and
+ * {@link MapDatabase#getAllLines()}, or it is filled directly using a
+ * {@link Builder}.
+ * <p>
+ * Nodes and lines are identified by an index into primitive arrays sorted by
+ * ID. The topology is stored as compressed adjacency arrays (incoming and
+ * outgoing lines per node) and the line geometries are packed into one
+ * coordinate array. One {@link Line} and one {@link Node} object per feature
+ * is created at load time, so {@link #getLine(long)}, {@link #getNode(long)}
+ * and the network traversal do not create any feature objects. Close-by
+ * lookups are answered from a {@link SpatialIndex}.
+ * <p>
+ * The instance is immutable after construction and can be shared between
+ * threads. Turn restriction queries are delegated to the source map if it
+ * holds turn restrictions.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class CompactMapDatabase implements MapDatabase {
+
+	/** The form of way values. */
+	private static final FormOfWay[] FOW_VALUES = FormOfWay.values();
+
+	/** The functional road class values. */
+	private static final FunctionalRoadClass[] FRC_VALUES = FunctionalRoadClass
+			.values();
+
+	/** Orders the builder entries by ascending ID. */
+	private static final Comparator<Entry> ID_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry o1, final Entry o2) {
+			if (o1.id < o2.id) {
+				return -1;
+			} else if (o1.id > o2.id) {
+				return 1;
+			}
+			return 0;
+		}
+	};
+
+	/** The node IDs in ascending order. */
+	final long[] nodeIds;
+
+	/** The node longitudes. */
+	final double[] nodeLon;
+
+	/** The node latitudes. */
+	final double[] nodeLat;
+
+	/** The offsets of each node into {@link #outLines}, length nodes + 1. */
+	final int[] outOffsets;
+
+	/** The indices of the outgoing lines grouped by start node. */
+	final IntBuffer outLines;
+
+	/** The offsets of each node into {@link #inLines}, length nodes + 1. */
+	final int[] inOffsets;
+
+	/** The indices of the incoming lines grouped by end node. */
+	final IntBuffer inLines;
+
+	/** The line IDs in ascending order. */
+	final long[] lineIds;
+
+	/** The start node index of each line. */
+	final int[] lineStart;
+
+	/** The end node index of each line. */
+	final int[] lineEnd;
+
+	/** The length of each line in meter. */
+	final int[] lineLength;
+
+	/** The functional road class of each line. */
+	final byte[] lineFrc;
+
+	/** The form of way of each line. */
+	final byte[] lineFow;
+
+	/** The offsets of each line into the shape arrays, length lines + 1. */
+	final int[] shapeOffsets;
+
+	/** The longitudes of all shape points. */
+	final double[] shapeLon;
+
+	/** The latitudes of all shape points. */
+	final double[] shapeLat;
+
+	/** The names of each line, null if a line has no name. */
+	private final Map<Locale, List<String>>[] lineNames;
+
+	/** The node objects, one per node index. */
+	private final CompactNode[] nodes;
+
+	/** The line objects, one per line index. */
+	private final CompactLine[] lines;
+
+	/** The spatial index answering the close-by queries. */
+	private final SpatialIndex spatialIndex;
+
+	/** The source map, only kept if it holds turn restrictions. */
+	private final MapDatabase restrictionSource;
+
+	/** The map bounding box. */
+	private final Rectangle2D.Double boundingBox;
+
+	/** The name of the source map. */
+	private final String name;
+
+	/**
+	 * Loads the complete network of the source map into memory.
+	 * 
+	 * @param source
+	 *            the map database to copy
+	 */
+	public CompactMapDatabase(final MapDatabase source) {
+		this(copy(source));
+	}
+
+	/**
+	 * Creates the map from the nodes and lines collected by a builder.
+	 * 
+	 * @param builder
+	 *            the builder
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private CompactMapDatabase(final Builder builder) {
+		List<NodeEntry> srcNodes = new ArrayList<NodeEntry>(builder.nodes);
+		List<LineEntry> srcLines = new ArrayList<LineEntry>(builder.lines);
+		Collections.sort(srcNodes, ID_ORDER);
+		Collections.sort(srcLines, ID_ORDER);
+
+		int nrNodes = srcNodes.size();
+		nodeIds = new long[nrNodes];
+		nodeLon = new double[nrNodes];
+		nodeLat = new double[nrNodes];
+		for (int i = 0; i < nrNodes; i++) {
+			NodeEntry n = srcNodes.get(i);
+			nodeIds[i] = n.id;
+			nodeLon[i] = n.lon;
+			nodeLat[i] = n.lat;
+		}
+
+		int nrLines = srcLines.size();
+		lineIds = new long[nrLines];
+		lineStart = new int[nrLines];
+		lineEnd = new int[nrLines];
+		lineLength = new int[nrLines];
+		lineFrc = new byte[nrLines];
+		lineFow = new byte[nrLines];
+		lineNames = new Map[nrLines];
+		shapeOffsets = new int[nrLines + 1];
+		for (int i = 0; i < nrLines; i++) {
+			LineEntry l = srcLines.get(i);
+			lineIds[i] = l.id;
+			lineStart[i] = requireNode(l.startId);
+			lineEnd[i] = requireNode(l.endId);
+			lineLength[i] = l.length;
+			lineFrc[i] = (byte) l.frc.ordinal();
+			lineFow[i] = (byte) l.fow.ordinal();
+			if (l.names != null && !l.names.isEmpty()) {
+				lineNames[i] = l.names;
+			}
+			if (l.shape == null) {
+				shapeOffsets[i + 1] = shapeOffsets[i] + 2;
+			} else {
+				shapeOffsets[i + 1] = shapeOffsets[i] + l.shape.size();
+			}
+		}
+		shapeLon = new double[shapeOffsets[nrLines]];
+		shapeLat = new double[shapeOffsets[nrLines]];
+		for (int i = 0; i < nrLines; i++) {
+			List<GeoCoordinates> shape = srcLines.get(i).shape;
+			int pos = shapeOffsets[i];
+			if (shape == null) {
+				shapeLon[pos] = nodeLon[lineStart[i]];
+				shapeLat[pos] = nodeLat[lineStart[i]];
+				shapeLon[pos + 1] = nodeLon[lineEnd[i]];
+				shapeLat[pos + 1] = nodeLat[lineEnd[i]];
+			} else {
+				for (GeoCoordinates c : shape) {
+					shapeLon[pos] = c.getLongitudeDeg();
+					shapeLat[pos] = c.getLatitudeDeg();
+					pos++;
+				}
+			}
+		}
+
+		outOffsets = new int[nrNodes + 1];
+		int[] adjacent = new int[nrLines];
+		fillAdjacency(lineStart, outOffsets, adjacent);
+		outLines = IntBuffer.wrap(adjacent);
+		inOffsets = new int[nrNodes + 1];
+		adjacent = new int[nrLines];
+		fillAdjacency(lineEnd, inOffsets, adjacent);
+		inLines = IntBuffer.wrap(adjacent);
+
+		nodes = new CompactNode[nrNodes];
+		for (int i = 0; i < nrNodes; i++) {
+			nodes[i] = new CompactNode(this, i);
+		}
+		lines = new CompactLine[nrLines];
+		for (int i = 0; i < nrLines; i++) {
+			lines[i] = new CompactLine(this, i);
+		}
+
+		restrictionSource = builder.restrictionSource;
+		Rectangle2D.Double bbox = builder.boundingBox;
+		if (bbox == null) {
+			bbox = calculateBoundingBox();
+		}
+		boundingBox = bbox;
+		name = builder.mapName;
+		spatialIndex = new SpatialIndex(this);
+	}
+
+	/**
+	 * Collects the complete network of a source map in a builder.
+	 * 
+	 * @param source
+	 *            the map database to copy
+	 * @return the builder holding the network of the source map
+	 */
+	private static Builder copy(final MapDatabase source) {
+		if (source == null) {
+			throw new IllegalArgumentException("Source map must not be null.");
+		}
+		Builder builder = new Builder();
+		Iterator<Node> nodeIter = source.getAllNodes();
+		while (nodeIter.hasNext()) {
+			Node n = nodeIter.next();
+			builder.addNode(n.getID(), n.getLongitudeDeg(), n.getLatitudeDeg());
+		}
+		Iterator<Line> lineIter = source.getAllLines();
+		while (lineIter.hasNext()) {
+			Line l = lineIter.next();
+			builder.lines.add(new LineEntry(l.getID(), l.getStartNode().getID(),
+					l.getEndNode().getID(), l.getFRC(), l.getFOW(), l
+							.getLineLength(), l.getShapeCoordinates(), l
+							.getNames()));
+		}
+		if (source.hasTurnRestrictions()) {
+			builder.restrictionSource = source;
+		}
+		builder.boundingBox = source.getMapBoundingBox();
+		builder.mapName = source.toString();
+		return builder;
+	}
+
+	/**
+	 * Gets the index of a node which must exist.
+	 * 
+	 * @param id
+	 *            the node id
+	 * @return the node index
+	 */
+	private int requireNode(final long id) {
+		int idx = Arrays.binarySearch(nodeIds, id);
+		if (idx < 0) {
+			throw new IllegalArgumentException("Line references unknown node "
+					+ id);
+		}
+		return idx;
+	}
+
+	/**
+	 * Fills compressed adjacency arrays grouping the lines by a node index.
+	 * 
+	 * @param lineNode
+	 *            the node index of each line
+	 * @param offsets
+	 *            the offsets to fill, length nodes + 1
+	 * @param adjacent
+	 *            the line indices to fill, length lines
+	 */
+	private static void fillAdjacency(final int[] lineNode,
+			final int[] offsets, final int[] adjacent) {
+		for (int node : lineNode) {
+			offsets[node + 1]++;
+		}
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+		int[] fill = new int[offsets.length - 1];
+		for (int line = 0; line < lineNode.length; line++) {
+			int node = lineNode[line];
+			adjacent[offsets[node] + fill[node]] = line;
+			fill[node]++;
+		}
+	}
+
+	/**
+	 * Calculates the bounding box of all nodes and shape points.
+	 * 
+	 * @return the bounding box
+	 */
+	private Rectangle2D.Double calculateBoundingBox() {
+		double minLon = Double.MAX_VALUE;
+		double minLat = Double.MAX_VALUE;
+		double maxLon = -Double.MAX_VALUE;
+		double maxLat = -Double.MAX_VALUE;
+		for (int i = 0; i < shapeLon.length; i++) {
+			minLon = Math.min(minLon, shapeLon[i]);
+			minLat = Math.min(minLat, shapeLat[i]);
+			maxLon = Math.max(maxLon, shapeLon[i]);
+			maxLat = Math.max(maxLat, shapeLat[i]);
+		}
+		for (int i = 0; i < nodeLon.length; i++) {
+			minLon = Math.min(minLon, nodeLon[i]);
+			minLat = Math.min(minLat, nodeLat[i]);
+			maxLon = Math.max(maxLon, nodeLon[i]);
+			maxLat = Math.max(maxLat, nodeLat[i]);
+		}
+		if (minLon > maxLon) {
+			return new Rectangle2D.Double();
+		}
+		return new Rectangle2D.Double(minLon, minLat, maxLon - minLon, maxLat
+				- minLat);
+	}
+
+	/**
+	 * Gets the node object at an index.
+	 * 
+	 * @param index
+	 *            the node index
+	 * @return the node
+	 */
+	CompactNode nodeAt(final int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * Gets the line object at an index.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the line
+	 */
+	CompactLine lineAt(final int index) {
+		return lines[index];
+	}
+
+	/**
+	 * Gets the form of way of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the form of way
+	 */
+	FormOfWay fowAt(final int index) {
+		return FOW_VALUES[lineFow[index]];
+	}
+
+	/**
+	 * Gets the functional road class of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the functional road class
+	 */
+	FunctionalRoadClass frcAt(final int index) {
+		return FRC_VALUES[lineFrc[index]];
+	}
+
+	/**
+	 * Gets the names of a line.
+	 * 
+	 * @param index
+	 *            the line index
+	 * @return the names, an empty map if the line has no name
+	 */
+	Map<Locale, List<String>> namesAt(final int index) {
+		Map<Locale, List<String>> names = lineNames[index];
+		if (names == null) {
+			return Collections.emptyMap();
+		}
+		return names;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasTurnRestrictions() {
+		return restrictionSource != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Line getLine(final long id) {
+		int idx = Arrays.binarySearch(lineIds, id);
+		if (idx < 0) {
+			return null;
+		}
+		return lines[idx];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Node getNode(final long id) {
+		int idx = Arrays.binarySearch(nodeIds, id);
+		if (idx < 0) {
+			return null;
+		}
+		return nodes[idx];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> findNodesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		return spatialIndex.findNodes(longitude, latitude, distance)
+				.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> findLinesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		return spatialIndex.findLines(longitude, latitude, distance)
+				.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasTurnRestrictionOnPath(final List<? extends Line> path) {
+		if (restrictionSource == null) {
+			return false;
+		}
+		List<Line> sourcePath = new ArrayList<Line>(path.size());
+		for (Line l : path) {
+			sourcePath.add(restrictionSource.getLine(l.getID()));
+		}
+		return restrictionSource.hasTurnRestrictionOnPath(sourcePath);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> getAllNodes() {
+		return Arrays.<Node> asList(nodes).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getAllLines() {
+		return Arrays.<Line> asList(lines).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Rectangle2D.Double getMapBoundingBox() {
+		return (Rectangle2D.Double) boundingBox.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfNodes() {
+		return nodeIds.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfLines() {
+		return lineIds.length;
+	}
+
+	/**
+	 * Returns the name of the source map.
+	 * 
+	 * @return the map name
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Iterates over up to two slices of a line index buffer of the map.
+	 */
+	static final class LineIterator extends IndexedLineIterator {
+
+		/** The map. */
+		private final CompactMapDatabase map;
+
+		/**
+		 * Creates an iterator over two slices.
+		 * 
+		 * @param mdb
+		 *            the map
+		 * @param a
+		 *            the first buffer
+		 * @param aFrom
+		 *            the first index of the first slice
+		 * @param aTo
+		 *            the end (exclusive) of the first slice
+		 * @param b
+		 *            the second buffer
+		 * @param bFrom
+		 *            the first index of the second slice
+		 * @param bTo
+		 *            the end (exclusive) of the second slice
+		 */
+		LineIterator(final CompactMapDatabase mdb, final IntBuffer a,
+				final int aFrom, final int aTo, final IntBuffer b,
+				final int bFrom, final int bTo) {
+			super(a, aFrom, aTo, b, bFrom, bTo);
+			map = mdb;
+		}
+
+		/**
+		 * Creates an iterator over one slice.
+		 * 
+		 * @param mdb
+		 *            the map
+		 * @param a
+		 *            the buffer
+		 * @param from
+		 *            the first index of the slice
+		 * @param to
+		 *            the end (exclusive) of the slice
+		 */
+		LineIterator(final CompactMapDatabase mdb, final IntBuffer a,
+				final int from, final int to) {
+			super(a, from, to);
+			map = mdb;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Line lineAt(final int index) {
+			return map.lines[index];
+		}
+	}
+
+	/**
+	 * The Class Builder collects nodes and lines and creates a
+	 * {@link CompactMapDatabase} from them. The nodes and lines can be added in
+	 * any order, a line must only reference nodes which are added to the same
+	 * builder. The map created by the builder has no turn restrictions and its
+	 * bounding box is calculated from the node coordinates.
+	 */
+	public static final class Builder {
+
+		/** The nodes. */
+		private final List<NodeEntry> nodes = new ArrayList<NodeEntry>();
+
+		/** The lines. */
+		private final List<LineEntry> lines = new ArrayList<LineEntry>();
+
+		/** The source map, only set if it holds turn restrictions. */
+		private MapDatabase restrictionSource;
+
+		/** The map bounding box, null if it shall be calculated. */
+		private Rectangle2D.Double boundingBox;
+
+		/** The map name. */
+		private String mapName = "compact map";
+
+		/**
+		 * Adds a node.
+		 * 
+		 * @param id
+		 *            the node ID
+		 * @param longitude
+		 *            the longitude in degree
+		 * @param latitude
+		 *            the latitude in degree
+		 * @return the builder
+		 */
+		public Builder addNode(final long id, final double longitude,
+				final double latitude) {
+			nodes.add(new NodeEntry(id, longitude, latitude));
+			return this;
+		}
+
+		/**
+		 * Adds a line.
+		 * 
+		 * @param id
+		 *            the line ID
+		 * @param startNodeId
+		 *            the ID of the start node
+		 * @param endNodeId
+		 *            the ID of the end node
+		 * @param frc
+		 *            the functional road class
+		 * @param fow
+		 *            the form of way
+		 * @param length
+		 *            the length in meter
+		 * @param shape
+		 *            the shape including start and end node, null for a
+		 *            straight line between the nodes
+		 * @return the builder
+		 */
+		public Builder addLine(final long id, final long startNodeId,
+				final long endNodeId, final FunctionalRoadClass frc,
+				final FormOfWay fow, final int length,
+				final List<GeoCoordinates> shape) {
+			if (frc == null || fow == null) {
+				throw new IllegalArgumentException(
+						"Road class and form of way must not be null.");
+			}
+			lines.add(new LineEntry(id, startNodeId, endNodeId, frc, fow,
+					length, shape, null));
+			return this;
+		}
+
+		/**
+		 * With map name.
+		 * 
+		 * @param n
+		 *            the name returned by {@link CompactMapDatabase#toString()}
+		 * @return the builder
+		 */
+		public Builder withName(final String n) {
+			mapName = n;
+			return this;
+		}
+
+		/**
+		 * Builds the map database.
+		 * 
+		 * @return the compact map database
+		 * @throws IllegalArgumentException
+		 *             if a line references a node which was not added
+		 */
+		public CompactMapDatabase buildMap() {
+			return new CompactMapDatabase(this);
+		}
+	}
+
+	/**
+	 * A node or line collected by the builder.
+	 */
+	private abstract static class Entry {
+
+		/** The ID. */
+		final long id;
+
+		/**
+		 * Creates an entry.
+		 * 
+		 * @param entryId
+		 *            the ID
+		 */
+		Entry(final long entryId) {
+			id = entryId;
+		}
+	}
+
+	/**
+	 * A node collected by the builder.
+	 */
+	private static final class NodeEntry extends Entry {
+
+		/** The longitude. */
+		private final double lon;
+
+		/** The latitude. */
+		private final double lat;
+
+		/**
+		 * Creates a node entry.
+		 * 
+		 * @param nodeId
+		 *            the ID
+		 * @param longitude
+		 *            the longitude
+		 * @param latitude
+		 *            the latitude
+		 */
+		NodeEntry(final long nodeId, final double longitude,
+				final double latitude) {
+			super(nodeId);
+			lon = longitude;
+			lat = latitude;
+		}
+	}
+
+	/**
+	 * A line collected by the builder.
+	 */
+	private static final class LineEntry extends Entry {
+
+		/** The start node ID. */
+		private final long startId;
+
+		/** The end node ID. */
+		private final long endId;
+
+		/** The functional road class. */
+		private final FunctionalRoadClass frc;
+
+		/** The form of way. */
+		private final FormOfWay fow;
+
+		/** The length in meter. */
+		private final int length;
+
+		/** The shape, null for a straight line. */
+		private final List<GeoCoordinates> shape;
+
+		/** The names, may be null. */
+		private final Map<Locale, List<String>> names;
+
+		/**
+		 * Creates a line entry.
+		 * 
+		 * @param lineId
+		 *            the ID
+		 * @param startNodeId
+		 *            the start node ID
+		 * @param endNodeId
+		 *            the end node ID
+		 * @param roadClass
+		 *            the functional road class
+		 * @param formOfWay
+		 *            the form of way
+		 * @param lengthInMeter
+		 *            the length in meter
+		 * @param shapePoints
+		 *            the shape, shapes with less than two points are replaced
+		 *            by a straight line
+		 * @param lineNames
+		 *            the names, may be null
+		 */
+		LineEntry(final long lineId, final long startNodeId,
+				final long endNodeId, final FunctionalRoadClass roadClass,
+				final FormOfWay formOfWay, final int lengthInMeter,
+				final List<GeoCoordinates> shapePoints,
+				final Map<Locale, List<String>> lineNames) {
+			super(lineId);
+			startId = startNodeId;
+			endId = endNodeId;
+			frc = roadClass;
+			fow = formOfWay;
+			length = lengthInMeter;
+			if (shapePoints == null || shapePoints.size() < 2) {
+				shape = null;
+			} else {
+				shape = shapePoints;
+			}
+			names = lineNames;
+		}
+	}
+}
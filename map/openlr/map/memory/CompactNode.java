@@ -0,0 +1,172 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.memory;
+
+import java.util.Iterator;
+
+import openlr.map.GeoCoordinates;
+import openlr.map.GeoCoordinatesImpl;
+import openlr.map.Line;
+import openlr.map.Node;
+
+/**
+ * Implementation of the OpenLR {@link openlr.map.Node} interface backed by the
+ * arrays of a {@link CompactMapDatabase}. An instance only holds the node
+ * index.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class CompactNode implements Node {
+
+	/** The map holding the node data. */
+	private final CompactMapDatabase map;
+
+	/** The node index. */
+	private final int index;
+
+	/**
+	 * Creates the node at an index.
+	 * 
+	 * @param mdb
+	 *            the map
+	 * @param idx
+	 *            the node index
+	 */
+	CompactNode(final CompactMapDatabase mdb, final int idx) {
+		map = mdb;
+		index = idx;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLatitudeDeg() {
+		return map.nodeLat[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLongitudeDeg() {
+		return map.nodeLon[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public GeoCoordinates getGeoCoordinates() {
+		return GeoCoordinatesImpl.newGeoCoordinatesUnchecked(
+				map.nodeLon[index], map.nodeLat[index]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getConnectedLines() {
+		return new CompactMapDatabase.LineIterator(map, map.inLines,
+				map.inOffsets[index], map.inOffsets[index + 1], map.outLines,
+				map.outOffsets[index], map.outOffsets[index + 1]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberConnectedLines() {
+		return map.inOffsets[index + 1] - map.inOffsets[index]
+				+ map.outOffsets[index + 1] - map.outOffsets[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getOutgoingLines() {
+		return new CompactMapDatabase.LineIterator(map, map.outLines,
+				map.outOffsets[index], map.outOffsets[index + 1]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getIncomingLines() {
+		return new CompactMapDatabase.LineIterator(map, map.inLines,
+				map.inOffsets[index], map.inOffsets[index + 1]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getID() {
+		return map.nodeIds[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		} else if (other == null || getClass() != other.getClass()) {
+			return false;
+		}
+		return getID() == ((Node) other).getID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		long id = getID();
+		return (int) (id ^ (id >>> 32));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.valueOf(getID());
+	}
+}
@@ -0,0 +1,409 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.spatial;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A uniform grid over the bounding boxes of a set of map features. Each
+ * feature is referenced by its index and registered in every grid cell its
+ * bounding box overlaps. The cell contents are stored in one array (cell
+ * offsets plus entries), so a query neither allocates nor locks and the
+ * index can be shared between threads. The cell size is chosen from the
+ * extent and the number of features.
+ * <p>
+ * A grid can be written to a {@link DataOutput} and read back from a
+ * {@link ByteBuffer}. A grid being read shares the buffer content, so a grid
+ * stored in a memory mapped file does not need to be copied to the heap.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class GridIndex {
+
+	/**
+	 * The callback receiving the feature indices found by a query.
+	 */
+	public interface Visitor {
+
+		/**
+		 * Visits a feature whose bounding box intersects the query box.
+		 * 
+		 * @param index
+		 *            the feature index
+		 */
+		void visit(int index);
+	}
+
+	/** The average number of features per cell being aimed at. */
+	private static final int FEATURES_PER_CELL = 4;
+
+	/** The smallest cell size in degree. */
+	private static final double MIN_CELL_SIZE = 0.0001;
+
+	/** The west border of the grid. */
+	private final double minLon;
+
+	/** The south border of the grid. */
+	private final double minLat;
+
+	/** The cell size in degree. */
+	private final double cellSize;
+
+	/** The number of columns. */
+	private final int cols;
+
+	/** The number of rows. */
+	private final int rows;
+
+	/** The number of bytes of the serialized header. */
+	private static final int HEADER_SIZE = 40;
+
+	/** The offsets of the cells into the entries, length cells + 1. */
+	private final IntBuffer cellOffsets;
+
+	/** The feature indices, grouped by cell. */
+	private final IntBuffer entries;
+
+	/** The first column of each feature. */
+	private final IntBuffer firstCol;
+
+	/** The first row of each feature. */
+	private final IntBuffer firstRow;
+
+	/**
+	 * Builds a grid over the given bounding boxes. Points can be indexed by
+	 * passing the same arrays as minimum and maximum.
+	 * 
+	 * @param boxMinLon
+	 *            the west border of each feature
+	 * @param boxMinLat
+	 *            the south border of each feature
+	 * @param boxMaxLon
+	 *            the east border of each feature
+	 * @param boxMaxLat
+	 *            the north border of each feature
+	 */
+	public GridIndex(final double[] boxMinLon, final double[] boxMinLat,
+			final double[] boxMaxLon, final double[] boxMaxLat) {
+		int n = boxMinLon.length;
+		double west = Double.MAX_VALUE;
+		double south = Double.MAX_VALUE;
+		double east = -Double.MAX_VALUE;
+		double north = -Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			west = Math.min(west, boxMinLon[i]);
+			south = Math.min(south, boxMinLat[i]);
+			east = Math.max(east, boxMaxLon[i]);
+			north = Math.max(north, boxMaxLat[i]);
+		}
+		if (n == 0) {
+			west = 0;
+			south = 0;
+			east = 0;
+			north = 0;
+		}
+		minLon = west;
+		minLat = south;
+		double width = east - west;
+		double height = north - south;
+		int targetCells = Math.max(1, n / FEATURES_PER_CELL);
+		// the last term bounds the grid size for very narrow extents
+		cellSize = Math.max(MIN_CELL_SIZE, Math.max(
+				Math.sqrt(width * height / targetCells),
+				Math.max(width, height) / targetCells));
+		cols = (int) (width / cellSize) + 1;
+		rows = (int) (height / cellSize) + 1;
+
+		// first pass: count the entries per cell
+		int[] featureCol = new int[n];
+		int[] featureRow = new int[n];
+		int[] offsets = new int[cols * rows + 1];
+		for (int i = 0; i < n; i++) {
+			int c0 = col(boxMinLon[i]);
+			int r0 = row(boxMinLat[i]);
+			int c1 = col(boxMaxLon[i]);
+			int r1 = row(boxMaxLat[i]);
+			featureCol[i] = c0;
+			featureRow[i] = r0;
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					offsets[r * cols + c + 1]++;
+				}
+			}
+		}
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+
+		// second pass: fill the entries
+		int[] cellEntries = new int[offsets[offsets.length - 1]];
+		int[] fill = new int[cols * rows];
+		for (int i = 0; i < n; i++) {
+			int c1 = col(boxMaxLon[i]);
+			int r1 = row(boxMaxLat[i]);
+			for (int r = featureRow[i]; r <= r1; r++) {
+				for (int c = featureCol[i]; c <= c1; c++) {
+					int cell = r * cols + c;
+					cellEntries[offsets[cell] + fill[cell]] = i;
+					fill[cell]++;
+				}
+			}
+		}
+		cellOffsets = IntBuffer.wrap(offsets);
+		entries = IntBuffer.wrap(cellEntries);
+		firstCol = IntBuffer.wrap(featureCol);
+		firstRow = IntBuffer.wrap(featureRow);
+	}
+
+	/**
+	 * Creates a grid from its parts.
+	 * 
+	 * @param west
+	 *            the west border of the grid
+	 * @param south
+	 *            the south border of the grid
+	 * @param size
+	 *            the cell size
+	 * @param nrCols
+	 *            the number of columns
+	 * @param nrRows
+	 *            the number of rows
+	 * @param offsets
+	 *            the cell offsets
+	 * @param cellEntries
+	 *            the cell entries
+	 * @param featureCol
+	 *            the first column of each feature
+	 * @param featureRow
+	 *            the first row of each feature
+	 */
+	private GridIndex(final double west, final double south,
+			final double size, final int nrCols, final int nrRows,
+			final IntBuffer offsets, final IntBuffer cellEntries,
+			final IntBuffer featureCol, final IntBuffer featureRow) {
+		minLon = west;
+		minLat = south;
+		cellSize = size;
+		cols = nrCols;
+		rows = nrRows;
+		cellOffsets = offsets;
+		entries = cellEntries;
+		firstCol = featureCol;
+		firstRow = featureRow;
+	}
+
+	/**
+	 * Reads a grid written by {@link #write(DataOutput)} starting at the
+	 * current position of the buffer. The position of the buffer is moved
+	 * behind the grid. The returned grid shares the content of the buffer
+	 * which must not be modified afterwards.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @return the grid
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not hold a valid grid
+	 */
+	public static GridIndex read(final ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new IllegalArgumentException("Incomplete grid header.");
+		}
+		double west = buffer.getDouble();
+		double south = buffer.getDouble();
+		double size = buffer.getDouble();
+		int nrCols = buffer.getInt();
+		int nrRows = buffer.getInt();
+		int nrFeatures = buffer.getInt();
+		int nrEntries = buffer.getInt();
+		if (nrCols <= 0 || nrRows <= 0 || nrFeatures < 0 || nrEntries < 0
+				|| !(size > 0) || (long) nrCols * nrRows >= Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid grid header.");
+		}
+		IntBuffer offsets = sliceInts(buffer, nrCols * nrRows + 1);
+		IntBuffer cellEntries = sliceInts(buffer, nrEntries);
+		IntBuffer featureCol = sliceInts(buffer, nrFeatures);
+		IntBuffer featureRow = sliceInts(buffer, nrFeatures);
+		return new GridIndex(west, south, size, nrCols, nrRows, offsets,
+				cellEntries, featureCol, featureRow);
+	}
+
+	/**
+	 * Creates an int view of the next values of a buffer and moves the
+	 * position of the buffer behind them.
+	 * 
+	 * @param buffer
+	 *            the buffer
+	 * @param count
+	 *            the number of int values
+	 * @return the view
+	 */
+	private static IntBuffer sliceInts(final ByteBuffer buffer,
+			final int count) {
+		long bytes = (long) count * (Integer.SIZE / Byte.SIZE);
+		if (buffer.remaining() < bytes) {
+			throw new IllegalArgumentException("Incomplete grid data.");
+		}
+		ByteBuffer slice = buffer.slice();
+		slice.order(buffer.order());
+		slice.limit((int) bytes);
+		buffer.position(buffer.position() + (int) bytes);
+		return slice.asIntBuffer();
+	}
+
+	/**
+	 * Writes the grid in the format being read by {@link #read(ByteBuffer)}.
+	 * 
+	 * @param out
+	 *            the output
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void write(final DataOutput out) throws IOException {
+		out.writeDouble(minLon);
+		out.writeDouble(minLat);
+		out.writeDouble(cellSize);
+		out.writeInt(cols);
+		out.writeInt(rows);
+		out.writeInt(firstCol.limit());
+		out.writeInt(entries.limit());
+		writeInts(out, cellOffsets);
+		writeInts(out, entries);
+		writeInts(out, firstCol);
+		writeInts(out, firstRow);
+	}
+
+	/**
+	 * Writes all values of an int buffer.
+	 * 
+	 * @param out
+	 *            the output
+	 * @param values
+	 *            the values
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeInts(final DataOutput out, final IntBuffer values)
+			throws IOException {
+		for (int i = 0; i < values.limit(); i++) {
+			out.writeInt(values.get(i));
+		}
+	}
+
+	/**
+	 * Gets the number of bytes written by {@link #write(DataOutput)}.
+	 * 
+	 * @return the serialized size in bytes
+	 */
+	public long getSerializedSize() {
+		long ints = (long) cellOffsets.limit() + entries.limit() + 2L
+				* firstCol.limit();
+		return HEADER_SIZE + ints * (Integer.SIZE / Byte.SIZE);
+	}
+
+
+	/**
+	 * Gets the number of indexed features.
+	 * 
+	 * @return the number of features
+	 */
+	public int size() {
+		return firstCol.limit();
+	}
+
+	/**
+	 * Gets the column of a longitude, clamped to the grid.
+	 * 
+	 * @param lon
+	 *            the longitude
+	 * @return the column
+	 */
+	private int col(final double lon) {
+		int c = (int) Math.floor((lon - minLon) / cellSize);
+		return Math.max(0, Math.min(cols - 1, c));
+	}
+
+	/**
+	 * Gets the row of a latitude, clamped to the grid.
+	 * 
+	 * @param lat
+	 *            the latitude
+	 * @return the row
+	 */
+	private int row(final double lat) {
+		int r = (int) Math.floor((lat - minLat) / cellSize);
+		return Math.max(0, Math.min(rows - 1, r));
+	}
+
+	/**
+	 * Visits every feature whose bounding box intersects the query box
+	 * exactly once. A feature registered in several cells is only reported in
+	 * the first cell shared by the feature and the query.
+	 * 
+	 * @param qMinLon
+	 *            the west border of the query
+	 * @param qMinLat
+	 *            the south border of the query
+	 * @param qMaxLon
+	 *            the east border of the query
+	 * @param qMaxLat
+	 *            the north border of the query
+	 * @param visitor
+	 *            the visitor
+	 */
+	public void query(final double qMinLon, final double qMinLat,
+			final double qMaxLon, final double qMaxLat, final Visitor visitor) {
+		int c0 = col(qMinLon);
+		int r0 = row(qMinLat);
+		int c1 = col(qMaxLon);
+		int r1 = row(qMaxLat);
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cell = r * cols + c;
+				int end = cellOffsets.get(cell + 1);
+				for (int i = cellOffsets.get(cell); i < end; i++) {
+					int feature = entries.get(i);
+					if (c == Math.max(c0, firstCol.get(feature))
+							&& r == Math.max(r0, firstRow.get(feature))) {
+						visitor.visit(feature);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,402 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import openlr.map.GeoCoordinates;
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.map.utils.GeometryUtils;
+import openlr.map.utils.MapDatabaseUtils;
+
+/**
+ * The SpatialIndex answers radius queries for nodes and lines of a map
+ * database from memory. Node positions are indexed as points and line shapes
+ * are indexed per segment, so long and curved lines only match where one of
+ * their segments is close to the query position. The index stores IDs and
+ * coordinates only; the matching features are resolved through
+ * {@link MapDatabase#getNode(long)} and {@link MapDatabase#getLine(long)}.
+ * <p>
+ * The distance checks are the same as in the reference map implementation:
+ * a node matches if its distance is at most the search radius, a line matches
+ * if the (truncated) distance between the position and its projection onto
+ * one of the line segments is at most the search radius.
+ * <p>
+ * The index is immutable after construction and can be shared between
+ * threads.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class SpatialIndex {
+
+	/** The map resolving the features. */
+	private final MapDatabase map;
+
+	/** The node IDs. */
+	private final long[] nodeIds;
+
+	/** The node longitudes. */
+	private final double[] nodeLon;
+
+	/** The node latitudes. */
+	private final double[] nodeLat;
+
+	/** The grid over the node positions. */
+	private final GridIndex nodeGrid;
+
+	/** The line IDs. */
+	private final long[] lineIds;
+
+	/** The line index of each segment. */
+	private final int[] segLine;
+
+	/** The segment start longitudes. */
+	private final double[] segLon1;
+
+	/** The segment start latitudes. */
+	private final double[] segLat1;
+
+	/** The segment end longitudes. */
+	private final double[] segLon2;
+
+	/** The segment end latitudes. */
+	private final double[] segLat2;
+
+	/** The grid over the segment bounding boxes. */
+	private final GridIndex segmentGrid;
+
+	/**
+	 * Builds the index over all nodes and lines of a map. Lines without shape
+	 * are indexed by the segment between their start and end node.
+	 * 
+	 * @param mdb
+	 *            the map database
+	 */
+	public SpatialIndex(final MapDatabase mdb) {
+		if (mdb == null) {
+			throw new IllegalArgumentException("Map must not be null.");
+		}
+		map = mdb;
+
+		List<Node> nodes = new ArrayList<Node>();
+		Iterator<Node> nodeIter = mdb.getAllNodes();
+		while (nodeIter.hasNext()) {
+			nodes.add(nodeIter.next());
+		}
+		int nrNodes = nodes.size();
+		nodeIds = new long[nrNodes];
+		nodeLon = new double[nrNodes];
+		nodeLat = new double[nrNodes];
+		for (int i = 0; i < nrNodes; i++) {
+			Node n = nodes.get(i);
+			nodeIds[i] = n.getID();
+			nodeLon[i] = n.getLongitudeDeg();
+			nodeLat[i] = n.getLatitudeDeg();
+		}
+		nodeGrid = new GridIndex(nodeLon, nodeLat, nodeLon, nodeLat);
+
+		List<Long> ids = new ArrayList<Long>();
+		SegmentBuffer segments = new SegmentBuffer();
+		Iterator<Line> lineIter = mdb.getAllLines();
+		while (lineIter.hasNext()) {
+			Line line = lineIter.next();
+			int lineIdx = ids.size();
+			ids.add(line.getID());
+			List<GeoCoordinates> shape = line.getShapeCoordinates();
+			if (shape == null || shape.size() < 2) {
+				Node start = line.getStartNode();
+				Node end = line.getEndNode();
+				segments.add(lineIdx, start.getLongitudeDeg(),
+						start.getLatitudeDeg(), end.getLongitudeDeg(),
+						end.getLatitudeDeg());
+			} else {
+				GeoCoordinates previous = null;
+				for (GeoCoordinates current : shape) {
+					if (previous != null) {
+						segments.add(lineIdx, previous.getLongitudeDeg(),
+								previous.getLatitudeDeg(),
+								current.getLongitudeDeg(),
+								current.getLatitudeDeg());
+					}
+					previous = current;
+				}
+			}
+		}
+		lineIds = new long[ids.size()];
+		for (int i = 0; i < lineIds.length; i++) {
+			lineIds[i] = ids.get(i);
+		}
+		int nrSegments = segments.size;
+		segLine = Arrays.copyOf(segments.line, nrSegments);
+		segLon1 = Arrays.copyOf(segments.lon1, nrSegments);
+		segLat1 = Arrays.copyOf(segments.lat1, nrSegments);
+		segLon2 = Arrays.copyOf(segments.lon2, nrSegments);
+		segLat2 = Arrays.copyOf(segments.lat2, nrSegments);
+		double[] minLon = new double[nrSegments];
+		double[] minLat = new double[nrSegments];
+		double[] maxLon = new double[nrSegments];
+		double[] maxLat = new double[nrSegments];
+		for (int i = 0; i < nrSegments; i++) {
+			minLon[i] = Math.min(segLon1[i], segLon2[i]);
+			minLat[i] = Math.min(segLat1[i], segLat2[i]);
+			maxLon[i] = Math.max(segLon1[i], segLon2[i]);
+			maxLat[i] = Math.max(segLat1[i], segLat2[i]);
+		}
+		segmentGrid = new GridIndex(minLon, minLat, maxLon, maxLat);
+	}
+
+	/**
+	 * Finds all nodes which are at most distance meters away from the
+	 * position.
+	 * 
+	 * @param longitude
+	 *            the longitude of the position
+	 * @param latitude
+	 *            the latitude of the position
+	 * @param distance
+	 *            the search radius in meter
+	 * @return the nodes close by
+	 */
+	public List<Node> findNodes(final double longitude, final double latitude,
+			final int distance) {
+		final List<Node> result = new ArrayList<Node>();
+		double dLat = MapDatabaseUtils.latitudeDelta(distance);
+		double dLon = MapDatabaseUtils.longitudeDelta(distance, latitude);
+		nodeGrid.query(longitude - dLon, latitude - dLat, longitude + dLon,
+				latitude + dLat, new GridIndex.Visitor() {
+					@Override
+					public void visit(final int index) {
+						if (GeometryUtils.distance(longitude, latitude,
+								nodeLon[index], nodeLat[index]) <= distance) {
+							Node n = map.getNode(nodeIds[index]);
+							if (n != null) {
+								result.add(n);
+							}
+						}
+					}
+				});
+		return result;
+	}
+
+	/**
+	 * Finds all lines which are at most distance meters away from the
+	 * position.
+	 * 
+	 * @param longitude
+	 *            the longitude of the position
+	 * @param latitude
+	 *            the latitude of the position
+	 * @param distance
+	 *            the search radius in meter
+	 * @return the lines close by, each line once
+	 */
+	public List<Line> findLines(final double longitude, final double latitude,
+			final int distance) {
+		final IntBuffer matches = new IntBuffer();
+		double dLat = MapDatabaseUtils.latitudeDelta(distance);
+		double dLon = MapDatabaseUtils.longitudeDelta(distance, latitude);
+		segmentGrid.query(longitude - dLon, latitude - dLat, longitude + dLon,
+				latitude + dLat, new GridIndex.Visitor() {
+					@Override
+					public void visit(final int index) {
+						if (segmentDistance(index, longitude, latitude) <= distance) {
+							matches.add(segLine[index]);
+						}
+					}
+				});
+		if (matches.size == 0) {
+			return Collections.emptyList();
+		}
+		// a line matches once per close segment, report it only once
+		int[] lineIdx = Arrays.copyOf(matches.values, matches.size);
+		Arrays.sort(lineIdx);
+		List<Line> result = new ArrayList<Line>();
+		for (int i = 0; i < lineIdx.length; i++) {
+			if (i == 0 || lineIdx[i] != lineIdx[i - 1]) {
+				Line l = map.getLine(lineIds[lineIdx[i]]);
+				if (l != null) {
+					result.add(l);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of indexed nodes.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return nodeIds.length;
+	}
+
+	/**
+	 * Gets the number of indexed line segments.
+	 * 
+	 * @return the number of segments
+	 */
+	public int getNumberOfSegments() {
+		return segLine.length;
+	}
+
+	/**
+	 * Calculates the distance between a position and its projection onto a
+	 * segment.
+	 * 
+	 * @param seg
+	 *            the segment index
+	 * @param lon
+	 *            the longitude of the position
+	 * @param lat
+	 *            the latitude of the position
+	 * @return the distance in meter, truncated
+	 */
+	private int segmentDistance(final int seg, final double lon,
+			final double lat) {
+		double lon1 = segLon1[seg];
+		double lat1 = segLat1[seg];
+		double dx = segLon2[seg] - lon1;
+		double dy = segLat2[seg] - lat1;
+		double r = ((lon - lon1) * dx + (lat - lat1) * dy) / (dx * dx + dy * dy);
+		double projLon;
+		double projLat;
+		if (r <= 0.0 || Double.isNaN(r)) {
+			projLon = lon1;
+			projLat = lat1;
+		} else if (r >= 1.0) {
+			projLon = segLon2[seg];
+			projLat = segLat2[seg];
+		} else {
+			projLon = dx * r + lon1;
+			projLat = dy * r + lat1;
+		}
+		return (int) GeometryUtils.distance(lon, lat, projLon, projLat);
+	}
+
+	/**
+	 * A growing buffer of segments used while building the index.
+	 */
+	private static final class SegmentBuffer {
+
+		/** The initial capacity. */
+		private static final int INITIAL_CAPACITY = 1024;
+
+		/** The number of segments. */
+		private int size;
+
+		/** The line indices. */
+		private int[] line = new int[INITIAL_CAPACITY];
+
+		/** The start longitudes. */
+		private double[] lon1 = new double[INITIAL_CAPACITY];
+
+		/** The start latitudes. */
+		private double[] lat1 = new double[INITIAL_CAPACITY];
+
+		/** The end longitudes. */
+		private double[] lon2 = new double[INITIAL_CAPACITY];
+
+		/** The end latitudes. */
+		private double[] lat2 = new double[INITIAL_CAPACITY];
+
+		/**
+		 * Adds a segment.
+		 * 
+		 * @param lineIdx
+		 *            the line index
+		 * @param startLon
+		 *            the start longitude
+		 * @param startLat
+		 *            the start latitude
+		 * @param endLon
+		 *            the end longitude
+		 * @param endLat
+		 *            the end latitude
+		 */
+		void add(final int lineIdx, final double startLon,
+				final double startLat, final double endLon, final double endLat) {
+			if (size == line.length) {
+				int capacity = size * 2;
+				line = Arrays.copyOf(line, capacity);
+				lon1 = Arrays.copyOf(lon1, capacity);
+				lat1 = Arrays.copyOf(lat1, capacity);
+				lon2 = Arrays.copyOf(lon2, capacity);
+				lat2 = Arrays.copyOf(lat2, capacity);
+			}
+			line[size] = lineIdx;
+			lon1[size] = startLon;
+			lat1[size] = startLat;
+			lon2[size] = endLon;
+			lat2[size] = endLat;
+			size++;
+		}
+	}
+
+	/**
+	 * A growing buffer of int values collecting query matches.
+	 */
+	private static final class IntBuffer {
+
+		/** The initial capacity. */
+		private static final int INITIAL_CAPACITY = 16;
+
+		/** The number of values. */
+		private int size;
+
+		/** The values. */
+		private int[] values = new int[INITIAL_CAPACITY];
+
+		/**
+		 * Adds a value.
+		 * 
+		 * @param value
+		 *            the value
+		 */
+		void add(final int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.spatial;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Iterator;
+import java.util.List;
+
+import openlr.map.Line;
+import openlr.map.MapDatabase;
+import openlr.map.Node;
+import openlr.map.utils.MapDatabaseUtils;
+
+/**
+ * The SpatialIndexedMapDatabase wraps a map database and answers the close-by
+ * queries from a {@link SpatialIndex} which is built once from the wrapped
+ * map. All other requests are delegated to the wrapped map, so the features
+ * returned by the close-by queries are the features of the wrapped map.
+ * <p>
+ * This is useful for map implementations with slow or unindexed spatial
+ * queries whose network does not change while it is being used.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class SpatialIndexedMapDatabase implements MapDatabase {
+
+	/** The wrapped map. */
+	private final MapDatabase map;
+
+	/** The spatial index over the wrapped map. */
+	private final SpatialIndex index;
+
+	/**
+	 * Wraps a map database and builds the spatial index over all of its nodes
+	 * and lines.
+	 * 
+	 * @param mdb
+	 *            the map database to wrap
+	 */
+	public SpatialIndexedMapDatabase(final MapDatabase mdb) {
+		this(mdb, new SpatialIndex(mdb));
+	}
+
+	/**
+	 * Wraps a map database using an existing spatial index. The index must
+	 * have been built from the same map.
+	 * 
+	 * @param mdb
+	 *            the map database to wrap
+	 * @param spatialIndex
+	 *            the spatial index over the map
+	 */
+	public SpatialIndexedMapDatabase(final MapDatabase mdb,
+			final SpatialIndex spatialIndex) {
+		if (mdb == null || spatialIndex == null) {
+			throw new IllegalArgumentException(
+					"Map and spatial index must not be null.");
+		}
+		map = mdb;
+		index = spatialIndex;
+	}
+
+	/**
+	 * Gets the wrapped map database.
+	 * 
+	 * @return the wrapped map
+	 */
+	public final MapDatabase getMapDatabase() {
+		return map;
+	}
+
+	/**
+	 * Gets the spatial index.
+	 * 
+	 * @return the spatial index
+	 */
+	public final SpatialIndex getSpatialIndex() {
+		return index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasTurnRestrictions() {
+		return map.hasTurnRestrictions();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Line getLine(final long id) {
+		return map.getLine(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Node getNode(final long id) {
+		return map.getNode(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> findNodesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		return index.findNodes(longitude, latitude, distance).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> findLinesCloseByCoordinate(final double longitude,
+			final double latitude, final int distance) {
+		MapDatabaseUtils.checkSearchArguments(longitude, latitude, distance);
+		return index.findLines(longitude, latitude, distance).iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasTurnRestrictionOnPath(final List<? extends Line> path) {
+		return map.hasTurnRestrictionOnPath(path);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Node> getAllNodes() {
+		return map.getAllNodes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Line> getAllLines() {
+		return map.getAllLines();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Rectangle2D.Double getMapBoundingBox() {
+		return map.getMapBoundingBox();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfNodes() {
+		return map.getNumberOfNodes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNumberOfLines() {
+		return map.getNumberOfLines();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return map.toString();
+	}
+}
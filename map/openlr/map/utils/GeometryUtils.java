@@ -124,6 +124,10 @@ public final class GeometryUtils {
 	/** The Constant OBLATENESS. */
 	private static final double OBLATENESS = 1. / INVERSE_FLATTENING;
 
+	/** The squared eccentricity of the WGS84 ellipsoid. */
+	private static final double ECCENTRICITY_SQUARED = OBLATENESS
+			* (2 - OBLATENESS);
+
 	/**
 	 * @param value
 	 *            (degrees)
@@ -213,6 +217,82 @@ public final class GeometryUtils {
 						* h2 * cosF * cosF * sinG * sinG);
 	}
 
+	/**
+	 * Returns the distance in meters between two points specified in degrees
+	 * longitude (x) and latitude (y), either calculated exactly (see
+	 * {@link #distance(double, double, double, double)}) or approximated (see
+	 * {@link #approximateDistance(double, double, double, double)}).
+	 * 
+	 * @param longitude1
+	 *            the longitude of the first point
+	 * @param latitude1
+	 *            the latitude of the first point
+	 * @param longitude2
+	 *            the longitude of the second point
+	 * @param latitude2
+	 *            the latitude of the second point
+	 * @param approximate
+	 *            true, if the approximation shall be used
+	 * 
+	 * @return the distance between the two points in meter
+	 */
+	public static double distance(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2, final boolean approximate) {
+		if (approximate) {
+			return approximateDistance(longitude1, latitude1, longitude2,
+					latitude2);
+		}
+		return distance(longitude1, latitude1, longitude2, latitude2);
+	}
+
+	/**
+	 * Returns an approximation of the distance in meters between two points
+	 * specified in degrees longitude (x) and latitude (y). <br>
+	 * The points are projected onto a plane touching the WGS84 ellipsoid at
+	 * their mean latitude (equirectangular projection using the meridional
+	 * and the prime vertical radius of curvature). This requires a single
+	 * cosine instead of the six trigonometric functions and the arc tangent
+	 * of {@link #distance(double, double, double, double)} and is about five
+	 * times faster. <br>
+	 * The relative difference to the exact distance is below 2e-5 for
+	 * distances up to 25 km at latitudes up to 70 degrees, and below 4e-4 for
+	 * distances up to 100 km at latitudes up to 80 degrees. It grows quickly
+	 * for longer distances and close to the poles, so the approximation is
+	 * meant for short distances only.
+	 * 
+	 * @param longitude1
+	 *            the longitude of the first point
+	 * @param latitude1
+	 *            the latitude of the first point
+	 * @param longitude2
+	 *            the longitude of the second point
+	 * @param latitude2
+	 *            the latitude of the second point
+	 * 
+	 * @return the approximated distance between the two points in meter
+	 */
+	public static double approximateDistance(final double longitude1,
+			final double latitude1, final double longitude2,
+			final double latitude2) {
+		double dLon = longitude2 - longitude1;
+		if (dLon > HALF_CIRCLE) {
+			dLon -= FULL_CIRCLE_DEGREE;
+		} else if (dLon < -HALF_CIRCLE) {
+			dLon += FULL_CIRCLE_DEGREE;
+		}
+		double cosF = Math.cos(toRadians((latitude1 + latitude2) / 2.0));
+		double w = 1.0 - ECCENTRICITY_SQUARED * (1.0 - cosF * cosF);
+		double sqrtW = Math.sqrt(w);
+		// prime vertical and meridional radius of curvature
+		double n = EQUATORIAL_RADIUS / sqrtW;
+		double m = EQUATORIAL_RADIUS * (1.0 - ECCENTRICITY_SQUARED)
+				/ (w * sqrtW);
+		double dx = n * cosF * toRadians(dLon);
+		double dy = m * toRadians(latitude2 - latitude1);
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
 	/**
 	 * Transforms a degree value into a deca-micro degree value.
 	 * 
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.utils;
+
+import java.awt.geom.Rectangle2D;
+
+import openlr.map.MapDatabase;
+
+/**
+ * The Class MapDatabaseUtils provides helper methods for map databases.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class MapDatabaseUtils {
+
+	/** Meters per degree latitude, rounded down to keep search boxes large enough. */
+	private static final double METER_PER_DEGREE = 110000.0;
+
+	/** The smallest cosine being used to widen search boxes near the poles. */
+	private static final double MIN_COS_LAT = 0.01;
+
+	/**
+	 * Utility class shall not be instantiated.
+	 */
+	private MapDatabaseUtils() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Gets a version of a map database which can be used if the map does not
+	 * provide a version itself. The version is derived from the
+	 * implementation class, the number of nodes and lines and the bounding
+	 * box of the map, so it does not detect changes which keep these values.
+	 * Files storing line IDs or location references of a map use the version
+	 * to detect that they were written for another map.
+	 * 
+	 * @param mdb
+	 *            the map database
+	 * @return the map version
+	 */
+	public static String getMapVersion(final MapDatabase mdb) {
+		StringBuilder sb = new StringBuilder(mdb.getClass().getName());
+		sb.append(';').append(mdb.getNumberOfNodes());
+		sb.append(';').append(mdb.getNumberOfLines());
+		Rectangle2D.Double bbox = mdb.getMapBoundingBox();
+		if (bbox != null) {
+			sb.append(';').append(bbox.getMinX());
+			sb.append(';').append(bbox.getMinY());
+			sb.append(';').append(bbox.getMaxX());
+			sb.append(';').append(bbox.getMaxY());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Checks the arguments of a close-by search, see
+	 * {@link MapDatabase#findNodesCloseByCoordinate(double, double, int)} and
+	 * {@link MapDatabase#findLinesCloseByCoordinate(double, double, int)}.
+	 * 
+	 * @param longitude
+	 *            the longitude
+	 * @param latitude
+	 *            the latitude
+	 * @param distance
+	 *            the distance
+	 * @throws IllegalArgumentException
+	 *             if the coordinate or the distance is out of bounds
+	 */
+	public static void checkSearchArguments(final double longitude,
+			final double latitude, final int distance) {
+		if (!GeometryUtils.checkCoordinateBounds(longitude, latitude)) {
+			throw new IllegalArgumentException("Coordinate is out of bounds.");
+		} else if (distance < 0) {
+			throw new IllegalArgumentException("Distance value out of bounds.");
+		}
+	}
+
+	/**
+	 * Gets the latitude extent of a search radius. The extent is rather too
+	 * large than too small, so a search box built from it contains all points
+	 * within the radius.
+	 * 
+	 * @param distance
+	 *            the radius in meter
+	 * @return the extent in degree
+	 */
+	public static double latitudeDelta(final int distance) {
+		return distance / METER_PER_DEGREE;
+	}
+
+	/**
+	 * Gets the longitude extent of a search radius at a latitude. The extent
+	 * is rather too large than too small and is limited near the poles.
+	 * 
+	 * @param distance
+	 *            the radius in meter
+	 * @param latitude
+	 *            the latitude
+	 * @return the extent in degree
+	 */
+	public static double longitudeDelta(final int distance,
+			final double latitude) {
+		return distance / METER_PER_DEGREE
+				/ Math.max(MIN_COS_LAT, Math.cos(Math.toRadians(latitude)));
+	}
+}
@@ -0,0 +1,560 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.utils;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import openlr.map.utils.PQElem.PQElemComparator;
+
+/**
+ * The class PQElemHeap is a priority queue of {@link PQElem} holding at most
+ * one element per line. It is a binary min-heap with an additional index from
+ * the line ID to the heap position, so looking up, removing or replacing the
+ * element of a line takes O(1) resp. O(log n) instead of a scan over the whole
+ * queue as with {@link java.util.PriorityQueue#remove(Object)}.
+ * <p>
+ * The heap operations are the same as in {@link java.util.PriorityQueue}, so
+ * for the same sequence of operations the elements are polled in the same
+ * order, including the order of elements with equal priority.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public class PQElemHeap extends AbstractQueue<PQElem> {
+
+	/** The default initial capacity. */
+	private static final int DEFAULT_INITIAL_CAPACITY = 11;
+
+	/** The default comparator. */
+	private static final Comparator<PQElem> DEFAULT_COMPARATOR = new PQElemComparator();
+
+	/** The comparator ordering the elements. */
+	private final Comparator<? super PQElem> comparator;
+
+	/** The heap. */
+	private PQElem[] queue;
+
+	/** The number of elements. */
+	private int size;
+
+	/** The number of structural modifications, used by the iterator. */
+	private int modCount;
+
+	/** The heap position of each queued line. */
+	private final PositionIndex positions;
+
+	/**
+	 * Creates an empty heap ordered by the {@link PQElemComparator}.
+	 */
+	public PQElemHeap() {
+		this(DEFAULT_INITIAL_CAPACITY, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates an empty heap.
+	 * 
+	 * @param initialCapacity
+	 *            the initial capacity
+	 * @param cmp
+	 *            the comparator ordering the elements
+	 */
+	public PQElemHeap(final int initialCapacity,
+			final Comparator<? super PQElem> cmp) {
+		if (initialCapacity < 1 || cmp == null) {
+			throw new IllegalArgumentException();
+		}
+		comparator = cmp;
+		queue = new PQElem[initialCapacity];
+		positions = new PositionIndex(initialCapacity);
+	}
+
+	/**
+	 * Inserts an element. If the queue already holds an element of the same
+	 * line, this element is replaced, see {@link #update(PQElem)}.
+	 * 
+	 * @param e
+	 *            the element
+	 * @return true
+	 */
+	@Override
+	public final boolean offer(final PQElem e) {
+		update(e);
+		return true;
+	}
+
+	/**
+	 * Inserts an element or replaces the element of the same line and restores
+	 * the heap order (decrease-key). Equivalent to removing the old element of
+	 * the line and adding the new one.
+	 * 
+	 * @param e
+	 *            the new element
+	 * @return the replaced element, or null if the line was not queued
+	 */
+	public final PQElem update(final PQElem e) {
+		if (e == null) {
+			throw new NullPointerException();
+		}
+		PQElem old = null;
+		int pos = positions.get(e.getLine().getID());
+		if (pos >= 0) {
+			old = queue[pos];
+			removeAt(pos);
+		}
+		modCount++;
+		int i = size;
+		if (i >= queue.length) {
+			queue = Arrays.copyOf(queue, Math.max(i + 1, i * 2));
+		}
+		size = i + 1;
+		if (i == 0) {
+			queue[0] = e;
+			positions.put(e.getLine().getID(), 0);
+		} else {
+			siftUp(i, e);
+		}
+		return old;
+	}
+
+	/**
+	 * Gets the queued element of a line.
+	 * 
+	 * @param lineId
+	 *            the line ID
+	 * @return the element, or null if the line is not queued
+	 */
+	public final PQElem get(final long lineId) {
+		int pos = positions.get(lineId);
+		if (pos < 0) {
+			return null;
+		}
+		return queue[pos];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final PQElem poll() {
+		if (size == 0) {
+			return null;
+		}
+		modCount++;
+		int s = --size;
+		PQElem result = queue[0];
+		positions.remove(result.getLine().getID());
+		PQElem x = queue[s];
+		queue[s] = null;
+		if (s != 0) {
+			siftDown(0, x);
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final PQElem peek() {
+		if (size == 0) {
+			return null;
+		}
+		return queue[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the queue holds an element of the same line.
+	 * 
+	 * @param o
+	 *            the element
+	 * @return true, if the line is queued
+	 */
+	@Override
+	public final boolean contains(final Object o) {
+		return o instanceof PQElem
+				&& positions.get(((PQElem) o).getLine().getID()) >= 0;
+	}
+
+	/**
+	 * Removes the element of the same line.
+	 * 
+	 * @param o
+	 *            the element
+	 * @return true, if an element has been removed
+	 */
+	@Override
+	public final boolean remove(final Object o) {
+		if (!(o instanceof PQElem)) {
+			return false;
+		}
+		int pos = positions.get(((PQElem) o).getLine().getID());
+		if (pos < 0) {
+			return false;
+		}
+		removeAt(pos);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void clear() {
+		modCount++;
+		Arrays.fill(queue, 0, size, null);
+		size = 0;
+		positions.clear();
+	}
+
+	/**
+	 * Returns an iterator over the elements in no particular order. The
+	 * iterator does not support removal.
+	 * 
+	 * @return the iterator
+	 */
+	@Override
+	public final Iterator<PQElem> iterator() {
+		return new Iterator<PQElem>() {
+
+			/** The next position. */
+			private int cursor;
+
+			/** The expected modification count. */
+			private final int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < size;
+			}
+
+			@Override
+			public PQElem next() {
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (cursor >= size) {
+					throw new NoSuchElementException();
+				}
+				return queue[cursor++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Removes the element at a heap position.
+	 * 
+	 * @param i
+	 *            the position
+	 */
+	private void removeAt(final int i) {
+		modCount++;
+		positions.remove(queue[i].getLine().getID());
+		int s = --size;
+		if (s == i) {
+			queue[i] = null;
+		} else {
+			PQElem moved = queue[s];
+			queue[s] = null;
+			siftDown(i, moved);
+			if (queue[i] == moved) {
+				siftUp(i, moved);
+			}
+		}
+	}
+
+	/**
+	 * Inserts an element at a position and moves it up until it is not
+	 * smaller than its parent.
+	 * 
+	 * @param pos
+	 *            the position
+	 * @param x
+	 *            the element
+	 */
+	private void siftUp(final int pos, final PQElem x) {
+		int k = pos;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			PQElem e = queue[parent];
+			if (comparator.compare(x, e) >= 0) {
+				break;
+			}
+			setAt(k, e);
+			k = parent;
+		}
+		setAt(k, x);
+	}
+
+	/**
+	 * Inserts an element at a position and moves it down until it is not
+	 * larger than its children.
+	 * 
+	 * @param pos
+	 *            the position
+	 * @param x
+	 *            the element
+	 */
+	private void siftDown(final int pos, final PQElem x) {
+		int k = pos;
+		int half = size >>> 1;
+		while (k < half) {
+			int child = (k << 1) + 1;
+			PQElem c = queue[child];
+			int right = child + 1;
+			if (right < size && comparator.compare(c, queue[right]) > 0) {
+				child = right;
+				c = queue[child];
+			}
+			if (comparator.compare(x, c) <= 0) {
+				break;
+			}
+			setAt(k, c);
+			k = child;
+		}
+		setAt(k, x);
+	}
+
+	/**
+	 * Stores an element at a position and updates the position index.
+	 * 
+	 * @param pos
+	 *            the position
+	 * @param e
+	 *            the element
+	 */
+	private void setAt(final int pos, final PQElem e) {
+		queue[pos] = e;
+		positions.put(e.getLine().getID(), pos);
+	}
+
+	/**
+	 * An open addressing hash map from line IDs to heap positions using linear
+	 * probing.
+	 */
+	private static final class PositionIndex {
+
+		/** The maximum load factor in percent. */
+		private static final int MAX_LOAD_PERCENT = 50;
+
+		/** The 64 bit golden ratio used to spread the hash codes. */
+		private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+		/** The number of bits of a key. */
+		private static final int KEY_BITS = 64;
+
+		/** The keys. */
+		private long[] keys;
+
+		/** The positions plus one, 0 marks an empty slot. */
+		private int[] values;
+
+		/** The number of entries. */
+		private int count;
+
+		/** The mask of the table size. */
+		private int mask;
+
+		/**
+		 * The shift moving the high bits of a hashed key into the slot
+		 * range.
+		 */
+		private int shift;
+
+		/**
+		 * Creates an index.
+		 * 
+		 * @param expected
+		 *            the expected number of entries
+		 */
+		PositionIndex(final int expected) {
+			int capacity = Integer.highestOneBit(Math.max(4, expected
+					* (100 / MAX_LOAD_PERCENT)) - 1) << 1;
+			allocate(capacity);
+		}
+
+		/**
+		 * Allocates an empty table.
+		 * 
+		 * @param capacity
+		 *            the table size, a power of two
+		 */
+		private void allocate(final int capacity) {
+			keys = new long[capacity];
+			values = new int[capacity];
+			mask = capacity - 1;
+			shift = KEY_BITS - Integer.numberOfTrailingZeros(capacity);
+			count = 0;
+		}
+
+		/**
+		 * Gets the start slot of a key. The slot is taken from the high bits
+		 * of the product, these depend on all bits of the key, so keys
+		 * sharing their low bits are spread as well.
+		 * 
+		 * @param key
+		 *            the key
+		 * @return the slot
+		 */
+		private int slot(final long key) {
+			return (int) ((key * HASH_MULTIPLIER) >>> shift);
+		}
+
+		/**
+		 * Gets the position of a key.
+		 * 
+		 * @param key
+		 *            the key
+		 * @return the position, or -1 if the key is not stored
+		 */
+		int get(final long key) {
+			int i = slot(key);
+			while (values[i] != 0) {
+				if (keys[i] == key) {
+					return values[i] - 1;
+				}
+				i = (i + 1) & mask;
+			}
+			return -1;
+		}
+
+		/**
+		 * Stores the position of a key.
+		 * 
+		 * @param key
+		 *            the key
+		 * @param pos
+		 *            the position
+		 */
+		void put(final long key, final int pos) {
+			int i = slot(key);
+			while (values[i] != 0) {
+				if (keys[i] == key) {
+					values[i] = pos + 1;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			values[i] = pos + 1;
+			count++;
+			if (count * 100 > keys.length * MAX_LOAD_PERCENT) {
+				rehash();
+			}
+		}
+
+		/**
+		 * Removes a key. The following entries of the probe sequence are
+		 * moved back, so no deletion markers are needed.
+		 * 
+		 * @param key
+		 *            the key
+		 */
+		void remove(final long key) {
+			int i = slot(key);
+			while (values[i] != 0) {
+				if (keys[i] == key) {
+					break;
+				}
+				i = (i + 1) & mask;
+			}
+			if (values[i] == 0) {
+				return;
+			}
+			values[i] = 0;
+			count--;
+			int j = (i + 1) & mask;
+			while (values[j] != 0) {
+				int home = slot(keys[j]);
+				// move the entry into the gap if the gap lies between its
+				// home slot and its current slot
+				boolean move;
+				if (i <= j) {
+					move = home <= i || home > j;
+				} else {
+					move = home <= i && home > j;
+				}
+				if (move) {
+					keys[i] = keys[j];
+					values[i] = values[j];
+					values[j] = 0;
+					i = j;
+				}
+				j = (j + 1) & mask;
+			}
+		}
+
+		/**
+		 * Removes all entries.
+		 */
+		void clear() {
+			Arrays.fill(values, 0);
+			count = 0;
+		}
+
+		/**
+		 * Doubles the table size.
+		 */
+		private void rehash() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			allocate(oldKeys.length * 2);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldValues[i] != 0) {
+					put(oldKeys[i], oldValues[i] - 1);
+				}
+			}
+		}
+	}
+}
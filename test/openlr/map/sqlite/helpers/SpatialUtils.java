@@ -30,7 +30,6 @@
  */
 package openlr.map.sqlite.helpers;
 
-import static openlr.map.sqlite.impl.Configuration.CACHE_INITIAL_SIZE;
 import static openlr.map.sqlite.impl.Configuration.CACHE_LOAD_FACTOR;
 import static openlr.map.sqlite.impl.Configuration.CACHE_MAX_SIZE;
 
@@ -87,13 +86,27 @@ public final class SpatialUtils {
 	 * @return a {@link java.util.LinkedHashMap} based LRU cache.
 	 */
 	public static <E> Map<Long, E> createLRUCache() {
+		return createLRUCache(CACHE_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a simple thread safe LRU cache holding at most the given number
+	 * of entries.
+	 * 
+	 * @param <E>
+	 *            the data type of the cached features.
+	 * @param maxSize
+	 *            the maximum number of cached features
+	 * @return a {@link java.util.LinkedHashMap} based LRU cache.
+	 */
+	public static <E> Map<Long, E> createLRUCache(final int maxSize) {
 		return Collections.synchronizedMap(new LinkedHashMap<Long, E>(
-				CACHE_INITIAL_SIZE, CACHE_LOAD_FACTOR, true) {
+				(int) (maxSize * CACHE_LOAD_FACTOR), CACHE_LOAD_FACTOR, true) {
 			private static final long serialVersionUID = 1L;
 
 			@Override
             protected boolean removeEldestEntry(final Map.Entry<Long, E> eldest) {
-				return size() > CACHE_MAX_SIZE;
+				return size() > maxSize;
 			}
 		});
 	}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.sqlite.impl;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed size pool of read-only {@link DBConnection}s to the same SQLite
+ * database. Each connection holds its own set of prepared statements, so a
+ * connection must only be used by one thread at a time. Threads acquire a
+ * connection for the duration of a single map query and release it
+ * afterwards. If all connections are in use the calling thread blocks until
+ * one becomes available.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+final class DBConnectionPool {
+
+	/** The idle connections. */
+	private final BlockingQueue<DBConnection> idle;
+
+	/** The number of connections in this pool. */
+	private final int size;
+
+	/**
+	 * Opens a pool of connections to the given database.
+	 *
+	 * @param db the db
+	 * @param poolSize the number of connections, must be positive
+	 * @throws ClassNotFoundException the class not found exception
+	 * @throws SQLException the sQL exception
+	 */
+	DBConnectionPool(final String db, final int poolSize)
+			throws ClassNotFoundException, SQLException {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException(
+					"Connection pool size must be positive.");
+		}
+		size = poolSize;
+		idle = new ArrayBlockingQueue<DBConnection>(poolSize);
+		for (int i = 0; i < poolSize; i++) {
+			idle.add(new DBConnection(db));
+		}
+	}
+
+	/**
+	 * Takes a connection from the pool, waits if none is available. The
+	 * connection must be given back with {@link #release(DBConnection)}.
+	 *
+	 * @return the connection
+	 */
+	DBConnection acquire() {
+		try {
+			return idle.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while waiting for a database connection.", e);
+		}
+	}
+
+	/**
+	 * Gives a connection back to the pool.
+	 *
+	 * @param conn the connection
+	 */
+	void release(final DBConnection conn) {
+		idle.offer(conn);
+	}
+
+	/**
+	 * Gets the number of connections in this pool.
+	 *
+	 * @return the pool size
+	 */
+	int getSize() {
+		return size;
+	}
+}
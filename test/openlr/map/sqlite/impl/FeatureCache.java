@@ -0,0 +1,118 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.map.sqlite.impl;
+
+import static openlr.map.sqlite.impl.Configuration.CACHE_MAX_SIZE;
+
+import java.util.Map;
+
+import openlr.map.sqlite.helpers.SpatialUtils;
+
+/**
+ * A thread safe LRU cache of map features keyed by their ID. The cache is
+ * split into independently locked segments so that concurrent map queries
+ * do not serialize on a single lock. The total capacity is
+ * {@link Configuration#CACHE_MAX_SIZE} regardless of the number of segments.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @param <E>
+ *            the data type of the cached features
+ * 
+ * @author TomTom International B.V.
+ */
+final class FeatureCache<E> {
+
+	/** The cache segments. */
+	private final Map<Long, E>[] segments;
+
+	/**
+	 * Creates a cache with the given number of segments.
+	 *
+	 * @param nrSegments the number of segments, must be positive
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	FeatureCache(final int nrSegments) {
+		segments = new Map[nrSegments];
+		int segmentSize = (CACHE_MAX_SIZE + nrSegments - 1) / nrSegments;
+		for (int i = 0; i < nrSegments; i++) {
+			segments[i] = SpatialUtils.createLRUCache(segmentSize);
+		}
+	}
+
+	/**
+	 * Gets the segment responsible for the given ID.
+	 *
+	 * @param id the id
+	 * @return the segment
+	 */
+	private Map<Long, E> segmentFor(final long id) {
+		int h = (int) (id ^ (id >>> 32));
+		h ^= (h >>> 16);
+		return segments[(h & Integer.MAX_VALUE) % segments.length];
+	}
+
+	/**
+	 * Gets a cached feature.
+	 *
+	 * @param id the id
+	 * @return the feature or null if not cached
+	 */
+	E get(final long id) {
+		return segmentFor(id).get(id);
+	}
+
+	/**
+	 * Stores a feature in the cache.
+	 *
+	 * @param id the id
+	 * @param feature the feature
+	 */
+	void put(final long id, final E feature) {
+		segmentFor(id).put(id, feature);
+	}
+
+	/**
+	 * Gets the number of cached features.
+	 *
+	 * @return the size
+	 */
+	int size() {
+		int size = 0;
+		for (Map<Long, E> segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+}
@@ -71,6 +71,11 @@ import org.apache.log4j.PropertyConfigurator;
 /**
  * Thread safe implementation of the OpenLR {@link openlr.map.MapDatabase}
  * interface for use with a TomTom digital map in SQLite format.
+ * <p>
+ * Queries are executed on a pool of read-only database connections, each
+ * with its own prepared statements. With a pool size of one, concurrent
+ * queries are serialized; a larger pool lets several threads (e.g. a
+ * parallel decoder) query the same map instance at the same time.
  * 
  * <p>
  * OpenLR is a trade mark of TomTom International B.V.
@@ -109,14 +114,14 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	}
 
 	/**
-	 * Map containing cached instances of class {@link openlr.map.Line}.
+	 * Cache containing instances of class {@link openlr.map.Line}.
 	 */
-	private final Map<Long, Line> cachedLines = SpatialUtils.createLRUCache();
+	private final FeatureCache<Line> cachedLines;
 
 	/**
-	 * Map containing cached instances of class {@link openlr.map.Node}.
+	 * Cache containing instances of class {@link openlr.map.Node}.
 	 */
-	private final Map<Long, Node> cachedNodes = SpatialUtils.createLRUCache();
+	private final FeatureCache<Node> cachedNodes;
 
 	/**
 	 * Number of cache hits.
@@ -132,10 +137,10 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 * The name of this instance. This field should be populated on first access
 	 * to the getter method.
 	 */
-	private String name;
+	private volatile String name;
 
-	/** The connection. */
-	private final DBConnection connection;
+	/** The pool of database connections. */
+	private final DBConnectionPool connections;
 
 	/**
 	 * Creates an instance of this {@link openlr.map.MapDatabase} implementation
@@ -145,6 +150,20 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 *            a SQLite database which holds the network.
 	 */
 	public MapDatabaseImpl(final String db) {
+		this(db, 1);
+	}
+
+	/**
+	 * Creates an instance of this {@link openlr.map.MapDatabase} implementation
+	 * which uses the given SQLite database and opens the given number of
+	 * database connections for concurrent queries.
+	 * 
+	 * @param db
+	 *            a SQLite database which holds the network.
+	 * @param poolSize
+	 *            the number of database connections, must be positive
+	 */
+	public MapDatabaseImpl(final String db, final int poolSize) {
 		/* Validate arguments. */
 		if (db == null) {
 			throw new IllegalArgumentException("Database file not specified.");
@@ -158,9 +177,9 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			throw new IllegalArgumentException("Database file is a directory.");
 		}
 
-		/* Open database connection. */
+		/* Open database connections. */
 		try {
-			connection = new DBConnection(db);
+			connections = new DBConnectionPool(db, poolSize);
 		} catch (ClassNotFoundException e) {
 			throw new IllegalStateException("Unable to load database driver.",
 					e);
@@ -168,6 +187,8 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			throw new IllegalStateException(
 					"Unable to open database connection.", e);
 		}
+		cachedLines = new FeatureCache<Line>(poolSize);
+		cachedNodes = new FeatureCache<Node>(poolSize);
 	}
 
 	/**
@@ -218,6 +239,32 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 */
 	public MapDatabaseImpl(final InputStream databaseStream,
 			final File tempDataTarget) throws IOException, SQLException {
+		this(databaseStream, tempDataTarget, 1);
+	}
+
+	/**
+	 * Creates a new instance of map database from the given input stream and
+	 * opens the given number of database connections for concurrent queries.
+	 * See {@link #MapDatabaseImpl(InputStream, File)} for the handling of the
+	 * stream and the temporary file.
+	 * 
+	 * @param databaseStream
+	 *            The input stream providing the map database content, must not
+	 *            be <code>null</code>
+	 * @param tempDataTarget
+	 *            A file object defining the path to a file system location the
+	 *            application is allowed to write to
+	 * @param poolSize
+	 *            the number of database connections, must be positive
+	 * @throws IOException
+	 *             If an error occurs when reading the stream or writing
+	 *             internal content to the specified temporary target file
+	 * @throws SQLException
+	 *             If opening the database connection fails
+	 */
+	public MapDatabaseImpl(final InputStream databaseStream,
+			final File tempDataTarget, final int poolSize) throws IOException,
+			SQLException {
 		if (databaseStream == null) {
 			throw new IllegalArgumentException(
 					"Database stream must not be null.");
@@ -250,11 +297,14 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 		}
 
 		try {
-			connection = new DBConnection(dbTempFile.getAbsolutePath());
+			connections = new DBConnectionPool(dbTempFile.getAbsolutePath(),
+					poolSize);
 		} catch (ClassNotFoundException e) {
 			throw new IllegalStateException("Unable to load database driver.",
 					e);
 		}
+		cachedLines = new FeatureCache<Line>(poolSize);
+		cachedNodes = new FeatureCache<Node>(poolSize);
 	}
 
 	/**
@@ -315,6 +365,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 		}
 		final Set<Line> linesCloseBy = new HashSet<Line>();
 		ResultSet rs = null;
+		final DBConnection connection = connections.acquire();
 		try {
 			final RectangleCorners bbox = SpatialUtils.calcBoundingBox(
 					longitude, latitude, 2 * distance);
@@ -329,7 +380,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			rs = connection.getPsLinesCloseBy().executeQuery();
 			while (rs.next()) {
 				final long id = rs.getLong("Id");
-				final Line line = getLine(id);
+				final Line line = getLine(connection, id);
 				if (line.distanceToPoint(longitude, latitude) <= distance) {
 					linesCloseBy.add(line);
 				}
@@ -338,6 +389,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e.getMessage());
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return linesCloseBy.iterator();
 	}
@@ -356,7 +408,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 
 		final Set<Node> nodesCloseBy = new HashSet<Node>();
 		ResultSet rs = null;
-
+		final DBConnection connection = connections.acquire();
 		try {
 			final RectangleCorners bbox = SpatialUtils.calcBoundingBox(
 					longitude, latitude, distance);
@@ -371,7 +423,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			rs = connection.getPsNodesCloseBy().executeQuery();
 			while (rs.next()) {
 				final long id = rs.getLong("Id");
-				Node node = getNode(id);
+				Node node = getNode(connection, id);
 				if (GeometryUtils.distance(longitude, latitude,
 						node.getLongitudeDeg(), node.getLatitudeDeg()) <= distance) {
 					nodesCloseBy.add(node);
@@ -381,6 +433,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e.getMessage());
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return nodesCloseBy.iterator();
 	}
@@ -390,33 +443,39 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 */
 	@Override
 	public Line getLine(final long id) {
-		return getLine(id, true);
+		Line line = cachedLines.get(id);
+		if (line == null) {
+			final DBConnection connection = connections.acquire();
+			try {
+				line = getLine(connection, id);
+			} finally {
+				connections.release(connection);
+			}
+		} else {
+			cacheHits.incrementAndGet();
+		}
+		return line;
 	}
 
 	/**
-	 * Gets the line.
+	 * Gets the line using an already acquired connection.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param id
 	 *            the id
-	 * @param useCache
-	 *            the use cache
 	 * @return the line
 	 */
-	private Line getLine(final long id, final boolean useCache) {
-		Line line = null;
-		if (useCache) {
-			line = cachedLines.get(id);
-			if (line == null) {
-				cacheMisses.incrementAndGet();
-				line = readLine(id);
-				if (line != null) {
-					cacheLine(line);
-				}
-			} else {
-				cacheHits.incrementAndGet();
+	private Line getLine(final DBConnection connection, final long id) {
+		Line line = cachedLines.get(id);
+		if (line == null) {
+			cacheMisses.incrementAndGet();
+			line = readLine(connection, id);
+			if (line != null) {
+				cacheLine(line);
 			}
 		} else {
-			line = readLine(id);
+			cacheHits.incrementAndGet();
 		}
 		return line;
 	}
@@ -424,11 +483,13 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	/**
 	 * Read line.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param id
 	 *            the id
 	 * @return the line
 	 */
-	private Line readLine(final long id) {
+	private Line readLine(final DBConnection connection, final long id) {
 		Line line = null;
 		ResultSet rs = null;
 		try {
@@ -502,34 +563,39 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 */
 	@Override
 	public Node getNode(final long id) {
-		return getNode(id, true);
-
+		Node node = cachedNodes.get(id);
+		if (node == null) {
+			final DBConnection connection = connections.acquire();
+			try {
+				node = getNode(connection, id);
+			} finally {
+				connections.release(connection);
+			}
+		} else {
+			cacheHits.incrementAndGet();
+		}
+		return node;
 	}
 
 	/**
-	 * Gets the node.
+	 * Gets the node using an already acquired connection.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param id
 	 *            the id
-	 * @param useCache
-	 *            the use cache
 	 * @return the node
 	 */
-	private Node getNode(final long id, final boolean useCache) {
-		Node node = null;
-		if (useCache) {
-			node = cachedNodes.get(id);
-			if (node == null) {
-				cacheMisses.incrementAndGet();
-				node = createNode(id);
-				if (node != null) {
-					cacheNode(node);
-				}
-			} else {
-				cacheHits.incrementAndGet();
+	private Node getNode(final DBConnection connection, final long id) {
+		Node node = cachedNodes.get(id);
+		if (node == null) {
+			cacheMisses.incrementAndGet();
+			node = createNode(connection, id);
+			if (node != null) {
+				cacheNode(node);
 			}
 		} else {
-			node = createNode(id);
+			cacheHits.incrementAndGet();
 		}
 		return node;
 	}
@@ -537,17 +603,19 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	/**
 	 * Creates the node.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param id
 	 *            the id
 	 * @return the node
 	 */
-	private Node createNode(final long id) {
+	private Node createNode(final DBConnection connection, final long id) {
 		Node node = null;
 		ResultSet rs = null;
 		try {
 			connection.getPsGetNode().setLong(1, id);
 			rs = connection.getPsGetNode().executeQuery();
-			node = createNode(rs, id);
+			node = createNode(connection, rs, id);
 		} catch (SQLException e) {
 			LOG.error(e);
 			node = null;
@@ -560,20 +628,25 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	/**
 	 * Creates the node.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param rsNode
 	 *            the rs node
 	 * @return the node
 	 * @throws SQLException
 	 *             the sQL exception
 	 */
-	private Node createNode(final ResultSet rsNode) throws SQLException {
+	private Node createNode(final DBConnection connection,
+			final ResultSet rsNode) throws SQLException {
 		long id = rsNode.getLong(1);
-		return createNode(rsNode, id);
+		return createNode(connection, rsNode, id);
 	}
 
 	/**
 	 * Creates the node.
 	 * 
+	 * @param connection
+	 *            the connection
 	 * @param rsNode
 	 *            the rs node
 	 * @param id
@@ -582,8 +655,8 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	 * @throws SQLException
 	 *             the sQL exception
 	 */
-	private Node createNode(final ResultSet rsNode, final long id)
-			throws SQLException {
+	private Node createNode(final DBConnection connection,
+			final ResultSet rsNode, final long id) throws SQLException {
 		double longitude = rsNode.getDouble("Longitude");
 		double latitude = rsNode.getDouble("Latitude");
 		connection.getPsIncoming().setLong(1, id);
@@ -631,6 +704,8 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 						/ KILO_BYTE));
 		LOG.info(String.format("Cache entries: %d", cachedLines.size()
 				+ cachedNodes.size()));
+		LOG.info(String.format("Database connections: %d",
+				connections.getSize()));
 		LOG.info(String.format("Cache hits: %d", cacheHits.get()));
 		LOG.info(String.format("Cache misses: %d", cacheMisses.get()));
 	}
@@ -642,6 +717,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	public String toString() {
 		if (name == null) {
 			ResultSet rs = null;
+			final DBConnection connection = connections.acquire();
 			try {
 				rs = connection.getPsMetaData().executeQuery();
 				if (rs.next()) {
@@ -657,6 +733,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 				name = "(unknown)";
 			} finally {
 				closeQuietly(rs);
+				connections.release(connection);
 			}
 		}
 		return name;
@@ -670,6 +747,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 		final Set<Line> lines = new HashSet<Line>();
 		ResultSet rs = null;
 		Statement ps = null;
+		final DBConnection connection = connections.acquire();
 		try {
 			ps = connection.createStatement();
 		} catch (SQLException e1) {
@@ -685,6 +763,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e);
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return lines.iterator();
 	}
@@ -697,11 +776,12 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 		final Set<Node> nodes = new HashSet<Node>();
 		ResultSet rs = null;
 		Statement ps = null;
+		final DBConnection connection = connections.acquire();
 		try {
 			ps = connection.createStatement();
 			rs = ps.executeQuery("Select * from Node");
 			while (rs.next()) {
-				nodes.add(createNode(rs));
+				nodes.add(createNode(connection, rs));
 			}
 			rs.close();
 			ps.close();
@@ -709,6 +789,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e);
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return nodes.iterator();
 	}
@@ -720,6 +801,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	public Rectangle2D.Double getMapBoundingBox() {
 		ResultSet rs = null;
 		final Rectangle2D.Double rect = new Rectangle2D.Double();
+		final DBConnection connection = connections.acquire();
 		try {
 			rs = connection.getPsMetaData().executeQuery();
 			while (rs.next()) {
@@ -733,6 +815,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e);
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return rect;
 	}
@@ -744,6 +827,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	public int getNumberOfLines() {
 		int nrLines = 0;
 		ResultSet rs = null;
+		final DBConnection connection = connections.acquire();
 		try {
 			rs = connection.getPsLineCount().executeQuery();
 			if (rs.next()) {
@@ -755,6 +839,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e);
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return nrLines;
 	}
@@ -766,8 +851,8 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 	public int getNumberOfNodes() {
 		int nrNodes = 0;
 		ResultSet rs = null;
+		final DBConnection connection = connections.acquire();
 		try {
-
 			rs = connection.getPsNodeCount().executeQuery();
 			if (rs.next()) {
 				nrNodes = rs.getInt(1);
@@ -778,6 +863,7 @@ public final class MapDatabaseImpl implements openlr.map.MapDatabase {
 			LOG.error(e);
 		} finally {
 			closeQuietly(rs);
+			connections.release(connection);
 		}
 		return nrNodes;
 	}
@@ -75,7 +75,7 @@ public class NodeImpl implements Node {
 	 * connection to this {@link openlr.map.Node}. This set should be populated
 	 * on first access to the getter method.
 	 */
-	private List<Line> incomingLines;
+	private volatile List<Line> incomingLines;
 
 	/**
 	 * Latitude value of the spatial position of this {@link openlr.map.Node}.
@@ -97,7 +97,7 @@ public class NodeImpl implements Node {
 	 * connection to this {@link openlr.map.Node}. This set should be populated
 	 * on first access to the getter method.
 	 */
-	private List<Line> outgoingLines;
+	private volatile List<Line> outgoingLines;
 
 	/**
 	 * Creates an instance of this class representing a {@link openlr.map.Node}
@@ -167,10 +167,8 @@ public class NodeImpl implements Node {
 	 */
 	private List<Line> resolveConnectedLines() {
 		List<Line> connectedLines = new ArrayList<Line>();
-		resolveIncomingLines();
-		connectedLines.addAll(incomingLines);
-		resolveOutgoingLines();
-		connectedLines.addAll(outgoingLines);
+		connectedLines.addAll(resolveIncomingLines());
+		connectedLines.addAll(resolveOutgoingLines());
 		return Collections.unmodifiableList(connectedLines);
 	}
 
@@ -187,22 +185,27 @@ public class NodeImpl implements Node {
 	 */
 	@Override
 	public final Iterator<Line> getIncomingLines() {
-		resolveIncomingLines();
-		return incomingLines.iterator();
+		return resolveIncomingLines().iterator();
 	}
 
 	/**
-	 * Resolve incoming lines.
+	 * Resolve incoming lines. The lines are built in a local list and
+	 * published at once, so concurrent callers never see a partially filled
+	 * list.
+	 *
+	 * @return the incoming lines
 	 */
-	private void resolveIncomingLines() {
-		if (incomingLines == null) {
-			incomingLines = new ArrayList<Line>();
+	private List<Line> resolveIncomingLines() {
+		List<Line> lines = incomingLines;
+		if (lines == null) {
+			lines = new ArrayList<Line>(incoming.size());
 			for (long idValue : incoming) {
-				incomingLines.add(mdb.getLine(idValue));
+				lines.add(mdb.getLine(idValue));
 			}
-			incomingLines = Collections.unmodifiableList(incomingLines);
-			incoming.clear();
+			lines = Collections.unmodifiableList(lines);
+			incomingLines = lines;
 		}
+		return lines;
 	}
 
 	/**
@@ -226,9 +229,7 @@ public class NodeImpl implements Node {
 	 */
 	@Override
 	public final int getNumberConnectedLines() {
-		resolveIncomingLines();
-		resolveOutgoingLines();
-		return incomingLines.size() + outgoingLines.size();
+		return resolveIncomingLines().size() + resolveOutgoingLines().size();
 	}
 
 	/**
@@ -236,22 +237,25 @@ public class NodeImpl implements Node {
 	 */
 	@Override
 	public final Iterator<Line> getOutgoingLines() {
-		resolveOutgoingLines();
-		return outgoingLines.iterator();
+		return resolveOutgoingLines().iterator();
 	}
 
 	/**
-	 * Resolve outgoing lines.
+	 * Resolve outgoing lines. See {@link #resolveIncomingLines()}.
+	 *
+	 * @return the outgoing lines
 	 */
-	private void resolveOutgoingLines() {
-		if (outgoingLines == null) {
-			outgoingLines = new ArrayList<Line>();
+	private List<Line> resolveOutgoingLines() {
+		List<Line> lines = outgoingLines;
+		if (lines == null) {
+			lines = new ArrayList<Line>(outgoing.size());
 			for (long idValue : outgoing) {
-				outgoingLines.add(mdb.getLine(idValue));
+				lines.add(mdb.getLine(idValue));
 			}
-			outgoingLines = Collections.unmodifiableList(outgoingLines);
-			outgoing.clear();
+			lines = Collections.unmodifiableList(lines);
+			outgoingLines = lines;
 		}
+		return lines;
 	}
 
 	/**
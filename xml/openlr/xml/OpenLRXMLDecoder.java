@@ -82,13 +82,29 @@ public class OpenLRXMLDecoder implements PhysicalDecoder {
 					"incorrect data class");
 		}
 		OpenLR xmlData = (OpenLR) data;
-		String id = xmlData.getLocationID();
 		XMLLocationReference xmlLoc = xmlData.getXMLLocationReference();
 		if (xmlLoc == null) {
 			throw new OpenLRXMLException(XMLErrorType.BINARY_DATA_ONLY,
 					"cannot decode binary string using xml package");
 		}
+		return decodeData(xmlData.getLocationID(), xmlLoc);
+	}
 
+	/**
+	 * Decodes a single XML location reference without the enclosing
+	 * {@link OpenLR} element, e.g. one read by the
+	 * {@link OpenLRXmlStreamReader}.
+	 * 
+	 * @param id
+	 *            the id of the location reference
+	 * @param xmlLoc
+	 *            the XML location reference
+	 * @return the raw location reference
+	 * @throws PhysicalFormatException
+	 *             if the location reference is invalid
+	 */
+	public final RawLocationReference decodeData(final String id,
+			final XMLLocationReference xmlLoc) throws PhysicalFormatException {
 		LineLocationReference lineLoc = xmlLoc.getLineLocationReference();
 		PointLocationReference pointLoc = xmlLoc.getPointLocationReference();
 		/** DLR e.V. (LTouk) XML area location reference */
@@ -53,6 +53,10 @@ import org.xml.sax.SAXException;
 
 /**
  * The OpenLRXmlReader reads OpenLR location reference data from XML.
+ * <p>
+ * A reader can be shared between threads. Each thread uses its own cached
+ * unmarshallers, one with and one without schema validation, so documents
+ * are parsed in parallel and no unmarshaller is created per document.
  * 
  * <p>
  * OpenLR is a trade mark of TomTom International B.V.
@@ -72,18 +76,18 @@ public class OpenLRXmlReader {
 	/** The Constant OPENLR_OBJECT_FACTORY. */
 	private static final Class<?> OPENLR_OBJECT_FACTORY = ObjectFactory.class;
 
-	/**
-	 * Used to make sure that only one jaxb operation is active at any certain
-	 * time.
-	 */
-	private static final Object SYNC_OBJECT = new Object();
-
 	/** The JAXB context. */
 	private final JAXBContext jc;
 
 	/** The schema. */
 	private final Schema schema;
 
+	/** The unmarshallers without schema validation of each thread. */
+	private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>();
+
+	/** The unmarshallers with schema validation of each thread. */
+	private final ThreadLocal<Unmarshaller> validatingUnmarshallers = new ThreadLocal<Unmarshaller>();
+
 	/**
 	 * Instantiates a new XML file reader.
 	 * 
@@ -124,14 +128,12 @@ public class OpenLRXmlReader {
 			throws JAXBException, SAXException, IOException {
 		OpenLR result = null;
 		if (file != null) {
-			synchronized (SYNC_OBJECT) {
-				Unmarshaller unmarshaller = jc.createUnmarshaller();
-				if (validate) {
-					unmarshaller.setSchema(schema);
-				}
-				InputStream is = new BufferedInputStream(new FileInputStream(file));
+			Unmarshaller unmarshaller = getUnmarshaller(validate);
+			InputStream is = new BufferedInputStream(new FileInputStream(file));
+			try {
 				result = unmarshaller.unmarshal(new StreamSource(is),
 						OpenLR.class).getValue();
+			} finally {
 				is.close();
 			}
 		}
@@ -154,16 +156,41 @@ public class OpenLRXmlReader {
 			throws JAXBException, SAXException {
 		OpenLR result = null;
 		if (is != null) {
-			synchronized (SYNC_OBJECT) {
-				Unmarshaller unmarshaller = jc.createUnmarshaller();
-				if (validate) {
-					unmarshaller.setSchema(schema);
-				}
-				result = unmarshaller.unmarshal(new StreamSource(new BufferedInputStream(is)),
-						OpenLR.class).getValue();
-			}
+			Unmarshaller unmarshaller = getUnmarshaller(validate);
+			result = unmarshaller.unmarshal(new StreamSource(new BufferedInputStream(is)),
+					OpenLR.class).getValue();
 		}
 		return result;
 	}
 
+	/**
+	 * Gets the unmarshaller of the current thread. The unmarshaller is
+	 * created on first use and reused for all further documents read by this
+	 * thread.
+	 * 
+	 * @param validate
+	 *            whether the unmarshaller validates against the schema
+	 * @return the unmarshaller
+	 * @throws JAXBException
+	 *             if the unmarshaller cannot be created
+	 */
+	private Unmarshaller getUnmarshaller(final boolean validate)
+			throws JAXBException {
+		ThreadLocal<Unmarshaller> cache;
+		if (validate) {
+			cache = validatingUnmarshallers;
+		} else {
+			cache = unmarshallers;
+		}
+		Unmarshaller unmarshaller = cache.get();
+		if (unmarshaller == null) {
+			unmarshaller = jc.createUnmarshaller();
+			if (validate) {
+				unmarshaller.setSchema(schema);
+			}
+			cache.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
 }
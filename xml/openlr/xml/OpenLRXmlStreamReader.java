@@ -0,0 +1,378 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.xml;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import openlr.PhysicalFormatException;
+import openlr.rawLocRef.RawLocationReference;
+import openlr.xml.BinaryLocRefHandler.BinaryLocationReferenceData;
+import openlr.xml.OpenLRXMLException.XMLErrorType;
+import openlr.xml.generated.BinaryLocationReference;
+import openlr.xml.generated.BinaryLocationReferences;
+import openlr.xml.generated.ObjectFactory;
+import openlr.xml.generated.OpenLR;
+import openlr.xml.generated.XMLLocationReference;
+
+import org.xml.sax.SAXException;
+
+/**
+ * The OpenLRXmlStreamReader reads large XML documents holding many location
+ * references, e.g. archives wrapping many <code>OpenLR</code> elements. The
+ * document is scanned with a StAX reader and only one location at a time is
+ * unmarshalled, so the memory needed is bounded by the size of a single
+ * location and not by the size of the document.
+ * <p>
+ * The reader accepts the following elements at any depth of the document:
+ * <ul>
+ * <li><code>OpenLR</code>: the XML location reference is decoded; if the
+ * element holds only binary location references these are passed to the
+ * handler, elements without any location reference are ignored</li>
+ * <li><code>XMLLocationReference</code>: the location reference is decoded,
+ * its id is the id prefix followed by a sequence number</li>
+ * <li><code>BinaryLocationReference</code>: the binary data is passed to the
+ * handler</li>
+ * </ul>
+ * Schema validation applies to <code>OpenLR</code> elements only, the other
+ * elements are not declared globally by the schema and are read without
+ * validation.
+ * <p>
+ * A reader is not thread-safe, each thread shall use its own instance.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OpenLRXmlStreamReader {
+
+	/**
+	 * The Handler receives the location references read from the document.
+	 */
+	public interface Handler {
+
+		/**
+		 * Handles a decoded XML location reference.
+		 * 
+		 * @param rawLocRef
+		 *            the raw location reference
+		 * @return true, if reading shall continue, false to stop
+		 */
+		boolean handle(RawLocationReference rawLocRef);
+
+		/**
+		 * Handles a binary location reference included in the document. The
+		 * binary data is not decoded by the XML package.
+		 * 
+		 * @param binData
+		 *            the binary location reference data
+		 * @return true, if reading shall continue, false to stop
+		 */
+		boolean handleBinary(BinaryLocationReferenceData binData);
+	}
+
+	/** The Constant XML_SCHEMA_OPENLR. */
+	private static final String XML_SCHEMA_OPENLR = "openlr.xsd";
+
+	/** The Constant OPENLR_XSD points to the XML schema. */
+	private static final URL OPENLR_XSD = OpenLRXmlStreamReader.class
+			.getClassLoader().getResource(XML_SCHEMA_OPENLR);
+
+	/** The name of the OpenLR element. */
+	private static final String OPENLR_ELEMENT = "OpenLR";
+
+	/** The name of the XML location reference element. */
+	private static final String XML_LOCATION_ELEMENT = "XMLLocationReference";
+
+	/** The name of the binary location reference element. */
+	private static final String BINARY_LOCATION_ELEMENT = "BinaryLocationReference";
+
+	/** The default prefix of generated IDs. */
+	private static final String DEFAULT_ID_PREFIX = "";
+
+	/** The XML decoder. */
+	private final OpenLRXMLDecoder decoder = new OpenLRXMLDecoder();
+
+	/** The object factory. */
+	private final ObjectFactory objectFactory = new ObjectFactory();
+
+	/** The StAX input factory. */
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+	/** The unmarshaller for OpenLR elements. */
+	private final Unmarshaller openLRUnmarshaller;
+
+	/** The unmarshaller for location reference fragments. */
+	private final Unmarshaller fragmentUnmarshaller;
+
+	/** The ID prefix. */
+	private final String idPrefix;
+
+	/** The number of location references passed to handlers. */
+	private long nrReferences;
+
+	/**
+	 * Instantiates a new XML stream reader which does not validate the
+	 * documents.
+	 * 
+	 * @throws OpenLRXMLException
+	 *             if instantiation failed
+	 */
+	public OpenLRXmlStreamReader() throws OpenLRXMLException {
+		this(false, DEFAULT_ID_PREFIX);
+	}
+
+	/**
+	 * Instantiates a new XML stream reader.
+	 * 
+	 * @param validate
+	 *            whether OpenLR elements are validated against the schema
+	 * @param prefix
+	 *            the prefix of the IDs of XML location references read
+	 *            without an enclosing OpenLR element
+	 * @throws OpenLRXMLException
+	 *             if instantiation failed
+	 */
+	public OpenLRXmlStreamReader(final boolean validate, final String prefix)
+			throws OpenLRXMLException {
+		idPrefix = prefix;
+		try {
+			JAXBContext jc = JAXBContext.newInstance(ObjectFactory.class);
+			openLRUnmarshaller = jc.createUnmarshaller();
+			fragmentUnmarshaller = jc.createUnmarshaller();
+		} catch (JAXBException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		}
+		if (validate) {
+			if (OPENLR_XSD == null) {
+				throw new OpenLRXMLException(XMLErrorType.XSD_ERROR,
+						"schema file not found");
+			}
+			SchemaFactory sf = SchemaFactory
+					.newInstance(javax.xml.XMLConstants.W3C_XML_SCHEMA_NS_URI);
+			try {
+				Schema schema = sf.newSchema(OPENLR_XSD);
+				openLRUnmarshaller.setSchema(schema);
+			} catch (SAXException e) {
+				throw new OpenLRXMLException(XMLErrorType.XSD_ERROR, e);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of location references passed to handlers so far.
+	 * 
+	 * @return the number of location references
+	 */
+	public long getNumberOfReferences() {
+		return nrReferences;
+	}
+
+	/**
+	 * Reads all location references of a XML file.
+	 * 
+	 * @param file
+	 *            the input file to read from
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws IOException
+	 *             if an i/o exception occurs
+	 * @throws PhysicalFormatException
+	 *             if the document or a location reference is invalid
+	 */
+	public int read(final File file, final Handler handler)
+			throws IOException, PhysicalFormatException {
+		InputStream is = new BufferedInputStream(new FileInputStream(file));
+		try {
+			return read(is, handler);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Reads all location references of a XML document from an input stream.
+	 * The stream is not closed.
+	 * 
+	 * @param is
+	 *            the input stream to read from
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws PhysicalFormatException
+	 *             if the document or a location reference is invalid
+	 */
+	public int read(final InputStream is, final Handler handler)
+			throws PhysicalFormatException {
+		XMLStreamReader xsr;
+		try {
+			xsr = inputFactory.createXMLStreamReader(is);
+		} catch (XMLStreamException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		}
+		try {
+			return read(xsr, handler);
+		} catch (XMLStreamException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		} catch (JAXBException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		} finally {
+			try {
+				xsr.close();
+			} catch (XMLStreamException e) {
+				// the underlying stream is left to the caller
+			}
+		}
+	}
+
+	/**
+	 * Scans the document for location references and unmarshals them one at
+	 * a time.
+	 * 
+	 * @param xsr
+	 *            the StAX reader
+	 * @param handler
+	 *            the handler receiving the location references
+	 * @return the number of location references passed to the handler
+	 * @throws XMLStreamException
+	 *             if the document cannot be read
+	 * @throws JAXBException
+	 *             if an element cannot be unmarshalled
+	 * @throws PhysicalFormatException
+	 *             if a location reference is invalid
+	 */
+	private int read(final XMLStreamReader xsr, final Handler handler)
+			throws XMLStreamException, JAXBException, PhysicalFormatException {
+		int count = 0;
+		boolean proceed = true;
+		while (proceed && xsr.hasNext()) {
+			if (xsr.getEventType() != XMLStreamConstants.START_ELEMENT) {
+				xsr.next();
+				continue;
+			}
+			String name = xsr.getLocalName();
+			// unmarshalling moves the reader behind the end of the element
+			if (OPENLR_ELEMENT.equals(name)) {
+				OpenLR openLR = openLRUnmarshaller.unmarshal(xsr, OpenLR.class)
+						.getValue();
+				if (openLR.getXMLLocationReference() != null) {
+					count++;
+					proceed = handleXml(openLR.getLocationID(),
+							openLR.getXMLLocationReference(), handler);
+				} else if (BinaryLocRefHandler
+						.containsBinaryLocationReference(openLR)) {
+					for (BinaryLocationReferenceData binData : BinaryLocRefHandler
+							.resolveBinaryDatafromXML(openLR)) {
+						count++;
+						proceed = handleBinary(binData, handler);
+						if (!proceed) {
+							break;
+						}
+					}
+				}
+			} else if (XML_LOCATION_ELEMENT.equals(name)) {
+				XMLLocationReference xmlLoc = fragmentUnmarshaller.unmarshal(
+						xsr, XMLLocationReference.class).getValue();
+				count++;
+				proceed = handleXml(idPrefix + nrReferences, xmlLoc, handler);
+			} else if (BINARY_LOCATION_ELEMENT.equals(name)) {
+				BinaryLocationReference binRef = fragmentUnmarshaller
+						.unmarshal(xsr, BinaryLocationReference.class)
+						.getValue();
+				OpenLR wrapper = objectFactory.createOpenLR();
+				BinaryLocationReferences bins = objectFactory
+						.createBinaryLocationReferences();
+				bins.getBinaryLocationReference().add(binRef);
+				wrapper.setBinaryLocationReferences(bins);
+				count++;
+				proceed = handleBinary(BinaryLocRefHandler
+						.resolveBinaryDatafromXML(wrapper).get(0), handler);
+			} else {
+				xsr.next();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Decodes a XML location reference and passes it to the handler.
+	 * 
+	 * @param id
+	 *            the id of the location reference
+	 * @param xmlLoc
+	 *            the XML location reference
+	 * @param handler
+	 *            the handler
+	 * @return true, if reading shall continue
+	 * @throws PhysicalFormatException
+	 *             if the location reference is invalid
+	 */
+	private boolean handleXml(final String id,
+			final XMLLocationReference xmlLoc, final Handler handler)
+			throws PhysicalFormatException {
+		RawLocationReference rawLocRef = decoder.decodeData(id, xmlLoc);
+		nrReferences++;
+		return handler.handle(rawLocRef);
+	}
+
+	/**
+	 * Passes binary location reference data to the handler.
+	 * 
+	 * @param binData
+	 *            the binary location reference data
+	 * @param handler
+	 *            the handler
+	 * @return true, if reading shall continue
+	 */
+	private boolean handleBinary(final BinaryLocationReferenceData binData,
+			final Handler handler) {
+		nrReferences++;
+		return handler.handleBinary(binData);
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the TomTom International B.V. under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  TomTom International B.V.
+ * licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+/**
+ *  Copyright (C) 2009-2012 TomTom International B.V.
+ *
+ *   TomTom (Legal Department)
+ *   Email: legal@tomtom.com
+ *
+ *   TomTom (Technical contact)
+ *   Email: openlr@tomtom.com
+ *
+ *   Address: TomTom International B.V., Oosterdoksstraat 114, 1011DK Amsterdam,
+ *   the Netherlands
+ */
+package openlr.xml;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import openlr.xml.OpenLRXMLException.XMLErrorType;
+import openlr.xml.generated.OpenLR;
+
+/**
+ * The OpenLRXmlStreamWriter writes many location references into one XML
+ * document without holding the document in memory. The document is written
+ * with a StAX writer and each location reference is marshalled as an
+ * <code>OpenLR</code> fragment as soon as it is added, so the memory needed
+ * is bounded by the size of a single location. The output can optionally be
+ * gzip-compressed.
+ * <p>
+ * The <code>OpenLR</code> elements are wrapped in an
+ * <code>OpenLRArchive</code> root element. This element is not part of the
+ * OpenLR schema, the documents can be read with the
+ * {@link OpenLRXmlStreamReader}.
+ * <p>
+ * A writer is not thread-safe. It must be closed to complete the document.
+ * 
+ * <p>
+ * OpenLR is a trade mark of TomTom International B.V.
+ * <p>
+ * email: software@openlr.org
+ * 
+ * @author TomTom International B.V.
+ */
+public final class OpenLRXmlStreamWriter implements Closeable {
+
+	/** The namespace of the OpenLR elements. */
+	private static final String OPENLR_NAMESPACE = "http://www.openlr.org/openlr";
+
+	/** The name of the root element. */
+	private static final String ARCHIVE_ELEMENT = "OpenLRArchive";
+
+	/** The encoding of the document. */
+	private static final String ENCODING = "UTF-8";
+
+	/** The XML version of the document. */
+	private static final String XML_VERSION = "1.0";
+
+	/** The line separator between location references. */
+	private static final String LINE_SEPARATOR = "\n";
+
+	/** The size of the output buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The buffered output stream. */
+	private final OutputStream out;
+
+	/** The StAX writer. */
+	private final XMLStreamWriter xsw;
+
+	/** The fragment marshaller. */
+	private final Marshaller marshaller;
+
+	/** The number of written location references. */
+	private long nrReferences;
+
+	/** Whether the writer is closed. */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new XML stream writer and writes the start of the
+	 * document.
+	 * 
+	 * @param os
+	 *            the output stream to write to, it is closed when the writer
+	 *            is closed
+	 * @param compress
+	 *            whether the document is gzip-compressed
+	 * @throws IOException
+	 *             if the compressed stream cannot be created
+	 * @throws OpenLRXMLException
+	 *             if the document cannot be started
+	 */
+	public OpenLRXmlStreamWriter(final OutputStream os, final boolean compress)
+			throws IOException, OpenLRXMLException {
+		OutputStream target = os;
+		if (compress) {
+			target = new GZIPOutputStream(os, BUFFER_SIZE);
+		}
+		out = new BufferedOutputStream(target, BUFFER_SIZE);
+		try {
+			marshaller = JAXBContext.newInstance(OpenLR.class)
+					.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+			xsw = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+					ENCODING);
+			xsw.writeStartDocument(ENCODING, XML_VERSION);
+			xsw.writeCharacters(LINE_SEPARATOR);
+			xsw.writeStartElement("", ARCHIVE_ELEMENT, OPENLR_NAMESPACE);
+			xsw.writeDefaultNamespace(OPENLR_NAMESPACE);
+			xsw.writeCharacters(LINE_SEPARATOR);
+		} catch (JAXBException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		} catch (XMLStreamException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		}
+	}
+
+	/**
+	 * Appends a location reference to the document.
+	 * 
+	 * @param data
+	 *            the location reference data
+	 * @throws OpenLRXMLException
+	 *             if the location reference cannot be written
+	 */
+	public void write(final OpenLR data) throws OpenLRXMLException {
+		if (closed) {
+			throw new OpenLRXMLException(XMLErrorType.IO_ERROR,
+					"writer is closed");
+		}
+		try {
+			marshaller.marshal(data, xsw);
+			xsw.writeCharacters(LINE_SEPARATOR);
+		} catch (JAXBException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		} catch (XMLStreamException e) {
+			throw new OpenLRXMLException(XMLErrorType.XML_ERROR, e);
+		}
+		nrReferences++;
+	}
+
+	/**
+	 * Gets the number of location references written so far.
+	 * 
+	 * @return the number of location references
+	 */
+	public long getNumberOfReferences() {
+		return nrReferences;
+	}
+
+	/**
+	 * Completes the document and closes the output stream.
+	 * 
+	 * @throws IOException
+	 *             if the document cannot be completed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			xsw.writeEndElement();
+			xsw.writeEndDocument();
+			xsw.flush();
+			xsw.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			out.close();
+		}
+	}
+}